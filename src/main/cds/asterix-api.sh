@@ -0,0 +1,33 @@
+#!/bin/sh
+#
+# Starts AsterixAPI with the class data archive of the training run in the build (mvn package -Dcds).
+#
+# The AOT cache (JDK 24+) is preferred over the CDS archive. A JVM other than the one of the build ignores
+# the archive with a warning and starts without it. ASTERIX_ARCHIVE=aot|cds|none overrides the choice,
+# JAVA_OPTS are passed to the JVM and the arguments to the application.
+#
+
+# The archives record the class path relative to the working directory of the training run
+cd "$(dirname "$0")" || exit 1
+
+JAVA="${JAVA_HOME:+$JAVA_HOME/bin/}java"
+ARCHIVE="${ASTERIX_ARCHIVE:-auto}"
+
+if [ "$ARCHIVE" = auto ]; then
+    if [ -f application.aot ] && "$JAVA" -XX:AOTCache=application.aot -version > /dev/null 2>&1; then
+        ARCHIVE=aot
+    elif [ -f application.jsa ]; then
+        ARCHIVE=cds
+    else
+        ARCHIVE=none
+    fi
+fi
+
+case "$ARCHIVE" in
+    aot) ARCHIVE_OPTS="-XX:AOTCache=application.aot" ;;
+    cds) ARCHIVE_OPTS="-XX:SharedArchiveFile=application.jsa" ;;
+    *) ARCHIVE_OPTS="" ;;
+esac
+
+# shellcheck disable=SC2086 # the options are split on purpose
+exec "$JAVA" $ARCHIVE_OPTS $JAVA_OPTS -jar @JAR@ "$@"
@@ -0,0 +1,59 @@
+#!/bin/sh
+#
+# Measures the time from the launch of AsterixAPI to its first answered request, without class data archive
+# and with each archive created by the build (mvn package -Dcds). Run it from the packaged directory
+# (target/cds).
+#
+# RUNS (default 5) launches per variant, PORT (default 18080) and URL_PATH (default /api/asterix/characters)
+# can be overridden. The arguments are passed to the application, by default the in-memory profile is
+# used so no database is needed.
+#
+
+cd "$(dirname "$0")" || exit 1
+
+RUNS="${RUNS:-5}"
+PORT="${PORT:-18080}"
+URL_PATH="${URL_PATH:-/api/asterix/characters}"
+JAVA="${JAVA_HOME:+$JAVA_HOME/bin/}java"
+[ $# -eq 0 ] && set -- --spring.profiles.active=in-memory
+
+# Prints the milliseconds from the launch with the given archive to the first successful response
+time_to_first_request() {
+    archive="$1"
+    shift
+    start=$(date +%s%N)
+    ASTERIX_ARCHIVE="$archive" ./asterix-api.sh --server.port="$PORT" "$@" > benchmark.log 2>&1 &
+    pid=$!
+    until curl -sf -o /dev/null "http://localhost:$PORT$URL_PATH"; do
+        if ! kill -0 "$pid" 2> /dev/null; then
+            echo "Application did not start, see benchmark.log" >&2
+            exit 1
+        fi
+        sleep 0.02
+    done
+    end=$(date +%s%N)
+    kill "$pid"
+    wait "$pid" 2> /dev/null
+    echo $(((end - start) / 1000000))
+}
+
+printf '%-6s %8s %8s %8s\n' archive min median max
+for archive in none cds aot; do
+    case "$archive" in
+        cds) [ -f application.jsa ] || continue ;;
+        aot) { [ -f application.aot ] && "$JAVA" -XX:AOTCache=application.aot -version > /dev/null 2>&1; } || continue ;;
+    esac
+    times=""
+    run=0
+    while [ "$run" -lt "$RUNS" ]; do
+        times="$times$(time_to_first_request "$archive" "$@")
+"
+        run=$((run + 1))
+    done
+    sorted=$(printf '%s' "$times" | sort -n)
+    printf '%-6s %6s ms %5s ms %5s ms\n' "$archive" \
+        "$(echo "$sorted" | head -n 1)" \
+        "$(echo "$sorted" | sed -n "$(((RUNS + 1) / 2))p")" \
+        "$(echo "$sorted" | tail -n 1)"
+done
+rm -f benchmark.log
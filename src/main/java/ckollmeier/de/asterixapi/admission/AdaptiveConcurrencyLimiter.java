@@ -0,0 +1,278 @@
+package ckollmeier.de.asterixapi.admission;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Optional;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Concurrency limiter with an AIMD (additive increase, multiplicative decrease) limit and a bounded wait queue.
+ * <p>
+ * A request that finds the limit reached waits in the queue for a released permit, at most
+ * {@link AdmissionControlProperties.Limits#maxQueueWait()}; if the queue is full it is rejected immediately.
+ * Every request completing within the latency threshold while the limiter was busy raises the limit by
+ * {@code 1 / limit}, i.e. by about one per limit's worth of requests. A request that was too slow or failed
+ * with a server error multiplies the limit by the backoff ratio. The limit stays within its configured bounds.
+ * </p>
+ * <p>
+ * The limit, the requests in flight and the queued requests are published as gauges, the accepted and
+ * rejected requests as counter, all tagged with the endpoint class.
+ * </p>
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    /**
+     * Name of the gauge for the current concurrency limit.
+     */
+    public static final String LIMIT_METRIC = "asterix.admission.limit";
+
+    /**
+     * Name of the gauge for the requests in flight.
+     */
+    public static final String IN_FLIGHT_METRIC = "asterix.admission.in.flight";
+
+    /**
+     * Name of the gauge for the requests waiting for a permit.
+     */
+    public static final String QUEUED_METRIC = "asterix.admission.queued";
+
+    /**
+     * Name of the counter for accepted and rejected requests.
+     */
+    public static final String REQUESTS_METRIC = "asterix.admission.requests";
+
+    /**
+     * The configured limits.
+     */
+    private final AdmissionControlProperties.Limits limits;
+
+    /**
+     * Guards the state below.
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * Signalled whenever a permit is released.
+     */
+    private final Condition permitReleased = lock.newCondition();
+
+    /**
+     * Counter for accepted requests.
+     */
+    private final Counter accepted;
+
+    /**
+     * Counter for rejected requests.
+     */
+    private final Counter rejected;
+
+    /**
+     * The current limit; fractional so that additive increases accumulate.
+     */
+    private double limit;
+
+    /**
+     * The number of requests holding a permit.
+     */
+    private int inFlight;
+
+    /**
+     * The number of requests waiting for a permit.
+     */
+    private int queued;
+
+    /**
+     * Creates the limiter and registers its metrics.
+     *
+     * @param endpointClass the endpoint class the limiter controls, used as metric tag
+     * @param limits        the configured limits
+     * @param meterRegistry registry for the metrics
+     */
+    public AdaptiveConcurrencyLimiter(final String endpointClass,
+                                      final AdmissionControlProperties.Limits limits,
+                                      final MeterRegistry meterRegistry) {
+        this.limits = limits;
+        this.limit = Math.clamp(limits.initialLimit(), limits.minLimit(), limits.maxLimit());
+        Gauge.builder(LIMIT_METRIC, this, AdaptiveConcurrencyLimiter::getLimit)
+                .description("Current adaptive concurrency limit")
+                .tag("endpoint", endpointClass)
+                .register(meterRegistry);
+        Gauge.builder(IN_FLIGHT_METRIC, this, AdaptiveConcurrencyLimiter::getInFlight)
+                .description("Requests currently holding a permit")
+                .tag("endpoint", endpointClass)
+                .register(meterRegistry);
+        Gauge.builder(QUEUED_METRIC, this, AdaptiveConcurrencyLimiter::getQueued)
+                .description("Requests currently waiting for a permit")
+                .tag("endpoint", endpointClass)
+                .register(meterRegistry);
+        this.accepted = counter(meterRegistry, endpointClass, "accepted");
+        this.rejected = counter(meterRegistry, endpointClass, "rejected");
+    }
+
+    /**
+     * Creates the request counter for an outcome.
+     *
+     * @param meterRegistry registry for the counter
+     * @param endpointClass the endpoint class tag
+     * @param outcome       {@code accepted} or {@code rejected}
+     * @return the counter
+     */
+    private static Counter counter(final MeterRegistry meterRegistry, final String endpointClass, final String outcome) {
+        return Counter.builder(REQUESTS_METRIC)
+                .description("Requests by whether they were admitted or shed")
+                .tag("endpoint", endpointClass)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Acquires a permit, waiting in the queue if the limit is reached.
+     *
+     * @return the permit to release when the request completed, or an empty Optional if the request is rejected
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    public Optional<Permit> tryAcquire() throws InterruptedException {
+        lock.lock();
+        try {
+            if (inFlight >= currentLimit()) {
+                if (queued >= limits.queueSize()) {
+                    rejected.increment();
+                    return Optional.empty();
+                }
+                queued++;
+                try {
+                    long remainingNanos = limits.maxQueueWait().toNanos();
+                    while (inFlight >= currentLimit()) {
+                        if (remainingNanos <= 0) {
+                            rejected.increment();
+                            return Optional.empty();
+                        }
+                        remainingNanos = permitReleased.awaitNanos(remainingNanos);
+                    }
+                } finally {
+                    queued--;
+                }
+            }
+            inFlight++;
+            accepted.increment();
+            return Optional.of(new Permit(System.nanoTime(), inFlight));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the current limit.
+     *
+     * @return the limit, rounded down
+     */
+    public int getLimit() {
+        lock.lock();
+        try {
+            return currentLimit();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of requests holding a permit.
+     *
+     * @return the requests in flight
+     */
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of requests waiting for a permit.
+     *
+     * @return the queued requests
+     */
+    public int getQueued() {
+        lock.lock();
+        try {
+            return queued;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the current limit as whole number of permits. Must be called holding the lock.
+     *
+     * @return the limit, rounded down
+     */
+    private int currentLimit() {
+        return (int) limit;
+    }
+
+    /**
+     * Releases a permit and adapts the limit to the outcome of the request.
+     *
+     * @param permit     the permit
+     * @param overloaded whether the request failed in a way indicating overload
+     */
+    private void release(final Permit permit, final boolean overloaded) {
+        final long latencyNanos = System.nanoTime() - permit.startNanos;
+        lock.lock();
+        try {
+            inFlight--;
+            if (overloaded || latencyNanos > limits.latencyThreshold().toNanos()) {
+                limit = Math.max(limits.minLimit(), limit * limits.backoffRatio());
+            } else if (permit.inFlightAtStart * 2 >= currentLimit()) {
+                // Only grow while the limit is actually used, an idle limiter would grow without bound
+                limit = Math.min(limits.maxLimit(), limit + 1.0 / limit);
+            }
+            permitReleased.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * A permit to process one request.
+     */
+    public final class Permit {
+
+        /**
+         * When the permit was acquired.
+         */
+        private final long startNanos;
+
+        /**
+         * The requests in flight including this one when the permit was acquired.
+         */
+        private final int inFlightAtStart;
+
+        /**
+         * Whether the permit was already released.
+         */
+        private boolean released;
+
+        private Permit(final long startNanos, final int inFlightAtStart) {
+            this.startNanos = startNanos;
+            this.inFlightAtStart = inFlightAtStart;
+        }
+
+        /**
+         * Releases the permit, further calls are ignored.
+         *
+         * @param overloaded whether the request failed in a way indicating overload
+         */
+        public void release(final boolean overloaded) {
+            if (!released) {
+                released = true;
+                AdaptiveConcurrencyLimiter.this.release(this, overloaded);
+            }
+        }
+    }
+}
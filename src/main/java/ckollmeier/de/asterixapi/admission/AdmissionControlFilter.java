@@ -0,0 +1,132 @@
+package ckollmeier.de.asterixapi.admission;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Admission control in front of the write endpoints.
+ * <p>
+ * {@code POST}, {@code PUT} and {@code DELETE} requests to {@code /api/asterix/<endpoint class>/...} pass an
+ * {@link AdaptiveConcurrencyLimiter} per endpoint class configured in {@link AdmissionControlProperties}, so
+ * bursts of expensive writes (e.g. village updates moving many characters) cannot monopolize the database
+ * and starve reads. Requests the limiter sheds are answered right away with {@code 503 Service Unavailable}
+ * and a {@code Retry-After} header. Reads are never limited, including the batch reads sent as {@code POST}.
+ * </p>
+ */
+@Component
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    /**
+     * Prefix of the API paths, followed by the endpoint class.
+     */
+    private static final String API_PREFIX = "/api/asterix/";
+
+    /**
+     * The methods of write requests.
+     */
+    private static final Set<String> WRITE_METHODS = Set.of(
+            HttpMethod.POST.name(), HttpMethod.PUT.name(), HttpMethod.DELETE.name());
+
+    /**
+     * Path suffix of the batch reads, which are sent as {@code POST} to carry the IDs in the body.
+     */
+    private static final String BATCH_GET_SUFFIX = "/batch-get";
+
+    /**
+     * The limiters by endpoint class.
+     */
+    private final Map<String, AdaptiveConcurrencyLimiter> limiters = new HashMap<>();
+
+    /**
+     * The {@code Retry-After} value sent with rejections, in seconds.
+     */
+    private final String retryAfterSeconds;
+
+    /**
+     * Creates the filter and a limiter for every configured endpoint class.
+     *
+     * @param properties    the admission control configuration
+     * @param meterRegistry registry for the limiter metrics
+     */
+    public AdmissionControlFilter(final AdmissionControlProperties properties, final MeterRegistry meterRegistry) {
+        if (properties.enabled() && properties.endpoints() != null) {
+            properties.endpoints().forEach((endpointClass, limits) ->
+                    limiters.put(endpointClass, new AdaptiveConcurrencyLimiter(endpointClass, limits, meterRegistry)));
+        }
+        // Retry-After only supports whole seconds, round up so clients never retry too early
+        this.retryAfterSeconds = String.valueOf(Math.max(1, (properties.retryAfter().toMillis() + 999) / 1000));
+    }
+
+    @Override
+    protected boolean shouldNotFilter(final HttpServletRequest request) {
+        return limiters.isEmpty() || !WRITE_METHODS.contains(request.getMethod())
+                || request.getRequestURI().endsWith(BATCH_GET_SUFFIX) || getLimiter(request).isEmpty();
+    }
+
+    @Override
+    protected void doFilterInternal(final HttpServletRequest request,
+                                    final HttpServletResponse response,
+                                    final FilterChain filterChain) throws ServletException, IOException {
+        final AdaptiveConcurrencyLimiter limiter = getLimiter(request).orElseThrow();
+        final Optional<AdaptiveConcurrencyLimiter.Permit> permit;
+        try {
+            permit = limiter.tryAcquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            reject(response);
+            return;
+        }
+        if (permit.isEmpty()) {
+            reject(response);
+            return;
+        }
+
+        boolean overloaded = true;
+        try {
+            filterChain.doFilter(request, response);
+            overloaded = response.getStatus() >= HttpStatus.INTERNAL_SERVER_ERROR.value();
+        } finally {
+            permit.get().release(overloaded);
+        }
+    }
+
+    /**
+     * Returns the limiter of the endpoint class a request is addressed to.
+     *
+     * @param request the request
+     * @return the limiter, or an empty Optional if the endpoint class is not limited
+     */
+    private Optional<AdaptiveConcurrencyLimiter> getLimiter(final HttpServletRequest request) {
+        final String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (!path.startsWith(API_PREFIX)) {
+            return Optional.empty();
+        }
+        final int end = path.indexOf('/', API_PREFIX.length());
+        final String endpointClass = end < 0 ? path.substring(API_PREFIX.length()) : path.substring(API_PREFIX.length(), end);
+        return Optional.ofNullable(limiters.get(endpointClass));
+    }
+
+    /**
+     * Sheds a request.
+     *
+     * @param response the response to write the rejection to
+     */
+    private void reject(final HttpServletResponse response) {
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+    }
+}
@@ -0,0 +1,53 @@
+package ckollmeier.de.asterixapi.admission;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Configuration of the {@link AdmissionControlFilter}, bound from {@code asterix.admission.*}.
+ *
+ * @param enabled    whether write requests are admission controlled at all
+ * @param retryAfter the delay suggested to rejected clients in the {@code Retry-After} header
+ * @param endpoints  the limits by endpoint class, i.e. the path segment after {@code /api/asterix/};
+ *                   write requests to endpoint classes without limits are not controlled
+ */
+@ConfigurationProperties("asterix.admission")
+public record AdmissionControlProperties(
+        @DefaultValue("true")
+        boolean enabled,
+        @DefaultValue("1s")
+        Duration retryAfter,
+        Map<String, Limits> endpoints
+) {
+    /**
+     * The limits of one endpoint class.
+     *
+     * @param initialLimit     the concurrency limit to start with
+     * @param minLimit         the lower bound of the adaptive limit
+     * @param maxLimit         the upper bound of the adaptive limit
+     * @param queueSize        the maximum number of requests waiting for a permit
+     * @param maxQueueWait     the maximum time a request waits for a permit before it is rejected
+     * @param latencyThreshold requests taking longer are treated as a sign of overload and decrease the limit
+     * @param backoffRatio     the factor the limit is multiplied with on overload
+     */
+    public record Limits(
+            @DefaultValue("8")
+            int initialLimit,
+            @DefaultValue("1")
+            int minLimit,
+            @DefaultValue("32")
+            int maxLimit,
+            @DefaultValue("16")
+            int queueSize,
+            @DefaultValue("500ms")
+            Duration maxQueueWait,
+            @DefaultValue("1s")
+            Duration latencyThreshold,
+            @DefaultValue("0.9")
+            double backoffRatio
+    ) {
+    }
+}
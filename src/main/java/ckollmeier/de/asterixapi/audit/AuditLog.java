@@ -0,0 +1,321 @@
+package ckollmeier.de.asterixapi.audit;
+
+import ckollmeier.de.asterixapi.event.ChangeBatch;
+import ckollmeier.de.asterixapi.event.ChangeEvent;
+import ckollmeier.de.asterixapi.model.AuditEntry;
+import ckollmeier.de.asterixapi.repository.AuditRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Audit log of all changes of characters and villages, written behind the requests.
+ * <p>
+ * Every {@link ChangeEvent} published by the services is recorded together with the actor of the request and
+ * put onto a lock-free {@link RingBuffer}; the request does not wait for the database. A background writer
+ * inserts the buffered entries into the {@code audit} collection in batches of up to
+ * {@code asterix.audit.batch-size}, as soon as a batch is full or every {@code asterix.audit.flush-interval}.
+ * While the buffer is full, {@code asterix.audit.overflow-policy} decides whether the new or the oldest entries
+ * are dropped or the request waits. Entries still buffered when the application stops are written on shutdown;
+ * entries of a failed insert are dropped, so the audit log is best-effort and never fails a change.
+ * </p>
+ * <p>
+ * Entries are counted as {@value #EVENTS_METRIC} with the outcome {@code written}, {@code dropped} or
+ * {@code failed}. The time from a change to its insert is recorded as {@value #LAG_METRIC} and the number of
+ * buffered entries is published as {@value #QUEUE_SIZE_METRIC}.
+ * </p>
+ */
+@Slf4j
+@Service
+public class AuditLog {
+
+    /**
+     * Name of the counter for audit entries by outcome.
+     */
+    public static final String EVENTS_METRIC = "asterix.audit.events";
+
+    /**
+     * Name of the timer for the time from a change to the insert of its entry.
+     */
+    public static final String LAG_METRIC = "asterix.audit.lag";
+
+    /**
+     * Name of the gauge for the number of buffered entries.
+     */
+    public static final String QUEUE_SIZE_METRIC = "asterix.audit.queue.size";
+
+    /**
+     * Actor of changes made outside a request, e.g. by migrations.
+     */
+    static final String SYSTEM_ACTOR = "system";
+
+    /**
+     * How long a request waits between two attempts to buffer an entry with {@link OverflowPolicy#BLOCK}.
+     */
+    private static final long BLOCK_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    /**
+     * The audit configuration.
+     */
+    private final AuditProperties properties;
+
+    /**
+     * Repository the entries are written to.
+     */
+    private final AuditRepository auditRepository;
+
+    /**
+     * The entries not written yet.
+     */
+    private final RingBuffer<AuditEntry> buffer;
+
+    /**
+     * Counter of the written entries.
+     */
+    private final Counter written;
+
+    /**
+     * Counter of the entries dropped because the buffer was full.
+     */
+    private final Counter dropped;
+
+    /**
+     * Counter of the entries dropped because their insert failed.
+     */
+    private final Counter failed;
+
+    /**
+     * Timer of the time from a change to the insert of its entry.
+     */
+    private final Timer lag;
+
+    /**
+     * Serializes the flushes of the writer and the final flush on shutdown.
+     */
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    /**
+     * The background writer, {@code null} until started.
+     */
+    private volatile Thread writer;
+
+    /**
+     * Whether the background writer keeps running.
+     */
+    private volatile boolean running;
+
+    /**
+     * Creates the audit log with an empty buffer and registers its metrics.
+     *
+     * @param properties      the audit configuration
+     * @param auditRepository repository the entries are written to
+     * @param meterRegistry   registry for the metrics
+     */
+    public AuditLog(final AuditProperties properties,
+                    final AuditRepository auditRepository,
+                    final MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.auditRepository = auditRepository;
+        this.buffer = new RingBuffer<>(properties.capacity());
+        this.written = Counter.builder(EVENTS_METRIC).tag("outcome", "written").register(meterRegistry);
+        this.dropped = Counter.builder(EVENTS_METRIC).tag("outcome", "dropped").register(meterRegistry);
+        this.failed = Counter.builder(EVENTS_METRIC).tag("outcome", "failed").register(meterRegistry);
+        this.lag = Timer.builder(LAG_METRIC).register(meterRegistry);
+        Gauge.builder(QUEUE_SIZE_METRIC, buffer, RingBuffer::size).register(meterRegistry);
+    }
+
+    /**
+     * Starts the background writer once the application is ready. Changes made before are buffered.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!properties.enabled() || writer != null) {
+            return;
+        }
+        running = true;
+        writer = Thread.ofVirtual().name("audit-writer").start(this::writeBehind);
+    }
+
+    /**
+     * Stops the background writer and writes the entries still buffered.
+     */
+    @PreDestroy
+    public void stop() {
+        running = false;
+        final Thread thread = writer;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            try {
+                thread.join(properties.flushInterval().toMillis() + 1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        flush();
+    }
+
+    /**
+     * Buffers the entry of a published change. Wakes the writer once a batch is full.
+     *
+     * @param event the change
+     */
+    @EventListener
+    public void onChange(final ChangeEvent event) {
+        if (!properties.enabled()) {
+            return;
+        }
+        final AuditEntry entry = new AuditEntry(null, event.type(), event.id(), event.data(), currentActor(), Instant.now());
+        if (!enqueue(entry)) {
+            dropped.increment();
+        }
+        if (buffer.size() >= properties.batchSize()) {
+            final Thread thread = writer;
+            if (thread != null) {
+                LockSupport.unpark(thread);
+            }
+        }
+    }
+
+    /**
+     * Buffers the entries of the changes of a batch operation.
+     *
+     * @param batch the changes
+     */
+    @EventListener
+    public void onChanges(final ChangeBatch batch) {
+        batch.events().forEach(this::onChange);
+    }
+
+    /**
+     * Writes all buffered entries, in batches of up to {@code asterix.audit.batch-size}.
+     */
+    public void flush() {
+        flushLock.lock();
+        try {
+            List<AuditEntry> batch = new ArrayList<>(properties.batchSize());
+            while (buffer.drainTo(batch, properties.batchSize()) > 0) {
+                write(batch);
+                batch = new ArrayList<>(properties.batchSize());
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of entries not written yet.
+     *
+     * @return the number of buffered entries
+     */
+    public int getQueueSize() {
+        return buffer.size();
+    }
+
+    /**
+     * Buffers an entry according to the overflow policy.
+     *
+     * @param entry the entry
+     * @return whether the entry was buffered
+     */
+    private boolean enqueue(final AuditEntry entry) {
+        if (buffer.offer(entry)) {
+            return true;
+        }
+        switch (properties.overflowPolicy()) {
+            case DROP_OLDEST -> {
+                while (!buffer.offer(entry)) {
+                    if (buffer.poll() != null) {
+                        dropped.increment();
+                    }
+                }
+                return true;
+            }
+            case BLOCK -> {
+                final long deadline = System.nanoTime() + properties.flushInterval().toNanos();
+                final Thread thread = writer;
+                if (thread != null) {
+                    LockSupport.unpark(thread);
+                }
+                while (System.nanoTime() < deadline) {
+                    LockSupport.parkNanos(BLOCK_PARK_NANOS);
+                    if (buffer.offer(entry)) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+            default -> {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * The loop of the background writer: writes the buffered entries every flush interval, or earlier when woken
+     * because a batch is full, until stopped.
+     */
+    private void writeBehind() {
+        final long intervalNanos = properties.flushInterval().toNanos();
+        while (running) {
+            if (buffer.size() < properties.batchSize()) {
+                LockSupport.parkNanos(this, intervalNanos);
+            }
+            try {
+                flush();
+            } catch (RuntimeException e) {
+                log.warn("Could not write the audit log", e);
+            }
+        }
+    }
+
+    /**
+     * Inserts a batch of entries with one command and records their lag. A failed batch is dropped.
+     *
+     * @param batch the entries
+     */
+    private void write(final List<AuditEntry> batch) {
+        try {
+            auditRepository.insert(batch);
+        } catch (DataAccessException e) {
+            log.warn("Could not write {} audit entries", batch.size(), e);
+            failed.increment(batch.size());
+            return;
+        }
+        written.increment(batch.size());
+        final Instant now = Instant.now();
+        for (AuditEntry entry : batch) {
+            lag.record(Duration.between(entry.timestamp(), now));
+        }
+    }
+
+    /**
+     * Returns the actor of the current request: the authenticated remote user, otherwise the remote address.
+     *
+     * @return the actor, {@value #SYSTEM_ACTOR} outside a request
+     */
+    private static String currentActor() {
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes) {
+            final HttpServletRequest request = attributes.getRequest();
+            return request.getRemoteUser() != null ? request.getRemoteUser() : request.getRemoteAddr();
+        }
+        return SYSTEM_ACTOR;
+    }
+}
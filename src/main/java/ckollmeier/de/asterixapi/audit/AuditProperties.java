@@ -0,0 +1,31 @@
+package ckollmeier.de.asterixapi.audit;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the audit log, bound from {@code asterix.audit.*}.
+ *
+ * @param enabled        whether changes are audited at all
+ * @param capacity       the maximum number of changes buffered until written, rounded up to a power of two
+ * @param batchSize      the maximum number of changes written with one insert; a full batch is written
+ *                       without waiting for the flush interval
+ * @param flushInterval  the maximum time a change is buffered while the batch is not full
+ * @param overflowPolicy what happens to a change while the buffer is full
+ */
+@ConfigurationProperties("asterix.audit")
+public record AuditProperties(
+        @DefaultValue("true")
+        boolean enabled,
+        @DefaultValue("8192")
+        int capacity,
+        @DefaultValue("256")
+        int batchSize,
+        @DefaultValue("1s")
+        Duration flushInterval,
+        @DefaultValue("drop-newest")
+        OverflowPolicy overflowPolicy
+) {
+}
@@ -0,0 +1,20 @@
+package ckollmeier.de.asterixapi.audit;
+
+/**
+ * What the {@link AuditLog} does with a change while its buffer is full.
+ */
+public enum OverflowPolicy {
+    /**
+     * Drops the new change; the request is never delayed.
+     */
+    DROP_NEWEST,
+    /**
+     * Drops the oldest buffered changes to make room for the new one; the request is never delayed.
+     */
+    DROP_OLDEST,
+    /**
+     * Makes the request wait for the writer to free a slot, at most for one flush interval, and drops the change
+     * if none becomes free in time.
+     */
+    BLOCK
+}
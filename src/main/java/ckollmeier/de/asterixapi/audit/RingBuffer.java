@@ -0,0 +1,159 @@
+package ckollmeier.de.asterixapi.audit;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free queue on a ring of slots, for any number of producers and consumers.
+ * <p>
+ * Every slot carries a sequence number telling whether it is free for the producer at a position or filled for
+ * the consumer at a position. Producers and consumers claim positions with a compare-and-set on the tail or the
+ * head and then fill or empty the slot, so neither ever waits for a lock; a full queue rejects the element
+ * instead of blocking.
+ * </p>
+ *
+ * @param <T> the element type
+ */
+public class RingBuffer<T> {
+
+    /**
+     * The elements, {@code null} for free slots.
+     */
+    private final AtomicReferenceArray<T> slots;
+
+    /**
+     * The sequence number of every slot: its position if free for the producer at that position, the position
+     * plus one if filled for the consumer at that position.
+     */
+    private final AtomicLongArray sequences;
+
+    /**
+     * The capacity minus one, mapping positions to slots.
+     */
+    private final int mask;
+
+    /**
+     * The position the next element is added at.
+     */
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * The position the next element is taken from.
+     */
+    private final AtomicLong head = new AtomicLong();
+
+    /**
+     * Creates an empty ring buffer.
+     *
+     * @param capacity the minimum number of elements, rounded up to the next power of two
+     */
+    public RingBuffer(final int capacity) {
+        if (capacity < 1 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Capacity must be between 1 and 2^30: " + capacity);
+        }
+        final int size = Integer.highestOneBit(capacity) == capacity ? capacity : Integer.highestOneBit(capacity) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+        this.mask = size - 1;
+    }
+
+    /**
+     * Adds an element unless the buffer is full.
+     *
+     * @param element the element, not {@code null}
+     * @return whether the element was added
+     */
+    public boolean offer(final T element) {
+        if (element == null) {
+            throw new NullPointerException("Element must not be null");
+        }
+        long position = tail.get();
+        while (true) {
+            final int slot = (int) position & mask;
+            final long difference = sequences.get(slot) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    slots.set(slot, element);
+                    sequences.set(slot, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                // The slot still holds the element added one round earlier
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    /**
+     * Takes the oldest element.
+     *
+     * @return the element, {@code null} if the buffer is empty
+     */
+    public T poll() {
+        long position = head.get();
+        while (true) {
+            final int slot = (int) position & mask;
+            final long difference = sequences.get(slot) - (position + 1);
+            if (difference == 0) {
+                if (head.compareAndSet(position, position + 1)) {
+                    final T element = slots.getAndSet(slot, null);
+                    sequences.set(slot, position + mask + 1);
+                    return element;
+                }
+                position = head.get();
+            } else if (difference < 0) {
+                // The slot was not filled yet
+                return null;
+            } else {
+                position = head.get();
+            }
+        }
+    }
+
+    /**
+     * Takes up to the given number of the oldest elements.
+     *
+     * @param target     the collection the elements are added to
+     * @param maxElements the maximum number of elements taken
+     * @return the number of elements taken
+     */
+    public int drainTo(final Collection<? super T> target, final int maxElements) {
+        int drained = 0;
+        while (drained < maxElements) {
+            final T element = poll();
+            if (element == null) {
+                break;
+            }
+            target.add(element);
+            drained++;
+        }
+        return drained;
+    }
+
+    /**
+     * Returns the number of elements, exact only while no element is added or taken concurrently.
+     *
+     * @return the number of elements
+     */
+    public int size() {
+        final long size = tail.get() - head.get();
+        return (int) Math.max(0, Math.min(size, capacity()));
+    }
+
+    /**
+     * Returns the maximum number of elements.
+     *
+     * @return the capacity, a power of two
+     */
+    public int capacity() {
+        return mask + 1;
+    }
+}
@@ -0,0 +1,13 @@
+package ckollmeier.de.asterixapi.configuration;
+
+import ckollmeier.de.asterixapi.admission.AdmissionControlProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Binds the {@link AdmissionControlProperties} of the write endpoint admission control.
+ */
+@Configuration
+@EnableConfigurationProperties(AdmissionControlProperties.class)
+public class AdmissionControlConfiguration {
+}
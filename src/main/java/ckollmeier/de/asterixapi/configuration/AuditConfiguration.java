@@ -0,0 +1,14 @@
+package ckollmeier.de.asterixapi.configuration;
+
+import ckollmeier.de.asterixapi.audit.AuditLog;
+import ckollmeier.de.asterixapi.audit.AuditProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Binds the configuration of the {@link AuditLog} from {@code asterix.audit.*}.
+ */
+@Configuration
+@EnableConfigurationProperties(AuditProperties.class)
+public class AuditConfiguration {
+}
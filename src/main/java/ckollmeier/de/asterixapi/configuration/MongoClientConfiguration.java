@@ -0,0 +1,73 @@
+package ckollmeier.de.asterixapi.configuration;
+
+import ckollmeier.de.asterixapi.mongoclient.ConnectionPoolMetricsListener;
+import ckollmeier.de.asterixapi.mongoclient.MongoClientProperties;
+import com.mongodb.MongoCompressor;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies the {@link MongoClientProperties} to the MongoDB client and registers the
+ * {@link ConnectionPoolMetricsListener}.
+ */
+@Configuration
+@EnableConfigurationProperties(MongoClientProperties.class)
+public class MongoClientConfiguration {
+
+    /**
+     * Configures pool, timeouts and compression and adds the pool metrics listener.
+     *
+     * @param properties                    the client configuration
+     * @param connectionPoolMetricsListener the listener
+     * @return the customizer
+     */
+    @Bean
+    public MongoClientSettingsBuilderCustomizer mongoClientCustomizer(final MongoClientProperties properties,
+                                                                     final ConnectionPoolMetricsListener connectionPoolMetricsListener) {
+        final MongoClientProperties.Pool pool = properties.pool();
+        final List<MongoCompressor> compressors = properties.compressors().stream()
+                .map(MongoClientConfiguration::createCompressor)
+                .toList();
+        return builder -> {
+            builder.applyToConnectionPoolSettings(settings -> settings
+                            .maxSize(pool.maxSize())
+                            .minSize(pool.minSize())
+                            .maxConnecting(pool.maxConnecting())
+                            .maxWaitTime(pool.maxWaitTime().toMillis(), TimeUnit.MILLISECONDS)
+                            .maxConnectionIdleTime(pool.maxIdleTime().toMillis(), TimeUnit.MILLISECONDS)
+                            .maxConnectionLifeTime(pool.maxLifeTime().toMillis(), TimeUnit.MILLISECONDS)
+                            .addConnectionPoolListener(connectionPoolMetricsListener))
+                    .applyToSocketSettings(settings -> settings
+                            .connectTimeout(properties.connectTimeout().toMillis(), TimeUnit.MILLISECONDS)
+                            .readTimeout(properties.readTimeout().toMillis(), TimeUnit.MILLISECONDS))
+                    .applyToClusterSettings(settings -> settings
+                            .serverSelectionTimeout(properties.serverSelectionTimeout().toMillis(), TimeUnit.MILLISECONDS));
+            if (!compressors.isEmpty()) {
+                builder.compressorList(compressors);
+            }
+        };
+    }
+
+    /**
+     * Creates a wire compressor.
+     *
+     * @param name {@code zlib}, {@code snappy} or {@code zstd}
+     * @return the compressor
+     * @throws IllegalArgumentException if the compressor is unknown
+     */
+    static MongoCompressor createCompressor(final String name) {
+        return switch (name.toLowerCase(Locale.ROOT)) {
+            case "zlib" -> MongoCompressor.createZlibCompressor();
+            case "snappy" -> MongoCompressor.createSnappyCompressor();
+            case "zstd" -> MongoCompressor.createZstdCompressor();
+            default -> throw new IllegalArgumentException("Unknown MongoDB compressor '" + name
+                    + "', expected zlib, snappy or zstd");
+        };
+    }
+}
@@ -0,0 +1,61 @@
+package ckollmeier.de.asterixapi.configuration;
+
+import ckollmeier.de.asterixapi.mongoconcern.MongoConcern;
+import ckollmeier.de.asterixapi.mongoconcern.MongoConcernDatabaseFactory;
+import ckollmeier.de.asterixapi.mongoconcern.MongoConcernInterceptor;
+import ckollmeier.de.asterixapi.mongoconcern.MongoConcernProperties;
+import ckollmeier.de.asterixapi.mongoconcern.MongoConcernRegistry;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.ComposablePointcut;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+
+/**
+ * Applies the write and read concerns of {@code asterix.mongo-concern.*}: wraps the {@link MongoDatabaseFactory}
+ * in a {@link MongoConcernDatabaseFactory} and proxies the beans annotated with {@link MongoConcern}.
+ */
+@Configuration
+@EnableConfigurationProperties(MongoConcernProperties.class)
+public class MongoConcernConfiguration {
+
+    /**
+     * Wraps the database factory, so the template uses the concerns bound to the current thread.
+     *
+     * @return the post processor wrapping the factory
+     */
+    @Bean
+    public static BeanPostProcessor mongoConcernDatabaseFactoryPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(final Object bean, final String beanName) {
+                if (bean instanceof MongoDatabaseFactory factory && !(bean instanceof MongoConcernDatabaseFactory)) {
+                    return new MongoConcernDatabaseFactory(factory);
+                }
+                return bean;
+            }
+        };
+    }
+
+    /**
+     * Intercepts the methods of beans annotated with {@link MongoConcern}, on the method or the class.
+     * An infrastructure advisor, so the auto-proxy creator applies it without AspectJ.
+     *
+     * @param registry the configured profiles
+     * @return the advisor
+     */
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static Advisor mongoConcernAdvisor(final ObjectProvider<MongoConcernRegistry> registry) {
+        final ComposablePointcut pointcut = new ComposablePointcut(AnnotationMatchingPointcut.forClassAnnotation(MongoConcern.class))
+                .union(AnnotationMatchingPointcut.forMethodAnnotation(MongoConcern.class));
+        return new DefaultPointcutAdvisor(pointcut, new MongoConcernInterceptor(registry));
+    }
+}
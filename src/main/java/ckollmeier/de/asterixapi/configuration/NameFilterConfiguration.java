@@ -0,0 +1,14 @@
+package ckollmeier.de.asterixapi.configuration;
+
+import ckollmeier.de.asterixapi.namefilter.NameFilter;
+import ckollmeier.de.asterixapi.namefilter.NameFilterProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Binds the configuration of the {@link NameFilter} from {@code asterix.name-filter.*}.
+ */
+@Configuration
+@EnableConfigurationProperties(NameFilterProperties.class)
+public class NameFilterConfiguration {
+}
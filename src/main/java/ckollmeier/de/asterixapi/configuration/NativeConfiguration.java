@@ -0,0 +1,83 @@
+package ckollmeier.de.asterixapi.configuration;
+
+import ckollmeier.de.asterixapi.dto.BatchDeleteResultDTO;
+import ckollmeier.de.asterixapi.dto.BatchGetResultDTO;
+import ckollmeier.de.asterixapi.dto.ChangesDTO;
+import ckollmeier.de.asterixapi.dto.CharacterIdDTO;
+import ckollmeier.de.asterixapi.dto.CharacterIdsDTO;
+import ckollmeier.de.asterixapi.dto.CharacterInputDTO;
+import ckollmeier.de.asterixapi.dto.CharacterOutputDTO;
+import ckollmeier.de.asterixapi.dto.CharacterSelectDTO;
+import ckollmeier.de.asterixapi.dto.CharactersPageDTO;
+import ckollmeier.de.asterixapi.dto.MinimalCharacterOutputDTO;
+import ckollmeier.de.asterixapi.dto.MinimalVillageOutputDTO;
+import ckollmeier.de.asterixapi.dto.SearchHitDTO;
+import ckollmeier.de.asterixapi.dto.VillageCountOutputDTO;
+import ckollmeier.de.asterixapi.dto.VillageIdDTO;
+import ckollmeier.de.asterixapi.dto.VillageIdsDTO;
+import ckollmeier.de.asterixapi.dto.VillageInputDTO;
+import ckollmeier.de.asterixapi.dto.VillageOutputDTO;
+import ckollmeier.de.asterixapi.dto.VillageSelectDTO;
+import ckollmeier.de.asterixapi.dto.VillagesPageDTO;
+import ckollmeier.de.asterixapi.event.ChangeEvent;
+import ckollmeier.de.asterixapi.model.AuditEntry;
+import ckollmeier.de.asterixapi.model.ChangeLogEntry;
+import ckollmeier.de.asterixapi.model.Character;
+import ckollmeier.de.asterixapi.model.Village;
+import ckollmeier.de.asterixapi.model.VillageReference;
+import ckollmeier.de.asterixapi.slowquery.SlowQuery;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+
+import java.util.List;
+
+/**
+ * Registers the reflection the application needs in a GraalVM native image ({@code mvn -Pnative native:compile}).
+ * <p>
+ * Spring AOT already covers the bean definitions, the repository proxies and the bodies of controller
+ * methods. The hints below cover what it cannot see: the DTOs serialized directly with the
+ * {@link com.fasterxml.jackson.databind.ObjectMapper} for the response cache and the change events, and the
+ * models, whose {@code @With} methods Spring Data calls when it sets ids and versions and whose record
+ * components the in-memory repositories read to sort.
+ * </p>
+ */
+@Configuration
+@ImportRuntimeHints(NativeConfiguration.AsterixRuntimeHints.class)
+public class NativeConfiguration {
+
+    /**
+     * The types serialized to or deserialized from JSON.
+     */
+    static final List<Class<?>> JSON_TYPES = List.of(
+            BatchDeleteResultDTO.class, BatchGetResultDTO.class, ChangesDTO.class, CharacterIdDTO.class, CharacterIdsDTO.class,
+            CharacterInputDTO.class, CharacterOutputDTO.class, CharacterSelectDTO.class, CharactersPageDTO.class,
+            MinimalCharacterOutputDTO.class, MinimalVillageOutputDTO.class, SearchHitDTO.class,
+            VillageCountOutputDTO.class, VillageIdDTO.class, VillageIdsDTO.class, VillageInputDTO.class,
+            VillageOutputDTO.class, VillageSelectDTO.class, VillagesPageDTO.class, ChangeEvent.class, SlowQuery.class);
+
+    /**
+     * The persisted models.
+     */
+    static final List<Class<?>> MODEL_TYPES = List.of(
+            Character.class, Village.class, VillageReference.class, ChangeLogEntry.class, AuditEntry.class);
+
+    /**
+     * Registers the JSON types for data binding and the models for reflective access to their methods.
+     */
+    static class AsterixRuntimeHints implements RuntimeHintsRegistrar {
+
+        @Override
+        public void registerHints(final RuntimeHints hints, final ClassLoader classLoader) {
+            new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(),
+                    JSON_TYPES.toArray(Class<?>[]::new));
+            MODEL_TYPES.forEach(type -> hints.reflection().registerType(type,
+                    MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                    MemberCategory.INVOKE_PUBLIC_METHODS,
+                    MemberCategory.DECLARED_FIELDS));
+        }
+    }
+}
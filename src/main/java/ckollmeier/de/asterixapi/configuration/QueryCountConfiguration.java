@@ -0,0 +1,24 @@
+package ckollmeier.de.asterixapi.configuration;
+
+import ckollmeier.de.asterixapi.querycount.QueryCountCommandListener;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Registers the {@link QueryCountCommandListener} with the MongoDB client.
+ */
+@Configuration
+public class QueryCountConfiguration {
+
+    /**
+     * Adds the query count listener to the client settings.
+     *
+     * @param queryCountCommandListener the listener
+     * @return the customizer
+     */
+    @Bean
+    public MongoClientSettingsBuilderCustomizer queryCountCustomizer(final QueryCountCommandListener queryCountCommandListener) {
+        return builder -> builder.addCommandListener(queryCountCommandListener);
+    }
+}
@@ -0,0 +1,12 @@
+package ckollmeier.de.asterixapi.configuration;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables the {@link org.springframework.scheduling.annotation.Scheduled} maintenance jobs.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfiguration {
+}
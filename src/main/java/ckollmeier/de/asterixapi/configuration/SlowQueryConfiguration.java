@@ -0,0 +1,55 @@
+package ckollmeier.de.asterixapi.configuration;
+
+import ckollmeier.de.asterixapi.slowquery.SlowQueryListener;
+import ckollmeier.de.asterixapi.slowquery.SlowQueryProperties;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+/**
+ * Registers the {@link SlowQueryListener} with the MongoDB client, unless {@code asterix.slow-query.enabled}
+ * is {@code false}.
+ */
+@Configuration
+@EnableConfigurationProperties(SlowQueryProperties.class)
+public class SlowQueryConfiguration {
+
+    /**
+     * Adds the slow query listener to the client settings if enabled.
+     *
+     * @param properties        the slow query configuration
+     * @param slowQueryListener the listener
+     * @return the customizer
+     */
+    @Bean
+    public MongoClientSettingsBuilderCustomizer slowQueryCustomizer(final SlowQueryProperties properties,
+                                                                   final SlowQueryListener slowQueryListener) {
+        return builder -> {
+            if (properties.enabled()) {
+                builder.addCommandListener(slowQueryListener);
+            }
+        };
+    }
+
+    /**
+     * Makes the repositories expose the invoked method, so the listener can name the repository method
+     * issuing a slow command.
+     *
+     * @return the post processor enabling the metadata on all repository factories
+     */
+    @Bean
+    public static BeanPostProcessor repositoryMetadataExposingPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(final Object bean, final String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+                    factoryBean.setExposeMetadata(true);
+                }
+                return bean;
+            }
+        };
+    }
+}
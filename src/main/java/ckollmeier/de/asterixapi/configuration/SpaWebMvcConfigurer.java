@@ -1,26 +1,52 @@
 package ckollmeier.de.asterixapi.configuration; // Oder ein passendes Paket
 
+import ckollmeier.de.asterixapi.webserver.StaticResourceProperties;
+import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.core.io.ClassPathResource;
 import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 import org.springframework.web.servlet.resource.PathResourceResolver;
 
 import java.io.IOException;
 
+/**
+ * Serves the single page application built by Vite into {@code asterix.static-resources.location}.
+ * <p>
+ * Vite fingerprints every file under {@code assets/} with a hash of its content, so a changed file gets a new
+ * name. These files are cached by browsers for {@code asterix.static-resources.asset-max-age} as
+ * {@code immutable}, and a repeated page load requests none of them again. All other files, above all the
+ * {@code index.html} referencing the current assets, must be revalidated on every load and are answered with
+ * {@code 304 Not Modified} while unchanged. Over HTTP/2 the remaining requests of a page load share one
+ * connection instead of queueing for the few connections browsers open per host over HTTP/1.1.
+ * </p>
+ */
 @Configuration
+@RequiredArgsConstructor
 public class SpaWebMvcConfigurer implements WebMvcConfigurer {
 
+    /**
+     * Location and caching of the static resources.
+     */
+    private final StaticResourceProperties properties;
+
     /**
      * Configuration für spa handling.
      * @param registry parameter
      */
     @Override
     public void addResourceHandlers(final ResourceHandlerRegistry registry) {
+        // Fingerprinted assets never change under their name; a missing one is a 404, not index.html
+        registry.addResourceHandler("/assets/**")
+                .addResourceLocations(properties.location() + "assets/")
+                .setCacheControl(CacheControl.maxAge(properties.assetMaxAge()).cachePublic().immutable())
+                .resourceChain(true);
+
         // Standard-Handler für statische Ressourcen (JS, CSS, Bilder etc.)
         registry.addResourceHandler("/**") // Alle Pfade abdecken
-                .addResourceLocations("classpath:/static/") // Wo die statischen Dateien liegen
+                .addResourceLocations(properties.location()) // Wo die statischen Dateien liegen
+                .setCacheControl(CacheControl.noCache()) // Bei jedem Laden per Last-Modified revalidieren
                 .resourceChain(true) // Wichtig für den Resolver
                 .addResolver(new PathResourceResolver() {
                     @Override
@@ -37,8 +63,8 @@ public class SpaWebMvcConfigurer implements WebMvcConfigurer {
                             return requestedResource;
                         } else {
                             // Fallback auf index.html für unbekannte Pfade (SPA-Routen)
-                            // Stelle sicher, dass deine gebaute index.html wirklich unter /static/index.html liegt
-                            Resource indexHtml = new ClassPathResource("/static/index.html");
+                            // Stelle sicher, dass deine gebaute index.html wirklich unter der Location liegt
+                            Resource indexHtml = location.createRelative("index.html");
                             // Prüfe sicherheitshalber, ob die index.html existiert
                             if (indexHtml.exists()) {
                                 return indexHtml;
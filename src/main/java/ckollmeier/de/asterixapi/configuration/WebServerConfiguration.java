@@ -0,0 +1,39 @@
+package ckollmeier.de.asterixapi.configuration;
+
+import ckollmeier.de.asterixapi.webserver.Http2Properties;
+import ckollmeier.de.asterixapi.webserver.StaticResourceProperties;
+import org.apache.coyote.UpgradeProtocol;
+import org.apache.coyote.http2.Http2Protocol;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Applies the {@link Http2Properties} to the embedded Tomcat and binds the {@link StaticResourceProperties}.
+ */
+@Configuration
+@EnableConfigurationProperties({Http2Properties.class, StaticResourceProperties.class})
+public class WebServerConfiguration {
+
+    /**
+     * Tunes the HTTP/2 protocol Spring Boot adds to the connector when {@code server.http2.enabled} is set.
+     *
+     * @param properties the HTTP/2 configuration
+     * @return the customizer
+     */
+    @Bean
+    public WebServerFactoryCustomizer<TomcatServletWebServerFactory> http2Customizer(final Http2Properties properties) {
+        return factory -> factory.addConnectorCustomizers(connector -> {
+            for (UpgradeProtocol protocol : connector.findUpgradeProtocols()) {
+                if (protocol instanceof Http2Protocol http2) {
+                    http2.setMaxConcurrentStreams(properties.maxConcurrentStreams());
+                    http2.setMaxConcurrentStreamExecution(properties.maxConcurrentStreamExecution());
+                    http2.setInitialWindowSize(properties.initialWindowSize());
+                    http2.setKeepAliveTimeout(properties.keepAliveTimeout().toMillis());
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,44 @@
+package ckollmeier.de.asterixapi.controller;
+
+import ckollmeier.de.asterixapi.dto.ChangesDTO;
+import ckollmeier.de.asterixapi.service.ChangeLogService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST Controller for the delta sync of characters and villages.
+ * Clients that were offline fetch only what changed since the last sequence number they have seen
+ * instead of downloading the full lists again.
+ */
+@RestController
+@RequestMapping("/api/asterix/changes")
+@RequiredArgsConstructor
+public class AsterixChangesController {
+
+    /**
+     * Service answering the delta requests from the change log.
+     */
+    private final ChangeLogService changeLogService;
+
+    /**
+     * Retrieves the characters and villages changed since the given sequence number.
+     * Corresponds to the GET request at "/asterix/changes?since=N".
+     * Without {@code since}, only the current sequence number is returned; a client fetches it before
+     * loading the full lists and syncs from it afterwards.
+     * If the changes are no longer in the change log, the response is 410 Gone and the client has to load
+     * the full lists again.
+     *
+     * @param since The last sequence number the client has seen, optional.
+     * @return The changed characters and villages, the removed IDs and the sequence number to sync from next time.
+     */
+    @GetMapping
+    public ChangesDTO getChanges(@RequestParam(required = false) final Long since) {
+        if (since == null) {
+            return changeLogService.getCurrentSequence();
+        }
+        return changeLogService.getChangesSince(since);
+    }
+}
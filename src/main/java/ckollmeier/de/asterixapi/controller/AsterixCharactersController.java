@@ -1,14 +1,22 @@
 package ckollmeier.de.asterixapi.controller;
 
 import ckollmeier.de.asterixapi.dataprovider.CharacterDataProvider;
+import ckollmeier.de.asterixapi.dto.BatchDeleteResultDTO;
+import ckollmeier.de.asterixapi.dto.BatchGetResultDTO;
 import ckollmeier.de.asterixapi.dto.CharacterIdDTO;
+import ckollmeier.de.asterixapi.dto.CharacterIdsDTO;
 import ckollmeier.de.asterixapi.dto.CharacterInputDTO;
 import ckollmeier.de.asterixapi.dto.CharacterOutputDTO;
 import ckollmeier.de.asterixapi.dto.CharactersPageDTO;
+import ckollmeier.de.asterixapi.exception.BadRequestException;
 import ckollmeier.de.asterixapi.exception.NotFoundException;
 import ckollmeier.de.asterixapi.service.CharacterService;
+import ckollmeier.de.asterixapi.service.ResponseCacheService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 
+import java.io.IOException;
 import java.util.List;
 
 import ckollmeier.de.asterixapi.model.Character;
@@ -41,28 +49,38 @@ public class AsterixCharactersController {
      * for output (e.g., lists with associated village details).
      */
     private final CharacterDataProvider characterDataProvider;
+    /**
+     * Cache holding the serialized responses of the list and page data endpoints.
+     */
+    private final ResponseCacheService responseCacheService;
     /**
      * Retrieves a list of all Asterix characters formatted for output.
      * Corresponds to the GET request at "/asterix/characters".
      * Uses the {@link CharacterDataProvider} to get detailed DTOs.
+     * The serialized list is served from the {@link ResponseCacheService} as long as no character or village changed.
      *
-     * @return A {@link List} containing {@link CharacterOutputDTO} objects.
+     * @param request  The current request, used to negotiate gzip compression.
+     * @param response The response the JSON array of {@link CharacterOutputDTO} objects is written to.
+     * @throws IOException if writing the response fails.
      */
     @GetMapping()
-    public List<CharacterOutputDTO> getCharacters() {
-        return characterDataProvider.provideListForOutput();
+    public void getCharacters(final HttpServletRequest request, final HttpServletResponse response) throws IOException {
+        responseCacheService.write(ResponseCacheService.CHARACTERS_KEY, characterDataProvider::provideListForOutput, request, response);
     }
 
     /**
      * Retrieves the aggregated data needed for displaying the characters page.
      * Corresponds to the GET request at "/asterix/characters/page-data".
      * This typically includes data for dropdowns (like villages) and the main character list.
+     * The serialized page data is served from the {@link ResponseCacheService} as long as no character or village changed.
      *
-     * @return A {@link CharactersPageDTO} containing the necessary data for the page view.
+     * @param request  The current request, used to negotiate gzip compression.
+     * @param response The response the {@link CharactersPageDTO} is written to.
+     * @throws IOException if writing the response fails.
      */
     @GetMapping("/page-data")
-    public CharactersPageDTO getCharactersPageData() {
-        return characterService.getCharactersPageData();
+    public void getCharactersPageData(final HttpServletRequest request, final HttpServletResponse response) throws IOException {
+        responseCacheService.write(ResponseCacheService.CHARACTERS_PAGE_KEY, characterService::getCharactersPageData, request, response);
     }
 
     /**
@@ -95,6 +113,20 @@ public class AsterixCharactersController {
                 .orElseThrow(() -> new NotFoundException(String.format("Character with id '%s' not found", id)));
     }
 
+    /**
+     * Retrieves several character entities by their unique identifiers in one call.
+     * Corresponds to the POST request at "/asterix/characters/batch-get".
+     * Note: Returns the raw {@link Character} model entities.
+     *
+     * @param characters The {@link CharacterIdsDTO} with the IDs to retrieve, at most {@value CharacterService#MAX_BATCH_SIZE}.
+     * @return One {@link BatchGetResultDTO} per requested ID in request order; IDs without a character are marked as not found.
+     * @throws BadRequestException if the IDs are missing or too many.
+     */
+    @PostMapping("/batch-get")
+    public List<BatchGetResultDTO<Character>> getCharactersByIds(final @RequestBody CharacterIdsDTO characters) {
+        return characterService.getCharactersByIds(characters.ids());
+    }
+
     /**
      * Retrieves a list of character entities based on their profession.
      * Corresponds to the GET request at "/asterix/characters/profession/{profession}".
@@ -149,6 +181,19 @@ public class AsterixCharactersController {
         return characterService.removeCharacter(character.id());
     }
 
+    /**
+     * Removes several characters from the collection by their IDs.
+     * Corresponds to the DELETE request at "/asterix/characters/batch-remove".
+     *
+     * @param characters The {@link CharacterIdsDTO} with the IDs to remove, at most {@value CharacterService#MAX_BATCH_SIZE}.
+     * @return The {@link BatchDeleteResultDTO} listing the removed IDs and those without a character.
+     * @throws BadRequestException if the IDs are missing or too many.
+     */
+    @DeleteMapping("/batch-remove")
+    public BatchDeleteResultDTO removeCharacters(final @RequestBody CharacterIdsDTO characters) {
+        return characterService.removeCharacters(characters.ids());
+    }
+
     /**
      * Updates an existing character in the collection by its ID.
      * Corresponds to the PUT request at "/asterix/characters/update/{id}".
@@ -0,0 +1,37 @@
+package ckollmeier.de.asterixapi.controller;
+
+import ckollmeier.de.asterixapi.service.ChangeEventBroadcaster;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * REST Controller streaming changes of characters and villages as Server-Sent Events.
+ * Clients patch their state with the events instead of polling the list and page data endpoints.
+ */
+@RestController
+@RequestMapping("/api/asterix/events")
+@RequiredArgsConstructor
+public class AsterixEventsController {
+
+    /**
+     * Broadcaster managing the subscribers of the stream.
+     */
+    private final ChangeEventBroadcaster changeEventBroadcaster;
+
+    /**
+     * Subscribes to the change events.
+     * Corresponds to the GET request at "/asterix/events".
+     * Every event is named after its {@link ckollmeier.de.asterixapi.event.ChangeType} (e.g. {@code character-moved})
+     * and carries the {@link ckollmeier.de.asterixapi.event.ChangeEvent} as JSON data.
+     *
+     * @return The emitter the events are streamed to.
+     */
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter getEvents() {
+        return changeEventBroadcaster.subscribe();
+    }
+}
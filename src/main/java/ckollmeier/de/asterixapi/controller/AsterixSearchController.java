@@ -0,0 +1,47 @@
+package ckollmeier.de.asterixapi.controller;
+
+import ckollmeier.de.asterixapi.dto.SearchHitDTO;
+import ckollmeier.de.asterixapi.service.SearchService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * REST Controller for the full-text search over characters and villages.
+ * Searches are answered from an in-process index and never query the database.
+ */
+@RestController
+@RequestMapping("/api/asterix/search")
+@RequiredArgsConstructor
+public class AsterixSearchController {
+
+    /**
+     * Maximum number of hits a client may request.
+     */
+    private static final int MAX_LIMIT = 100;
+
+    /**
+     * Service answering the searches.
+     */
+    private final SearchService searchService;
+
+    /**
+     * Searches characters by name and profession and villages by name.
+     * Corresponds to the GET request at "/asterix/search?q=...".
+     * All words of the query have to match a word of the hit, exactly, as the beginning of a word,
+     * or with a typo for longer words.
+     *
+     * @param q     The query.
+     * @param limit The maximum number of hits, at most 100, 20 by default.
+     * @return The hits, the most relevant first.
+     */
+    @GetMapping
+    public List<SearchHitDTO> search(@RequestParam final String q,
+                                     @RequestParam(defaultValue = "20") final int limit) {
+        return searchService.search(q, Math.min(limit, MAX_LIMIT));
+    }
+}
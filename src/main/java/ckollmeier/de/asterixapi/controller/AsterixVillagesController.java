@@ -1,13 +1,21 @@
 package ckollmeier.de.asterixapi.controller;
 
 import ckollmeier.de.asterixapi.dataprovider.VillageDataProvider;
+import ckollmeier.de.asterixapi.dto.BatchDeleteResultDTO;
+import ckollmeier.de.asterixapi.dto.BatchGetResultDTO;
+import ckollmeier.de.asterixapi.dto.VillageCountOutputDTO;
 import ckollmeier.de.asterixapi.dto.VillageIdDTO;
+import ckollmeier.de.asterixapi.dto.VillageIdsDTO;
 import ckollmeier.de.asterixapi.dto.VillageInputDTO;
 import ckollmeier.de.asterixapi.dto.VillageOutputDTO;
 import ckollmeier.de.asterixapi.dto.VillagesPageDTO;
+import ckollmeier.de.asterixapi.exception.BadRequestException;
 import ckollmeier.de.asterixapi.exception.NotFoundException;
 import ckollmeier.de.asterixapi.model.Village;
+import ckollmeier.de.asterixapi.service.ResponseCacheService;
 import ckollmeier.de.asterixapi.service.VillageService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -18,6 +26,7 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.io.IOException;
 import java.util.List;
 
 /**
@@ -40,28 +49,53 @@ public class AsterixVillagesController {
      * for output (e.g., lists with associated village details).
      */
     private final VillageDataProvider villageDataProvider;
+    /**
+     * Cache holding the serialized responses of the list and page data endpoints.
+     */
+    private final ResponseCacheService responseCacheService;
     /**
      * Retrieves a list of all Asterix villages formatted for output.
      * Corresponds to the GET request at "/asterix/villages".
      * Uses the {@link VillageDataProvider} to get detailed DTOs.
+     * The serialized list is served from the {@link ResponseCacheService} as long as no character or village changed.
      *
-     * @return A {@link List} containing {@link VillageOutputDTO} objects.
+     * @param request  The current request, used to negotiate gzip compression.
+     * @param response The response the JSON array of {@link VillageOutputDTO} objects is written to.
+     * @throws IOException if writing the response fails.
      */
     @GetMapping()
-    public List<VillageOutputDTO> getVillages() {
-        return villageDataProvider.provideListForOutput();
+    public void getVillages(final HttpServletRequest request, final HttpServletResponse response) throws IOException {
+        responseCacheService.write(ResponseCacheService.VILLAGES_KEY, villageDataProvider::provideListForOutput, request, response);
+    }
+
+    /**
+     * Retrieves a lightweight list of all Asterix villages with their inhabitant counts instead of the inhabitants.
+     * Corresponds to the GET request at "/asterix/villages?view=counts".
+     * The counts are maintained on the village documents, so no characters are loaded.
+     * The serialized list is served from the {@link ResponseCacheService} as long as no character or village changed.
+     *
+     * @param request  The current request, used to negotiate gzip compression.
+     * @param response The response the JSON array of {@link VillageCountOutputDTO} objects is written to.
+     * @throws IOException if writing the response fails.
+     */
+    @GetMapping(params = "view=counts")
+    public void getVillageCounts(final HttpServletRequest request, final HttpServletResponse response) throws IOException {
+        responseCacheService.write(ResponseCacheService.VILLAGES_COUNTS_KEY, villageDataProvider::provideListWithCounts, request, response);
     }
 
     /**
      * Retrieves the aggregated data needed for displaying the villages page.
      * Corresponds to the GET request at "/asterix/villages/page-data".
      * This typically includes data for dropdowns (like villages) and the main village list.
+     * The serialized page data is served from the {@link ResponseCacheService} as long as no character or village changed.
      *
-     * @return A {@link VillagesPageDTO} containing the necessary data for the page view.
+     * @param request  The current request, used to negotiate gzip compression.
+     * @param response The response the {@link VillagesPageDTO} is written to.
+     * @throws IOException if writing the response fails.
      */
     @GetMapping("/page-data")
-    public VillagesPageDTO getVillagesPageData() {
-        return villageService.getVillagesPageData();
+    public void getVillagesPageData(final HttpServletRequest request, final HttpServletResponse response) throws IOException {
+        responseCacheService.write(ResponseCacheService.VILLAGES_PAGE_KEY, villageService::getVillagesPageData, request, response);
     }
 
     /**
@@ -94,6 +128,20 @@ public class AsterixVillagesController {
                 .orElseThrow(() -> new NotFoundException(String.format("Village with id '%s' not found", id)));
     }
 
+    /**
+     * Retrieves several village entities by their unique identifiers in one call.
+     * Corresponds to the POST request at "/asterix/villages/batch-get".
+     * Note: Returns the raw {@link Village} model entities.
+     *
+     * @param villages The {@link VillageIdsDTO} with the IDs to retrieve, at most {@value VillageService#MAX_BATCH_SIZE}.
+     * @return One {@link BatchGetResultDTO} per requested ID in request order; IDs without a village are marked as not found.
+     * @throws BadRequestException if the IDs are missing or too many.
+     */
+    @PostMapping("/batch-get")
+    public List<BatchGetResultDTO<Village>> getVillagesByIds(final @RequestBody VillageIdsDTO villages) {
+        return villageService.getVillagesByIds(villages.ids());
+    }
+
     /**
      * Adds a new village to the collection using data from the input DTO.
      * Corresponds to the POST request at "/asterix/villages/add".
@@ -122,6 +170,19 @@ public class AsterixVillagesController {
         return villageService.removeVillage(village.id());
     }
 
+    /**
+     * Removes several villages from the collection by their IDs.
+     * Corresponds to the DELETE request at "/asterix/villages/batch-remove". Inhabitants of the removed villages are left without a village.
+     *
+     * @param villages The {@link VillageIdsDTO} with the IDs to remove, at most {@value VillageService#MAX_BATCH_SIZE}.
+     * @return The {@link BatchDeleteResultDTO} listing the removed IDs and those without a village.
+     * @throws BadRequestException if the IDs are missing or too many.
+     */
+    @DeleteMapping("/batch-remove")
+    public BatchDeleteResultDTO removeVillages(final @RequestBody VillageIdsDTO villages) {
+        return villageService.removeVillages(villages.ids());
+    }
+
     /**
      * Updates an existing village in the collection by its ID.
      * Corresponds to the PUT request at "/asterix/villages/update/{id}".
@@ -0,0 +1,32 @@
+package ckollmeier.de.asterixapi.converter;
+
+import ckollmeier.de.asterixapi.dto.BatchDeleteResultDTO;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Converts the IDs deleted by a batch delete into a {@link BatchDeleteResultDTO}.
+ */
+public final class BatchDeleteResultDTOConverter {
+    private BatchDeleteResultDTOConverter() {
+        // Private constructor to prevent instantiation
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Reports every requested ID once, as deleted or as not found.
+     *
+     * @param ids     the requested IDs, duplicates allowed
+     * @param deleted the IDs of the deleted entities
+     * @return the requested IDs split by status, each in request order without duplicates
+     */
+    public static BatchDeleteResultDTO convert(final List<String> ids, final Collection<String> deleted) {
+        final Map<Boolean, List<String>> byStatus = ids.stream()
+                .distinct()
+                .collect(Collectors.partitioningBy(deleted::contains));
+        return new BatchDeleteResultDTO(byStatus.get(true), byStatus.get(false));
+    }
+}
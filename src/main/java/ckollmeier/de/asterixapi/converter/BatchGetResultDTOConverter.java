@@ -0,0 +1,33 @@
+package ckollmeier.de.asterixapi.converter;
+
+import ckollmeier.de.asterixapi.dto.BatchGetResultDTO;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Converts the entities found for a list of requested IDs into {@link BatchGetResultDTO}s.
+ */
+public final class BatchGetResultDTOConverter {
+    private BatchGetResultDTOConverter() {
+        // Private constructor to prevent instantiation
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Lines up the found entities with the requested IDs.
+     *
+     * @param ids   the requested IDs, duplicates allowed
+     * @param found the found entities by ID
+     * @param <T>   the entity type
+     * @return one result per requested ID in request order, marked as not found if the ID is missing from {@code found}
+     */
+    public static <T> List<BatchGetResultDTO<T>> convert(final List<String> ids, final Map<String, T> found) {
+        return ids.stream()
+                .map(id -> {
+                    final T item = found.get(id);
+                    return new BatchGetResultDTO<>(id, item != null, item);
+                })
+                .toList();
+    }
+}
@@ -3,14 +3,14 @@ package ckollmeier.de.asterixapi.converter;
 import ckollmeier.de.asterixapi.dto.CharacterIdDTO;
 import ckollmeier.de.asterixapi.dto.CharacterInputDTO;
 import ckollmeier.de.asterixapi.model.Character;
-import ckollmeier.de.asterixapi.repository.CharacterRepository;
-import ckollmeier.de.asterixapi.repository.VillageRepository;
+import ckollmeier.de.asterixapi.model.VillageReference;
+import ckollmeier.de.asterixapi.service.EntityCache;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
 /**
  * A service component responsible for converting between different Character DTOs (Data Transfer Objects)
- * and the core {@link Character} model entity. It utilizes repositories to fetch related entities
+ * and the core {@link Character} model entity. It utilizes the {@link EntityCache} to fetch related entities
  * like Villages or existing Characters during the conversion process.
  */
 @Service
@@ -18,13 +18,9 @@ import org.springframework.stereotype.Service;
 public class CharacterConverter {
 
     /**
-     * Repository for accessing village data, used to link a character to its village during conversion.
+     * Near cache used to look up villages (to link a character to its village) and existing characters by ID.
      */
-    private final VillageRepository villageRepository;
-    /**
-     * Repository for accessing character data, used to find existing characters by ID during conversion.
-     */
-    private final CharacterRepository characterRepository;
+    private final EntityCache entityCache;
 
     /**
      * Converts a {@link CharacterInputDTO} (typically used for creating new characters)
@@ -44,8 +40,8 @@ public class CharacterConverter {
                 characterInputDTO.name(),
                 characterInputDTO.age(),
                 characterInputDTO.profession(),
-                // Find the village by ID, return null if not found
-                villageRepository.findById(characterInputDTO.villageId()).orElse(null));
+                // Find the village by ID and store its ID and name inline, null if not found
+                entityCache.getVillage(characterInputDTO.villageId()).map(VillageReference::of).orElse(null));
     }
 
     /**
@@ -60,7 +56,7 @@ public class CharacterConverter {
      */
     public Character convert(final CharacterIdDTO characterIdDTO) {
         // Find the character by ID, return null if not found
-        return characterRepository.findById(characterIdDTO.id()).orElse(null);
+        return entityCache.getCharacter(characterIdDTO.id()).orElse(null);
     }
 
 }
\ No newline at end of file
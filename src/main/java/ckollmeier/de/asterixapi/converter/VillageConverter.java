@@ -3,13 +3,13 @@ package ckollmeier.de.asterixapi.converter;
 import ckollmeier.de.asterixapi.dto.VillageIdDTO;
 import ckollmeier.de.asterixapi.dto.VillageInputDTO;
 import ckollmeier.de.asterixapi.model.Village;
-import ckollmeier.de.asterixapi.repository.VillageRepository;
+import ckollmeier.de.asterixapi.service.EntityCache;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
 /**
  * A service component responsible for converting between different Village DTOs (Data Transfer Objects)
- * and the core {@link Village} model entity. It utilizes repositories to fetch related entities
+ * and the core {@link Village} model entity. It utilizes the {@link EntityCache} to fetch related entities
  * like Villages or existing Villages during the conversion process.
  */
 @Service
@@ -17,9 +17,9 @@ import org.springframework.stereotype.Service;
 public class VillageConverter {
 
     /**
-     * Repository for accessing village data, used to link a village to its village during conversion.
+     * Near cache used to look up existing villages by ID during conversion.
      */
-    private final VillageRepository villageRepository;
+    private final EntityCache entityCache;
 
     /**
      * Converts a {@link VillageInputDTO} (typically used for creating new villages)
@@ -54,7 +54,7 @@ public class VillageConverter {
      */
     public Village convert(final VillageIdDTO villageIdDTO) {
         // Find the village by ID, return null if not found
-        return villageRepository.findById(villageIdDTO.id()).orElse(null);
+        return entityCache.getVillage(villageIdDTO.id()).orElse(null);
     }
 
 }
\ No newline at end of file
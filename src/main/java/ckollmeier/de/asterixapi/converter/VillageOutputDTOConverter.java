@@ -4,6 +4,7 @@ import ckollmeier.de.asterixapi.dto.MinimalVillageOutputDTO;
 import ckollmeier.de.asterixapi.dto.VillageOutputDTO;
 import ckollmeier.de.asterixapi.model.Village;
 import ckollmeier.de.asterixapi.model.Character;
+import ckollmeier.de.asterixapi.model.VillageReference;
 
 import java.util.List;
 
@@ -90,6 +91,20 @@ public final class VillageOutputDTOConverter {
         );
     }
 
+    /**
+     * Converts the {@link VillageReference} stored on a character into a minimal {@link MinimalVillageOutputDTO}.
+     * The reference already holds the village's ID and name, so no village has to be loaded.
+     *
+     * @param village The {@link VillageReference} to convert. Should not be null.
+     * @return A new {@link MinimalVillageOutputDTO} containing only the ID and name.
+     */
+    public static MinimalVillageOutputDTO convertMinimal(final VillageReference village) {
+        return new MinimalVillageOutputDTO(
+                village.id(),
+                village.name()
+        );
+    }
+
     /**
      * Converts a list of {@link Village} entities into a list of {@link VillageOutputDTO} objects
      * **without** including their inhabitants.
@@ -4,6 +4,7 @@ import ckollmeier.de.asterixapi.converter.CharacterOutputDTOConverter; // Import
 import ckollmeier.de.asterixapi.dto.CharacterOutputDTO;
 import ckollmeier.de.asterixapi.dto.CharacterSelectDTO;
 import ckollmeier.de.asterixapi.repository.CharacterRepository;
+import ckollmeier.de.asterixapi.service.SingleFlight;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
@@ -25,6 +26,11 @@ public class CharacterDataProvider {
      */
     private final CharacterRepository characterRepository;
 
+    /**
+     * Coalesces concurrent identical calls, e.g. from many tabs reloading at once, into one database scan.
+     */
+    private final SingleFlight singleFlight;
+
     /**
      * Provides a simplified list of characters suitable for selection interfaces (e.g., dropdowns).
      * Each character is represented by a {@link CharacterSelectDTO} containing only their ID and name.
@@ -33,12 +39,12 @@ public class CharacterDataProvider {
      *         Returns an empty list if no characters exist.
      */
     public List<CharacterSelectDTO> provideListForSelect() {
-        return characterRepository.findAll().stream()
+        return singleFlight.execute("characters-select", () -> characterRepository.findAll().stream()
                 .map(character -> new CharacterSelectDTO(character.id(),
                         character.name(),
                          character.village() != null ? character.village().name() : null,
                          character.village() != null ? character.village().id() : null))
-                .toList();
+                .toList());
     }
 
     /**
@@ -51,6 +57,7 @@ public class CharacterDataProvider {
      *         Returns an empty list if no characters exist.
      */
     public List<CharacterOutputDTO> provideListForOutput() {
-        return CharacterOutputDTOConverter.convert(characterRepository.findAll());
+        return singleFlight.execute("characters-output",
+                () -> CharacterOutputDTOConverter.convert(characterRepository.findAll()));
     }
 }
\ No newline at end of file
@@ -1,12 +1,15 @@
 package ckollmeier.de.asterixapi.dataprovider;
 
 import ckollmeier.de.asterixapi.converter.VillageOutputDTOConverter; // Added this import as it seems intended for the output conversion
+import ckollmeier.de.asterixapi.dto.VillageCountOutputDTO;
 import ckollmeier.de.asterixapi.dto.VillageOutputDTO;
 import ckollmeier.de.asterixapi.dto.VillageSelectDTO;
+import ckollmeier.de.asterixapi.extractor.VillageExtractor;
 import ckollmeier.de.asterixapi.model.Character;
 import ckollmeier.de.asterixapi.model.Village;
 import ckollmeier.de.asterixapi.repository.CharacterRepository;
 import ckollmeier.de.asterixapi.repository.VillageRepository;
+import ckollmeier.de.asterixapi.service.SingleFlight;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
@@ -34,6 +37,11 @@ public final class VillageDataProvider { // Made class final as per original cod
      */
     private final CharacterRepository characterRepository; // Made final to work correctly with @RequiredArgsConstructor
 
+    /**
+     * Coalesces concurrent identical calls, e.g. from many tabs reloading at once, into one database scan.
+     */
+    private final SingleFlight singleFlight;
+
     /**
      * Provides a simplified list of villages suitable for selection interfaces (e.g., dropdowns).
      * Each village is represented by a {@link VillageSelectDTO} containing only its ID and name.
@@ -42,9 +50,9 @@ public final class VillageDataProvider { // Made class final as per original cod
      *         Returns an empty list if no villages exist.
      */
     public List<VillageSelectDTO> provideListForSelect() {
-        return villageRepository.findAll().stream()
+        return singleFlight.execute("villages-select", () -> villageRepository.findAll().stream()
                 .map(village -> new VillageSelectDTO(village.id(), village.name()))
-                .toList(); // Switched to .toList()
+                .toList()); // Switched to .toList()
     }
 
     /**
@@ -57,8 +65,24 @@ public final class VillageDataProvider { // Made class final as per original cod
      *         Returns an empty list if no villages exist.
      */
     public List<VillageOutputDTO> provideListForOutput() {
-        List<Village> villages = villageRepository.findAll();
-        List<Character> charactersInVillages = characterRepository.findByVillageIn(villages);
-        return VillageOutputDTOConverter.convert(villages, charactersInVillages);
+        return singleFlight.execute("villages-output", () -> {
+            List<Village> villages = villageRepository.findAll();
+            List<Character> charactersInVillages = characterRepository.findByVillageIdIn(VillageExtractor.extractVillageIds(villages));
+            return VillageOutputDTOConverter.convert(villages, charactersInVillages);
+        });
+    }
+
+    /**
+     * Provides a lightweight list of villages for output display.
+     * Each village is represented by a {@link VillageCountOutputDTO} containing its ID, name and
+     * the maintained inhabitant count, so no characters have to be loaded.
+     *
+     * @return A {@link List} of {@link VillageCountOutputDTO} objects representing all villages.
+     *         Returns an empty list if no villages exist.
+     */
+    public List<VillageCountOutputDTO> provideListWithCounts() {
+        return singleFlight.execute("villages-counts", () -> villageRepository.findAll().stream()
+                .map(village -> new VillageCountOutputDTO(village.id(), village.name(), village.inhabitantCount()))
+                .toList());
     }
-}
\ No newline at end of file
+}
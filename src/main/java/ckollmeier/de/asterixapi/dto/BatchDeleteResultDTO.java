@@ -0,0 +1,9 @@
+package ckollmeier.de.asterixapi.dto;
+
+import java.util.List;
+
+public record BatchDeleteResultDTO(
+        List<String> deleted,
+        List<String> notFound
+) {
+}
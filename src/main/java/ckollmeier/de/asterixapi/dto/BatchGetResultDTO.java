@@ -0,0 +1,8 @@
+package ckollmeier.de.asterixapi.dto;
+
+public record BatchGetResultDTO<T>(
+        String id,
+        boolean found,
+        T item
+) {
+}
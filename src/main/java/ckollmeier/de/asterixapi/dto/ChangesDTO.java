@@ -0,0 +1,12 @@
+package ckollmeier.de.asterixapi.dto;
+
+import java.util.List;
+
+public record ChangesDTO(
+        long sequence,
+        List<CharacterOutputDTO> characters,
+        List<VillageCountOutputDTO> villages,
+        List<String> removedCharacterIds,
+        List<String> removedVillageIds
+) {
+}
@@ -0,0 +1,8 @@
+package ckollmeier.de.asterixapi.dto;
+
+import java.util.List;
+
+public record CharacterIdsDTO(
+        List<String> ids
+) {
+}
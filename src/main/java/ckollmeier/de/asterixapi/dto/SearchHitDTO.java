@@ -0,0 +1,10 @@
+package ckollmeier.de.asterixapi.dto;
+
+public record SearchHitDTO(
+        String type,
+        String id,
+        String name,
+        String profession,
+        double score
+) {
+}
@@ -0,0 +1,8 @@
+package ckollmeier.de.asterixapi.dto;
+
+public record VillageCountOutputDTO(
+        String id,
+        String name,
+        int inhabitantCount
+) {
+}
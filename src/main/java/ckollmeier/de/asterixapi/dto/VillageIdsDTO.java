@@ -0,0 +1,8 @@
+package ckollmeier.de.asterixapi.dto;
+
+import java.util.List;
+
+public record VillageIdsDTO(
+        List<String> ids
+) {
+}
@@ -0,0 +1,25 @@
+package ckollmeier.de.asterixapi.event;
+
+import java.util.List;
+
+/**
+ * The {@link ChangeEvent}s of one write operation, published together instead of one by one.
+ * <p>
+ * Listeners writing to the database record a batch with a fixed number of commands, independent of the number
+ * of changes. All other listeners handle a batch like its events published one after another.
+ * </p>
+ *
+ * @param events the changes in the order they happened
+ */
+public record ChangeBatch(
+        List<ChangeEvent> events
+) {
+    /**
+     * Creates a batch of an immutable copy of the given changes.
+     *
+     * @param events the changes in the order they happened
+     */
+    public ChangeBatch {
+        events = List.copyOf(events);
+    }
+}
@@ -0,0 +1,129 @@
+package ckollmeier.de.asterixapi.event;
+
+import ckollmeier.de.asterixapi.converter.CharacterOutputDTOConverter;
+import ckollmeier.de.asterixapi.converter.VillageOutputDTOConverter;
+import ckollmeier.de.asterixapi.dto.CharacterOutputDTO;
+import ckollmeier.de.asterixapi.model.Character;
+import ckollmeier.de.asterixapi.model.Village;
+
+/**
+ * A fine-grained change of a character or village, published by the services after the write.
+ * <p>
+ * Events are published through Spring's {@link org.springframework.context.ApplicationEventPublisher}
+ * and serialized as JSON for clients, which use them to patch their state instead of re-fetching whole lists.
+ * </p>
+ *
+ * @param type the kind of change
+ * @param id   the ID of the changed character or village
+ * @param data the changed entity as output DTO, {@code null} for removals
+ */
+public record ChangeEvent(
+        ChangeType type,
+        String id,
+        Object data
+) {
+    /**
+     * Creates the event for a new character.
+     *
+     * @param character the saved character
+     * @return the event
+     */
+    public static ChangeEvent characterAdded(final Character character) {
+        return new ChangeEvent(ChangeType.CHARACTER_ADDED, character.id(), CharacterOutputDTOConverter.convert(character));
+    }
+
+    /**
+     * Creates the event for a character whose name, age or profession changed.
+     *
+     * @param character the updated character
+     * @return the event
+     */
+    public static ChangeEvent characterUpdated(final Character character) {
+        return new ChangeEvent(ChangeType.CHARACTER_UPDATED, character.id(), CharacterOutputDTOConverter.convert(character));
+    }
+
+    /**
+     * Creates the event for a character that moved to another village or lost its village.
+     *
+     * @param character         the updated character
+     * @param previousVillageId the ID of the village the character left, {@code null} if it had none
+     * @return the event
+     */
+    public static ChangeEvent characterMoved(final Character character, final String previousVillageId) {
+        return new ChangeEvent(ChangeType.CHARACTER_MOVED, character.id(),
+                new CharacterMove(CharacterOutputDTOConverter.convert(character), previousVillageId));
+    }
+
+    /**
+     * Creates the event for a removed character.
+     *
+     * @param id the ID of the removed character
+     * @return the event
+     */
+    public static ChangeEvent characterRemoved(final String id) {
+        return new ChangeEvent(ChangeType.CHARACTER_REMOVED, id, null);
+    }
+
+    /**
+     * Creates the event for a new village.
+     *
+     * @param village the saved village
+     * @return the event
+     */
+    public static ChangeEvent villageAdded(final Village village) {
+        return new ChangeEvent(ChangeType.VILLAGE_ADDED, village.id(), VillageOutputDTOConverter.convertMinimal(village));
+    }
+
+    /**
+     * Creates the event for a renamed village.
+     *
+     * @param village the saved village
+     * @return the event
+     */
+    public static ChangeEvent villageRenamed(final Village village) {
+        return new ChangeEvent(ChangeType.VILLAGE_RENAMED, village.id(), VillageOutputDTOConverter.convertMinimal(village));
+    }
+
+    /**
+     * Creates the event for a village whose inhabitant count changed.
+     *
+     * @param villageId the ID of the village
+     * @param delta     the number of characters that moved in (positive) or out (negative)
+     * @return the event
+     */
+    public static ChangeEvent villageInhabitantsChanged(final String villageId, final int delta) {
+        return new ChangeEvent(ChangeType.VILLAGE_INHABITANTS_CHANGED, villageId, new InhabitantCountChange(delta));
+    }
+
+    /**
+     * Creates the event for a removed village.
+     *
+     * @param id the ID of the removed village
+     * @return the event
+     */
+    public static ChangeEvent villageRemoved(final String id) {
+        return new ChangeEvent(ChangeType.VILLAGE_REMOVED, id, null);
+    }
+
+    /**
+     * The data of a {@link ChangeType#CHARACTER_MOVED} event.
+     *
+     * @param character         the character in its new village
+     * @param previousVillageId the ID of the village the character left, {@code null} if it had none
+     */
+    public record CharacterMove(
+            CharacterOutputDTO character,
+            String previousVillageId
+    ) {
+    }
+
+    /**
+     * The data of a {@link ChangeType#VILLAGE_INHABITANTS_CHANGED} event.
+     *
+     * @param delta the number of characters that moved in (positive) or out (negative)
+     */
+    public record InhabitantCountChange(
+            int delta
+    ) {
+    }
+}
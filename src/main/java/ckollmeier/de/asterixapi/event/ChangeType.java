@@ -0,0 +1,78 @@
+package ckollmeier.de.asterixapi.event;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * The kinds of changes published as {@link ChangeEvent}s.
+ */
+public enum ChangeType {
+    /**
+     * A character was created, the data is the new character.
+     */
+    CHARACTER_ADDED("character-added", true),
+    /**
+     * A character's name, age or profession changed, the data is the updated character.
+     */
+    CHARACTER_UPDATED("character-updated", true),
+    /**
+     * A character moved to another village or lost its village, the data is the updated character
+     * and the ID of the village it left.
+     */
+    CHARACTER_MOVED("character-moved", true),
+    /**
+     * A character was removed, there is no data.
+     */
+    CHARACTER_REMOVED("character-removed", true),
+    /**
+     * A village was created, the data is the new village. Its inhabitants are published as moved characters.
+     */
+    VILLAGE_ADDED("village-added", false),
+    /**
+     * A village was renamed, the data is the village with its new name.
+     * The village name stored on the inhabitants changed as well, no character events are published for it.
+     */
+    VILLAGE_RENAMED("village-renamed", false),
+    /**
+     * The inhabitant count of a village changed because characters moved in or out or were added or removed,
+     * the data is the change of the count.
+     */
+    VILLAGE_INHABITANTS_CHANGED("village-inhabitants-changed", false),
+    /**
+     * A village was removed, there is no data. Its inhabitants are published as moved characters before.
+     */
+    VILLAGE_REMOVED("village-removed", false);
+
+    /**
+     * The name used for the event on the wire.
+     */
+    private final String eventName;
+
+    /**
+     * Whether the changed entity is a character, otherwise it is a village.
+     */
+    private final boolean characterChange;
+
+    ChangeType(final String eventName, final boolean characterChange) {
+        this.eventName = eventName;
+        this.characterChange = characterChange;
+    }
+
+    /**
+     * Returns the name used for the event on the wire, e.g. as the SSE event name.
+     *
+     * @return the event name
+     */
+    @JsonValue
+    public String getEventName() {
+        return eventName;
+    }
+
+    /**
+     * Returns whether the changed entity is a character.
+     *
+     * @return {@code true} for character changes, {@code false} for village changes
+     */
+    public boolean isCharacterChange() {
+        return characterChange;
+    }
+}
@@ -0,0 +1,58 @@
+package ckollmeier.de.asterixapi.job;
+
+import ckollmeier.de.asterixapi.repository.VillageRepository;
+import ckollmeier.de.asterixapi.service.EntityCache;
+import ckollmeier.de.asterixapi.service.ResponseCacheService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Scheduled job recomputing the inhabitant counts of all villages.
+ * <p>
+ * The counts are maintained with {@code $inc} on every move, but a crash between saving a character and
+ * incrementing its village, or villages stored before the counter existed, leave them off.
+ * The job runs shortly after startup and then periodically; both delays can be configured with
+ * {@code asterix.inhabitant-count-repair.initial-delay} and {@code asterix.inhabitant-count-repair.interval}.
+ * </p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class InhabitantCountRepairJob {
+
+    /**
+     * Repository performing the recomputation.
+     */
+    private final VillageRepository villageRepository;
+
+    /**
+     * Cache of serialized read responses, invalidated if a count was corrected.
+     */
+    private final ResponseCacheService responseCacheService;
+
+    /**
+     * Near cache of villages, evicted if a count was corrected.
+     */
+    private final EntityCache entityCache;
+
+    /**
+     * Corrects all inhabitant counts that drifted.
+     */
+    @Scheduled(initialDelayString = "${asterix.inhabitant-count-repair.initial-delay:PT1M}",
+            fixedDelayString = "${asterix.inhabitant-count-repair.interval:PT1H}")
+    public void repair() {
+        try {
+            final long repaired = villageRepository.repairInhabitantCounts();
+            if (repaired > 0) {
+                log.info("Repaired inhabitant count of {} villages", repaired);
+                entityCache.evictAllVillages();
+                responseCacheService.invalidate();
+            }
+        } catch (DataAccessException e) {
+            log.warn("Could not repair inhabitant counts", e);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package ckollmeier.de.asterixapi.migration;
+
+import ckollmeier.de.asterixapi.model.Character;
+import ckollmeier.de.asterixapi.model.Village;
+import ckollmeier.de.asterixapi.repository.memory.InMemoryRepository;
+import ckollmeier.de.asterixapi.service.EntityCache;
+import ckollmeier.de.asterixapi.service.ResponseCacheService;
+import com.mongodb.client.result.UpdateResult;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Startup migration initializing the {@code version} field of characters and villages stored before
+ * optimistic locking was introduced.
+ * <p>
+ * Documents without a version would be treated as new by Spring Data and inserted again on save,
+ * so they get version {@code 0}. The migration is idempotent and runs once at startup as an
+ * {@link ApplicationRunner}, so no request can save an unversioned document before it completes.
+ * An unreachable database is logged and does not break the application start.
+ * Responses and entities cached while it ran are invalidated once it completes.
+ * </p>
+ */
+@Slf4j
+@Component
+@Profile("!" + InMemoryRepository.PROFILE)
+@RequiredArgsConstructor
+public class VersionFieldMigration implements ApplicationRunner {
+
+    /**
+     * The versioned document types.
+     */
+    private static final List<Class<?>> VERSIONED_TYPES = List.of(Character.class, Village.class);
+
+    /**
+     * Template used for the bulk updates.
+     */
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * Cache of serialized read responses, invalidated once the migration completes.
+     */
+    private final ResponseCacheService responseCacheService;
+
+    /**
+     * Near cache of characters and villages, evicted once the migration completes.
+     */
+    private final EntityCache entityCache;
+
+    /**
+     * Runs the migration before the application reports ready.
+     *
+     * @param args the application arguments, not used
+     */
+    @Override
+    public void run(final ApplicationArguments args) {
+        migrate();
+    }
+
+    /**
+     * Sets version {@code 0} on all characters and villages that have no version yet and invalidates the caches.
+     */
+    public void migrate() {
+        for (Class<?> type : VERSIONED_TYPES) {
+            try {
+                final UpdateResult result = mongoTemplate.updateMulti(
+                        Query.query(Criteria.where("version").exists(false)),
+                        new Update().set("version", 0L),
+                        type);
+                if (result.getModifiedCount() > 0) {
+                    log.info("Initialized version of {} {} documents", result.getModifiedCount(), type.getSimpleName());
+                }
+            } catch (DataAccessException e) {
+                log.warn("Could not initialize version of {} documents", type.getSimpleName(), e);
+            }
+        }
+        entityCache.evictAllCharacters();
+        entityCache.evictAllVillages();
+        responseCacheService.invalidate();
+    }
+}
@@ -0,0 +1,100 @@
+package ckollmeier.de.asterixapi.migration;
+
+import ckollmeier.de.asterixapi.model.Character;
+import ckollmeier.de.asterixapi.model.Village;
+import ckollmeier.de.asterixapi.repository.memory.InMemoryRepository;
+import ckollmeier.de.asterixapi.service.EntityCache;
+import ckollmeier.de.asterixapi.service.ResponseCacheService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.schema.JsonSchemaObject;
+import org.springframework.stereotype.Component;
+
+/**
+ * Startup migration converting the village of characters from a document reference to an inline
+ * {@link ckollmeier.de.asterixapi.model.VillageReference}.
+ * <p>
+ * Characters used to store only the village id, which had to be resolved with an extra query on every read.
+ * For each village, all characters still holding the plain id (or an outdated name) get the inline
+ * {@code {_id, name}} document. Ids of villages that no longer exist are unset afterwards, the same way
+ * {@link ckollmeier.de.asterixapi.repository.CharacterRepositoryCustom#unlinkVillages} removes a village.
+ * The updates work on the raw collection, because the old format cannot be mapped to the current model.
+ * The migration is idempotent and runs once at startup as an {@link ApplicationRunner}, so it completes
+ * before the application reports ready and takes traffic.
+ * Responses and characters cached while it ran are invalidated once it completes.
+ * </p>
+ */
+@Slf4j
+@Component
+@Profile("!" + InMemoryRepository.PROFILE)
+@RequiredArgsConstructor
+public class VillageReferenceMigration implements ApplicationRunner {
+
+    /**
+     * Template used for the bulk updates.
+     */
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * Cache of serialized read responses, invalidated once the migration completes.
+     */
+    private final ResponseCacheService responseCacheService;
+
+    /**
+     * Near cache of characters, evicted once the migration completes.
+     */
+    private final EntityCache entityCache;
+
+    /**
+     * Runs the migration before the application reports ready.
+     *
+     * @param args the application arguments, not used
+     */
+    @Override
+    public void run(final ApplicationArguments args) {
+        migrate();
+    }
+
+    /**
+     * Stores id and name of the village inline on all characters that still reference it by id only
+     * and invalidates the caches.
+     */
+    public void migrate() {
+        try {
+            final String charactersCollection = mongoTemplate.getCollectionName(Character.class);
+            long migrated = 0;
+            for (Village village : mongoTemplate.findAll(Village.class)) {
+                migrated += mongoTemplate.updateMulti(
+                        Query.query(new Criteria().orOperator(
+                                Criteria.where("village").is(village.id()),
+                                Criteria.where("village._id").is(village.id()).and("village.name").ne(village.name()))),
+                        new Update()
+                                .set("village", new Document("_id", village.id()).append("name", village.name()))
+                                .inc("version", 1),
+                        charactersCollection).getModifiedCount();
+            }
+            // Every remaining plain id belongs to a village that has been deleted
+            final long orphaned = mongoTemplate.updateMulti(
+                    Query.query(Criteria.where("village").type(JsonSchemaObject.Type.STRING)),
+                    new Update().unset("village").inc("version", 1),
+                    charactersCollection).getModifiedCount();
+            if (migrated > 0 || orphaned > 0) {
+                log.info("Stored village inline on {} characters, removed {} references to missing villages",
+                        migrated, orphaned);
+            }
+        } catch (DataAccessException e) {
+            log.warn("Could not migrate village references of characters", e);
+        }
+        entityCache.evictAllCharacters();
+        responseCacheService.invalidate();
+    }
+}
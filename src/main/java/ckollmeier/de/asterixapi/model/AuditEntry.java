@@ -0,0 +1,33 @@
+package ckollmeier.de.asterixapi.model;
+
+import ckollmeier.de.asterixapi.event.ChangeType;
+import lombok.With;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * An entry of the audit log, recording who changed a character or village and how.
+ *
+ * @param id        the ID of the entry, generated on insert
+ * @param type      the kind of change
+ * @param entityId  the ID of the changed character or village
+ * @param data      the changed entity as published with the {@link ckollmeier.de.asterixapi.event.ChangeEvent},
+ *                  {@code null} for removals
+ * @param actor     the remote user of the request making the change, its remote address if not authenticated,
+ *                  or {@code system} for changes outside a request
+ * @param timestamp the time the change was published
+ */
+@Document(collection = "audit")
+@With
+public record AuditEntry(
+        @Id
+        String id,
+        ChangeType type,
+        String entityId,
+        Object data,
+        String actor,
+        Instant timestamp
+) {
+}
@@ -0,0 +1,24 @@
+package ckollmeier.de.asterixapi.model;
+
+import ckollmeier.de.asterixapi.event.ChangeType;
+import org.springframework.data.annotation.Id;
+
+import java.time.Instant;
+
+/**
+ * An entry of the change log, recorded for every change of a character or village.
+ * The log is a capped collection, so only the most recent entries are kept.
+ *
+ * @param sequence  the position of the change in the monotonically increasing change sequence
+ * @param type      the kind of change
+ * @param entityId  the ID of the changed character or village
+ * @param timestamp the time the change was recorded
+ */
+public record ChangeLogEntry(
+        @Id
+        long sequence,
+        ChangeType type,
+        String entityId,
+        Instant timestamp
+) {
+}
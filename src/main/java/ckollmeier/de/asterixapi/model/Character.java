@@ -1,8 +1,8 @@
 package ckollmeier.de.asterixapi.model;
 
 import lombok.With;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.mongodb.core.mapping.Document;
-import org.springframework.data.mongodb.core.mapping.DocumentReference;
 
 @Document(collection = "characters")
 @With
@@ -11,7 +11,11 @@ public record Character(
         String name,
         int age,
         String profession,
-        @DocumentReference
-        Village village
+        VillageReference village,
+        @Version
+        Long version
 ) {
+    public Character(final String id, final String name, final int age, final String profession, final VillageReference village) {
+        this(id, name, age, profession, village, null);
+    }
 }
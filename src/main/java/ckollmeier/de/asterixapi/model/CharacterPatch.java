@@ -0,0 +1,58 @@
+package ckollmeier.de.asterixapi.model;
+
+/**
+ * A partial update of a {@link Character}.
+ * Fields that are {@code null} are left untouched; the village is only changed if {@code villageChanged} is set,
+ * in which case a {@code null} {@code village} removes the character from its village.
+ *
+ * @param name           the new name, or {@code null} to keep the current one
+ * @param age            the new age, or {@code null} to keep the current one
+ * @param profession     the new profession, or {@code null} to keep the current one
+ * @param villageChanged whether the village reference is updated
+ * @param village        the new village, or {@code null} to remove the village
+ */
+public record CharacterPatch(
+        String name,
+        Integer age,
+        String profession,
+        boolean villageChanged,
+        VillageReference village
+) {
+    /**
+     * @return {@code true} if the patch does not change any field
+     */
+    public boolean isEmpty() {
+        return name == null && age == null && profession == null && !villageChanged;
+    }
+
+    /**
+     * Merges a later patch of the same character into this one. Fields set by the later patch take precedence.
+     *
+     * @param later the later patch
+     * @return the patch applying both
+     */
+    public CharacterPatch mergedWith(final CharacterPatch later) {
+        return new CharacterPatch(
+                later.name != null ? later.name : name,
+                later.age != null ? later.age : age,
+                later.profession != null ? later.profession : profession,
+                villageChanged || later.villageChanged,
+                later.villageChanged ? later.village : village);
+    }
+
+    /**
+     * Applies the patch to the given state of a character, the same way the database applies it.
+     *
+     * @param character the character before the update
+     * @return the character after the update, with the version incremented
+     */
+    public Character applyTo(final Character character) {
+        return new Character(
+                character.id(),
+                name != null ? name : character.name(),
+                age != null ? age : character.age(),
+                profession != null ? profession : character.profession(),
+                villageChanged ? village : character.village(),
+                character.version() != null ? character.version() + 1 : 1L);
+    }
+}
@@ -0,0 +1,13 @@
+package ckollmeier.de.asterixapi.model;
+
+/**
+ * The result of a partial update of a {@link Character}.
+ *
+ * @param previous the character before the update
+ * @param updated  the character after the update
+ */
+public record CharacterUpdate(
+        Character previous,
+        Character updated
+) {
+}
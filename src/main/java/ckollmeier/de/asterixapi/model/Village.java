@@ -1,10 +1,21 @@
 package ckollmeier.de.asterixapi.model;
 
 import lombok.With;
+import org.springframework.data.annotation.Version;
 
+/**
+ * A village. {@code inhabitantCount} is maintained with atomic increments whenever characters
+ * move in or out, so populations can be read without loading the inhabitants.
+ */
 @With
 public record Village(
         String id,
-        String name
+        String name,
+        int inhabitantCount,
+        @Version
+        Long version
 ) {
+    public Village(final String id, final String name) {
+        this(id, name, 0, null);
+    }
 }
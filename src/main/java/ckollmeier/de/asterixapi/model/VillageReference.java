@@ -0,0 +1,26 @@
+package ckollmeier.de.asterixapi.model;
+
+/**
+ * The village of a {@link Character}, stored inline on the character document.
+ * <p>
+ * Holding the name next to the id lets character reads render the village without touching the
+ * villages collection. {@code VillageService} keeps the names in sync when a village is renamed.
+ * </p>
+ *
+ * @param id   the id of the village
+ * @param name the name of the village at the time of the last update
+ */
+public record VillageReference(
+        String id,
+        String name
+) {
+    /**
+     * Creates the reference stored on the inhabitants of the given village.
+     *
+     * @param village the village to reference, must not be null
+     * @return the reference holding the village's id and name
+     */
+    public static VillageReference of(final Village village) {
+        return new VillageReference(village.id(), village.name());
+    }
+}
@@ -0,0 +1,76 @@
+package ckollmeier.de.asterixapi.mongoclient;
+
+import com.mongodb.event.ConnectionCheckOutFailedEvent;
+import com.mongodb.event.ConnectionCheckedOutEvent;
+import com.mongodb.event.ConnectionPoolListener;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MongoDB connection pool listener recording how long threads wait for a connection.
+ * <p>
+ * Records the timer {@value #WAIT_METRIC}, tagged with the {@code outcome} of the check out: {@code success},
+ * or the reason it failed, {@code timeout} when the pool stayed exhausted for
+ * {@code asterix.mongo.pool.max-wait-time}. The number of connections checked out and of threads waiting
+ * are the gauges {@code mongodb.driver.pool.checkedout} and {@code mongodb.driver.pool.waitqueuesize}
+ * registered by Spring Boot. Registered with the client in
+ * {@link ckollmeier.de.asterixapi.configuration.MongoClientConfiguration}.
+ * </p>
+ */
+@Component
+public class ConnectionPoolMetricsListener implements ConnectionPoolListener {
+
+    /**
+     * Name of the wait time metric.
+     */
+    public static final String WAIT_METRIC = "asterix.mongo.pool.wait";
+
+    /**
+     * Wait time of the successful check outs.
+     */
+    private final Timer successTimer;
+
+    /**
+     * The registry the failed check outs are recorded in.
+     */
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Creates the listener.
+     *
+     * @param meterRegistry the registry to record the wait times in
+     */
+    public ConnectionPoolMetricsListener(final MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.successTimer = waitTimer(meterRegistry, "success");
+    }
+
+    @Override
+    public void connectionCheckedOut(final ConnectionCheckedOutEvent event) {
+        successTimer.record(event.getElapsedTime(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void connectionCheckOutFailed(final ConnectionCheckOutFailedEvent event) {
+        waitTimer(meterRegistry, event.getReason().name().toLowerCase(Locale.ROOT))
+                .record(event.getElapsedTime(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Returns the wait time metric for an outcome.
+     *
+     * @param meterRegistry the registry
+     * @param outcome       {@code success} or the lower case reason of the failure
+     * @return the timer
+     */
+    private static Timer waitTimer(final MeterRegistry meterRegistry, final String outcome) {
+        return Timer.builder(WAIT_METRIC)
+                .description("Time waited for a connection from the MongoDB connection pool")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
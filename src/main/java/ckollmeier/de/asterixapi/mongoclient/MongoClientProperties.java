@@ -0,0 +1,62 @@
+package ckollmeier.de.asterixapi.mongoclient;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Connection settings of the MongoDB client, bound from {@code asterix.mongo.*}.
+ * <p>
+ * They take precedence over the options of the same name in {@code spring.data.mongodb.uri}.
+ * A duration of zero means no limit.
+ * </p>
+ *
+ * @param pool                   the connection pool
+ * @param connectTimeout         the maximum time to open a connection
+ * @param readTimeout            the maximum time to wait for the response to a command
+ * @param serverSelectionTimeout the maximum time to find a server, e.g. while a replica set elects a primary
+ * @param compressors            the wire compressors offered to the server in order of preference, {@code zlib},
+ *                               {@code snappy} (needs {@code snappy-java}) or {@code zstd} (needs {@code zstd-jni});
+ *                               if empty, those of the URI
+ */
+@ConfigurationProperties("asterix.mongo")
+public record MongoClientProperties(
+        @DefaultValue
+        Pool pool,
+        @DefaultValue("10s")
+        Duration connectTimeout,
+        @DefaultValue("0s")
+        Duration readTimeout,
+        @DefaultValue("30s")
+        Duration serverSelectionTimeout,
+        @DefaultValue
+        List<String> compressors
+) {
+    /**
+     * The connection pool, one per server.
+     *
+     * @param maxSize        the maximum number of connections, checked out or idle
+     * @param minSize        the number of connections kept open even if idle
+     * @param maxConnecting  the maximum number of connections opened at the same time
+     * @param maxWaitTime    the maximum time a thread waits for a connection before the command fails
+     * @param maxIdleTime    idle connections are closed after this time
+     * @param maxLifeTime    connections are closed after this time, even if in use regularly
+     */
+    public record Pool(
+            @DefaultValue("100")
+            int maxSize,
+            @DefaultValue("0")
+            int minSize,
+            @DefaultValue("2")
+            int maxConnecting,
+            @DefaultValue("2s")
+            Duration maxWaitTime,
+            @DefaultValue("10m")
+            Duration maxIdleTime,
+            @DefaultValue("0s")
+            Duration maxLifeTime
+    ) {
+    }
+}
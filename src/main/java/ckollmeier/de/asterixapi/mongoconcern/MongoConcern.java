@@ -0,0 +1,29 @@
+package ckollmeier.de.asterixapi.mongoconcern;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Runs the database operations of a bean method, or of all methods of a bean, with the write and read concern of
+ * a profile configured in {@code asterix.mongo-concern.profiles}.
+ * <p>
+ * The concern applies to every operation issued on the calling thread until the method returns and takes
+ * precedence over the concern of the endpoint. Like all proxy-based annotations, it has no effect on calls from
+ * within the same bean.
+ * </p>
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+public @interface MongoConcern {
+
+    /**
+     * The name of the profile.
+     *
+     * @return the profile name
+     */
+    String value();
+}
@@ -0,0 +1,83 @@
+package ckollmeier.de.asterixapi.mongoconcern;
+
+import com.mongodb.ClientSessionOptions;
+import com.mongodb.client.ClientSession;
+import com.mongodb.client.MongoDatabase;
+import lombok.RequiredArgsConstructor;
+import org.bson.codecs.configuration.CodecRegistry;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.support.PersistenceExceptionTranslator;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+
+/**
+ * {@link MongoDatabaseFactory} applying the {@link MongoConcerns} bound to the current thread.
+ * <p>
+ * {@link org.springframework.data.mongodb.core.MongoTemplate} obtains the database for every operation, so the
+ * collections of all repository and template operations inherit the concerns of the thread that issues them.
+ * An explicit write concern of the template takes precedence.
+ * </p>
+ */
+@RequiredArgsConstructor
+public class MongoConcernDatabaseFactory implements MongoDatabaseFactory {
+
+    /**
+     * The factory providing the databases with the concerns of the client.
+     */
+    private final MongoDatabaseFactory delegate;
+
+    @Override
+    public MongoDatabase getMongoDatabase() throws DataAccessException {
+        return applyConcerns(delegate.getMongoDatabase());
+    }
+
+    @Override
+    public MongoDatabase getMongoDatabase(final String dbName) throws DataAccessException {
+        return applyConcerns(delegate.getMongoDatabase(dbName));
+    }
+
+    @Override
+    public PersistenceExceptionTranslator getExceptionTranslator() {
+        return delegate.getExceptionTranslator();
+    }
+
+    @Override
+    public CodecRegistry getCodecRegistry() {
+        return delegate.getCodecRegistry();
+    }
+
+    @Override
+    public ClientSession getSession(final ClientSessionOptions options) {
+        return delegate.getSession(options);
+    }
+
+    @Override
+    public MongoDatabaseFactory withSession(final ClientSession session) {
+        return new MongoConcernDatabaseFactory(delegate.withSession(session));
+    }
+
+    @Override
+    public boolean isTransactionActive() {
+        return delegate.isTransactionActive();
+    }
+
+    /**
+     * Applies the concerns bound to the current thread to a database.
+     *
+     * @param database the database with the concerns of the client
+     * @return the database with the bound concerns
+     */
+    static MongoDatabase applyConcerns(final MongoDatabase database) {
+        final MongoConcerns concerns = MongoConcerns.current().orElse(null);
+        if (concerns == null) {
+            return database;
+        }
+        MongoDatabase result = database;
+        if (concerns.writeConcern() != null) {
+            result = result.withWriteConcern(concerns.writeConcern());
+        }
+        if (concerns.readConcern() != null) {
+            result = result.withReadConcern(concerns.readConcern());
+        }
+        return result;
+    }
+}
@@ -0,0 +1,41 @@
+package ckollmeier.de.asterixapi.mongoconcern;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Optional;
+
+/**
+ * Binds the concerns of the endpoint configured in {@code asterix.mongo-concern.endpoints} to the request thread.
+ */
+@Component
+@RequiredArgsConstructor
+public class MongoConcernFilter extends OncePerRequestFilter {
+
+    /**
+     * The configured endpoints.
+     */
+    private final MongoConcernRegistry registry;
+
+    @Override
+    protected void doFilterInternal(final HttpServletRequest request, final HttpServletResponse response,
+                                    final FilterChain filterChain) throws ServletException, IOException {
+        final Optional<MongoConcerns> concerns = registry.forEndpoint(request.getMethod(), request.getRequestURI());
+        if (concerns.isEmpty()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        final MongoConcerns previous = MongoConcerns.bind(concerns.get());
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            MongoConcerns.restore(previous);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package ckollmeier.de.asterixapi.mongoconcern;
+
+import lombok.RequiredArgsConstructor;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+
+import java.lang.reflect.Method;
+
+/**
+ * Binds the concerns of the {@link MongoConcern} profile of the invoked method, or of its class, to the calling
+ * thread for the duration of the call.
+ */
+@RequiredArgsConstructor
+public class MongoConcernInterceptor implements MethodInterceptor {
+
+    /**
+     * The configured profiles, looked up lazily since the interceptor is created before the other beans.
+     */
+    private final ObjectProvider<MongoConcernRegistry> registry;
+
+    @Override
+    public Object invoke(final MethodInvocation invocation) throws Throwable {
+        final MongoConcern annotation = findAnnotation(invocation);
+        if (annotation == null) {
+            return invocation.proceed();
+        }
+        final MongoConcerns previous = MongoConcerns.bind(registry.getObject().get(annotation.value()));
+        try {
+            return invocation.proceed();
+        } finally {
+            MongoConcerns.restore(previous);
+        }
+    }
+
+    /**
+     * Finds the annotation on the invoked method or, if it has none, on its class.
+     *
+     * @param invocation the invocation
+     * @return the annotation, {@code null} if there is none
+     */
+    private static MongoConcern findAnnotation(final MethodInvocation invocation) {
+        final Class<?> targetClass = invocation.getThis() != null
+                ? AopUtils.getTargetClass(invocation.getThis())
+                : invocation.getMethod().getDeclaringClass();
+        final Method method = AopUtils.getMostSpecificMethod(invocation.getMethod(), targetClass);
+        final MongoConcern annotation = AnnotatedElementUtils.findMergedAnnotation(method, MongoConcern.class);
+        return annotation != null ? annotation : AnnotatedElementUtils.findMergedAnnotation(targetClass, MongoConcern.class);
+    }
+}
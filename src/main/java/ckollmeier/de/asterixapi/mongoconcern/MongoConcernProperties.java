@@ -0,0 +1,57 @@
+package ckollmeier.de.asterixapi.mongoconcern;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Configuration of the write and read concerns, bound from {@code asterix.mongo-concern.*}.
+ * <p>
+ * Operations without a profile use the concerns of the client, i.e. of {@code spring.data.mongodb.uri}.
+ * </p>
+ *
+ * @param profiles  the concerns by profile name, referenced by {@link MongoConcern} and the endpoints
+ * @param endpoints the endpoints whose requests run with a profile; the first matching endpoint applies
+ */
+@ConfigurationProperties("asterix.mongo-concern")
+public record MongoConcernProperties(
+        @DefaultValue
+        Map<String, Profile> profiles,
+        @DefaultValue
+        List<Endpoint> endpoints
+) {
+    /**
+     * The concerns of one profile. Options that are not set are taken from the client.
+     *
+     * @param w           the write acknowledgement: {@code majority}, a number of nodes ({@code 0} for
+     *                    unacknowledged writes) or a tag set name
+     * @param journal     whether writes are acknowledged only once journaled
+     * @param wTimeout    the maximum time to wait for the acknowledgement of the nodes, zero for no limit
+     * @param readConcern the read concern level: {@code local}, {@code available}, {@code majority},
+     *                    {@code linearizable} or {@code snapshot}
+     */
+    public record Profile(
+            String w,
+            Boolean journal,
+            Duration wTimeout,
+            String readConcern
+    ) {
+    }
+
+    /**
+     * The requests running with a profile.
+     *
+     * @param method  the HTTP method, any method if not set
+     * @param path    the Ant-style pattern of the request path, e.g. {@code /api/asterix/villages/**}
+     * @param profile the name of the profile
+     */
+    public record Endpoint(
+            String method,
+            String path,
+            String profile
+    ) {
+    }
+}
@@ -0,0 +1,82 @@
+package ckollmeier.de.asterixapi.mongoconcern;
+
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * The configured concern profiles and the endpoints using them, validated on startup.
+ */
+@Component
+public class MongoConcernRegistry {
+
+    /**
+     * Matches the request paths against the endpoint patterns.
+     */
+    private static final AntPathMatcher PATH_MATCHER = new AntPathMatcher();
+
+    /**
+     * The concerns by profile name.
+     */
+    private final Map<String, MongoConcerns> profiles;
+
+    /**
+     * The endpoints in configuration order.
+     */
+    private final List<MongoConcernProperties.Endpoint> endpoints;
+
+    /**
+     * Creates the concerns of all profiles.
+     *
+     * @param properties the concern configuration
+     * @throws IllegalArgumentException if a profile is invalid or an endpoint references an unknown profile
+     */
+    public MongoConcernRegistry(final MongoConcernProperties properties) {
+        final Map<String, MongoConcerns> concerns = new HashMap<>();
+        properties.profiles().forEach((name, profile) -> {
+            try {
+                concerns.put(name, MongoConcerns.of(profile));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid MongoDB concern profile '" + name + "': " + e.getMessage(), e);
+            }
+        });
+        this.profiles = Map.copyOf(concerns);
+        this.endpoints = List.copyOf(properties.endpoints());
+        endpoints.forEach(endpoint -> get(endpoint.profile()));
+    }
+
+    /**
+     * Returns the concerns of a profile.
+     *
+     * @param profile the profile name
+     * @return the concerns
+     * @throws IllegalArgumentException if the profile is not configured
+     */
+    public MongoConcerns get(final String profile) {
+        final MongoConcerns concerns = profiles.get(profile);
+        if (concerns == null) {
+            throw new IllegalArgumentException("Unknown MongoDB concern profile '" + profile
+                    + "', configure it in asterix.mongo-concern.profiles");
+        }
+        return concerns;
+    }
+
+    /**
+     * Returns the concerns of the first endpoint matching a request.
+     *
+     * @param method the HTTP method
+     * @param path   the request path
+     * @return the concerns, or an empty Optional if no endpoint matches
+     */
+    public Optional<MongoConcerns> forEndpoint(final String method, final String path) {
+        return endpoints.stream()
+                .filter(endpoint -> endpoint.method() == null || endpoint.method().equalsIgnoreCase(method))
+                .filter(endpoint -> PATH_MATCHER.match(endpoint.path(), path))
+                .findFirst()
+                .map(endpoint -> get(endpoint.profile()));
+    }
+}
@@ -0,0 +1,107 @@
+package ckollmeier.de.asterixapi.mongoconcern;
+
+import com.mongodb.ReadConcern;
+import com.mongodb.ReadConcernLevel;
+import com.mongodb.WriteConcern;
+
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The write and read concern of the database operations issued by the current thread.
+ * <p>
+ * The concerns are bound to the thread by {@link MongoConcernFilter} for a request and by
+ * {@link MongoConcernInterceptor} for an annotated method, and applied to every collection by
+ * {@link MongoConcernDatabaseFactory}. A binding replaces the one of the caller until it is restored, so the
+ * innermost binding wins.
+ * </p>
+ *
+ * @param writeConcern the write concern, {@code null} for the one of the client
+ * @param readConcern  the read concern, {@code null} for the one of the client
+ */
+public record MongoConcerns(
+        WriteConcern writeConcern,
+        ReadConcern readConcern
+) {
+
+    /**
+     * The concerns bound to the current thread.
+     */
+    private static final ThreadLocal<MongoConcerns> CURRENT = new ThreadLocal<>();
+
+    /**
+     * Creates the concerns of a profile.
+     *
+     * @param profile the profile
+     * @return the concerns
+     * @throws IllegalArgumentException if the write acknowledgement or the read concern level is invalid
+     */
+    public static MongoConcerns of(final MongoConcernProperties.Profile profile) {
+        WriteConcern writeConcern = null;
+        if (profile.w() != null || profile.journal() != null || profile.wTimeout() != null) {
+            writeConcern = profile.w() != null ? parseW(profile.w()) : WriteConcern.ACKNOWLEDGED;
+            if (profile.journal() != null) {
+                writeConcern = writeConcern.withJournal(profile.journal());
+            }
+            if (profile.wTimeout() != null) {
+                writeConcern = writeConcern.withWTimeout(profile.wTimeout().toMillis(), TimeUnit.MILLISECONDS);
+            }
+        }
+        final ReadConcern readConcern = profile.readConcern() != null
+                ? new ReadConcern(ReadConcernLevel.fromString(profile.readConcern().toLowerCase(Locale.ROOT)))
+                : null;
+        return new MongoConcerns(writeConcern, readConcern);
+    }
+
+    /**
+     * Returns the concerns bound to the current thread.
+     *
+     * @return the concerns, or an empty Optional if the operations use the concerns of the client
+     */
+    public static Optional<MongoConcerns> current() {
+        return Optional.ofNullable(CURRENT.get());
+    }
+
+    /**
+     * Binds concerns to the current thread.
+     *
+     * @param concerns the concerns
+     * @return the concerns bound before, to be passed to {@link #restore(MongoConcerns)}
+     */
+    static MongoConcerns bind(final MongoConcerns concerns) {
+        final MongoConcerns previous = CURRENT.get();
+        CURRENT.set(concerns);
+        return previous;
+    }
+
+    /**
+     * Restores the concerns bound before {@link #bind(MongoConcerns)}.
+     *
+     * @param previous the concerns bound before, {@code null} if none
+     */
+    static void restore(final MongoConcerns previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+
+    /**
+     * Parses the write acknowledgement.
+     *
+     * @param w {@code majority}, a number of nodes or a tag set name
+     * @return the write concern
+     */
+    private static WriteConcern parseW(final String w) {
+        if ("majority".equalsIgnoreCase(w)) {
+            return WriteConcern.MAJORITY;
+        }
+        try {
+            return new WriteConcern(Integer.parseInt(w));
+        } catch (NumberFormatException e) {
+            return new WriteConcern(w);
+        }
+    }
+}
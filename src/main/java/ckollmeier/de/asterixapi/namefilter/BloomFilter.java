@@ -0,0 +1,187 @@
+package ckollmeier.de.asterixapi.namefilter;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter over strings: answers whether a string might have been added, without false negatives.
+ * <p>
+ * The bit array is sized for an expected number of strings and a false-positive probability; every string sets
+ * {@code k} bits chosen by double hashing of a 64-bit hash. Strings cannot be removed. Adding and querying are
+ * lock-free and may run concurrently.
+ * </p>
+ */
+public class BloomFilter {
+
+    /**
+     * Offset deriving the second hash from the first, the 64-bit golden ratio.
+     */
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    /**
+     * The bits, 64 per word.
+     */
+    private final AtomicLongArray words;
+
+    /**
+     * The number of bits.
+     */
+    private final long bitSize;
+
+    /**
+     * The number of bits set per string.
+     */
+    private final int hashCount;
+
+    /**
+     * The number of strings added, including duplicates.
+     */
+    private final AtomicLong insertions = new AtomicLong();
+
+    /**
+     * Creates an empty filter.
+     *
+     * @param expectedInsertions the number of strings the filter is sized for, at least 1
+     * @param falsePositiveRate  the probability of a false positive once the expected strings were added,
+     *                           between 0 and 1 (exclusive)
+     */
+    public BloomFilter(final long expectedInsertions, final double falsePositiveRate) {
+        if (expectedInsertions < 1) {
+            throw new IllegalArgumentException("Expected insertions must be positive: " + expectedInsertions);
+        }
+        if (!(falsePositiveRate > 0 && falsePositiveRate < 1)) {
+            throw new IllegalArgumentException("False positive rate must be between 0 and 1: " + falsePositiveRate);
+        }
+        // Optimal size m = -n ln p / (ln 2)^2 and hash count k = m / n ln 2
+        final long bits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        final int wordCount = Math.toIntExact(Math.max(1, (bits + Long.SIZE - 1) / Long.SIZE));
+        this.words = new AtomicLongArray(wordCount);
+        this.bitSize = (long) wordCount * Long.SIZE;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitSize / expectedInsertions * Math.log(2)));
+    }
+
+    /**
+     * Adds a string.
+     *
+     * @param value the string
+     */
+    public void put(final String value) {
+        final long first = hash(value);
+        final long second = mix(first + GOLDEN_GAMMA);
+        long combined = first;
+        for (int i = 0; i < hashCount; i++) {
+            combined += second;
+            final long bit = (combined & Long.MAX_VALUE) % bitSize;
+            final int word = (int) (bit >>> 6);
+            final long mask = 1L << bit;
+            final long current = words.get(word);
+            if ((current & mask) == 0) {
+                words.getAndUpdate(word, bits -> bits | mask);
+            }
+        }
+        insertions.incrementAndGet();
+    }
+
+    /**
+     * Checks whether a string might have been added.
+     *
+     * @param value the string
+     * @return {@code false} if the string was definitely not added, {@code true} if it probably was
+     */
+    public boolean mightContain(final String value) {
+        final long first = hash(value);
+        final long second = mix(first + GOLDEN_GAMMA);
+        long combined = first;
+        for (int i = 0; i < hashCount; i++) {
+            combined += second;
+            final long bit = (combined & Long.MAX_VALUE) % bitSize;
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the number of strings added, including duplicates.
+     *
+     * @return the number of insertions
+     */
+    public long getInsertions() {
+        return insertions.get();
+    }
+
+    /**
+     * Returns the number of bits of the filter.
+     *
+     * @return the size in bits, a multiple of 64
+     */
+    public long getBitSize() {
+        return bitSize;
+    }
+
+    /**
+     * Returns the number of bits set per string.
+     *
+     * @return the number of hash functions
+     */
+    public int getHashCount() {
+        return hashCount;
+    }
+
+    /**
+     * Returns the memory taken by the bits.
+     *
+     * @return the size of the bit array in bytes
+     */
+    public long getMemoryBytes() {
+        return bitSize / Byte.SIZE;
+    }
+
+    /**
+     * Estimates the probability that a string not added is reported as possibly added, from the share of bits set.
+     * Counts the bits, so the cost grows with the size of the filter.
+     *
+     * @return the expected false-positive rate
+     */
+    public double getExpectedFalsePositiveRate() {
+        long setBits = 0;
+        for (int i = 0; i < words.length(); i++) {
+            setBits += Long.bitCount(words.get(i));
+        }
+        return Math.pow((double) setBits / bitSize, hashCount);
+    }
+
+    /**
+     * Computes a 64-bit hash of a string: FNV-1a over its characters, finished with the MurmurHash3 mixer so
+     * that all bits depend on all characters. The bits of a string are chosen by double hashing: the i-th bit is
+     * the hash plus i times a second hash derived from it.
+     *
+     * @param value the string
+     * @return the hash
+     */
+    static long hash(final String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    /**
+     * Mixes the bits of a value, the finalizer of MurmurHash3.
+     *
+     * @param value the value
+     * @return the mixed value
+     */
+    private static long mix(final long value) {
+        long mixed = value;
+        mixed ^= mixed >>> 33;
+        mixed *= 0xff51afd7ed558ccdL;
+        mixed ^= mixed >>> 33;
+        mixed *= 0xc4ceb34fe63a6ec5L;
+        mixed ^= mixed >>> 33;
+        return mixed;
+    }
+}
@@ -0,0 +1,425 @@
+package ckollmeier.de.asterixapi.namefilter;
+
+import ckollmeier.de.asterixapi.dto.ChangesDTO;
+import ckollmeier.de.asterixapi.dto.CharacterOutputDTO;
+import ckollmeier.de.asterixapi.dto.MinimalVillageOutputDTO;
+import ckollmeier.de.asterixapi.dto.VillageCountOutputDTO;
+import ckollmeier.de.asterixapi.event.ChangeBatch;
+import ckollmeier.de.asterixapi.event.ChangeEvent;
+import ckollmeier.de.asterixapi.exception.GoneException;
+import ckollmeier.de.asterixapi.model.Character;
+import ckollmeier.de.asterixapi.model.Village;
+import ckollmeier.de.asterixapi.repository.ChangeLogRepository;
+import ckollmeier.de.asterixapi.repository.CharacterRepository;
+import ckollmeier.de.asterixapi.repository.VillageRepository;
+import ckollmeier.de.asterixapi.service.ChangeLogService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bloom filters of the existing character and village names, answering lookups of unknown names without a query.
+ * <p>
+ * The filters are built from the repositories in the background once the application is ready and receive the
+ * names of characters and villages added or renamed by this instance through their {@link ChangeEvent}s. Names
+ * added by other application instances are picked up from the change log every
+ * {@code asterix.name-filter.sync-interval}; until then a lookup of such a name is answered as not found.
+ * Removed and renamed names cannot be taken out of a Bloom filter and only raise the false-positive rate, so the
+ * filters are rebuilt once their expected false-positive rate exceeds twice the configured rate, and whenever
+ * the change log no longer reaches back far enough. Until the first build completes, every name is looked up.
+ * </p>
+ * <p>
+ * Lookups are counted as {@value #LOOKUPS_METRIC} with the outcome {@code rejected} (answered by the filter),
+ * {@code passed} (looked up) or {@code false-positive} (looked up but not found); the observed false-positive
+ * rate is {@code false-positive / (false-positive + rejected)}. The memory taken by the filters and their
+ * expected false-positive rate are published as gauges. All metrics are tagged with {@code type=characters}
+ * or {@code type=villages}.
+ * </p>
+ */
+@Slf4j
+@Service
+public class NameFilter {
+
+    /**
+     * Name of the counter for lookups by outcome.
+     */
+    public static final String LOOKUPS_METRIC = "asterix.name.filter.lookups";
+
+    /**
+     * Name of the gauge for the memory taken by a filter.
+     */
+    public static final String MEMORY_METRIC = "asterix.name.filter.memory";
+
+    /**
+     * Name of the gauge for the expected false-positive rate of a filter.
+     */
+    public static final String FALSE_POSITIVE_RATE_METRIC = "asterix.name.filter.false.positive.rate";
+
+    /**
+     * The name filter configuration.
+     */
+    private final NameFilterProperties properties;
+
+    /**
+     * Repository the character names are loaded from on a rebuild.
+     */
+    private final CharacterRepository characterRepository;
+
+    /**
+     * Repository the village names are loaded from on a rebuild.
+     */
+    private final VillageRepository villageRepository;
+
+    /**
+     * Repository providing the sequence number a rebuild covers.
+     */
+    private final ChangeLogRepository changeLogRepository;
+
+    /**
+     * Service providing the changes of other instances.
+     */
+    private final ChangeLogService changeLogService;
+
+    /**
+     * The filter of the character names.
+     */
+    private final Names characters;
+
+    /**
+     * The filter of the village names.
+     */
+    private final Names villages;
+
+    /**
+     * Serializes rebuilds and syncs. A lock instead of {@code synchronized}, which would pin the virtual thread
+     * of the initial build to its carrier while it waits for the database.
+     */
+    private final ReentrantLock updateLock = new ReentrantLock();
+
+    /**
+     * The last change log sequence number contained in the filters, {@code -1} until they are built.
+     */
+    private volatile long filteredSequence = -1;
+
+    /**
+     * Creates the filters, empty until built, and registers their metrics.
+     *
+     * @param properties          the name filter configuration
+     * @param characterRepository repository the character names are loaded from
+     * @param villageRepository   repository the village names are loaded from
+     * @param changeLogRepository repository providing the sequence number a rebuild covers
+     * @param changeLogService    service providing the changes of other instances
+     * @param meterRegistry       registry for the metrics
+     */
+    public NameFilter(final NameFilterProperties properties,
+                      final CharacterRepository characterRepository,
+                      final VillageRepository villageRepository,
+                      final ChangeLogRepository changeLogRepository,
+                      final ChangeLogService changeLogService,
+                      final MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.characterRepository = characterRepository;
+        this.villageRepository = villageRepository;
+        this.changeLogRepository = changeLogRepository;
+        this.changeLogService = changeLogService;
+        this.characters = new Names("characters", meterRegistry);
+        this.villages = new Names("villages", meterRegistry);
+    }
+
+    /**
+     * Checks whether a character with the given name might exist.
+     *
+     * @param name the exact name
+     * @return {@code false} if the character definitely does not exist, {@code true} if it has to be looked up
+     */
+    public boolean mightContainCharacter(final String name) {
+        return characters.mightContain(name);
+    }
+
+    /**
+     * Records that a character name passed by the filter was not found.
+     */
+    public void recordCharacterMiss() {
+        characters.recordMiss();
+    }
+
+    /**
+     * Checks whether a village with the given name might exist.
+     *
+     * @param name the exact name
+     * @return {@code false} if the village definitely does not exist, {@code true} if it has to be looked up
+     */
+    public boolean mightContainVillage(final String name) {
+        return villages.mightContain(name);
+    }
+
+    /**
+     * Records that a village name passed by the filter was not found.
+     */
+    public void recordVillageMiss() {
+        villages.recordMiss();
+    }
+
+    /**
+     * Builds the filters in the background once the application is ready,
+     * so an unreachable database does not delay or break the application start.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildInBackground() {
+        if (properties.enabled()) {
+            Thread.ofVirtual().name("name-filter-build").start(this::rebuild);
+        }
+    }
+
+    /**
+     * Replaces the filters with ones built from all character and village names.
+     */
+    public void rebuild() {
+        if (!properties.enabled()) {
+            return;
+        }
+        updateLock.lock();
+        try {
+            // Read the sequence first: changes racing with the load are applied again by the next sync
+            final long sequence = changeLogRepository.currentSequence();
+            // Names published while the filters are loaded are added to the new filters as well
+            characters.building = newFilter(characterRepository.count());
+            villages.building = newFilter(villageRepository.count());
+            for (Character character : characterRepository.findAll()) {
+                characters.building.put(character.name());
+            }
+            for (Village village : villageRepository.findAll()) {
+                villages.building.put(village.name());
+            }
+            characters.swap();
+            villages.swap();
+            filteredSequence = sequence;
+            log.info("Built name filters of {} characters and {} villages",
+                    characters.filter.getInsertions(), villages.filter.getInsertions());
+        } catch (DataAccessException e) {
+            characters.building = null;
+            villages.building = null;
+            log.warn("Could not build the name filters", e);
+        } finally {
+            updateLock.unlock();
+        }
+    }
+
+    /**
+     * Adds the names recorded in the change log since the filters were last updated,
+     * and rebuilds the filters if stale names made them too inaccurate.
+     */
+    @Scheduled(initialDelayString = "${asterix.name-filter.sync-interval:PT10S}",
+            fixedDelayString = "${asterix.name-filter.sync-interval:PT10S}")
+    public void sync() {
+        updateLock.lock();
+        try {
+            if (filteredSequence < 0) {
+                return;
+            }
+            final ChangesDTO changes = changeLogService.getChangesSince(filteredSequence);
+            for (CharacterOutputDTO character : changes.characters()) {
+                characters.put(character.name());
+            }
+            for (VillageCountOutputDTO village : changes.villages()) {
+                villages.put(village.name());
+            }
+            filteredSequence = changes.sequence();
+            if (characters.isSaturated() || villages.isSaturated()) {
+                log.info("Rebuilding the name filters: expected false-positive rate exceeds {}",
+                        2 * properties.falsePositiveRate());
+                rebuild();
+            }
+        } catch (GoneException e) {
+            log.info("Rebuilding the name filters: {}", e.getMessage());
+            rebuild();
+        } catch (DataAccessException e) {
+            log.warn("Could not sync the name filters", e);
+        } finally {
+            updateLock.unlock();
+        }
+    }
+
+    /**
+     * Adds the name of a character or village added or renamed by this instance.
+     *
+     * @param event the change
+     */
+    @EventListener
+    public void onChange(final ChangeEvent event) {
+        switch (event.data()) {
+            case CharacterOutputDTO character -> characters.put(character.name());
+            case ChangeEvent.CharacterMove move -> characters.put(move.character().name());
+            case MinimalVillageOutputDTO village -> villages.put(village.name());
+            // Removed names stay in the filters until the next rebuild
+            case null, default -> {
+            }
+        }
+    }
+
+    /**
+     * Adds the names of the characters and villages added or renamed by a batch operation of this instance.
+     *
+     * @param batch the changes
+     */
+    @EventListener
+    public void onChanges(final ChangeBatch batch) {
+        batch.events().forEach(this::onChange);
+    }
+
+    /**
+     * Creates an empty filter for the given number of names.
+     *
+     * @param count the number of existing names
+     * @return the filter, with room for twice the names but at least the configured number
+     */
+    private BloomFilter newFilter(final long count) {
+        return new BloomFilter(Math.max(properties.expectedInsertions(), 2 * count), properties.falsePositiveRate());
+    }
+
+    /**
+     * The filter of the names of one entity type and its metrics.
+     */
+    private final class Names {
+
+        /**
+         * The current filter, {@code null} until built.
+         */
+        private volatile BloomFilter filter;
+
+        /**
+         * The filter being built, {@code null} outside of rebuilds.
+         */
+        private volatile BloomFilter building;
+
+        /**
+         * Counter for lookups answered by the filter.
+         */
+        private final Counter rejected;
+
+        /**
+         * Counter for lookups passed to the database.
+         */
+        private final Counter passed;
+
+        /**
+         * Counter for lookups passed to the database that found nothing.
+         */
+        private final Counter falsePositives;
+
+        /**
+         * Creates an empty filter and registers its metrics.
+         *
+         * @param type          the entity type, used as metric tag
+         * @param meterRegistry registry for the metrics
+         */
+        Names(final String type, final MeterRegistry meterRegistry) {
+            this.rejected = counter(meterRegistry, type, "rejected");
+            this.passed = counter(meterRegistry, type, "passed");
+            this.falsePositives = counter(meterRegistry, type, "false-positive");
+            Gauge.builder(MEMORY_METRIC, this, names -> names.filter != null ? names.filter.getMemoryBytes() : 0)
+                    .description("Memory taken by the name filter")
+                    .baseUnit("bytes")
+                    .tag("type", type)
+                    .register(meterRegistry);
+            Gauge.builder(FALSE_POSITIVE_RATE_METRIC, this,
+                            names -> names.filter != null ? names.filter.getExpectedFalsePositiveRate() : Double.NaN)
+                    .description("Expected rate of unknown names passed by the name filter")
+                    .tag("type", type)
+                    .register(meterRegistry);
+        }
+
+        /**
+         * Creates the lookup counter for an outcome.
+         *
+         * @param meterRegistry registry for the counter
+         * @param type          the entity type tag
+         * @param outcome       {@code rejected}, {@code passed} or {@code false-positive}
+         * @return the counter
+         */
+        private static Counter counter(final MeterRegistry meterRegistry, final String type, final String outcome) {
+            return Counter.builder(LOOKUPS_METRIC)
+                    .description("Lookups by name by whether the name filter answered them")
+                    .tag("type", type)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry);
+        }
+
+        /**
+         * Checks a name against the filter.
+         *
+         * @param name the name
+         * @return {@code false} if the name definitely does not exist
+         */
+        boolean mightContain(final String name) {
+            final BloomFilter current = filter;
+            if (current == null || name == null) {
+                return true;
+            }
+            if (current.mightContain(name)) {
+                passed.increment();
+                return true;
+            }
+            rejected.increment();
+            return false;
+        }
+
+        /**
+         * Counts a name passed by the filter but not found.
+         */
+        void recordMiss() {
+            if (filter != null) {
+                falsePositives.increment();
+            }
+        }
+
+        /**
+         * Adds a name to the current filter and the one being built.
+         * <p>
+         * The filter being built is read first: {@link #swap()} publishes it as the current filter before
+         * clearing it, so a swap in between can only make both reads return the same filter, never lose the name.
+         * </p>
+         *
+         * @param name the name, ignored if {@code null}
+         */
+        void put(final String name) {
+            if (name == null) {
+                return;
+            }
+            final BloomFilter next = building;
+            final BloomFilter current = filter;
+            if (next != null) {
+                next.put(name);
+            }
+            if (current != null && current != next) {
+                current.put(name);
+            }
+        }
+
+        /**
+         * Replaces the current filter with the one built.
+         */
+        void swap() {
+            filter = building;
+            building = null;
+        }
+
+        /**
+         * Checks whether the filter got too inaccurate.
+         *
+         * @return {@code true} if its expected false-positive rate exceeds twice the configured rate
+         */
+        boolean isSaturated() {
+            final BloomFilter current = filter;
+            return current != null && current.getExpectedFalsePositiveRate() > 2 * properties.falsePositiveRate();
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package ckollmeier.de.asterixapi.namefilter;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Configuration of the name filters, bound from {@code asterix.name-filter.*}.
+ *
+ * @param enabled            whether lookups by name are checked against the filters at all
+ * @param falsePositiveRate  the targeted rate of unknown names passed on to the database
+ * @param expectedInsertions the minimum number of names a filter is sized for; a rebuild sizes the filters
+ *                           for twice the number of existing names if that is larger
+ */
+@ConfigurationProperties("asterix.name-filter")
+public record NameFilterProperties(
+        @DefaultValue("true")
+        boolean enabled,
+        @DefaultValue("0.01")
+        double falsePositiveRate,
+        @DefaultValue("10000")
+        long expectedInsertions
+) {
+}
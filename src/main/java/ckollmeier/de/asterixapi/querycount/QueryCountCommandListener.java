@@ -0,0 +1,26 @@
+package ckollmeier.de.asterixapi.querycount;
+
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandSucceededEvent;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MongoDB command listener adding every completed command to the {@link QueryStats} of the current request.
+ * Registered with the client in {@link ckollmeier.de.asterixapi.configuration.QueryCountConfiguration}.
+ */
+@Component
+public class QueryCountCommandListener implements CommandListener {
+
+    @Override
+    public void commandSucceeded(final CommandSucceededEvent event) {
+        QueryStats.current().ifPresent(stats -> stats.record(event.getElapsedTime(TimeUnit.NANOSECONDS)));
+    }
+
+    @Override
+    public void commandFailed(final CommandFailedEvent event) {
+        QueryStats.current().ifPresent(stats -> stats.record(event.getElapsedTime(TimeUnit.NANOSECONDS)));
+    }
+}
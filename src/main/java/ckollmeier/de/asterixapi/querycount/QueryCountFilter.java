@@ -0,0 +1,138 @@
+package ckollmeier.de.asterixapi.querycount;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Counts the database commands of every API request.
+ * <p>
+ * The number of commands and their total time are recorded per endpoint as {@value #COMMANDS_METRIC} and
+ * {@value #TIME_METRIC}, tagged with method and URI pattern. With {@code asterix.query-count.headers}
+ * (enabled in the {@code dev} profile) they are also returned in the {@value #COUNT_HEADER} and
+ * {@value #TIME_HEADER} response headers. The headers are only known once the request was processed,
+ * so in that mode the response body is buffered until then.
+ * </p>
+ * <p>
+ * The event stream is not instrumented: it never completes and must not be buffered.
+ * </p>
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class QueryCountFilter extends OncePerRequestFilter {
+
+    /**
+     * Name of the distribution summary of the commands per request.
+     */
+    public static final String COMMANDS_METRIC = "asterix.request.db.commands";
+
+    /**
+     * Name of the timer of the total command time per request.
+     */
+    public static final String TIME_METRIC = "asterix.request.db.time";
+
+    /**
+     * Response header with the number of commands.
+     */
+    public static final String COUNT_HEADER = "X-Db-Query-Count";
+
+    /**
+     * Response header with the total command time in milliseconds.
+     */
+    public static final String TIME_HEADER = "X-Db-Query-Time";
+
+    /**
+     * Prefix of the instrumented paths.
+     */
+    private static final String API_PREFIX = "/api/asterix/";
+
+    /**
+     * Path of the event stream, which is not instrumented.
+     */
+    private static final String EVENTS_PATH = "/api/asterix/events";
+
+    /**
+     * Registry for the per-request metrics.
+     */
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Whether the statistics are returned as response headers.
+     */
+    private final boolean headers;
+
+    /**
+     * Creates the filter.
+     *
+     * @param meterRegistry registry for the per-request metrics
+     * @param headers       whether the statistics are returned as response headers
+     */
+    public QueryCountFilter(final MeterRegistry meterRegistry,
+                            @Value("${asterix.query-count.headers:false}") final boolean headers) {
+        this.meterRegistry = meterRegistry;
+        this.headers = headers;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(final HttpServletRequest request) {
+        final String path = request.getRequestURI().substring(request.getContextPath().length());
+        return !path.startsWith(API_PREFIX) || path.startsWith(EVENTS_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(final HttpServletRequest request,
+                                    final HttpServletResponse response,
+                                    final FilterChain filterChain) throws ServletException, IOException {
+        final QueryStats stats = QueryStats.begin();
+        final ContentCachingResponseWrapper bufferedResponse = headers ? new ContentCachingResponseWrapper(response) : null;
+        try {
+            filterChain.doFilter(request, bufferedResponse != null ? bufferedResponse : response);
+        } finally {
+            QueryStats.end();
+            record(request, stats);
+            if (bufferedResponse != null) {
+                bufferedResponse.setHeader(COUNT_HEADER, String.valueOf(stats.getCount()));
+                bufferedResponse.setHeader(TIME_HEADER, String.format(Locale.ROOT, "%.3f", stats.getTotalNanos() / 1_000_000.0));
+                bufferedResponse.copyBodyToResponse();
+            }
+        }
+    }
+
+    /**
+     * Records the statistics of a request in the metrics of its endpoint.
+     *
+     * @param request the request
+     * @param stats   the statistics of the request
+     */
+    private void record(final HttpServletRequest request, final QueryStats stats) {
+        final Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        final String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        DistributionSummary.builder(COMMANDS_METRIC)
+                .description("Database commands per request")
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(stats.getCount());
+        Timer.builder(TIME_METRIC)
+                .description("Total database command time per request")
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(stats.getTotalNanos(), TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,82 @@
+package ckollmeier.de.asterixapi.querycount;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The database commands issued while processing one HTTP request.
+ * <p>
+ * The statistics are bound to the request thread by {@link QueryCountFilter}. The synchronous MongoDB driver
+ * notifies its command listeners on the thread executing the command, so {@link QueryCountCommandListener}
+ * attributes every command to the request that issued it. Commands of background threads (migrations,
+ * scheduled jobs) are not bound to a request and therefore not counted.
+ * </p>
+ */
+public final class QueryStats {
+
+    /**
+     * The statistics of the request processed by the current thread.
+     */
+    private static final ThreadLocal<QueryStats> CURRENT = new ThreadLocal<>();
+
+    /**
+     * The number of commands.
+     */
+    private final LongAdder count = new LongAdder();
+
+    /**
+     * The total time of all commands in nanoseconds.
+     */
+    private final LongAdder totalNanos = new LongAdder();
+
+    /**
+     * Binds new statistics to the current thread.
+     *
+     * @return the statistics
+     */
+    static QueryStats begin() {
+        final QueryStats stats = new QueryStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    /**
+     * Unbinds the statistics from the current thread.
+     */
+    static void end() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Returns the statistics bound to the current thread.
+     *
+     * @return the statistics, or an empty Optional if the thread does not process a request
+     */
+    public static Optional<QueryStats> current() {
+        return Optional.ofNullable(CURRENT.get());
+    }
+
+    /**
+     * Records a completed command.
+     *
+     * @param nanos the time the command took
+     */
+    public void record(final long nanos) {
+        count.increment();
+        totalNanos.add(nanos);
+    }
+
+    /**
+     * @return the number of commands
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * @return the total time of all commands in nanoseconds
+     */
+    public long getTotalNanos() {
+        return totalNanos.sum();
+    }
+}
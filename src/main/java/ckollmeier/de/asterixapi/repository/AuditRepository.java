@@ -0,0 +1,7 @@
+package ckollmeier.de.asterixapi.repository;
+
+import ckollmeier.de.asterixapi.model.AuditEntry;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+public interface AuditRepository extends MongoRepository<AuditEntry, String> {
+}
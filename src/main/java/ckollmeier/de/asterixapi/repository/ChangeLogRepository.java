@@ -0,0 +1,12 @@
+package ckollmeier.de.asterixapi.repository;
+
+import ckollmeier.de.asterixapi.model.ChangeLogEntry;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface ChangeLogRepository extends MongoRepository<ChangeLogEntry, Long>, ChangeLogRepositoryCustom {
+    List<ChangeLogEntry> findBySequenceGreaterThanOrderBySequenceAsc(long sequence);
+    Optional<ChangeLogEntry> findFirstByOrderBySequenceAsc();
+}
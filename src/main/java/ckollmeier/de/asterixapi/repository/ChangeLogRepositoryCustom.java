@@ -0,0 +1,47 @@
+package ckollmeier.de.asterixapi.repository;
+
+/**
+ * Change log operations that cannot be expressed as derived queries.
+ */
+public interface ChangeLogRepositoryCustom {
+    /**
+     * Atomically allocates the next number of the change sequence with {@code $inc}.
+     * The sequence starts at {@code 1} and is shared by all application instances.
+     *
+     * @return the allocated sequence number
+     */
+    long nextSequence();
+
+    /**
+     * Atomically allocates the given number of consecutive numbers of the change sequence with a single {@code $inc}.
+     *
+     * @param count the number of sequence numbers to allocate, at least {@code 1}
+     * @return the first allocated sequence number, the others follow it without gaps
+     */
+    long nextSequences(int count);
+
+    /**
+     * Returns the last allocated number of the change sequence.
+     *
+     * @return the current sequence number, {@code 0} if no change was recorded yet
+     */
+    long currentSequence();
+
+    /**
+     * Creates the change log as capped collection, unless it already exists.
+     *
+     * @param maxSizeBytes the maximum size of the collection in bytes
+     * @param maxEntries   the maximum number of entries
+     * @return {@code true} if the collection was created
+     */
+    boolean createCappedCollection(long maxSizeBytes, long maxEntries);
+
+    /**
+     * Converts an existing change log that is not capped into a capped collection with {@code convertToCapped}.
+     * A conversion cannot limit the number of entries, only the size in bytes.
+     *
+     * @param maxSizeBytes the maximum size of the collection in bytes
+     * @return {@code true} if the collection was converted, {@code false} if it is capped or does not exist
+     */
+    boolean convertToCappedCollection(long maxSizeBytes);
+}
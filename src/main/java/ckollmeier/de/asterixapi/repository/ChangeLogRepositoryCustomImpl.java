@@ -0,0 +1,93 @@
+package ckollmeier.de.asterixapi.repository;
+
+import ckollmeier.de.asterixapi.model.ChangeLogEntry;
+import com.mongodb.client.model.Filters;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.CollectionOptions;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+/**
+ * {@link MongoTemplate} based implementation of {@link ChangeLogRepositoryCustom}.
+ * The sequence counter is a single document in the {@value #SEQUENCES_COLLECTION} collection.
+ */
+@RequiredArgsConstructor
+public class ChangeLogRepositoryCustomImpl implements ChangeLogRepositoryCustom {
+
+    /**
+     * Collection holding the sequence counters.
+     */
+    static final String SEQUENCES_COLLECTION = "sequences";
+
+    /**
+     * ID of the counter document of the change sequence.
+     */
+    static final String CHANGE_SEQUENCE_ID = "changes";
+
+    /**
+     * Template used for the counter and collection operations.
+     */
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public long nextSequence() {
+        return nextSequences(1);
+    }
+
+    @Override
+    public long nextSequences(final int count) {
+        final Document counter = mongoTemplate.findAndModify(
+                counterQuery(),
+                new Update().inc("value", (long) count),
+                FindAndModifyOptions.options().returnNew(true).upsert(true),
+                Document.class,
+                SEQUENCES_COLLECTION);
+        return counter.get("value", Number.class).longValue() - count + 1;
+    }
+
+    @Override
+    public long currentSequence() {
+        final Document counter = mongoTemplate.findOne(counterQuery(), Document.class, SEQUENCES_COLLECTION);
+        return counter != null ? counter.get("value", Number.class).longValue() : 0L;
+    }
+
+    @Override
+    public boolean createCappedCollection(final long maxSizeBytes, final long maxEntries) {
+        if (mongoTemplate.collectionExists(ChangeLogEntry.class)) {
+            return false;
+        }
+        mongoTemplate.createCollection(ChangeLogEntry.class,
+                CollectionOptions.empty().capped().size(maxSizeBytes).maxDocuments(maxEntries));
+        return true;
+    }
+
+    @Override
+    public boolean convertToCappedCollection(final long maxSizeBytes) {
+        final String collectionName = mongoTemplate.getCollectionName(ChangeLogEntry.class);
+        return Boolean.TRUE.equals(mongoTemplate.execute(db -> {
+            final Document collection = db.listCollections().filter(Filters.eq("name", collectionName)).first();
+            if (collection == null) {
+                return false;
+            }
+            final Document options = collection.get("options", Document.class);
+            if (options != null && options.getBoolean("capped", false)) {
+                return false;
+            }
+            db.runCommand(new Document("convertToCapped", collectionName).append("size", maxSizeBytes));
+            return true;
+        }));
+    }
+
+    /**
+     * Returns the query selecting the counter document of the change sequence.
+     *
+     * @return the query
+     */
+    private static Query counterQuery() {
+        return Query.query(Criteria.where("_id").is(CHANGE_SEQUENCE_ID));
+    }
+}
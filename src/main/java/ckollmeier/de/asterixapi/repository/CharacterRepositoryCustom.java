@@ -0,0 +1,40 @@
+package ckollmeier.de.asterixapi.repository;
+
+import ckollmeier.de.asterixapi.model.CharacterPatch;
+import ckollmeier.de.asterixapi.model.CharacterUpdate;
+
+import java.util.Collection;
+import java.util.Optional;
+
+/**
+ * Character repository operations that cannot be expressed as derived queries.
+ */
+public interface CharacterRepositoryCustom {
+    /**
+     * Applies the given patch with a single atomic {@code findAndModify}, incrementing the version,
+     * and returns the character before and after the update.
+     *
+     * @param id    the id of the character to update
+     * @param patch the fields to change
+     * @return the character before and after the update, or an empty Optional if no character with the id exists
+     */
+    Optional<CharacterUpdate> updatePartially(String id, CharacterPatch patch);
+
+    /**
+     * Updates the village name stored on all inhabitants of a village with a single multi-document update.
+     *
+     * @param villageId the id of the renamed village
+     * @param name      the new name of the village
+     * @return the number of updated characters
+     */
+    long updateVillageName(String villageId, String name);
+
+    /**
+     * Removes the village from all inhabitants of the given villages with a single multi-document update,
+     * incrementing their versions.
+     *
+     * @param villageIds the ids of the villages whose inhabitants lose their village
+     * @return the number of updated characters
+     */
+    long unlinkVillages(Collection<String> villageIds);
+}
@@ -0,0 +1,72 @@
+package ckollmeier.de.asterixapi.repository;
+
+import ckollmeier.de.asterixapi.model.Character;
+import ckollmeier.de.asterixapi.model.CharacterPatch;
+import ckollmeier.de.asterixapi.model.CharacterUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.Collection;
+import java.util.Optional;
+
+/**
+ * {@link MongoTemplate} based implementation of {@link CharacterRepositoryCustom}.
+ */
+@RequiredArgsConstructor
+public class CharacterRepositoryCustomImpl implements CharacterRepositoryCustom {
+
+    /**
+     * Template used for the atomic update operations.
+     */
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public Optional<CharacterUpdate> updatePartially(final String id, final CharacterPatch patch) {
+        if (patch.isEmpty()) {
+            return Optional.ofNullable(mongoTemplate.findById(id, Character.class))
+                    .map(character -> new CharacterUpdate(character, character));
+        }
+        final Update update = new Update();
+        if (patch.name() != null) {
+            update.set("name", patch.name());
+        }
+        if (patch.age() != null) {
+            update.set("age", patch.age());
+        }
+        if (patch.profession() != null) {
+            update.set("profession", patch.profession());
+        }
+        if (patch.villageChanged()) {
+            update.set("village", patch.village());
+        }
+        update.inc("version", 1);
+        // Return the previous document, the callers need the old village to maintain the inhabitant counts
+        return Optional.ofNullable(mongoTemplate.findAndModify(
+                        Query.query(Criteria.where("_id").is(id)),
+                        update,
+                        FindAndModifyOptions.options().returnNew(false),
+                        Character.class))
+                .map(previous -> new CharacterUpdate(previous, patch.applyTo(previous)));
+    }
+
+    @Override
+    public long updateVillageName(final String villageId, final String name) {
+        return mongoTemplate.updateMulti(
+                Query.query(Criteria.where("village.id").is(villageId)),
+                new Update().set("village.name", name).inc("version", 1),
+                Character.class).getModifiedCount();
+    }
+
+    @Override
+    public long unlinkVillages(final Collection<String> villageIds) {
+        // Unset like a save of a character without village, which omits the field
+        return mongoTemplate.updateMulti(
+                Query.query(Criteria.where("village.id").in(villageIds)),
+                new Update().unset("village").inc("version", 1),
+                Character.class).getModifiedCount();
+    }
+}
@@ -6,6 +6,6 @@ import org.springframework.data.mongodb.repository.MongoRepository;
 
 import java.util.Optional;
 
-public interface VillageRepository extends MongoRepository<Village, String> {
+public interface VillageRepository extends MongoRepository<Village, String>, VillageRepositoryCustom {
     Optional<Village> findOneByName(String name);
 }
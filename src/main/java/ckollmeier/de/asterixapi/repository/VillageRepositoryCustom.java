@@ -0,0 +1,52 @@
+package ckollmeier.de.asterixapi.repository;
+
+import ckollmeier.de.asterixapi.model.Village;
+
+import java.util.Map;
+
+/**
+ * Village repository operations that cannot be expressed as derived queries.
+ */
+public interface VillageRepositoryCustom {
+    /**
+     * Atomically adds the given delta to the inhabitant count of a village with {@code $inc}.
+     * The version is kept, so characters moving in or out never conflict with a concurrent update of the village.
+     *
+     * @param villageId the id of the village, nothing happens if it is {@code null} or does not exist
+     * @param delta     the number of inhabitants that moved in (positive) or out (negative)
+     */
+    void incrementInhabitantCount(String villageId, int delta);
+
+    /**
+     * Atomically adds the given deltas to the inhabitant counts of several villages with {@code $inc},
+     * keeping their versions. All updates are sent in one bulk write.
+     *
+     * @param deltas the number of inhabitants that moved in (positive) or out (negative) by village ID,
+     *               villages that do not exist are ignored
+     */
+    void incrementInhabitantCounts(Map<String, Integer> deltas);
+
+    /**
+     * Recomputes the inhabitant counts of all villages from the characters and corrects those that drifted.
+     * <p>
+     * A correction is only written if the inhabitant count did not change since it was read,
+     * so concurrent increments are never overwritten. The version is kept.
+     * </p>
+     *
+     * @return the number of corrected villages
+     */
+    long repairInhabitantCounts();
+
+    /**
+     * Writes the name of a village with a single {@code $set}, conditional on the version read and incrementing it.
+     * Unlike a save, the inhabitant count is only written if requested, so increments since the village was read
+     * are kept.
+     *
+     * @param village                the village with the new values and the version read
+     * @param includeInhabitantCount whether the inhabitant count of the given village is written as well
+     * @return the village as written, with the incremented version
+     * @throws org.springframework.dao.OptimisticLockingFailureException if the village was modified or removed
+     *                                                                   since it was read
+     */
+    Village updateAttributes(Village village, boolean includeInhabitantCount);
+}
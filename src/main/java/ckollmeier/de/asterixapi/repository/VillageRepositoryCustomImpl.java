@@ -0,0 +1,102 @@
+package ckollmeier.de.asterixapi.repository;
+
+import ckollmeier.de.asterixapi.model.Character;
+import ckollmeier.de.asterixapi.model.Village;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link MongoTemplate} based implementation of {@link VillageRepositoryCustom}.
+ */
+@RequiredArgsConstructor
+public class VillageRepositoryCustomImpl implements VillageRepositoryCustom {
+
+    /**
+     * Template used for the atomic update operations.
+     */
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public void incrementInhabitantCount(final String villageId, final int delta) {
+        if (villageId == null || delta == 0) {
+            return;
+        }
+        mongoTemplate.updateFirst(
+                Query.query(Criteria.where("_id").is(villageId)),
+                new Update().inc("inhabitantCount", delta),
+                Village.class);
+    }
+
+    @Override
+    public void incrementInhabitantCounts(final Map<String, Integer> deltas) {
+        final BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Village.class);
+        int updates = 0;
+        for (Map.Entry<String, Integer> delta : deltas.entrySet()) {
+            if (delta.getValue() != 0) {
+                bulk.updateOne(
+                        Query.query(Criteria.where("_id").is(delta.getKey())),
+                        new Update().inc("inhabitantCount", delta.getValue()));
+                updates++;
+            }
+        }
+        if (updates > 0) {
+            bulk.execute();
+        }
+    }
+
+    @Override
+    public long repairInhabitantCounts() {
+        // Read the villages first: every increment after this point changes the count and blocks the correction
+        final List<Village> villages = mongoTemplate.findAll(Village.class);
+        final Map<String, Integer> actualCounts = new HashMap<>();
+        for (Document group : mongoTemplate.aggregate(Aggregation.newAggregation(
+                        Aggregation.match(Criteria.where("village").ne(null)),
+                        Aggregation.group("village._id").count().as("count")),
+                Character.class, Document.class)) {
+            actualCounts.put(group.getString("_id"), group.getInteger("count"));
+        }
+
+        long repaired = 0;
+        for (Village village : villages) {
+            final int actualCount = actualCounts.getOrDefault(village.id(), 0);
+            if (village.inhabitantCount() != actualCount) {
+                repaired += mongoTemplate.updateFirst(
+                        Query.query(Criteria.where("_id").is(village.id()).and("inhabitantCount").is(village.inhabitantCount())),
+                        new Update().set("inhabitantCount", actualCount),
+                        Village.class).getModifiedCount();
+            }
+        }
+        return repaired;
+    }
+
+    @Override
+    public Village updateAttributes(final Village village, final boolean includeInhabitantCount) {
+        final Update update = new Update().set("name", village.name()).inc("version", 1);
+        if (includeInhabitantCount) {
+            update.set("inhabitantCount", village.inhabitantCount());
+        }
+        final Village updated = mongoTemplate.findAndModify(
+                Query.query(Criteria.where("_id").is(village.id()).and("version").is(village.version())),
+                update,
+                FindAndModifyOptions.options().returnNew(true),
+                Village.class);
+        if (updated == null) {
+            throw new OptimisticLockingFailureException(String.format(
+                    "Cannot update village %s with version %s, it was modified or deleted in the meantime",
+                    village.id(), village.version()));
+        }
+        return updated;
+    }
+}
@@ -0,0 +1,34 @@
+package ckollmeier.de.asterixapi.repository.memory;
+
+import ckollmeier.de.asterixapi.model.AuditEntry;
+import ckollmeier.de.asterixapi.repository.AuditRepository;
+import org.bson.types.ObjectId;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory {@link AuditRepository}. The entries are kept until the application stops.
+ */
+@Repository
+@Profile(InMemoryRepository.PROFILE)
+public class InMemoryAuditRepository extends InMemoryRepository<AuditEntry, String> implements AuditRepository {
+
+    /**
+     * Creates an empty audit log.
+     */
+    public InMemoryAuditRepository() {
+        super(new ConcurrentHashMap<>());
+    }
+
+    @Override
+    protected String getId(final AuditEntry entry) {
+        return entry.id();
+    }
+
+    @Override
+    protected AuditEntry withGeneratedId(final AuditEntry entry) {
+        return entry.withId(new ObjectId().toHexString());
+    }
+}
@@ -0,0 +1,132 @@
+package ckollmeier.de.asterixapi.repository.memory;
+
+import ckollmeier.de.asterixapi.model.ChangeLogEntry;
+import ckollmeier.de.asterixapi.repository.ChangeLogRepository;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory {@link ChangeLogRepository}, the entries are kept sorted by sequence number.
+ * <p>
+ * Like the capped collection, the log keeps at most the configured number of entries and drops the
+ * oldest ones first. The size limit in bytes is not enforced.
+ * </p>
+ */
+@Repository
+@Profile(InMemoryRepository.PROFILE)
+public class InMemoryChangeLogRepository extends InMemoryRepository<ChangeLogEntry, Long> implements ChangeLogRepository {
+
+    /**
+     * The entries by sequence number.
+     */
+    private final ConcurrentNavigableMap<Long, ChangeLogEntry> log;
+
+    /**
+     * The last allocated sequence number.
+     */
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * The maximum number of entries, unlimited until the log is capped.
+     */
+    private volatile long maxEntries = Long.MAX_VALUE;
+
+    /**
+     * Whether {@link #createCappedCollection(long, long)} was called.
+     */
+    private volatile boolean capped;
+
+    /**
+     * Creates an empty change log.
+     */
+    public InMemoryChangeLogRepository() {
+        this(new ConcurrentSkipListMap<>());
+    }
+
+    private InMemoryChangeLogRepository(final ConcurrentNavigableMap<Long, ChangeLogEntry> log) {
+        super(log);
+        this.log = log;
+    }
+
+    @Override
+    protected Long getId(final ChangeLogEntry entry) {
+        return entry.sequence();
+    }
+
+    @Override
+    protected ChangeLogEntry withGeneratedId(final ChangeLogEntry entry) {
+        // The sequence number is a primitive and always set
+        return entry;
+    }
+
+    @Override
+    protected void stored(final ChangeLogEntry entry) {
+        dropOldestEntries();
+    }
+
+    /**
+     * Drops the oldest entries exceeding the maximum number of entries. Must be called holding the write lock.
+     */
+    private void dropOldestEntries() {
+        while (log.size() > maxEntries) {
+            log.pollFirstEntry();
+        }
+    }
+
+    @Override
+    public List<ChangeLogEntry> findBySequenceGreaterThanOrderBySequenceAsc(final long sequenceNumber) {
+        return read(() -> List.copyOf(log.tailMap(sequenceNumber, false).values()));
+    }
+
+    @Override
+    public Optional<ChangeLogEntry> findFirstByOrderBySequenceAsc() {
+        return read(() -> Optional.ofNullable(log.firstEntry()).map(Map.Entry::getValue));
+    }
+
+    @Override
+    public long nextSequence() {
+        return sequence.incrementAndGet();
+    }
+
+    @Override
+    public long nextSequences(final int count) {
+        return sequence.addAndGet(count) - count + 1;
+    }
+
+    @Override
+    public long currentSequence() {
+        return sequence.get();
+    }
+
+    @Override
+    public boolean createCappedCollection(final long maxSizeBytes, final long maxEntries) {
+        return write(() -> {
+            if (capped) {
+                return false;
+            }
+            this.maxEntries = maxEntries;
+            this.capped = true;
+            dropOldestEntries();
+            return true;
+        });
+    }
+
+    @Override
+    public boolean convertToCappedCollection(final long maxSizeBytes) {
+        // The size limit is not enforced, the log only stops reporting itself as uncapped
+        return write(() -> {
+            if (capped) {
+                return false;
+            }
+            this.capped = true;
+            return true;
+        });
+    }
+}
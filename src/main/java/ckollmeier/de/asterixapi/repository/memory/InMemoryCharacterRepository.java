@@ -0,0 +1,210 @@
+package ckollmeier.de.asterixapi.repository.memory;
+
+import ckollmeier.de.asterixapi.model.Character;
+import ckollmeier.de.asterixapi.model.CharacterPatch;
+import ckollmeier.de.asterixapi.model.CharacterUpdate;
+import ckollmeier.de.asterixapi.model.VillageReference;
+import ckollmeier.de.asterixapi.repository.CharacterRepository;
+import org.bson.types.ObjectId;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * In-memory {@link CharacterRepository} with secondary indexes on name, profession, age and village id.
+ * <p>
+ * The age index is sorted, so {@link #findByAgeGreaterThanEqual(int)} only visits the matching ages.
+ * Queries for {@code null} values are answered by scanning, like MongoDB they match characters without
+ * the field.
+ * </p>
+ */
+@Repository
+@Profile(InMemoryRepository.PROFILE)
+public class InMemoryCharacterRepository extends InMemoryRepository<Character, String> implements CharacterRepository {
+
+    /**
+     * Character ids by name.
+     */
+    private final ConcurrentMap<String, Set<String>> byName = new ConcurrentHashMap<>();
+
+    /**
+     * Character ids by profession.
+     */
+    private final ConcurrentMap<String, Set<String>> byProfession = new ConcurrentHashMap<>();
+
+    /**
+     * Character ids by age, sorted.
+     */
+    private final ConcurrentNavigableMap<Integer, Set<String>> byAge = new ConcurrentSkipListMap<>();
+
+    /**
+     * Character ids by village id.
+     */
+    private final ConcurrentMap<String, Set<String>> byVillageId = new ConcurrentHashMap<>();
+
+    /**
+     * Creates an empty repository.
+     */
+    public InMemoryCharacterRepository() {
+        super(new ConcurrentHashMap<>());
+    }
+
+    @Override
+    protected String getId(final Character character) {
+        return character.id();
+    }
+
+    @Override
+    protected Character withGeneratedId(final Character character) {
+        return character.withId(new ObjectId().toHexString());
+    }
+
+    @Override
+    protected Long getVersion(final Character character) {
+        return character.version();
+    }
+
+    @Override
+    protected Character withVersion(final Character character, final Long version) {
+        return character.withVersion(version);
+    }
+
+    @Override
+    protected boolean isVersioned() {
+        return true;
+    }
+
+    @Override
+    protected void stored(final Character character) {
+        addToIndex(byName, character.name(), character.id());
+        addToIndex(byProfession, character.profession(), character.id());
+        addToIndex(byAge, character.age(), character.id());
+        addToIndex(byVillageId, getVillageId(character), character.id());
+    }
+
+    @Override
+    protected void removed(final Character character) {
+        removeFromIndex(byName, character.name(), character.id());
+        removeFromIndex(byProfession, character.profession(), character.id());
+        removeFromIndex(byAge, character.age(), character.id());
+        removeFromIndex(byVillageId, getVillageId(character), character.id());
+    }
+
+    /**
+     * Returns the village id of a character.
+     *
+     * @param character the character
+     * @return the village id, {@code null} if the character has no village
+     */
+    private static String getVillageId(final Character character) {
+        return character.village() != null ? character.village().id() : null;
+    }
+
+    @Override
+    public Optional<Character> findOneByName(final String name) {
+        return read(() -> (name != null
+                ? findAllIn(byName.getOrDefault(name, Set.of()))
+                : scan(character -> character.name() == null)).stream().findFirst());
+    }
+
+    @Override
+    public List<Character> findByProfession(final String profession) {
+        return read(() -> profession != null
+                ? findAllIn(byProfession.getOrDefault(profession, Set.of()))
+                : scan(character -> character.profession() == null));
+    }
+
+    @Override
+    public List<Character> findByAgeGreaterThanEqual(final int age) {
+        return read(() -> findAllInIndexEntries(byAge.tailMap(age, true).values()));
+    }
+
+    @Override
+    public List<Character> findByVillageId(final String villageId) {
+        return read(() -> villageId != null
+                ? findAllIn(byVillageId.getOrDefault(villageId, Set.of()))
+                : scan(character -> getVillageId(character) == null));
+    }
+
+    @Override
+    public List<Character> findByVillageIdIn(final Collection<String> villageIds) {
+        // Set.of and List.of throw on contains(null), so check for null elements without contains
+        return read(() -> villageIds.stream().anyMatch(Objects::isNull)
+                ? scan(character -> villageIds.stream().anyMatch(villageId -> Objects.equals(villageId, getVillageId(character))))
+                : findAllInIndexEntries(villageIds.stream()
+                        .distinct()
+                        .map(villageId -> byVillageId.getOrDefault(villageId, Set.of()))
+                        .toList()));
+    }
+
+    @Override
+    public List<Character> findByIdIn(final Collection<String> ids) {
+        return read(() -> findAllIn(new LinkedHashSet<>(ids)));
+    }
+
+    @Override
+    public Optional<CharacterUpdate> updatePartially(final String id, final CharacterPatch patch) {
+        return write(() -> {
+            final Character previous = find(id);
+            if (previous == null) {
+                return Optional.empty();
+            }
+            if (patch.isEmpty()) {
+                return Optional.of(new CharacterUpdate(previous, previous));
+            }
+            return Optional.of(new CharacterUpdate(previous, store(previous, patch.applyTo(previous))));
+        });
+    }
+
+    @Override
+    public long updateVillageName(final String villageId, final String name) {
+        return write(() -> {
+            final List<Character> inhabitants = findAllIn(List.copyOf(byVillageId.getOrDefault(villageId, Set.of())));
+            for (Character inhabitant : inhabitants) {
+                store(inhabitant, inhabitant
+                        .withVillage(new VillageReference(villageId, name))
+                        .withVersion(nextVersion(inhabitant.version())));
+            }
+            return (long) inhabitants.size();
+        });
+    }
+
+    @Override
+    public long unlinkVillages(final Collection<String> villageIds) {
+        return write(() -> {
+            final List<Character> inhabitants = findAllInIndexEntries(villageIds.stream()
+                    .distinct()
+                    .map(villageId -> byVillageId.getOrDefault(villageId, Set.of()))
+                    .toList());
+            for (Character inhabitant : inhabitants) {
+                store(inhabitant, inhabitant.withVillage(null).withVersion(nextVersion(inhabitant.version())));
+            }
+            return (long) inhabitants.size();
+        });
+    }
+
+    /**
+     * Counts the characters per village, the equivalent of grouping by {@code village._id}.
+     *
+     * @return the number of inhabitants by village id, villages without inhabitants are missing
+     */
+    public Map<String, Integer> countByVillageId() {
+        return read(() -> {
+            final Map<String, Integer> counts = new HashMap<>();
+            byVillageId.forEach((villageId, ids) -> counts.put(villageId, ids.size()));
+            return counts;
+        });
+    }
+}
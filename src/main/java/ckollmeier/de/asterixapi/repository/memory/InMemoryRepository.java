@@ -0,0 +1,531 @@
+package ckollmeier.de.asterixapi.repository.memory;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.repository.query.FluentQuery;
+
+import java.lang.reflect.RecordComponent;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Base of the in-memory repositories used with the {@value #PROFILE} profile instead of MongoDB.
+ * <p>
+ * Entities are kept in a concurrent map by id. Subclasses maintain their secondary indexes in
+ * {@link #stored(Object)} and {@link #removed(Object)}, which run under the write lock together with the
+ * change of the map, so queries (which take the read lock) always see the entities and indexes in sync.
+ * Saving follows the semantics of Spring Data MongoDB: an entity with a {@code @Version} of {@code null}
+ * is inserted with version {@code 0} and fails with {@link DuplicateKeyException} if the id is taken,
+ * otherwise the stored version must match or {@link OptimisticLockingFailureException} is thrown.
+ * Query by example is not supported.
+ * </p>
+ *
+ * @param <T>  the entity type, a record
+ * @param <ID> the id type
+ */
+public abstract class InMemoryRepository<T, ID> implements MongoRepository<T, ID> {
+
+    /**
+     * Profile replacing the MongoDB repositories with the in-memory repositories.
+     */
+    public static final String PROFILE = "in-memory";
+
+    /**
+     * The entities by id.
+     */
+    private final Map<ID, T> entities;
+
+    /**
+     * Keeps the entities and the secondary indexes consistent.
+     */
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Creates the repository.
+     *
+     * @param entities the map holding the entities, must be empty and thread-safe
+     */
+    protected InMemoryRepository(final Map<ID, T> entities) {
+        this.entities = entities;
+    }
+
+    /**
+     * Returns the id of an entity.
+     *
+     * @param entity the entity
+     * @return the id, {@code null} if not assigned yet
+     */
+    protected abstract ID getId(T entity);
+
+    /**
+     * Assigns a new id to an entity that has none, like MongoDB generates an {@code ObjectId}.
+     *
+     * @param entity the entity without id
+     * @return the entity with id
+     */
+    protected abstract T withGeneratedId(T entity);
+
+    /**
+     * Returns the version of an entity, {@code null} for new or unversioned entities.
+     *
+     * @param entity the entity
+     * @return the version
+     */
+    protected Long getVersion(final T entity) {
+        return null;
+    }
+
+    /**
+     * Sets the version of an entity. Only called if {@link #isVersioned()}.
+     *
+     * @param entity  the entity
+     * @param version the new version
+     * @return the entity with the version
+     */
+    protected T withVersion(final T entity, final Long version) {
+        return entity;
+    }
+
+    /**
+     * @return whether the entity has a {@code @Version} property
+     */
+    protected boolean isVersioned() {
+        return false;
+    }
+
+    /**
+     * Called under the write lock after an entity was stored, to add it to the secondary indexes.
+     *
+     * @param entity the stored entity
+     */
+    protected void stored(final T entity) {
+    }
+
+    /**
+     * Called under the write lock after an entity was removed or before it is replaced,
+     * to remove it from the secondary indexes.
+     *
+     * @param entity the removed entity
+     */
+    protected void removed(final T entity) {
+    }
+
+    /**
+     * Returns the version a modification increments the given version to, like {@code $inc} does.
+     *
+     * @param version the current version, may be {@code null}
+     * @return the next version
+     */
+    protected static Long nextVersion(final Long version) {
+        return version != null ? version + 1 : 1L;
+    }
+
+    /**
+     * Runs a query under the read lock.
+     *
+     * @param query the query
+     * @param <R>   the result type
+     * @return the result
+     */
+    protected <R> R read(final Supplier<R> query) {
+        lock.readLock().lock();
+        try {
+            return query.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Runs a modification under the write lock.
+     *
+     * @param modification the modification
+     * @param <R>          the result type
+     * @return the result
+     */
+    protected <R> R write(final Supplier<R> modification) {
+        lock.writeLock().lock();
+        try {
+            return modification.get();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns an entity by id. Must be called holding the lock.
+     *
+     * @param id the id
+     * @return the entity, {@code null} if it does not exist
+     */
+    protected T find(final ID id) {
+        return id != null ? entities.get(id) : null;
+    }
+
+    /**
+     * Returns the entities with the given ids, skipping missing ones. Must be called holding the lock.
+     *
+     * @param ids the ids
+     * @return the entities
+     */
+    protected List<T> findAllIn(final Iterable<ID> ids) {
+        final List<T> result = new ArrayList<>();
+        for (ID id : ids) {
+            final T entity = find(id);
+            if (entity != null) {
+                result.add(entity);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Collects the ids of a set of index entries into a list of entities. Must be called holding the lock.
+     *
+     * @param idSets the id sets of the matching index entries
+     * @return the entities
+     */
+    protected List<T> findAllInIndexEntries(final Collection<? extends Set<ID>> idSets) {
+        final List<T> result = new ArrayList<>();
+        for (Set<ID> ids : idSets) {
+            result.addAll(findAllIn(ids));
+        }
+        return result;
+    }
+
+    /**
+     * Stores an entity, replacing the previous state. Must be called holding the write lock.
+     *
+     * @param previous the previous state, {@code null} if the entity is new
+     * @param entity   the new state
+     * @return the new state
+     */
+    protected T store(final T previous, final T entity) {
+        if (previous != null) {
+            removed(previous);
+        }
+        entities.put(getId(entity), entity);
+        stored(entity);
+        return entity;
+    }
+
+    /**
+     * Adds an id to the entry of a secondary index.
+     *
+     * @param index the index
+     * @param key   the indexed value, {@code null} values are not indexed
+     * @param id    the id of the entity
+     * @param <K>   the type of the indexed value
+     * @param <I>   the type of the ids
+     */
+    protected static <K, I> void addToIndex(final Map<K, Set<I>> index, final K key, final I id) {
+        if (key != null) {
+            index.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(id);
+        }
+    }
+
+    /**
+     * Removes an id from the entry of a secondary index, dropping the entry once it is empty.
+     *
+     * @param index the index
+     * @param key   the indexed value, {@code null} values are not indexed
+     * @param id    the id of the entity
+     * @param <K>   the type of the indexed value
+     * @param <I>   the type of the ids
+     */
+    protected static <K, I> void removeFromIndex(final Map<K, Set<I>> index, final K key, final I id) {
+        if (key != null) {
+            index.computeIfPresent(key, (k, ids) -> ids.remove(id) && ids.isEmpty() ? null : ids);
+        }
+    }
+
+    /**
+     * Returns all entities matching a predicate by scanning. Used for queries the indexes do not cover.
+     * Must be called holding the lock.
+     *
+     * @param filter the predicate
+     * @return the matching entities
+     */
+    protected List<T> scan(final Predicate<T> filter) {
+        return entities.values().stream().filter(filter).toList();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <S extends T> S save(final S entity) {
+        return (S) write(() -> doSave(entity));
+    }
+
+    @Override
+    public <S extends T> List<S> saveAll(final Iterable<S> entities) {
+        final List<S> result = new ArrayList<>();
+        entities.forEach(entity -> result.add(save(entity)));
+        return result;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <S extends T> S insert(final S entity) {
+        return (S) write(() -> doInsert(entity));
+    }
+
+    @Override
+    public <S extends T> List<S> insert(final Iterable<S> entities) {
+        final List<S> result = new ArrayList<>();
+        entities.forEach(entity -> result.add(insert(entity)));
+        return result;
+    }
+
+    /**
+     * Saves an entity holding the write lock.
+     *
+     * @param entity the entity
+     * @return the saved state
+     */
+    private T doSave(final T entity) {
+        if (!isVersioned()) {
+            final T withId = getId(entity) != null ? entity : withGeneratedId(entity);
+            return store(find(getId(withId)), withId);
+        }
+        final Long version = getVersion(entity);
+        if (version == null) {
+            return doInsert(entity);
+        }
+        final T previous = find(getId(entity));
+        if (previous == null || !version.equals(getVersion(previous))) {
+            throw new OptimisticLockingFailureException(String.format(
+                    "Cannot save entity %s with version %s, it was modified or deleted in the meantime",
+                    getId(entity), version));
+        }
+        return store(previous, withVersion(entity, version + 1));
+    }
+
+    /**
+     * Inserts an entity holding the write lock.
+     *
+     * @param entity the entity
+     * @return the inserted state
+     */
+    private T doInsert(final T entity) {
+        T inserted = getId(entity) != null ? entity : withGeneratedId(entity);
+        if (entities.containsKey(getId(inserted))) {
+            throw new DuplicateKeyException("Duplicate id " + getId(inserted));
+        }
+        if (isVersioned() && getVersion(inserted) == null) {
+            inserted = withVersion(inserted, 0L);
+        }
+        return store(null, inserted);
+    }
+
+    @Override
+    public Optional<T> findById(final ID id) {
+        return read(() -> Optional.ofNullable(find(id)));
+    }
+
+    @Override
+    public boolean existsById(final ID id) {
+        return read(() -> find(id) != null);
+    }
+
+    @Override
+    public List<T> findAll() {
+        return read(() -> List.copyOf(entities.values()));
+    }
+
+    @Override
+    public List<T> findAllById(final Iterable<ID> ids) {
+        return read(() -> findAllIn(ids));
+    }
+
+    @Override
+    public List<T> findAll(final Sort sort) {
+        final List<T> result = new ArrayList<>(findAll());
+        result.sort(comparator(sort));
+        return result;
+    }
+
+    @Override
+    public Page<T> findAll(final Pageable pageable) {
+        final List<T> all = findAll(pageable.getSort());
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(all, pageable, all.size());
+        }
+        final int from = (int) Math.min(pageable.getOffset(), all.size());
+        final int to = Math.min(from + pageable.getPageSize(), all.size());
+        return new PageImpl<>(all.subList(from, to), pageable, all.size());
+    }
+
+    @Override
+    public long count() {
+        return entities.size();
+    }
+
+    @Override
+    public void deleteById(final ID id) {
+        write(() -> {
+            final T previous = entities.remove(id);
+            if (previous != null) {
+                removed(previous);
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public void delete(final T entity) {
+        write(() -> {
+            final T previous = find(getId(entity));
+            final boolean matches = previous != null
+                    && (!isVersioned() || Objects.equals(getVersion(previous), getVersion(entity)));
+            if (matches) {
+                entities.remove(getId(entity));
+                removed(previous);
+            } else if (isVersioned()) {
+                throw new OptimisticLockingFailureException(String.format(
+                        "Cannot delete entity %s with version %s, it was modified or deleted in the meantime",
+                        getId(entity), getVersion(entity)));
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public void deleteAllById(final Iterable<? extends ID> ids) {
+        ids.forEach(this::deleteById);
+    }
+
+    @Override
+    public void deleteAll(final Iterable<? extends T> entities) {
+        entities.forEach(this::delete);
+    }
+
+    @Override
+    public void deleteAll() {
+        write(() -> {
+            final List<T> all = List.copyOf(entities.values());
+            entities.clear();
+            all.forEach(this::removed);
+            return null;
+        });
+    }
+
+    @Override
+    public <S extends T> Optional<S> findOne(final Example<S> example) {
+        throw queryByExampleNotSupported();
+    }
+
+    @Override
+    public <S extends T> List<S> findAll(final Example<S> example) {
+        throw queryByExampleNotSupported();
+    }
+
+    @Override
+    public <S extends T> List<S> findAll(final Example<S> example, final Sort sort) {
+        throw queryByExampleNotSupported();
+    }
+
+    @Override
+    public <S extends T> Page<S> findAll(final Example<S> example, final Pageable pageable) {
+        throw queryByExampleNotSupported();
+    }
+
+    @Override
+    public <S extends T> long count(final Example<S> example) {
+        throw queryByExampleNotSupported();
+    }
+
+    @Override
+    public <S extends T> boolean exists(final Example<S> example) {
+        throw queryByExampleNotSupported();
+    }
+
+    @Override
+    public <S extends T, R> R findBy(final Example<S> example,
+                                     final Function<FluentQuery.FetchableFluentQuery<S>, R> queryFunction) {
+        throw queryByExampleNotSupported();
+    }
+
+    /**
+     * @return the exception thrown by the query by example methods
+     */
+    private static UnsupportedOperationException queryByExampleNotSupported() {
+        return new UnsupportedOperationException("Query by example is not supported by the in-memory repositories");
+    }
+
+    /**
+     * Creates a comparator ordering entities like MongoDB sorts documents, {@code null} values first.
+     *
+     * @param sort the sort, properties may be paths into nested records like {@code village.name}
+     * @return the comparator
+     */
+    private static <T> Comparator<T> comparator(final Sort sort) {
+        Comparator<T> comparator = (a, b) -> 0;
+        for (Sort.Order order : sort) {
+            final Comparator<T> byProperty = Comparator.comparing(
+                    entity -> property(entity, order.getProperty()),
+                    Comparator.nullsFirst(Comparator.naturalOrder()));
+            comparator = comparator.thenComparing(order.isAscending() ? byProperty : byProperty.reversed());
+        }
+        return comparator;
+    }
+
+    /**
+     * Reads a property of a record by path.
+     *
+     * @param entity the record
+     * @param path   the property path, e.g. {@code village.name}
+     * @return the value, {@code null} if a record on the path is {@code null}
+     */
+    @SuppressWarnings("unchecked")
+    private static Comparable<Object> property(final Object entity, final String path) {
+        Object value = entity;
+        for (String name : path.split("\\.")) {
+            if (value == null) {
+                return null;
+            }
+            value = component(value, name);
+        }
+        return (Comparable<Object>) value;
+    }
+
+    /**
+     * Reads a component of a record.
+     *
+     * @param value the record
+     * @param name  the component name
+     * @return the value
+     */
+    private static Object component(final Object value, final String name) {
+        final RecordComponent[] components = value.getClass().getRecordComponents();
+        if (components != null) {
+            for (RecordComponent component : components) {
+                if (component.getName().equals(name)) {
+                    try {
+                        return component.getAccessor().invoke(value);
+                    } catch (ReflectiveOperationException e) {
+                        throw new IllegalStateException("Cannot read property " + name, e);
+                    }
+                }
+            }
+        }
+        throw new IllegalArgumentException("No property " + name + " on " + value.getClass().getSimpleName());
+    }
+}
@@ -0,0 +1,144 @@
+package ckollmeier.de.asterixapi.repository.memory;
+
+import ckollmeier.de.asterixapi.model.Village;
+import ckollmeier.de.asterixapi.repository.VillageRepository;
+import org.bson.types.ObjectId;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * In-memory {@link VillageRepository} with a secondary index on the name.
+ * The inhabitant counts are repaired from the {@link InMemoryCharacterRepository}.
+ */
+@Repository
+@Profile(InMemoryRepository.PROFILE)
+public class InMemoryVillageRepository extends InMemoryRepository<Village, String> implements VillageRepository {
+
+    /**
+     * Village ids by name.
+     */
+    private final ConcurrentMap<String, Set<String>> byName = new ConcurrentHashMap<>();
+
+    /**
+     * The characters the inhabitant counts are computed from.
+     */
+    private final InMemoryCharacterRepository characterRepository;
+
+    /**
+     * Creates an empty repository.
+     *
+     * @param characterRepository the characters the inhabitant counts are computed from
+     */
+    public InMemoryVillageRepository(final InMemoryCharacterRepository characterRepository) {
+        super(new ConcurrentHashMap<>());
+        this.characterRepository = characterRepository;
+    }
+
+    @Override
+    protected String getId(final Village village) {
+        return village.id();
+    }
+
+    @Override
+    protected Village withGeneratedId(final Village village) {
+        return village.withId(new ObjectId().toHexString());
+    }
+
+    @Override
+    protected Long getVersion(final Village village) {
+        return village.version();
+    }
+
+    @Override
+    protected Village withVersion(final Village village, final Long version) {
+        return village.withVersion(version);
+    }
+
+    @Override
+    protected boolean isVersioned() {
+        return true;
+    }
+
+    @Override
+    protected void stored(final Village village) {
+        addToIndex(byName, village.name(), village.id());
+    }
+
+    @Override
+    protected void removed(final Village village) {
+        removeFromIndex(byName, village.name(), village.id());
+    }
+
+    @Override
+    public Optional<Village> findOneByName(final String name) {
+        return read(() -> (name != null
+                ? findAllIn(byName.getOrDefault(name, Set.of()))
+                : scan(village -> village.name() == null)).stream().findFirst());
+    }
+
+    @Override
+    public void incrementInhabitantCount(final String villageId, final int delta) {
+        if (villageId == null || delta == 0) {
+            return;
+        }
+        write(() -> {
+            final Village village = find(villageId);
+            if (village != null) {
+                store(village, village.withInhabitantCount(village.inhabitantCount() + delta));
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public void incrementInhabitantCounts(final Map<String, Integer> deltas) {
+        deltas.forEach(this::incrementInhabitantCount);
+    }
+
+    @Override
+    public long repairInhabitantCounts() {
+        // Read the villages first: every increment after this point changes the count and blocks the correction
+        final Iterable<Village> villages = findAll();
+        final Map<String, Integer> actualCounts = characterRepository.countByVillageId();
+
+        long repaired = 0;
+        for (Village village : villages) {
+            final int actualCount = actualCounts.getOrDefault(village.id(), 0);
+            if (village.inhabitantCount() != actualCount) {
+                repaired += write(() -> {
+                    final Village current = find(village.id());
+                    if (current == null || current.inhabitantCount() != village.inhabitantCount()) {
+                        return 0;
+                    }
+                    store(current, current.withInhabitantCount(actualCount));
+                    return 1;
+                });
+            }
+        }
+        return repaired;
+    }
+
+    @Override
+    public Village updateAttributes(final Village village, final boolean includeInhabitantCount) {
+        return write(() -> {
+            final Village current = find(village.id());
+            if (current == null || !Objects.equals(current.version(), village.version())) {
+                throw new OptimisticLockingFailureException(String.format(
+                        "Cannot update village %s with version %s, it was modified or deleted in the meantime",
+                        village.id(), village.version()));
+            }
+            return store(current, current
+                    .withName(village.name())
+                    .withInhabitantCount(includeInhabitantCount ? village.inhabitantCount() : current.inhabitantCount())
+                    .withVersion(nextVersion(current.version())));
+        });
+    }
+}
@@ -0,0 +1,32 @@
+package ckollmeier.de.asterixapi.search;
+
+/**
+ * A character or village matching a search.
+ *
+ * @param type       whether the hit is a character or a village
+ * @param id         the ID of the character or village
+ * @param name       the name
+ * @param profession the profession of a character, {@code null} for villages
+ * @param score      the relevance, higher is better
+ */
+public record SearchHit(
+        Type type,
+        String id,
+        String name,
+        String profession,
+        double score
+) {
+    /**
+     * The kinds of searchable entities.
+     */
+    public enum Type {
+        /**
+         * A character, searchable by name and profession.
+         */
+        CHARACTER,
+        /**
+         * A village, searchable by name.
+         */
+        VILLAGE
+    }
+}
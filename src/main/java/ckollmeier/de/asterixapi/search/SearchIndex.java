@@ -0,0 +1,415 @@
+package ckollmeier.de.asterixapi.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * In-process inverted index over the names and professions of characters and the names of villages.
+ * <p>
+ * Texts are split into terms at everything but letters and digits, lower-cased and stripped of diacritics,
+ * so {@code "Panoramix the Druid"} is found by {@code druid} and {@code Méli} by {@code meli}. Every query term
+ * has to match a term of the entity, exactly, as a prefix (for search as you type) or, for query terms of
+ * {@value #MIN_FUZZY_LENGTH} or more letters, with one typo ({@value #LONG_TERM_LENGTH} or more letters: two).
+ * Hits are ranked by the sum of their term scores: the match quality times the weight of the field (names
+ * count twice as much as professions) times the inverse document frequency of the matched term.
+ * </p>
+ * <p>
+ * The index is thread-safe; searches share a read lock and never block each other.
+ * </p>
+ */
+public class SearchIndex {
+
+    /**
+     * Minimum length of a query term to be matched with typos.
+     */
+    static final int MIN_FUZZY_LENGTH = 4;
+
+    /**
+     * Minimum length of a query term to be matched with two typos.
+     */
+    static final int LONG_TERM_LENGTH = 8;
+
+    /**
+     * Weight of terms in names.
+     */
+    private static final double NAME_WEIGHT = 2.0;
+
+    /**
+     * Weight of terms in professions.
+     */
+    private static final double PROFESSION_WEIGHT = 1.0;
+
+    /**
+     * Score factor of a term matched exactly.
+     */
+    private static final double EXACT_MATCH = 1.0;
+
+    /**
+     * Score factor of a term matched by prefix.
+     */
+    private static final double PREFIX_MATCH = 0.7;
+
+    /**
+     * Score factor of a term matched with one typo, halved for every further typo.
+     */
+    private static final double FUZZY_MATCH = 0.5;
+
+    /**
+     * Separators between terms.
+     */
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+
+    /**
+     * Combining marks left over from decomposing accented letters.
+     */
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+    /**
+     * Orders hits by descending score, then by name and ID.
+     */
+    private static final Comparator<SearchHit> RANKING = Comparator.comparingDouble(SearchHit::score).reversed()
+            .thenComparing(SearchHit::name, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(SearchHit::id);
+
+    /**
+     * An indexed character or village.
+     *
+     * @param type       character or village
+     * @param id         the ID
+     * @param name       the name
+     * @param profession the profession, {@code null} for villages
+     * @param terms      the field weight of each of its terms
+     */
+    private record Entry(SearchHit.Type type, String id, String name, String profession, Map<String, Double> terms) {
+    }
+
+    /**
+     * The indexed entities by key, see {@link #key(SearchHit.Type, String)}.
+     */
+    private final Map<String, Entry> entries = new HashMap<>();
+
+    /**
+     * The keys of the entities containing a term and the field weight of the term in them, sorted by term for
+     * prefix lookups.
+     */
+    private final NavigableMap<String, Map<String, Double>> postings = new TreeMap<>();
+
+    /**
+     * Guards {@link #entries} and {@link #postings}.
+     */
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Adds a character or replaces its previous version.
+     *
+     * @param id         the ID
+     * @param name       the name
+     * @param profession the profession
+     */
+    public void putCharacter(final String id, final String name, final String profession) {
+        final Map<String, Double> terms = new HashMap<>();
+        addTerms(terms, name, NAME_WEIGHT);
+        addTerms(terms, profession, PROFESSION_WEIGHT);
+        put(new Entry(SearchHit.Type.CHARACTER, id, name, profession, terms));
+    }
+
+    /**
+     * Adds a village or replaces its previous version.
+     *
+     * @param id   the ID
+     * @param name the name
+     */
+    public void putVillage(final String id, final String name) {
+        final Map<String, Double> terms = new HashMap<>();
+        addTerms(terms, name, NAME_WEIGHT);
+        put(new Entry(SearchHit.Type.VILLAGE, id, name, null, terms));
+    }
+
+    /**
+     * Removes a character.
+     *
+     * @param id the ID
+     */
+    public void removeCharacter(final String id) {
+        write(() -> remove(key(SearchHit.Type.CHARACTER, id)));
+    }
+
+    /**
+     * Removes a village.
+     *
+     * @param id the ID
+     */
+    public void removeVillage(final String id) {
+        write(() -> remove(key(SearchHit.Type.VILLAGE, id)));
+    }
+
+    /**
+     * Returns the number of indexed characters and villages.
+     *
+     * @return the number of entities
+     */
+    public int size() {
+        return read(entries::size);
+    }
+
+    /**
+     * Finds the characters and villages matching all terms of a query.
+     *
+     * @param query the query
+     * @param limit the maximum number of hits
+     * @return the best hits, the most relevant first; empty if the query has no terms
+     */
+    public List<SearchHit> search(final String query, final int limit) {
+        final List<String> queryTerms = tokenize(query).stream().distinct().toList();
+        if (queryTerms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        return read(() -> {
+            Map<String, Double> scores = null;
+            for (String queryTerm : queryTerms) {
+                final Map<String, Double> termScores = score(queryTerm);
+                if (scores == null) {
+                    scores = termScores;
+                } else {
+                    final Map<String, Double> matchingAll = new HashMap<>();
+                    for (Map.Entry<String, Double> score : scores.entrySet()) {
+                        final Double termScore = termScores.get(score.getKey());
+                        if (termScore != null) {
+                            matchingAll.put(score.getKey(), score.getValue() + termScore);
+                        }
+                    }
+                    scores = matchingAll;
+                }
+                if (scores.isEmpty()) {
+                    return List.of();
+                }
+            }
+            return best(scores, limit);
+        });
+    }
+
+    /**
+     * Splits a text into normalized terms.
+     *
+     * @param text the text, may be {@code null}
+     * @return the terms in order of occurrence
+     */
+    static List<String> tokenize(final String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        final String normalized = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD))
+                .replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        final List<String> terms = new ArrayList<>();
+        for (String term : SEPARATORS.split(normalized)) {
+            if (!term.isEmpty()) {
+                terms.add(term);
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * Computes the edit distance of two terms, giving up early if it exceeds a maximum.
+     *
+     * @param a           the first term
+     * @param b           the second term
+     * @param maxDistance the maximum distance of interest
+     * @return the number of inserted, deleted or replaced characters, or {@code maxDistance + 1} if larger
+     */
+    static int editDistance(final String a, final String b, final int maxDistance) {
+        if (Math.abs(a.length() - b.length()) > maxDistance) {
+            return maxDistance + 1;
+        }
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMinimum = i;
+            for (int j = 1; j <= b.length(); j++) {
+                final int replace = previous[j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(replace, Math.min(previous[j], current[j - 1]) + 1);
+                rowMinimum = Math.min(rowMinimum, current[j]);
+            }
+            if (rowMinimum > maxDistance) {
+                return maxDistance + 1;
+            }
+            final int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return Math.min(previous[b.length()], maxDistance + 1);
+    }
+
+    /**
+     * Scores the entities matching one query term, keeping the best match per entity.
+     *
+     * @param queryTerm the query term
+     * @return the scores by entity key
+     */
+    private Map<String, Double> score(final String queryTerm) {
+        final Map<String, Double> scores = new HashMap<>();
+        final Map<String, Double> exact = postings.get(queryTerm);
+        if (exact != null) {
+            addScores(scores, exact, EXACT_MATCH);
+        }
+        for (Map<String, Double> prefixed : postings.subMap(queryTerm, false, queryTerm + Character.MAX_VALUE, false).values()) {
+            addScores(scores, prefixed, PREFIX_MATCH);
+        }
+        if (queryTerm.length() >= MIN_FUZZY_LENGTH) {
+            final int maxDistance = queryTerm.length() >= LONG_TERM_LENGTH ? 2 : 1;
+            // Typos in the first letter are rare, so only terms starting with the same letter are compared
+            final String firstLetter = queryTerm.substring(0, 1);
+            for (Map.Entry<String, Map<String, Double>> candidate
+                    : postings.subMap(firstLetter, true, firstLetter + Character.MAX_VALUE, false).entrySet()) {
+                final int distance = editDistance(queryTerm, candidate.getKey(), maxDistance);
+                if (distance > 0 && distance <= maxDistance) {
+                    addScores(scores, candidate.getValue(), FUZZY_MATCH / (1 << (distance - 1)));
+                }
+            }
+        }
+        return scores;
+    }
+
+    /**
+     * Adds the scores of the entities containing a matched term.
+     *
+     * @param scores the best score so far by entity key
+     * @param posting the field weights of the term by entity key
+     * @param match   the quality of the match
+     */
+    private void addScores(final Map<String, Double> scores, final Map<String, Double> posting, final double match) {
+        final double inverseDocumentFrequency = Math.log(1.0 + (double) entries.size() / posting.size());
+        for (Map.Entry<String, Double> weight : posting.entrySet()) {
+            scores.merge(weight.getKey(), match * weight.getValue() * inverseDocumentFrequency, Math::max);
+        }
+    }
+
+    /**
+     * Selects the best hits without sorting all matches.
+     *
+     * @param scores the scores by entity key
+     * @param limit  the maximum number of hits
+     * @return the best hits, the most relevant first
+     */
+    private List<SearchHit> best(final Map<String, Double> scores, final int limit) {
+        final PriorityQueue<SearchHit> best = new PriorityQueue<>(limit + 1, RANKING.reversed());
+        for (Map.Entry<String, Double> score : scores.entrySet()) {
+            final Entry entry = entries.get(score.getKey());
+            best.add(new SearchHit(entry.type(), entry.id(), entry.name(), entry.profession(), score.getValue()));
+            if (best.size() > limit) {
+                best.poll();
+            }
+        }
+        final List<SearchHit> hits = new ArrayList<>(best);
+        hits.sort(RANKING);
+        return hits;
+    }
+
+    /**
+     * Adds the terms of a field, keeping the highest weight of terms occurring in several fields.
+     *
+     * @param terms  the terms of the entity
+     * @param text   the field value, may be {@code null}
+     * @param weight the weight of the field
+     */
+    private static void addTerms(final Map<String, Double> terms, final String text, final double weight) {
+        for (String term : tokenize(text)) {
+            terms.merge(term, weight, Math::max);
+        }
+    }
+
+    /**
+     * Adds an entity, replacing its previous version.
+     *
+     * @param entry the entity
+     */
+    private void put(final Entry entry) {
+        final String key = key(entry.type(), entry.id());
+        write(() -> {
+            remove(key);
+            entries.put(key, entry);
+            entry.terms().forEach((term, weight) -> postings.computeIfAbsent(term, t -> new HashMap<>()).put(key, weight));
+            return null;
+        });
+    }
+
+    /**
+     * Removes an entity. Must be called holding the write lock.
+     *
+     * @param key the entity key
+     * @return {@code null}
+     */
+    private Void remove(final String key) {
+        final Entry previous = entries.remove(key);
+        if (previous != null) {
+            for (String term : previous.terms().keySet()) {
+                final Map<String, Double> posting = postings.get(term);
+                posting.remove(key);
+                if (posting.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the key of an entity, IDs of characters and villages may collide.
+     *
+     * @param type the entity type
+     * @param id   the ID
+     * @return the key
+     */
+    private static String key(final SearchHit.Type type, final String id) {
+        return type.name().charAt(0) + id;
+    }
+
+    /**
+     * Runs an action holding the read lock.
+     *
+     * @param action the action
+     * @param <R>    the result type
+     * @return the result
+     */
+    private <R> R read(final Supplier<R> action) {
+        lock.readLock().lock();
+        try {
+            return action.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Runs an action holding the write lock.
+     *
+     * @param action the action
+     * @param <R>    the result type
+     * @return the result
+     */
+    private <R> R write(final Supplier<R> action) {
+        lock.writeLock().lock();
+        try {
+            return action.get();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,297 @@
+package ckollmeier.de.asterixapi.service;
+
+import ckollmeier.de.asterixapi.event.ChangeBatch;
+import ckollmeier.de.asterixapi.event.ChangeEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Pushes {@link ChangeEvent}s to the subscribers of the Server-Sent Events stream.
+ * <p>
+ * Subscribers are asynchronous requests: an idle subscriber holds no thread, only its {@link SseEmitter}.
+ * Every event is serialized once and queued for each subscriber in a queue bounded by
+ * {@code asterix.events.queue-capacity}. A virtual thread per subscriber drains its queue while it is not empty,
+ * so writes never wait for clients, a slow client does not delay the others, and each subscriber receives
+ * the events in the order they were published. A subscriber whose queue overflows is completed and dropped,
+ * it has to reconnect and resynchronize like after a timeout.
+ * Subscribers whose connection failed are dropped; a periodic heartbeat comment detects closed connections
+ * and keeps proxies from closing idle ones. A subscription ends after {@code asterix.events.timeout},
+ * clients are expected to reconnect (which {@code EventSource} does automatically).
+ * </p>
+ * <p>
+ * The number of subscribers is published as the gauge {@value #SUBSCRIBERS_METRIC}, the number of subscribers
+ * dropped for falling behind as the counter {@value #OVERFLOWS_METRIC}.
+ * </p>
+ */
+@Slf4j
+@Service
+public class ChangeEventBroadcaster {
+
+    /**
+     * Name of the gauge for the current number of subscribers.
+     */
+    public static final String SUBSCRIBERS_METRIC = "asterix.events.subscribers";
+
+    /**
+     * Name of the counter for subscribers dropped because their queue overflowed.
+     */
+    public static final String OVERFLOWS_METRIC = "asterix.events.subscribers.overflows";
+
+    /**
+     * Mapper serializing the events.
+     */
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Time after which a subscription ends.
+     */
+    private final Duration timeout;
+
+    /**
+     * Maximum number of messages queued for one subscriber.
+     */
+    private final int queueCapacity;
+
+    /**
+     * The current subscribers.
+     */
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Counter for subscribers dropped because their queue overflowed.
+     */
+    private final Counter overflows;
+
+    /**
+     * Creates the broadcaster and registers its metrics.
+     *
+     * @param objectMapper  mapper serializing the events
+     * @param meterRegistry registry for the subscriber metrics
+     * @param timeout       time after which a subscription ends
+     * @param queueCapacity maximum number of messages queued for one subscriber
+     */
+    public ChangeEventBroadcaster(final ObjectMapper objectMapper,
+                                  final MeterRegistry meterRegistry,
+                                  @Value("${asterix.events.timeout:PT30M}") final Duration timeout,
+                                  @Value("${asterix.events.queue-capacity:1024}") final int queueCapacity) {
+        this.objectMapper = objectMapper;
+        this.timeout = timeout;
+        this.queueCapacity = queueCapacity;
+        Gauge.builder(SUBSCRIBERS_METRIC, subscribers, Set::size)
+                .description("Current subscribers of the change event stream")
+                .register(meterRegistry);
+        this.overflows = Counter.builder(OVERFLOWS_METRIC)
+                .description("Subscribers of the change event stream dropped for falling behind")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Registers a new subscriber.
+     *
+     * @return the emitter to return from the request handler
+     */
+    public SseEmitter subscribe() {
+        final SseEmitter emitter = createEmitter();
+        final Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        // Commits the response, so the client knows the subscription is established
+        if (subscriber.send(SseEmitter.event().comment("subscribed").build())) {
+            subscribers.add(subscriber);
+        }
+        return emitter;
+    }
+
+    /**
+     * Creates the emitter of a new subscription.
+     *
+     * @return the emitter, ending the subscription after the configured timeout
+     */
+    SseEmitter createEmitter() {
+        return new SseEmitter(timeout.toMillis());
+    }
+
+    /**
+     * Returns the number of current subscribers.
+     *
+     * @return the number of subscribers
+     */
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    /**
+     * Queues a published change for all subscribers.
+     *
+     * @param event the change
+     */
+    @EventListener
+    public void onChange(final ChangeEvent event) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        final String json;
+        try {
+            json = objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            log.warn("Could not serialize {} event for '{}'", event.type(), event.id(), e);
+            return;
+        }
+        final Set<ResponseBodyEmitter.DataWithMediaType> message = SseEmitter.event()
+                .name(event.type().getEventName())
+                .data(json)
+                .build();
+        sendToAll(message);
+    }
+
+    /**
+     * Queues the changes of a batch operation for all subscribers, one message per change.
+     *
+     * @param batch the changes
+     */
+    @EventListener
+    public void onChanges(final ChangeBatch batch) {
+        batch.events().forEach(this::onChange);
+    }
+
+    /**
+     * Sends a heartbeat comment to all subscribers, dropping those whose connection was closed.
+     */
+    @Scheduled(fixedDelayString = "${asterix.events.heartbeat-interval:PT30S}")
+    public void heartbeat() {
+        if (!subscribers.isEmpty()) {
+            sendToAll(SseEmitter.event().comment("heartbeat").build());
+        }
+    }
+
+    /**
+     * Ends all subscriptions on shutdown.
+     */
+    @PreDestroy
+    public void shutdown() {
+        subscribers.forEach(Subscriber::close);
+        subscribers.clear();
+    }
+
+    /**
+     * Queues a message for all subscribers.
+     *
+     * @param message the serialized message
+     */
+    private void sendToAll(final Set<ResponseBodyEmitter.DataWithMediaType> message) {
+        subscribers.forEach(subscriber -> subscriber.enqueue(message));
+    }
+
+    /**
+     * A subscriber with its queue of messages not yet written.
+     */
+    private final class Subscriber {
+
+        /**
+         * The emitter of the subscription request.
+         */
+        private final SseEmitter emitter;
+
+        /**
+         * Messages not yet written, bounded by the configured capacity.
+         */
+        private final BlockingQueue<Set<ResponseBodyEmitter.DataWithMediaType>> queue =
+                new ArrayBlockingQueue<>(queueCapacity);
+
+        /**
+         * Whether a virtual thread is draining the queue.
+         */
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        /**
+         * Creates a subscriber with an empty queue.
+         *
+         * @param emitter the emitter of the subscription request
+         */
+        Subscriber(final SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        /**
+         * Queues a message and starts draining the queue unless already in progress.
+         * Completes and drops the subscriber if its queue is full.
+         *
+         * @param message the serialized message
+         */
+        void enqueue(final Set<ResponseBodyEmitter.DataWithMediaType> message) {
+            if (!queue.offer(message)) {
+                if (subscribers.remove(this)) {
+                    overflows.increment();
+                    log.info("Dropping change event subscriber: more than {} messages queued", queueCapacity);
+                    close();
+                }
+                return;
+            }
+            if (draining.compareAndSet(false, true)) {
+                Thread.ofVirtual().name("change-events").start(this::drain);
+            }
+        }
+
+        /**
+         * Writes the queued messages until the queue is empty or the connection failed.
+         * Checks the queue again after giving up the drain, so a message queued in between is not left behind.
+         */
+        private void drain() {
+            do {
+                Set<ResponseBodyEmitter.DataWithMediaType> message;
+                while ((message = queue.poll()) != null) {
+                    if (!send(message)) {
+                        queue.clear();
+                        return;
+                    }
+                }
+                draining.set(false);
+            } while (!queue.isEmpty() && draining.compareAndSet(false, true));
+        }
+
+        /**
+         * Writes a message, dropping the subscriber if the connection failed.
+         *
+         * @param message the serialized message
+         * @return {@code true} if the message was written
+         */
+        boolean send(final Set<ResponseBodyEmitter.DataWithMediaType> message) {
+            try {
+                emitter.send(message);
+                return true;
+            } catch (IOException | IllegalStateException e) {
+                // The client went away or the emitter already completed, the container completes the request itself
+                subscribers.remove(this);
+                return false;
+            }
+        }
+
+        /**
+         * Ends the subscription.
+         */
+        void close() {
+            queue.clear();
+            emitter.complete();
+        }
+    }
+}
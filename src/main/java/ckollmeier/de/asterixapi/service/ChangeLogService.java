@@ -0,0 +1,423 @@
+package ckollmeier.de.asterixapi.service;
+
+import ckollmeier.de.asterixapi.converter.CharacterOutputDTOConverter;
+import ckollmeier.de.asterixapi.dto.ChangesDTO;
+import ckollmeier.de.asterixapi.dto.VillageCountOutputDTO;
+import ckollmeier.de.asterixapi.event.ChangeBatch;
+import ckollmeier.de.asterixapi.event.ChangeEvent;
+import ckollmeier.de.asterixapi.event.ChangeType;
+import ckollmeier.de.asterixapi.exception.GoneException;
+import ckollmeier.de.asterixapi.extractor.CharacterExtractor;
+import ckollmeier.de.asterixapi.extractor.VillageExtractor;
+import ckollmeier.de.asterixapi.model.ChangeLogEntry;
+import ckollmeier.de.asterixapi.model.Character;
+import ckollmeier.de.asterixapi.model.Village;
+import ckollmeier.de.asterixapi.repository.ChangeLogRepository;
+import ckollmeier.de.asterixapi.repository.CharacterRepository;
+import ckollmeier.de.asterixapi.repository.VillageRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Records every {@link ChangeEvent} in the change log and answers delta sync requests from it.
+ * <p>
+ * Every change gets the next number of a monotonically increasing sequence shared by all application instances.
+ * The log is a capped collection ({@code asterix.change-log.max-size-bytes}, {@code asterix.change-log.max-entries}),
+ * so it only covers the most recent changes. A client that was offline for longer gets a {@link GoneException}
+ * and has to load the full lists again. The collection is created before the first entry is inserted, since an
+ * insert would otherwise create it implicitly without a cap; an existing collection that is not capped is
+ * converted into a capped one.
+ * </p>
+ * <p>
+ * Sequence numbers are allocated before their entry is inserted, so with concurrent writers a later entry can
+ * become visible before an earlier one. A sync therefore only covers the changes up to the first missing
+ * sequence number and returns the last one before it as cursor; the missing change is picked up by a later
+ * sync. A gap is only skipped once the entry after it is older than {@code asterix.change-log.gap-timeout},
+ * the missing entry was then most likely never stored.
+ * </p>
+ * <p>
+ * Recording is best-effort: the entity is already written when its change is published, so an entry that
+ * cannot be stored is logged and counted instead of failing the request and skipping the listeners after
+ * this one. Such a change is missing from the deltas; its sequence number is skipped after the gap timeout.
+ * Entries are counted as {@value #ENTRIES_METRIC} with the outcome {@code recorded} or {@code failed}.
+ * </p>
+ */
+@Slf4j
+@Service
+public class ChangeLogService {
+
+    /**
+     * Name of the counter for change log entries by outcome.
+     */
+    public static final String ENTRIES_METRIC = "asterix.change.log.entries";
+
+    /**
+     * Repository storing the change log and the sequence counter.
+     */
+    private final ChangeLogRepository changeLogRepository;
+
+    /**
+     * Repository the current state of changed characters is loaded from.
+     */
+    private final CharacterRepository characterRepository;
+
+    /**
+     * Repository the current state of changed villages is loaded from.
+     */
+    private final VillageRepository villageRepository;
+
+    /**
+     * Maximum size of the change log in bytes.
+     */
+    private final long maxSizeBytes;
+
+    /**
+     * Maximum number of entries in the change log.
+     */
+    private final long maxEntries;
+
+    /**
+     * How long a missing sequence number holds back the changes after it before it is considered lost.
+     */
+    private final Duration gapTimeout;
+
+    /**
+     * Counter of the recorded entries.
+     */
+    private final Counter recorded;
+
+    /**
+     * Counter of the entries that could not be stored.
+     */
+    private final Counter failed;
+
+    /**
+     * Serializes the creation of the change log collection.
+     */
+    private final ReentrantLock setupLock = new ReentrantLock();
+
+    /**
+     * Whether the capped change log collection exists, so entries may be inserted.
+     */
+    private volatile boolean changeLogReady;
+
+    /**
+     * Whether the last attempt to create the change log failed, so repeated failures are logged only once.
+     */
+    private volatile boolean setupFailed;
+
+    /**
+     * Creates the service.
+     *
+     * @param changeLogRepository repository storing the change log
+     * @param characterRepository repository of the characters
+     * @param villageRepository   repository of the villages
+     * @param meterRegistry       registry for the entry counters
+     * @param maxSizeBytes        maximum size of the change log in bytes
+     * @param maxEntries          maximum number of entries in the change log
+     * @param gapTimeout          how long a missing sequence number holds back the changes after it
+     */
+    public ChangeLogService(final ChangeLogRepository changeLogRepository,
+                            final CharacterRepository characterRepository,
+                            final VillageRepository villageRepository,
+                            final MeterRegistry meterRegistry,
+                            @Value("${asterix.change-log.max-size-bytes:16777216}") final long maxSizeBytes,
+                            @Value("${asterix.change-log.max-entries:100000}") final long maxEntries,
+                            @Value("${asterix.change-log.gap-timeout:PT5S}") final Duration gapTimeout) {
+        this.changeLogRepository = changeLogRepository;
+        this.characterRepository = characterRepository;
+        this.villageRepository = villageRepository;
+        this.maxSizeBytes = maxSizeBytes;
+        this.maxEntries = maxEntries;
+        this.gapTimeout = gapTimeout;
+        this.recorded = Counter.builder(ENTRIES_METRIC).tag("outcome", "recorded").register(meterRegistry);
+        this.failed = Counter.builder(ENTRIES_METRIC).tag("outcome", "failed").register(meterRegistry);
+    }
+
+    /**
+     * Creates the capped change log collection in the background once the application is ready,
+     * so an unreachable database does not delay or break the application start.
+     * Until it exists, the first change creates it.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void createChangeLogInBackground() {
+        Thread.ofVirtual().name("change-log-setup").start(this::createChangeLog);
+    }
+
+    /**
+     * Creates the capped change log collection unless it already exists, and converts an existing collection
+     * that is not capped. Does nothing once the change log is known to exist.
+     *
+     * @return whether the change log exists, so entries may be inserted
+     */
+    public boolean createChangeLog() {
+        if (changeLogReady) {
+            return true;
+        }
+        setupLock.lock();
+        try {
+            if (!changeLogReady) {
+                if (changeLogRepository.createCappedCollection(maxSizeBytes, maxEntries)) {
+                    log.info("Created change log capped at {} entries / {} bytes", maxEntries, maxSizeBytes);
+                } else {
+                    convertUncappedChangeLog();
+                }
+                changeLogReady = true;
+                setupFailed = false;
+            }
+        } catch (DataAccessException e) {
+            if (!setupFailed) {
+                log.warn("Could not create the change log, changes are not recorded until it exists", e);
+            }
+            setupFailed = true;
+        } finally {
+            setupLock.unlock();
+        }
+        return changeLogReady;
+    }
+
+    /**
+     * Converts an existing change log that is not capped into a capped one. If that fails, the change log is used
+     * nonetheless, since deltas are still correct, and the error is logged.
+     */
+    private void convertUncappedChangeLog() {
+        try {
+            if (changeLogRepository.convertToCappedCollection(maxSizeBytes)) {
+                log.warn("Converted the change log, which was not capped, into a capped collection of {} bytes", maxSizeBytes);
+            }
+        } catch (DataAccessException e) {
+            log.error("The change log is not capped and could not be converted, it grows without limit", e);
+        }
+    }
+
+    /**
+     * Records a published change under the next sequence number. Failures are logged and counted, not thrown;
+     * while the change log cannot be created, changes are not recorded.
+     *
+     * @param event the change
+     */
+    @EventListener
+    public void onChange(final ChangeEvent event) {
+        try {
+            if (!createChangeLog()) {
+                failed.increment();
+                return;
+            }
+            changeLogRepository.insert(new ChangeLogEntry(changeLogRepository.nextSequence(), event.type(), event.id(), Instant.now()));
+            recorded.increment();
+        } catch (RuntimeException e) {
+            log.error("Could not record the {} change of '{}' in the change log", event.type(), event.id(), e);
+            failed.increment();
+        }
+    }
+
+    /**
+     * Records the changes of a batch operation under consecutive sequence numbers, allocated with one command
+     * and inserted with one {@code insertMany}. Failures are logged and counted, not thrown.
+     *
+     * @param batch the changes
+     */
+    @EventListener
+    public void onChanges(final ChangeBatch batch) {
+        final List<ChangeEvent> events = batch.events();
+        if (events.isEmpty()) {
+            return;
+        }
+        try {
+            if (!createChangeLog()) {
+                failed.increment(events.size());
+                return;
+            }
+            final long firstSequence = changeLogRepository.nextSequences(events.size());
+            final Instant now = Instant.now();
+            final List<ChangeLogEntry> entries = new ArrayList<>(events.size());
+            for (int i = 0; i < events.size(); i++) {
+                entries.add(new ChangeLogEntry(firstSequence + i, events.get(i).type(), events.get(i).id(), now));
+            }
+            changeLogRepository.insert(entries);
+            recorded.increment(events.size());
+        } catch (RuntimeException e) {
+            log.error("Could not record a batch of {} changes in the change log", events.size(), e);
+            failed.increment(events.size());
+        }
+    }
+
+    /**
+     * Returns the current sequence number, which a client loading the full lists afterwards can sync from.
+     *
+     * @return the changes DTO holding only the current sequence number
+     */
+    public ChangesDTO getCurrentSequence() {
+        return new ChangesDTO(changeLogRepository.currentSequence(), List.of(), List.of(), List.of(), List.of());
+    }
+
+    /**
+     * Returns the characters and villages created, updated or removed after the given sequence number.
+     * <p>
+     * Changed entities are returned in their current state, entities that no longer exist as removed IDs.
+     * The inhabitants of renamed villages are included, since the village name is stored on them.
+     * The returned sequence number is the last one covered and is used as {@code since} for the next sync.
+     * Only the changes up to the first sequence number that is allocated but not stored yet are covered.
+     * </p>
+     *
+     * @param since the last sequence number the client has seen
+     * @return the changes after {@code since}
+     * @throws GoneException if changes after {@code since} are no longer in the change log
+     */
+    public ChangesDTO getChangesSince(final long since) {
+        final List<ChangeLogEntry> coveredEntries = coveredEntriesSince(since);
+        if (coveredEntries.isEmpty()) {
+            return new ChangesDTO(since, List.of(), List.of(), List.of(), List.of());
+        }
+
+        final Set<String> characterIds = new LinkedHashSet<>();
+        final Set<String> villageIds = new LinkedHashSet<>();
+        final Set<String> renamedVillageIds = new LinkedHashSet<>();
+        for (ChangeLogEntry entry : coveredEntries) {
+            if (entry.type().isCharacterChange()) {
+                characterIds.add(entry.entityId());
+            } else {
+                villageIds.add(entry.entityId());
+                if (entry.type() == ChangeType.VILLAGE_RENAMED) {
+                    renamedVillageIds.add(entry.entityId());
+                }
+            }
+        }
+
+        final List<Character> characters = new ArrayList<>(characterRepository.findByIdIn(characterIds));
+        if (!renamedVillageIds.isEmpty()) {
+            for (Character inhabitant : characterRepository.findByVillageIdIn(renamedVillageIds)) {
+                if (!characterIds.contains(inhabitant.id())) {
+                    characters.add(inhabitant);
+                }
+            }
+        }
+        final List<Village> villages = villageRepository.findAllById(villageIds);
+
+        final List<String> removedCharacterIds = new ArrayList<>(characterIds);
+        removedCharacterIds.removeAll(CharacterExtractor.extractCharacterIds(characters));
+
+        return new ChangesDTO(
+                coveredEntries.getLast().sequence(),
+                CharacterOutputDTOConverter.convert(characters),
+                convertVillages(villages),
+                removedCharacterIds,
+                removedVillageIds(villageIds, villages));
+    }
+
+    /**
+     * Returns the villages added, renamed or removed after the given sequence number, like
+     * {@link #getChangesSince(long)} but without loading any characters.
+     * <p>
+     * Only the villages of village entries are loaded, by their IDs. Entries that only changed the inhabitant
+     * count of a village are skipped, so the returned counts are current but not every count change is returned.
+     * </p>
+     *
+     * @param since the last sequence number seen
+     * @return the village changes after {@code since}, without characters
+     * @throws GoneException if changes after {@code since} are no longer in the change log
+     */
+    public ChangesDTO getVillageChangesSince(final long since) {
+        final List<ChangeLogEntry> coveredEntries = coveredEntriesSince(since);
+        if (coveredEntries.isEmpty()) {
+            return new ChangesDTO(since, List.of(), List.of(), List.of(), List.of());
+        }
+
+        final Set<String> villageIds = new LinkedHashSet<>();
+        for (ChangeLogEntry entry : coveredEntries) {
+            if (!entry.type().isCharacterChange() && entry.type() != ChangeType.VILLAGE_INHABITANTS_CHANGED) {
+                villageIds.add(entry.entityId());
+            }
+        }
+        final List<Village> villages = villageIds.isEmpty() ? List.of() : villageRepository.findAllById(villageIds);
+
+        return new ChangesDTO(
+                coveredEntries.getLast().sequence(),
+                List.of(),
+                convertVillages(villages),
+                List.of(),
+                removedVillageIds(villageIds, villages));
+    }
+
+    /**
+     * Returns the change log entries after the given sequence number up to the first gap.
+     *
+     * @param since the last sequence number seen
+     * @return the covered entries ordered by sequence number, empty if there are none yet
+     * @throws GoneException if changes after {@code since} are no longer in the change log
+     */
+    private List<ChangeLogEntry> coveredEntriesSince(final long since) {
+        final List<ChangeLogEntry> entries = changeLogRepository.findBySequenceGreaterThanOrderBySequenceAsc(since);
+        if (entries.isEmpty()) {
+            return entries;
+        }
+        final long oldestSequence = changeLogRepository.findFirstByOrderBySequenceAsc()
+                .map(ChangeLogEntry::sequence)
+                .orElse(entries.getFirst().sequence());
+        if (oldestSequence > since + 1) {
+            throw new GoneException(String.format("Changes since %d are no longer available, the change log starts at %d", since, oldestSequence));
+        }
+        return contiguousEntries(since, entries);
+    }
+
+    /**
+     * Converts the changed villages to their DTOs with inhabitant count.
+     *
+     * @param villages the existing changed villages
+     * @return the village DTOs
+     */
+    private static List<VillageCountOutputDTO> convertVillages(final List<Village> villages) {
+        return villages.stream()
+                .map(village -> new VillageCountOutputDTO(village.id(), village.name(), village.inhabitantCount()))
+                .toList();
+    }
+
+    /**
+     * Returns the IDs of changed villages that no longer exist.
+     *
+     * @param villageIds the IDs of the changed villages
+     * @param villages   the changed villages that still exist
+     * @return the IDs of the removed villages
+     */
+    private static List<String> removedVillageIds(final Set<String> villageIds, final List<Village> villages) {
+        final List<String> removedVillageIds = new ArrayList<>(villageIds);
+        removedVillageIds.removeAll(VillageExtractor.extractVillageIds(villages));
+        return removedVillageIds;
+    }
+
+    /**
+     * Returns the entries up to the first gap in the sequence after {@code since}.
+     * A gap whose next entry is older than the gap timeout is skipped, its entry is considered lost.
+     *
+     * @param since   the last sequence number the client has seen
+     * @param entries the entries after {@code since}, ordered by sequence number
+     * @return the leading entries without a gap
+     */
+    private List<ChangeLogEntry> contiguousEntries(final long since, final List<ChangeLogEntry> entries) {
+        final Instant lostBefore = Instant.now().minus(gapTimeout);
+        long expectedSequence = since + 1;
+        int end = 0;
+        for (ChangeLogEntry entry : entries) {
+            if (entry.sequence() != expectedSequence && entry.timestamp().isAfter(lostBefore)) {
+                break;
+            }
+            expectedSequence = entry.sequence() + 1;
+            end++;
+        }
+        return entries.subList(0, end);
+    }
+}
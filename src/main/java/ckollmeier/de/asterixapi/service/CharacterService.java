@@ -1,19 +1,36 @@
 package ckollmeier.de.asterixapi.service;
 
+import ckollmeier.de.asterixapi.converter.BatchDeleteResultDTOConverter;
+import ckollmeier.de.asterixapi.converter.BatchGetResultDTOConverter;
 import ckollmeier.de.asterixapi.converter.CharacterConverter;
 import ckollmeier.de.asterixapi.dataprovider.CharactersPageDataProvider;
+import ckollmeier.de.asterixapi.dto.BatchDeleteResultDTO;
+import ckollmeier.de.asterixapi.dto.BatchGetResultDTO;
 import ckollmeier.de.asterixapi.dto.CharacterInputDTO;
 import ckollmeier.de.asterixapi.dto.CharactersPageDTO;
+import ckollmeier.de.asterixapi.event.ChangeBatch;
+import ckollmeier.de.asterixapi.event.ChangeEvent;
+import ckollmeier.de.asterixapi.exception.BadRequestException;
 import ckollmeier.de.asterixapi.exception.NotFoundException;
+import ckollmeier.de.asterixapi.namefilter.NameFilter;
 import ckollmeier.de.asterixapi.repository.CharacterRepository;
 import ckollmeier.de.asterixapi.repository.VillageRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import ckollmeier.de.asterixapi.model.Character;
+import ckollmeier.de.asterixapi.model.CharacterPatch;
+import ckollmeier.de.asterixapi.model.CharacterUpdate;
+import ckollmeier.de.asterixapi.model.VillageReference;
 
 /**
  * Service layer for managing Asterix characters.
@@ -25,14 +42,23 @@ import ckollmeier.de.asterixapi.model.Character;
 @RequiredArgsConstructor
 public class CharacterService {
 
+    /**
+     * Maximum number of IDs accepted by a batch request.
+     */
+    public static final int MAX_BATCH_SIZE = 100;
+
     /**
      * Repository for accessing character data persistence.
      */
     private final CharacterRepository characterRepository;
     /**
-     * Repository for accessing village data persistence.
+     * Repository for villages, used to maintain their inhabitant counts.
      */
     private final VillageRepository villageRepository;
+    /**
+     * Registry of existing village IDs, used to validate village references without a database round trip.
+     */
+    private final VillageRegistry villageRegistry;
     /**
      * Data provider for aggregating data needed for the characters page view.
      */
@@ -46,6 +72,26 @@ public class CharacterService {
      * into {@link Character} model entities.
      */
     private final CharacterConverter characterConverter;
+    /**
+     * Cache of serialized read responses, invalidated after every write.
+     */
+    private final ResponseCacheService responseCacheService;
+    /**
+     * Near cache for lookups by ID, evicted for every changed character and village.
+     */
+    private final EntityCache entityCache;
+    /**
+     * Bloom filter of the existing names, answering lookups of unknown names without a query.
+     */
+    private final NameFilter nameFilter;
+    /**
+     * Publisher of the {@link ChangeEvent}s streamed to clients.
+     */
+    private final ApplicationEventPublisher eventPublisher;
+    /**
+     * Merges updates of the same entity arriving in quick succession into one write.
+     */
+    private final WriteCoalescer writeCoalescer;
 
     /**
      * Retrieves a list of all characters currently stored.
@@ -71,14 +117,22 @@ public class CharacterService {
 
     /**
      * Finds a single character by their exact name.
+     * Names the {@link NameFilter} knows not to exist are answered without a database query.
      *
      * @param name The name of the character to search for.
      * @return An {@link Optional} containing the found {@link Character} if a match exists, otherwise an empty Optional.
      */
     public Optional<Character> getCharacterByName(final String name) {
+        if (!nameFilter.mightContainCharacter(name)) {
+            return Optional.empty();
+        }
         // Note: Repository method findOneByName might return null, which Optional.ofNullable handles correctly.
         // If the repository method itself returned Optional, this wrapping wouldn't be needed.
-        return characterRepository.findOneByName(name);
+        final Optional<Character> character = characterRepository.findOneByName(name);
+        if (character.isEmpty()) {
+            nameFilter.recordCharacterMiss();
+        }
+        return character;
     }
 
     /**
@@ -88,7 +142,20 @@ public class CharacterService {
      * @return An {@link Optional} containing the found {@link Character} if a match exists, otherwise an empty Optional.
      */
     public Optional<Character> getCharacterById(final String id) {
-        return characterRepository.findById(id);
+        return entityCache.getCharacter(id);
+    }
+
+    /**
+     * Finds the characters with the given IDs. Characters in the {@link EntityCache} are answered from it,
+     * all others are loaded with a single query.
+     *
+     * @param ids The IDs to look up, at most {@value #MAX_BATCH_SIZE}; duplicates are allowed.
+     * @return One result per requested ID in request order, marked as not found if the character does not exist.
+     * @throws BadRequestException if the IDs are missing, contain {@code null} or exceed the maximum batch size.
+     */
+    public List<BatchGetResultDTO<Character>> getCharactersByIds(final List<String> ids) {
+        validateBatch(ids);
+        return BatchGetResultDTOConverter.convert(ids, entityCache.getCharacters(ids));
     }
 
     /**
@@ -122,7 +189,13 @@ public class CharacterService {
      */
     public Character addCharacter(final CharacterInputDTO characterInputDTO) {
         // Converts DTO to entity using the converter, generates a new ID, and saves it.
-        return characterRepository.save(characterConverter.convert(characterInputDTO).withId(idService.generateId()));
+        final Character savedCharacter = characterRepository.save(characterConverter.convert(characterInputDTO).withId(idService.generateId()));
+        final List<ChangeEvent> events = new ArrayList<>();
+        changeInhabitantCount(getVillageId(savedCharacter), 1, events);
+        responseCacheService.invalidate();
+        events.add(ChangeEvent.characterAdded(savedCharacter));
+        eventPublisher.publishEvent(new ChangeBatch(events));
+        return savedCharacter;
     }
 
     /**
@@ -143,7 +216,13 @@ public class CharacterService {
             throw new IllegalArgumentException("Character id is already set");
         }
         // Assigns a new ID and saves the character.
-        return characterRepository.save(character.withId(idService.generateId()));
+        final Character savedCharacter = characterRepository.save(character.withId(idService.generateId()));
+        final List<ChangeEvent> events = new ArrayList<>();
+        changeInhabitantCount(getVillageId(savedCharacter), 1, events);
+        responseCacheService.invalidate();
+        events.add(ChangeEvent.characterAdded(savedCharacter));
+        eventPublisher.publishEvent(new ChangeBatch(events));
+        return savedCharacter;
     }
 
     /**
@@ -151,27 +230,85 @@ public class CharacterService {
      * <p>
      * This method first attempts to find the character by the given ID. If the character is not found,
      * a {@link NotFoundException} is thrown. If found, the character is deleted from the repository.
+     * The delete is conditional on the version that was read; if the character was modified in between,
+     * the removal is retried via {@link OptimisticLockRetry}.
      * </p>
      *
      * @param id The unique ID of the character to remove.
      * @return The {@link Character} entity that was removed.
      * @throws NotFoundException if no character with the given ID exists.
+     * @throws ckollmeier.de.asterixapi.exception.ConflictException if concurrent modifications persist.
      */
     public Character removeCharacter(final String id) {
-        final Character character = getCharacterById(id)
-                .orElseThrow(() -> new NotFoundException(String.format("Character with id '%s' not found", id)));
-        characterRepository.delete(character);
+        final Character character = OptimisticLockRetry.execute(OptimisticLockRetry.DEFAULT_MAX_ATTEMPTS,
+                String.format("Removing character '%s'", id),
+                () -> {
+                    // Read from the repository, the delete is conditional on the latest version
+                    final Character existingCharacter = characterRepository.findById(id)
+                            .orElseThrow(() -> new NotFoundException(String.format("Character with id '%s' not found", id)));
+                    characterRepository.delete(existingCharacter);
+                    return existingCharacter;
+                });
+        entityCache.evictCharacter(id);
+        final List<ChangeEvent> events = new ArrayList<>();
+        changeInhabitantCount(getVillageId(character), -1, events);
+        responseCacheService.invalidate();
+        events.add(ChangeEvent.characterRemoved(id));
+        eventPublisher.publishEvent(new ChangeBatch(events));
         return character;
     }
 
+    /**
+     * Removes several characters by their unique IDs.
+     * <p>
+     * The existing characters are read with one query and deleted with one {@code deleteMany}; the inhabitant
+     * counts of all affected villages are decremented with one bulk write. All changes are published as one
+     * {@link ChangeBatch}, so the number of database commands does not grow with the number of IDs. Unlike {@link #removeCharacter(String)} the delete is
+     * not conditional on the version read: a character moved to another village in between is deleted
+     * nonetheless and the inhabitant counts stay off until the
+     * {@link ckollmeier.de.asterixapi.job.InhabitantCountRepairJob} corrects them.
+     * </p>
+     *
+     * @param ids The unique IDs of the characters to remove, at most {@value #MAX_BATCH_SIZE}.
+     * @return The requested IDs split into the deleted ones and those without a character.
+     * @throws BadRequestException if the IDs are missing, contain {@code null} or exceed the maximum batch size.
+     */
+    public BatchDeleteResultDTO removeCharacters(final List<String> ids) {
+        validateBatch(ids);
+        final List<Character> characters = characterRepository.findByIdIn(ids);
+        final Set<String> deletedIds = characters.stream().map(Character::id).collect(Collectors.toSet());
+        if (!deletedIds.isEmpty()) {
+            characterRepository.deleteAllById(deletedIds);
+            entityCache.evictCharacters(deletedIds);
+            final Map<String, Integer> countChanges = characters.stream()
+                    .filter(character -> character.village() != null)
+                    .collect(Collectors.groupingBy(character -> character.village().id(), Collectors.summingInt(character -> -1)));
+            villageRepository.incrementInhabitantCounts(countChanges);
+            countChanges.keySet().forEach(entityCache::evictVillage);
+            responseCacheService.invalidate();
+            final List<ChangeEvent> events = new ArrayList<>();
+            countChanges.forEach((villageId, delta) -> events.add(ChangeEvent.villageInhabitantsChanged(villageId, delta)));
+            deletedIds.forEach(id -> events.add(ChangeEvent.characterRemoved(id)));
+            eventPublisher.publishEvent(new ChangeBatch(events));
+        }
+        return BatchDeleteResultDTOConverter.convert(ids, deletedIds);
+    }
+
     /**
      * Updates an existing character's information based on the provided data.
      * <p>
-     * This method first retrieves the existing character by the given ID. If the character is not found,
-     * a {@link NotFoundException} is thrown. If found, the character's properties (name, age, profession)
-     * are updated based on the values provided in the {@link CharacterInputDTO} using the helper method
-     * {@link #getCharacter(CharacterInputDTO, Character)}.
-     * The character's ID remains unchanged. The village associated with the character is not updated by this method.
+     * The non-null/non-zero values of the {@link CharacterInputDTO} are translated into a {@link CharacterPatch}
+     * by {@link #getCharacterPatch(CharacterInputDTO)} and applied as atomic {@code $set} operations in a single
+     * {@code findAndModify} round trip, which also returns the updated document. Only the changed fields are written
+     * and the version is incremented in the same operation, so concurrent updates cannot overwrite each other
+     * and need no retry.
+     * If the character moved to another village, the inhabitant counts of both villages are adjusted with {@code $inc}.
+     * A {@link ChangeEvent} tells clients whether the character moved or only changed otherwise.
+     * If no character with the given ID exists, a {@link NotFoundException} is thrown.
+     * </p>
+     * <p>
+     * Updates of the same character arriving in quick succession may be merged into one patch by the
+     * {@link WriteCoalescer}; the returned character then also contains the changes of the other updates.
      * </p>
      *
      * @param id        The unique ID of the character to update.
@@ -180,48 +317,98 @@ public class CharacterService {
      * @throws NotFoundException if no character with the given ID exists.
      */
     public Character updateCharacter(final String id, final CharacterInputDTO character) {
-        // Retrieve the existing character or throw NotFoundException
-        final Character existingCharacter = getCharacterById(id)
+        return writeCoalescer.execute("character", id, getCharacterPatch(character), CharacterPatch::mergedWith,
+                patch -> applyCharacterPatch(id, patch)).updated();
+    }
+
+    /**
+     * Helper method applying a {@link CharacterPatch} and publishing the change, the write of
+     * {@link #updateCharacter(String, CharacterInputDTO)}.
+     *
+     * @param id    The unique ID of the character to update.
+     * @param patch The fields to change.
+     * @return The character before and after the update.
+     * @throws NotFoundException if no character with the given ID exists.
+     */
+    private CharacterUpdate applyCharacterPatch(final String id, final CharacterPatch patch) {
+        final CharacterUpdate update = characterRepository.updatePartially(id, patch)
                 .orElseThrow(() -> new NotFoundException(String.format("Character with id '%s' not found", id)));
+        entityCache.evictCharacter(id);
+        final String previousVillageId = getVillageId(update.previous());
+        final String updatedVillageId = getVillageId(update.updated());
+        final boolean moved = !Objects.equals(previousVillageId, updatedVillageId);
+        final List<ChangeEvent> events = new ArrayList<>();
+        if (moved) {
+            changeInhabitantCount(previousVillageId, -1, events);
+            changeInhabitantCount(updatedVillageId, 1, events);
+        }
+        responseCacheService.invalidate();
+        events.add(moved
+                ? ChangeEvent.characterMoved(update.updated(), previousVillageId)
+                : ChangeEvent.characterUpdated(update.updated()));
+        eventPublisher.publishEvent(new ChangeBatch(events));
+        return update;
+    }
 
-        // Use helper method to apply updates from DTO to existing entity
-        Character characterToUpdate = getCharacter(character, existingCharacter);
+    /**
+     * Helper method adjusting the inhabitant count of a village, evicting it from the {@link EntityCache} and
+     * recording the changed count.
+     *
+     * @param villageId The village ID, nothing happens if it is {@code null}.
+     * @param delta     The number of characters that moved in (positive) or out (negative).
+     * @param events    Receives the changed inhabitant count, published with the other changes of the operation.
+     */
+    private void changeInhabitantCount(final String villageId, final int delta, final List<ChangeEvent> events) {
+        if (villageId != null) {
+            villageRepository.incrementInhabitantCount(villageId, delta);
+            entityCache.evictVillage(villageId);
+            events.add(ChangeEvent.villageInhabitantsChanged(villageId, delta));
+        }
+    }
 
-        // Save the potentially modified character
-        return characterRepository.save(characterToUpdate);
+    /**
+     * Helper method returning the ID of the village a character lives in.
+     *
+     * @param character The character.
+     * @return The village ID, or {@code null} if the character has no village.
+     */
+    private static String getVillageId(final Character character) {
+        return character.village() != null ? character.village().id() : null;
     }
 
     /**
-     * Helper method to apply updates from a {@link CharacterInputDTO} to an existing {@link Character} entity.
+     * Helper method to translate a {@link CharacterInputDTO} into a {@link CharacterPatch}.
      * <p>
-     * It takes the existing character and creates a new instance with updated fields based on the non-null/non-zero
-     * values from the input DTO. This uses the `with...` methods generated by Lombok (assuming `@Wither` or similar),
-     * promoting immutability.
+     * Null values (and an age of 0) mean "no change". A village ID is resolved via the {@link VillageRegistry},
+     * which also provides the village name stored inline on the character; an unknown village ID removes
+     * the character from its village, just like a village that cannot be found.
      * </p>
      *
-     * @param character         The {@link CharacterInputDTO} containing the update data.
-     * @param existingCharacter The current {@link Character} entity to be updated.
-     * @return A new {@link Character} instance with the updates applied. The original ID and village are preserved.
+     * @param character The {@link CharacterInputDTO} containing the update data.
+     * @return The {@link CharacterPatch} containing only the fields to change.
      */
-    private Character getCharacter(final CharacterInputDTO character, final Character existingCharacter) {
-        Character characterToUpdate = existingCharacter;
-
-        // Conditionally update fields based on the input DTO using 'with' methods for immutability
-        if (character.name() != null) {
-            characterToUpdate = characterToUpdate.withName(character.name());
-        }
+    private CharacterPatch getCharacterPatch(final CharacterInputDTO character) {
         // Use a check against 0 for age, assuming 0 is not a valid age and indicates no update
-        if (character.age() != 0) {
-            characterToUpdate = characterToUpdate.withAge(character.age());
-        }
-        if (character.profession() != null) {
-            characterToUpdate = characterToUpdate.withProfession(character.profession());
+        final Integer age = character.age() != 0 ? character.age() : null;
+        final boolean villageChanged = character.villageId() != null;
+        final VillageReference village = villageChanged
+                ? villageRegistry.find(character.villageId()).orElse(null)
+                : null;
+        return new CharacterPatch(character.name(), age, character.profession(), villageChanged, village);
+    }
+
+    /**
+     * Helper method validating the IDs of a batch request.
+     *
+     * @param ids The requested IDs.
+     * @throws BadRequestException if the IDs are missing, contain {@code null} or exceed {@value #MAX_BATCH_SIZE}.
+     */
+    private static void validateBatch(final List<String> ids) {
+        if (ids == null || ids.stream().anyMatch(Objects::isNull)) {
+            throw new BadRequestException("ids must be a list of IDs");
         }
-        if (character.villageId() != null) {
-            characterToUpdate = characterToUpdate.withVillage(villageRepository.findById(character.villageId()).orElse(null));
+        if (ids.size() > MAX_BATCH_SIZE) {
+            throw new BadRequestException(String.format("At most %d ids are allowed, got %d", MAX_BATCH_SIZE, ids.size()));
         }
-        // Note: Village ID from the DTO is not used here to update the village association.
-        // The existing village association is preserved.
-        return characterToUpdate;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,241 @@
+package ckollmeier.de.asterixapi.service;
+
+import ckollmeier.de.asterixapi.model.Character;
+import ckollmeier.de.asterixapi.model.Village;
+import ckollmeier.de.asterixapi.repository.CharacterRepository;
+import ckollmeier.de.asterixapi.repository.VillageRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Near cache for characters and villages looked up by ID.
+ * <p>
+ * Both caches are Caffeine caches, bounded in size (W-TinyLFU eviction) and time to live, configured with
+ * {@code asterix.entity-cache.maximum-size} and {@code asterix.entity-cache.time-to-live}.
+ * Missing entities are not cached. {@link CharacterService} and {@link VillageService} evict the entries
+ * of every entity they change after the write; the time to live bounds how long changes made by
+ * other application instances stay invisible.
+ * </p>
+ * <p>
+ * Batch lookups load their misses outside of the cache. A batch loaded while any entry of the same cache
+ * was evicted is not kept, so an eviction racing with the load cannot be overwritten by the entities read before it.
+ * </p>
+ * <p>
+ * Hits, misses, load times, evictions and sizes are published as Micrometer {@code cache.*} metrics,
+ * tagged with {@code cache=characters} and {@code cache=villages}.
+ * </p>
+ * <p>
+ * Read-modify-write operations that rely on the version of an entity must read from the repository instead.
+ * </p>
+ */
+@Service
+public class EntityCache {
+
+    /**
+     * Repository the characters are loaded from on a miss.
+     */
+    private final CharacterRepository characterRepository;
+
+    /**
+     * Repository the villages are loaded from on a miss.
+     */
+    private final VillageRepository villageRepository;
+
+    /**
+     * Cached characters by ID.
+     */
+    private final Cache<String, Character> characters;
+
+    /**
+     * Cached villages by ID.
+     */
+    private final Cache<String, Village> villages;
+
+    /**
+     * Number of character evictions, incremented before each eviction to detect batch loads racing with it.
+     */
+    private final AtomicLong characterEvictions = new AtomicLong();
+
+    /**
+     * Number of village evictions, incremented before each eviction to detect batch loads racing with it.
+     */
+    private final AtomicLong villageEvictions = new AtomicLong();
+
+    /**
+     * Creates the caches and registers their metrics.
+     *
+     * @param characterRepository repository the characters are loaded from
+     * @param villageRepository   repository the villages are loaded from
+     * @param meterRegistry       registry for the cache metrics
+     * @param maximumSize         maximum number of entries per cache
+     * @param timeToLive          time after which an entry is reloaded
+     */
+    public EntityCache(final CharacterRepository characterRepository,
+                       final VillageRepository villageRepository,
+                       final MeterRegistry meterRegistry,
+                       @Value("${asterix.entity-cache.maximum-size:10000}") final long maximumSize,
+                       @Value("${asterix.entity-cache.time-to-live:PT1M}") final Duration timeToLive) {
+        this.characterRepository = characterRepository;
+        this.villageRepository = villageRepository;
+        this.characters = CaffeineCacheMetrics.monitor(meterRegistry, newCache(maximumSize, timeToLive), "characters");
+        this.villages = CaffeineCacheMetrics.monitor(meterRegistry, newCache(maximumSize, timeToLive), "villages");
+    }
+
+    /**
+     * Builds a bounded cache recording statistics.
+     *
+     * @param maximumSize maximum number of entries
+     * @param timeToLive  time after which an entry expires
+     * @param <T>         the cached entity type
+     * @return the new cache
+     */
+    private static <T> Cache<String, T> newCache(final long maximumSize, final Duration timeToLive) {
+        return Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(timeToLive)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Returns the character with the given ID, loading it from the repository on a miss.
+     *
+     * @param id the character ID
+     * @return the character, or an empty Optional if it does not exist
+     */
+    public Optional<Character> getCharacter(final String id) {
+        return Optional.ofNullable(characters.get(id, key -> characterRepository.findById(key).orElse(null)));
+    }
+
+    /**
+     * Returns the village with the given ID, loading it from the repository on a miss.
+     *
+     * @param id the village ID
+     * @return the village, or an empty Optional if it does not exist
+     */
+    public Optional<Village> getVillage(final String id) {
+        return Optional.ofNullable(villages.get(id, key -> villageRepository.findById(key).orElse(null)));
+    }
+
+    /**
+     * Returns the characters with the given IDs, loading all misses from the repository with a single query.
+     *
+     * @param ids the character IDs, none of them {@code null}
+     * @return the existing characters by ID
+     */
+    public Map<String, Character> getCharacters(final Collection<String> ids) {
+        return getAll(characters, characterEvictions, ids, missing -> characterRepository.findByIdIn(missing).stream()
+                .collect(Collectors.toMap(Character::id, Function.identity())));
+    }
+
+    /**
+     * Returns the villages with the given IDs, loading all misses from the repository with a single query.
+     *
+     * @param ids the village IDs, none of them {@code null}
+     * @return the existing villages by ID
+     */
+    public Map<String, Village> getVillages(final Collection<String> ids) {
+        return getAll(villages, villageEvictions, ids, missing -> villageRepository.findAllById(missing).stream()
+                .collect(Collectors.toMap(Village::id, Function.identity())));
+    }
+
+    /**
+     * Returns the cached entities with the given IDs and loads all misses with a single call of the loader.
+     * <p>
+     * Unlike {@link Cache#getAll(Iterable, Function)}, the loaded entities are evicted again if an eviction
+     * happened since the load started. Evictions count before they invalidate, so either the check sees
+     * the eviction or the eviction removes the loaded entries.
+     * </p>
+     *
+     * @param cache     the cache to read and fill
+     * @param evictions the eviction counter of the cache
+     * @param ids       the IDs to look up
+     * @param loader    loads the entities with the missing IDs by ID
+     * @param <T>       the cached entity type
+     * @return the existing entities by ID
+     */
+    private static <T> Map<String, T> getAll(final Cache<String, T> cache,
+                                             final AtomicLong evictions,
+                                             final Collection<String> ids,
+                                             final Function<Set<String>, Map<String, T>> loader) {
+        final Map<String, T> found = new HashMap<>(cache.getAllPresent(ids));
+        final Set<String> missing = ids.stream()
+                .filter(id -> !found.containsKey(id))
+                .collect(Collectors.toUnmodifiableSet());
+        if (missing.isEmpty()) {
+            return found;
+        }
+        final long evictionsBeforeLoad = evictions.get();
+        final Map<String, T> loaded = loader.apply(missing);
+        cache.putAll(loaded);
+        if (evictions.get() != evictionsBeforeLoad) {
+            cache.invalidateAll(loaded.keySet());
+        }
+        found.putAll(loaded);
+        return found;
+    }
+
+    /**
+     * Evicts a changed or removed character. Must be called after the write.
+     *
+     * @param id the character ID, ignored if {@code null}
+     */
+    public void evictCharacter(final String id) {
+        if (id != null) {
+            characterEvictions.incrementAndGet();
+            characters.invalidate(id);
+        }
+    }
+
+    /**
+     * Evicts changed or removed characters. Must be called after the write.
+     *
+     * @param ids the character IDs
+     */
+    public void evictCharacters(final Collection<String> ids) {
+        characterEvictions.incrementAndGet();
+        characters.invalidateAll(ids);
+    }
+
+    /**
+     * Evicts all characters, used after bulk updates that do not report the changed IDs.
+     */
+    public void evictAllCharacters() {
+        characterEvictions.incrementAndGet();
+        characters.invalidateAll();
+    }
+
+    /**
+     * Evicts a changed or removed village. Must be called after the write.
+     *
+     * @param id the village ID, ignored if {@code null}
+     */
+    public void evictVillage(final String id) {
+        if (id != null) {
+            villageEvictions.incrementAndGet();
+            villages.invalidate(id);
+        }
+    }
+
+    /**
+     * Evicts all villages, used after bulk updates that do not report the changed IDs.
+     */
+    public void evictAllVillages() {
+        villageEvictions.incrementAndGet();
+        villages.invalidateAll();
+    }
+}
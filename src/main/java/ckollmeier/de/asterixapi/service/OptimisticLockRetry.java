@@ -0,0 +1,65 @@
+package ckollmeier.de.asterixapi.service;
+
+import ckollmeier.de.asterixapi.exception.ConflictException;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Utility for re-running read-modify-write operations that failed because a versioned document
+ * was changed concurrently.
+ * <p>
+ * The operation must re-read everything it modifies, so that each attempt works on the latest versions.
+ * Between attempts the calling thread backs off for a short, random time to spread out competing writers.
+ * No locks are taken. If all attempts fail, a {@link ConflictException} is thrown.
+ * </p>
+ * <p>
+ * This class uses static methods and cannot be instantiated.
+ * </p>
+ */
+public final class OptimisticLockRetry {
+
+    /**
+     * Number of attempts used by the services before giving up.
+     */
+    public static final int DEFAULT_MAX_ATTEMPTS = 3;
+
+    /**
+     * Upper bound of the random backoff per attempt already made.
+     */
+    private static final long BACKOFF_NANOS_PER_ATTEMPT = TimeUnit.MILLISECONDS.toNanos(5);
+
+    private OptimisticLockRetry() {
+        // Private constructor to prevent instantiation
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Runs the operation, retrying it on {@link OptimisticLockingFailureException}.
+     *
+     * @param maxAttempts the maximum number of attempts, at least 1
+     * @param description a description of the operation, used in the conflict message
+     * @param operation   the read-modify-write operation
+     * @param <T>         the result type
+     * @return the result of the first successful attempt
+     * @throws ConflictException if every attempt failed with an optimistic locking failure
+     */
+    public static <T> T execute(final int maxAttempts, final String description, final Supplier<T> operation) {
+        OptimisticLockingFailureException lastFailure = null;
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            try {
+                return operation.get();
+            } catch (OptimisticLockingFailureException e) {
+                lastFailure = e;
+                if (attempt < maxAttempts) {
+                    LockSupport.parkNanos(ThreadLocalRandom.current().nextLong(BACKOFF_NANOS_PER_ATTEMPT * attempt));
+                }
+            }
+        }
+        throw new ConflictException(String.format("%s failed after %d attempts because of concurrent modifications",
+                description, maxAttempts), lastFailure);
+    }
+}
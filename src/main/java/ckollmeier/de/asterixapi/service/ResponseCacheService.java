@@ -0,0 +1,210 @@
+package ckollmeier.de.asterixapi.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Service caching the already serialized JSON bytes of hot read endpoints (page data and lists).
+ * <p>
+ * Every cached response is tagged with the data version it was rendered for. Write operations in
+ * {@link CharacterService} and {@link VillageService} call {@link #invalidate()}, which bumps the
+ * data version and thereby marks all cached responses as stale. A stale or missing entry is rebuilt
+ * on the next request; a cache hit neither rebuilds the DTO graph nor runs Jackson, it only writes
+ * the stored bytes (or their gzip variant, if the client accepts it) to the servlet output stream.
+ * </p>
+ */
+@Service
+@RequiredArgsConstructor
+public class ResponseCacheService {
+
+    /**
+     * Key for the cached list of all characters.
+     */
+    public static final String CHARACTERS_KEY = "characters";
+    /**
+     * Key for the cached characters page data.
+     */
+    public static final String CHARACTERS_PAGE_KEY = "characters-page";
+    /**
+     * Key for the cached list of all villages.
+     */
+    public static final String VILLAGES_KEY = "villages";
+    /**
+     * Key for the cached list of all villages with inhabitant counts.
+     */
+    public static final String VILLAGES_COUNTS_KEY = "villages-counts";
+    /**
+     * Key for the cached villages page data.
+     */
+    public static final String VILLAGES_PAGE_KEY = "villages-page";
+
+    /**
+     * Encoding token sent by clients accepting gzip-compressed responses.
+     */
+    private static final String GZIP = "gzip";
+
+    /**
+     * The application's Jackson mapper, so cached bytes match what the message converters would produce.
+     */
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Current data version, incremented on every write.
+     */
+    private final AtomicLong dataVersion = new AtomicLong();
+
+    /**
+     * Cached responses by key.
+     */
+    private final ConcurrentMap<String, CachedResponse> cachedResponses = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the current data version.
+     *
+     * @return the data version the cached responses are compared against
+     */
+    public long getDataVersion() {
+        return dataVersion.get();
+    }
+
+    /**
+     * Marks all cached responses as stale. Must be called after every write to characters or villages.
+     */
+    public void invalidate() {
+        dataVersion.incrementAndGet();
+    }
+
+    /**
+     * Writes the cached JSON response for the given key to the servlet response.
+     * <p>
+     * If there is no entry for the current data version, the body is obtained from the supplier,
+     * serialized once (plain and gzip-compressed) and stored before it is written.
+     * The version is read before the body is built, so a write racing with the rebuild leaves an entry
+     * behind that is already stale and gets rebuilt on the next request.
+     * </p>
+     *
+     * @param key          the cache key, one of the {@code *_KEY} constants
+     * @param bodySupplier supplies the response body on a cache miss
+     * @param request      the current request, used to check whether gzip is accepted
+     * @param response     the response the bytes are written to
+     * @throws IOException if writing to the response fails
+     */
+    public void write(final String key,
+                      final Supplier<?> bodySupplier,
+                      final HttpServletRequest request,
+                      final HttpServletResponse response) throws IOException {
+        final long version = dataVersion.get();
+        CachedResponse cachedResponse = cachedResponses.get(key);
+        if (cachedResponse == null || cachedResponse.version() != version) {
+            cachedResponse = cachedResponses.merge(key, render(version, bodySupplier.get()),
+                    (existing, rendered) -> existing.version() >= rendered.version() ? existing : rendered);
+        }
+
+        final byte[] body;
+        if (acceptsGzip(request)) {
+            body = cachedResponse.gzipBody();
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, GZIP);
+        } else {
+            body = cachedResponse.body();
+        }
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(body.length);
+        final ServletOutputStream outputStream = response.getOutputStream();
+        outputStream.write(body);
+        outputStream.flush();
+    }
+
+    /**
+     * Serializes the body to JSON and compresses it.
+     *
+     * @param version the data version the body was built for
+     * @param body    the response body
+     * @return the cached representation of the body
+     */
+    private CachedResponse render(final long version, final Object body) {
+        try {
+            final byte[] json = objectMapper.writeValueAsBytes(body);
+            final ByteArrayOutputStream compressed = new ByteArrayOutputStream(json.length / 2 + 32);
+            try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(compressed)) {
+                gzipOutputStream.write(json);
+            }
+            return new CachedResponse(version, json, compressed.toByteArray());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Checks whether the client accepts gzip-compressed responses.
+     * <p>
+     * The Accept-Encoding headers are parsed into codings with their quality values. A coding with {@code q=0} is
+     * not acceptable, and an explicit gzip entry takes precedence over the wildcard {@code *}.
+     * </p>
+     *
+     * @param request the current request
+     * @return {@code true} if gzip, or any coding without a gzip entry, is accepted with a quality above zero
+     */
+    private static boolean acceptsGzip(final HttpServletRequest request) {
+        Boolean wildcardAccepted = null;
+        for (String header : Collections.list(request.getHeaders(HttpHeaders.ACCEPT_ENCODING))) {
+            for (String element : header.split(",")) {
+                final String[] parameters = element.split(";");
+                final String coding = parameters[0].trim();
+                if (GZIP.equalsIgnoreCase(coding)) {
+                    return quality(parameters) > 0;
+                }
+                if ("*".equals(coding)) {
+                    wildcardAccepted = quality(parameters) > 0;
+                }
+            }
+        }
+        return Boolean.TRUE.equals(wildcardAccepted);
+    }
+
+    /**
+     * Reads the quality value of an Accept-Encoding element.
+     *
+     * @param parameters the coding followed by its parameters
+     * @return the {@code q} parameter, {@code 1} if missing and {@code 0} if malformed
+     */
+    private static double quality(final String[] parameters) {
+        for (int i = 1; i < parameters.length; i++) {
+            final String parameter = parameters[i].trim();
+            if (parameter.length() > 2 && parameter.substring(0, 2).equalsIgnoreCase("q=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(2).trim());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    /**
+     * A serialized response together with the data version it belongs to.
+     *
+     * @param version  the data version the response was rendered for
+     * @param body     the plain JSON bytes
+     * @param gzipBody the gzip-compressed JSON bytes
+     */
+    private record CachedResponse(long version, byte[] body, byte[] gzipBody) {
+    }
+}
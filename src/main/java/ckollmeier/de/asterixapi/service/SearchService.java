@@ -0,0 +1,195 @@
+package ckollmeier.de.asterixapi.service;
+
+import ckollmeier.de.asterixapi.dto.ChangesDTO;
+import ckollmeier.de.asterixapi.dto.CharacterOutputDTO;
+import ckollmeier.de.asterixapi.dto.MinimalVillageOutputDTO;
+import ckollmeier.de.asterixapi.dto.SearchHitDTO;
+import ckollmeier.de.asterixapi.dto.VillageCountOutputDTO;
+import ckollmeier.de.asterixapi.event.ChangeBatch;
+import ckollmeier.de.asterixapi.event.ChangeEvent;
+import ckollmeier.de.asterixapi.exception.GoneException;
+import ckollmeier.de.asterixapi.model.Character;
+import ckollmeier.de.asterixapi.model.Village;
+import ckollmeier.de.asterixapi.repository.ChangeLogRepository;
+import ckollmeier.de.asterixapi.repository.CharacterRepository;
+import ckollmeier.de.asterixapi.repository.VillageRepository;
+import ckollmeier.de.asterixapi.search.SearchIndex;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Full-text search over characters and villages, answered from a {@link SearchIndex} without database access.
+ * <p>
+ * The index is built from the repositories in the background once the application is ready and kept up to
+ * date by the {@link ChangeEvent}s of this instance. Changes made by other application instances are picked
+ * up from the change log every {@code asterix.search.sync-interval}; if the change log no longer reaches back
+ * far enough, the index is rebuilt. Until the first build completes, searches find nothing.
+ * </p>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SearchService {
+
+    /**
+     * Repository the characters are loaded from on a rebuild.
+     */
+    private final CharacterRepository characterRepository;
+
+    /**
+     * Repository the villages are loaded from on a rebuild.
+     */
+    private final VillageRepository villageRepository;
+
+    /**
+     * Repository providing the sequence number a rebuild covers.
+     */
+    private final ChangeLogRepository changeLogRepository;
+
+    /**
+     * Service providing the changes of other instances.
+     */
+    private final ChangeLogService changeLogService;
+
+    /**
+     * Serializes rebuilds and syncs. A lock instead of {@code synchronized}, which would pin the virtual thread
+     * of the initial build to its carrier while it waits for the database.
+     */
+    private final ReentrantLock updateLock = new ReentrantLock();
+
+    /**
+     * The current index, replaced on every rebuild.
+     */
+    private volatile SearchIndex index = new SearchIndex();
+
+    /**
+     * The last change log sequence number contained in the index, {@code -1} until it is built.
+     */
+    private volatile long indexedSequence = -1;
+
+    /**
+     * Builds the index in the background once the application is ready,
+     * so an unreachable database does not delay or break the application start.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildInBackground() {
+        Thread.ofVirtual().name("search-index-build").start(this::rebuild);
+    }
+
+    /**
+     * Replaces the index with one built from all characters and villages.
+     */
+    public void rebuild() {
+        updateLock.lock();
+        try {
+            // Read the sequence first: changes racing with the load are applied again by the next sync
+            final long sequence = changeLogRepository.currentSequence();
+            final SearchIndex rebuilt = new SearchIndex();
+            for (Character character : characterRepository.findAll()) {
+                rebuilt.putCharacter(character.id(), character.name(), character.profession());
+            }
+            for (Village village : villageRepository.findAll()) {
+                rebuilt.putVillage(village.id(), village.name());
+            }
+            index = rebuilt;
+            indexedSequence = sequence;
+            log.info("Built search index of {} characters and villages", rebuilt.size());
+        } catch (DataAccessException e) {
+            log.warn("Could not build the search index", e);
+        } finally {
+            updateLock.unlock();
+        }
+    }
+
+    /**
+     * Applies the changes recorded in the change log since the index was last updated.
+     * The index only advances to the sequence number {@link ChangeLogService#getChangesSince(long)} reports,
+     * which ends before a sequence number that is allocated but not stored yet, so a change whose entry is
+     * inserted late is still applied by a later sync.
+     */
+    @Scheduled(initialDelayString = "${asterix.search.sync-interval:PT10S}",
+            fixedDelayString = "${asterix.search.sync-interval:PT10S}")
+    public void sync() {
+        updateLock.lock();
+        try {
+            if (indexedSequence < 0) {
+                return;
+            }
+            final ChangesDTO changes = changeLogService.getChangesSince(indexedSequence);
+            final SearchIndex current = index;
+            for (CharacterOutputDTO character : changes.characters()) {
+                current.putCharacter(character.id(), character.name(), character.profession());
+            }
+            for (VillageCountOutputDTO village : changes.villages()) {
+                current.putVillage(village.id(), village.name());
+            }
+            changes.removedCharacterIds().forEach(current::removeCharacter);
+            changes.removedVillageIds().forEach(current::removeVillage);
+            indexedSequence = changes.sequence();
+        } catch (GoneException e) {
+            log.info("Rebuilding the search index: {}", e.getMessage());
+            rebuild();
+        } catch (DataAccessException e) {
+            log.warn("Could not sync the search index", e);
+        } finally {
+            updateLock.unlock();
+        }
+    }
+
+    /**
+     * Updates the index for a change made by this instance.
+     *
+     * @param event the change
+     */
+    @EventListener
+    public void onChange(final ChangeEvent event) {
+        final SearchIndex current = index;
+        switch (event.data()) {
+            case CharacterOutputDTO character -> current.putCharacter(character.id(), character.name(), character.profession());
+            case ChangeEvent.CharacterMove move -> current.putCharacter(move.character().id(), move.character().name(),
+                    move.character().profession());
+            case MinimalVillageOutputDTO village -> current.putVillage(village.id(), village.name());
+            case null -> {
+                if (event.type().isCharacterChange()) {
+                    current.removeCharacter(event.id());
+                } else {
+                    current.removeVillage(event.id());
+                }
+            }
+            default -> log.debug("Ignoring {} event for the search index", event.type());
+        }
+    }
+
+    /**
+     * Updates the index for the changes of a batch operation made by this instance.
+     *
+     * @param batch the changes
+     */
+    @EventListener
+    public void onChanges(final ChangeBatch batch) {
+        batch.events().forEach(this::onChange);
+    }
+
+    /**
+     * Searches characters by name and profession and villages by name.
+     *
+     * @param query the query, all of its terms have to match, exactly, as prefix or with typos
+     * @param limit the maximum number of hits
+     * @return the hits, the most relevant first
+     */
+    public List<SearchHitDTO> search(final String query, final int limit) {
+        return index.search(query, limit).stream()
+                .map(hit -> new SearchHitDTO(hit.type().name().toLowerCase(Locale.ROOT), hit.id(), hit.name(),
+                        hit.profession(), hit.score()))
+                .toList();
+    }
+}
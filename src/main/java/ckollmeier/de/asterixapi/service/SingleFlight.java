@@ -0,0 +1,126 @@
+package ckollmeier.de.asterixapi.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent identical reads into a single in-flight computation.
+ * <p>
+ * The first caller for a key runs the computation; every caller arriving with the same key while it is
+ * still running waits for it and receives the same result (or exception) instead of querying the database again.
+ * Flights are only shared within one data version of the {@link ResponseCacheService}, so a read that starts
+ * after a write never joins a computation that started before it. Results are not kept after the flight completes.
+ * </p>
+ * <p>
+ * The number of executed and coalesced calls is published as the counter {@value #CALLS_METRIC},
+ * tagged with the key and the outcome.
+ * </p>
+ */
+@Service
+@RequiredArgsConstructor
+public class SingleFlight {
+
+    /**
+     * Name of the counter for executed and coalesced calls.
+     */
+    public static final String CALLS_METRIC = "asterix.single.flight.calls";
+
+    /**
+     * Provides the data version flights are bound to.
+     */
+    private final ResponseCacheService responseCacheService;
+
+    /**
+     * Registry the call counters are registered in.
+     */
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * The computations currently in flight.
+     */
+    private final ConcurrentMap<FlightKey, CompletableFuture<Object>> flights = new ConcurrentHashMap<>();
+
+    /**
+     * Runs the computation for the given key, or joins the one that is already in flight.
+     *
+     * @param key      identifies the computation, calls with equal keys must produce equal results
+     * @param supplier the computation
+     * @param <T>      the result type
+     * @return the result of the computation
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(final String key, final Supplier<T> supplier) {
+        final FlightKey flightKey = new FlightKey(key, responseCacheService.getDataVersion());
+        final CompletableFuture<Object> flight = new CompletableFuture<>();
+        final CompletableFuture<Object> existingFlight = flights.putIfAbsent(flightKey, flight);
+        if (existingFlight != null) {
+            counter(key, "coalesced").increment();
+            return (T) await(existingFlight);
+        }
+
+        counter(key, "executed").increment();
+        try {
+            final T result = supplier.get();
+            flight.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            flights.remove(flightKey, flight);
+        }
+    }
+
+    /**
+     * Waits for a flight started by another caller.
+     *
+     * @param flight the flight to wait for
+     * @return the result of the flight
+     */
+    private static Object await(final CompletableFuture<Object> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            // Rethrow the original exception of the leader, so joined callers fail the same way
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the call counter for the given key and outcome.
+     *
+     * @param key     the flight key
+     * @param outcome {@code executed} or {@code coalesced}
+     * @return the counter
+     */
+    private Counter counter(final String key, final String outcome) {
+        return Counter.builder(CALLS_METRIC)
+                .description("Calls of single-flight computations, by whether they ran or joined a running one")
+                .tag("key", key)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Identifies a flight.
+     *
+     * @param key         the key given by the caller
+     * @param dataVersion the data version the flight was started in
+     */
+    private record FlightKey(String key, long dataVersion) {
+    }
+}
@@ -0,0 +1,168 @@
+package ckollmeier.de.asterixapi.service;
+
+import ckollmeier.de.asterixapi.dto.ChangesDTO;
+import ckollmeier.de.asterixapi.dto.VillageCountOutputDTO;
+import ckollmeier.de.asterixapi.exception.GoneException;
+import ckollmeier.de.asterixapi.model.Village;
+import ckollmeier.de.asterixapi.model.VillageReference;
+import ckollmeier.de.asterixapi.repository.ChangeLogRepository;
+import ckollmeier.de.asterixapi.repository.VillageRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory map of existing villages by ID, used to resolve village references without a database round trip.
+ * <p>
+ * The map is loaded from the {@link VillageRepository} on first use and kept up to date by {@link VillageService}.
+ * An ID that is not in the map is looked up once in the {@link EntityCache}, so villages created by another
+ * application instance are picked up on demand. Villages renamed or removed by other instances are picked up from
+ * the change log every {@code asterix.village-registry.sync-interval}; if the change log no longer reaches back
+ * far enough, the map is loaded again on next use.
+ * </p>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class VillageRegistry {
+
+    /**
+     * Repository used to load the initial set of villages.
+     */
+    private final VillageRepository villageRepository;
+
+    /**
+     * Repository providing the sequence number a load covers.
+     */
+    private final ChangeLogRepository changeLogRepository;
+
+    /**
+     * Service providing the changes of other instances.
+     */
+    private final ChangeLogService changeLogService;
+
+    /**
+     * Near cache used to look up villages missing from the registry.
+     */
+    private final EntityCache entityCache;
+
+    /**
+     * The known villages by ID, {@code null} until loaded.
+     */
+    private volatile Map<String, VillageReference> villages;
+
+    /**
+     * The last change log sequence number applied to the map, {@code -1} until loaded.
+     */
+    private volatile long syncedSequence = -1;
+
+    /**
+     * Looks up the reference to the village with the given ID.
+     *
+     * @param id the village ID to look up
+     * @return the reference holding the village's ID and current name, or an empty Optional if the village does not exist
+     */
+    public Optional<VillageReference> find(final String id) {
+        final Map<String, VillageReference> known = getVillages();
+        final VillageReference reference = known.get(id);
+        if (reference != null) {
+            return Optional.of(reference);
+        }
+        return entityCache.getVillage(id)
+                .map(VillageReference::of)
+                .map(loaded -> {
+                    known.putIfAbsent(loaded.id(), loaded);
+                    return loaded;
+                });
+    }
+
+    /**
+     * Registers a newly created or renamed village. Does nothing while the villages are not loaded, so a write
+     * never waits for the load; the load reads the village or the next sync applies its change.
+     *
+     * @param village the saved village
+     */
+    public void register(final Village village) {
+        final Map<String, VillageReference> known = villages;
+        if (known != null) {
+            known.put(village.id(), VillageReference.of(village));
+        }
+    }
+
+    /**
+     * Removes a deleted village. Does nothing while the villages are not loaded, so a write never waits for
+     * the load; the load no longer finds the village or the next sync applies its removal.
+     *
+     * @param id the ID of the removed village
+     */
+    public void unregister(final String id) {
+        final Map<String, VillageReference> known = villages;
+        if (known != null) {
+            known.remove(id);
+        }
+    }
+
+    /**
+     * Replaces the known villages with all villages of the repository.
+     */
+    public synchronized void reload() {
+        villages = null;
+        getVillages();
+    }
+
+    /**
+     * Applies the village changes recorded in the change log since the map was last updated.
+     */
+    @Scheduled(initialDelayString = "${asterix.village-registry.sync-interval:PT10S}",
+            fixedDelayString = "${asterix.village-registry.sync-interval:PT10S}")
+    public void sync() {
+        final Map<String, VillageReference> known = villages;
+        if (known == null) {
+            return;
+        }
+        try {
+            final ChangesDTO changes = changeLogService.getVillageChangesSince(syncedSequence);
+            for (VillageCountOutputDTO village : changes.villages()) {
+                known.put(village.id(), new VillageReference(village.id(), village.name()));
+            }
+            changes.removedVillageIds().forEach(known::remove);
+            syncedSequence = changes.sequence();
+        } catch (GoneException e) {
+            log.info("Reloading the village registry on next use: {}", e.getMessage());
+            villages = null;
+        } catch (DataAccessException e) {
+            log.warn("Could not sync the village registry", e);
+        }
+    }
+
+    /**
+     * Returns the known villages, loading them from the repository on first access.
+     *
+     * @return the mutable, thread-safe map of known villages by ID
+     */
+    private Map<String, VillageReference> getVillages() {
+        Map<String, VillageReference> known = villages;
+        if (known == null) {
+            synchronized (this) {
+                known = villages;
+                if (known == null) {
+                    // Read the sequence first: changes racing with the load are applied again by the next sync
+                    final long sequence = changeLogRepository.currentSequence();
+                    known = new ConcurrentHashMap<>();
+                    for (Village village : villageRepository.findAll()) {
+                        known.put(village.id(), VillageReference.of(village));
+                    }
+                    syncedSequence = sequence;
+                    villages = known;
+                }
+            }
+        }
+        return known;
+    }
+}
@@ -1,21 +1,37 @@
 package ckollmeier.de.asterixapi.service;
 
+import ckollmeier.de.asterixapi.converter.BatchDeleteResultDTOConverter;
+import ckollmeier.de.asterixapi.converter.BatchGetResultDTOConverter;
 import ckollmeier.de.asterixapi.converter.VillageConverter;
 import ckollmeier.de.asterixapi.converter.VillageOutputDTOConverter;
 import ckollmeier.de.asterixapi.dataprovider.VillagesPageDataProvider;
+import ckollmeier.de.asterixapi.dto.BatchDeleteResultDTO;
+import ckollmeier.de.asterixapi.dto.BatchGetResultDTO;
 import ckollmeier.de.asterixapi.dto.VillageInputDTO;
 import ckollmeier.de.asterixapi.dto.VillageOutputDTO;
 import ckollmeier.de.asterixapi.dto.VillagesPageDTO;
+import ckollmeier.de.asterixapi.event.ChangeBatch;
+import ckollmeier.de.asterixapi.event.ChangeEvent;
+import ckollmeier.de.asterixapi.exception.BadRequestException;
 import ckollmeier.de.asterixapi.exception.NotFoundException;
+import ckollmeier.de.asterixapi.extractor.CharacterExtractor;
 import ckollmeier.de.asterixapi.model.Character;
 import ckollmeier.de.asterixapi.model.Village;
+import ckollmeier.de.asterixapi.model.VillageReference;
+import ckollmeier.de.asterixapi.mongoconcern.MongoConcern;
+import ckollmeier.de.asterixapi.namefilter.NameFilter;
 import ckollmeier.de.asterixapi.repository.CharacterRepository;
 import ckollmeier.de.asterixapi.repository.VillageRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * Service layer for managing Asterix villages.
@@ -27,6 +43,16 @@ import java.util.Optional;
 @RequiredArgsConstructor
 public class VillageService {
 
+    /**
+     * Maximum number of IDs accepted by a batch request.
+     */
+    public static final int MAX_BATCH_SIZE = 100;
+
+    /**
+     * Concern profile of the village removals, which unlink the inhabitants and must not be lost on a failover.
+     */
+    public static final String CRITICAL_CONCERN = "critical";
+
     /**
      * Repository for accessing village data persistence.
      */
@@ -50,6 +76,30 @@ public class VillageService {
      * Service used for generating unique IDs for new villages.
      */
     private final IdService idService;
+    /**
+     * Cache of serialized read responses, invalidated after every write.
+     */
+    private final ResponseCacheService responseCacheService;
+    /**
+     * Registry of existing villages, kept in sync with village creation, renaming and removal.
+     */
+    private final VillageRegistry villageRegistry;
+    /**
+     * Near cache for lookups by ID, evicted for every changed character and village.
+     */
+    private final EntityCache entityCache;
+    /**
+     * Bloom filter of the existing names, answering lookups of unknown names without a query.
+     */
+    private final NameFilter nameFilter;
+    /**
+     * Publisher of the {@link ChangeEvent}s streamed to clients.
+     */
+    private final ApplicationEventPublisher eventPublisher;
+    /**
+     * Merges updates of the same entity arriving in quick succession into one write.
+     */
+    private final WriteCoalescer writeCoalescer;
 
     /**
      * Retrieves a list of all villages currently stored.
@@ -75,14 +125,22 @@ public class VillageService {
 
     /**
      * Finds a single village by their exact name.
+     * Names the {@link NameFilter} knows not to exist are answered without a database query.
      *
      * @param name The name of the village to search for.
      * @return An {@link Optional} containing the found {@link Village} if a match exists, otherwise an empty Optional.
      */
     public Optional<Village> getVillageByName(final String name) {
+        if (!nameFilter.mightContainVillage(name)) {
+            return Optional.empty();
+        }
         // Note: Repository method findOneByName might return null, which Optional.ofNullable handles correctly.
         // If the repository method itself returned Optional, this wrapping wouldn't be needed.
-        return villageRepository.findOneByName(name);
+        final Optional<Village> village = villageRepository.findOneByName(name);
+        if (village.isEmpty()) {
+            nameFilter.recordVillageMiss();
+        }
+        return village;
     }
 
     /**
@@ -92,7 +150,20 @@ public class VillageService {
      * @return An {@link Optional} containing the found {@link Village} if a match exists, otherwise an empty Optional.
      */
     public Optional<Village> getVillageById(final String id) {
-        return villageRepository.findById(id);
+        return entityCache.getVillage(id);
+    }
+
+    /**
+     * Finds the villages with the given IDs. Villages in the {@link EntityCache} are answered from it,
+     * all others are loaded with a single query.
+     *
+     * @param ids The IDs to look up, at most {@value #MAX_BATCH_SIZE}; duplicates are allowed.
+     * @return One result per requested ID in request order, marked as not found if the village does not exist.
+     * @throws BadRequestException if the IDs are missing, contain {@code null} or exceed the maximum batch size.
+     */
+    public List<BatchGetResultDTO<Village>> getVillagesByIds(final List<String> ids) {
+        validateBatch(ids);
+        return BatchGetResultDTOConverter.convert(ids, entityCache.getVillages(ids));
     }
 
     /**
@@ -106,14 +177,42 @@ public class VillageService {
     public VillageOutputDTO addVillage(final VillageInputDTO villageInputDTO) {
         // Converts DTO to entity using the converter, generates a new ID, and saves it.
         Village village = villageRepository.save(villageConverter.convert(villageInputDTO).withId(idService.generateId()));
+        villageRegistry.register(village);
+        final VillageReference villageReference = VillageReference.of(village);
+        // Collected across attempts, a character saved by a failed attempt stays moved
+        final List<Character> movedCharacters = new ArrayList<>();
+        final List<Character> inhabitants = new ArrayList<>();
+        final List<ChangeEvent> events = new ArrayList<>();
+        events.add(ChangeEvent.villageAdded(village));
 
-        final List<Character> addedInhabitants =
-                characterRepository.findByIdIn(villageInputDTO.characterIds())
-                        .stream()
-                        .map(character -> character.withVillage(village))
-                        .toList();
-        characterRepository.saveAll(addedInhabitants);
-        return VillageOutputDTOConverter.convert(village, addedInhabitants);
+        try {
+            // Moving the inhabitants is retried on its own, the village itself must only be created once
+            final List<Character> addedInhabitants = OptimisticLockRetry.execute(OptimisticLockRetry.DEFAULT_MAX_ATTEMPTS,
+                    String.format("Assigning inhabitants to village '%s'", village.id()),
+                    () -> {
+                        for (Character character : characterRepository.findByIdIn(villageInputDTO.characterIds())) {
+                            // Skip the characters a failed attempt already moved in
+                            if (!village.id().equals(getVillageId(character))) {
+                                final Character inhabitant = characterRepository.save(character.withVillage(villageReference));
+                                movedCharacters.add(character);
+                                inhabitants.add(inhabitant);
+                                events.add(ChangeEvent.characterMoved(inhabitant, getVillageId(character)));
+                            }
+                        }
+                        return inhabitants;
+                    });
+            return VillageOutputDTOConverter.convert(village, addedInhabitants);
+        } finally {
+            entityCache.evictCharacters(CharacterExtractor.extractCharacterIds(inhabitants));
+            decrementPreviousVillages(movedCharacters, events);
+            if (!movedCharacters.isEmpty()) {
+                villageRepository.incrementInhabitantCount(village.id(), movedCharacters.size());
+                entityCache.evictVillage(village.id());
+                addInhabitantCountChange(events, village.id(), movedCharacters.size());
+            }
+            publishEvents(events);
+            responseCacheService.invalidate();
+        }
     }
 
     /**
@@ -134,31 +233,111 @@ public class VillageService {
             throw new IllegalArgumentException("Village id is already set");
         }
         // Assigns a new ID and saves the village.
-        return villageRepository.save(village.withId(idService.generateId()));
+        final Village savedVillage = villageRepository.save(village.withId(idService.generateId()));
+        villageRegistry.register(savedVillage);
+        responseCacheService.invalidate();
+        eventPublisher.publishEvent(new ChangeBatch(List.of(ChangeEvent.villageAdded(savedVillage))));
+        return savedVillage;
     }
 
     /**
      * Removes a village from the repository by their unique ID.
      * <p>
      * This method first attempts to find the village by the given ID. If the village is not found,
-     * a {@link NotFoundException} is thrown. If found, the village is deleted from the repository.
+     * a {@link NotFoundException} is thrown. If found, the village is deleted from the repository and
+     * all its inhabitants are moved out with a single update-many, so the number of database commands does not
+     * grow with the number of inhabitants. The moved inhabitants and the removed village are published as one
+     * {@link ChangeBatch}.
+     * The delete is conditional on the version read and retried via {@link OptimisticLockRetry} if the village
+     * was modified concurrently.
+     * The writes and reads run with the {@value #CRITICAL_CONCERN} concern profile.
      * </p>
      *
      * @param id The unique ID of the village to remove.
      * @return The {@link Village} entity that was removed.
      * @throws NotFoundException if no village with the given ID exists.
+     * @throws ckollmeier.de.asterixapi.exception.ConflictException if concurrent modifications persist.
      */
+    @MongoConcern(CRITICAL_CONCERN)
     public Village removeVillage(final String id) {
-        final Village village = getVillageById(id)
-                .orElseThrow(() -> new NotFoundException(String.format("Village with id '%s' not found", id)));
-        final List<Character> existingInhabitants = characterRepository.findByVillageId(id);
-        for (Character character : existingInhabitants) {
-            characterRepository.save(character.withVillage(null));
+        try {
+            return OptimisticLockRetry.execute(OptimisticLockRetry.DEFAULT_MAX_ATTEMPTS,
+                    String.format("Removing village '%s'", id),
+                    () -> removeVillageAttempt(id));
+        } finally {
+            // Invalidate even after a failed attempt, inhabitants may already have been moved out
+            responseCacheService.invalidate();
         }
+    }
+
+    /**
+     * Performs a single attempt of {@link #removeVillage(String)}.
+     *
+     * @param id The unique ID of the village to remove.
+     * @return The {@link Village} entity that was removed.
+     */
+    private Village removeVillageAttempt(final String id) {
+        // Read from the repository, the delete is conditional on the latest version
+        final Village village = villageRepository.findById(id)
+                .orElseThrow(() -> new NotFoundException(String.format("Village with id '%s' not found", id)));
+        // Delete first, so an attempt failing on a concurrent change has not moved any inhabitant yet
         villageRepository.delete(village);
+        entityCache.evictVillage(id);
+        villageRegistry.unregister(id);
+        final List<Character> inhabitants = characterRepository.findByVillageId(id);
+        characterRepository.unlinkVillages(List.of(id));
+        entityCache.evictCharacters(CharacterExtractor.extractCharacterIds(inhabitants));
+        final List<ChangeEvent> events = new ArrayList<>(inhabitants.size() + 1);
+        for (Character inhabitant : inhabitants) {
+            events.add(ChangeEvent.characterMoved(inhabitant.withVillage(null), id));
+        }
+        events.add(ChangeEvent.villageRemoved(id));
+        eventPublisher.publishEvent(new ChangeBatch(events));
         return village;
     }
 
+    /**
+     * Removes several villages by their unique IDs.
+     * <p>
+     * The existing villages and their inhabitants are read with one query each. All inhabitants are moved out
+     * with a single update-many and the villages are deleted with one {@code deleteMany}, so the number of
+     * database commands does not grow with the number of villages or inhabitants. Every moved inhabitant and
+     * every removed village is published as a {@link ChangeEvent} of one {@link ChangeBatch}, which is recorded
+     * in the change log with a fixed number of commands as well. Unlike {@link #removeVillage(String)} the
+     * writes are not conditional on the versions read. The writes and reads run with the
+     * {@value #CRITICAL_CONCERN} concern profile.
+     * </p>
+     *
+     * @param ids The unique IDs of the villages to remove, at most {@value #MAX_BATCH_SIZE}.
+     * @return The requested IDs split into the deleted ones and those without a village.
+     * @throws BadRequestException if the IDs are missing, contain {@code null} or exceed the maximum batch size.
+     */
+    @MongoConcern(CRITICAL_CONCERN)
+    public BatchDeleteResultDTO removeVillages(final List<String> ids) {
+        validateBatch(ids);
+        final Set<String> deletedIds = villageRepository.findAllById(Set.copyOf(ids)).stream()
+                .map(Village::id)
+                .collect(Collectors.toSet());
+        if (!deletedIds.isEmpty()) {
+            final List<Character> inhabitants = characterRepository.findByVillageIdIn(deletedIds);
+            characterRepository.unlinkVillages(deletedIds);
+            villageRepository.deleteAllById(deletedIds);
+            entityCache.evictCharacters(CharacterExtractor.extractCharacterIds(inhabitants));
+            deletedIds.forEach(id -> {
+                entityCache.evictVillage(id);
+                villageRegistry.unregister(id);
+            });
+            responseCacheService.invalidate();
+            final List<ChangeEvent> events = new ArrayList<>(inhabitants.size() + deletedIds.size());
+            for (Character inhabitant : inhabitants) {
+                events.add(ChangeEvent.characterMoved(inhabitant.withVillage(null), getVillageId(inhabitant)));
+            }
+            deletedIds.forEach(id -> events.add(ChangeEvent.villageRemoved(id)));
+            eventPublisher.publishEvent(new ChangeBatch(events));
+        }
+        return BatchDeleteResultDTOConverter.convert(ids, deletedIds);
+    }
+
     /**
      * Updates an existing village's information based on the provided data.
      * <p>
@@ -168,16 +347,75 @@ public class VillageService {
      * {@link #getVillage(VillageInputDTO, Village)}.
      * The village's ID remains unchanged.
      * </p>
+     * <p>
+     * A changed name is propagated to the village name stored inline on all inhabitants with one bulk update.
+     * If the inhabitants are replaced, the new inhabitant count is saved with the village and the villages
+     * the added inhabitants came from are decremented with {@code $inc}.
+     * Every moved inhabitant, every changed inhabitant count and a rename are published as {@link ChangeEvent}s
+     * once the update is done, including the moves written by attempts that failed afterwards.
+     * Village and inhabitants are versioned. If one of them was modified concurrently, the update is
+     * re-applied to the latest state via {@link OptimisticLockRetry} instead of overwriting the other change.
+     * Inhabitant count increments keep the version, so characters moving in or out of the village do not
+     * conflict with its update.
+     * </p>
+     * <p>
+     * Updates of the same village arriving in quick succession may be merged into one update by the
+     * {@link WriteCoalescer}; the returned village then also contains the changes of the other updates.
+     * </p>
      *
      * @param id        The unique ID of the village to update.
      * @param village The {@link VillageInputDTO} containing the updated data (name and character IDs).
      * @return The updated and persisted {@link Village} entity.
      * @throws NotFoundException if no village with the given ID exists.
+     * @throws ckollmeier.de.asterixapi.exception.ConflictException if concurrent modifications persist.
      */
     public VillageOutputDTO updateVillage(final String id, final VillageInputDTO village) {
-        // Retrieve the existing village or throw NotFoundException
-        final Village existingVillage = getVillageById(id)
+        return writeCoalescer.execute("village", id, village, VillageService::mergeVillageInputs,
+                update -> writeVillageUpdate(id, update));
+    }
+
+    /**
+     * Helper method writing the update of {@link #updateVillage(String, VillageInputDTO)}, retried on
+     * concurrent modifications.
+     *
+     * @param id      The unique ID of the village to update.
+     * @param village The {@link VillageInputDTO} containing the updated data.
+     * @return The updated village including its inhabitants.
+     */
+    private VillageOutputDTO writeVillageUpdate(final String id, final VillageInputDTO village) {
+        // Collected across attempts, a character saved by a failed attempt stays moved
+        final List<Character> movedInCharacters = new ArrayList<>();
+        final List<ChangeEvent> events = new ArrayList<>();
+        try {
+            return OptimisticLockRetry.execute(OptimisticLockRetry.DEFAULT_MAX_ATTEMPTS,
+                    String.format("Updating village '%s'", id),
+                    () -> updateVillageAttempt(id, village, movedInCharacters, events));
+        } finally {
+            // Even after a failed attempt, inhabitants may already have been moved
+            decrementPreviousVillages(movedInCharacters, events);
+            publishEvents(events);
+            responseCacheService.invalidate();
+        }
+    }
+
+    /**
+     * Performs a single attempt of {@link #updateVillage(String, VillageInputDTO)}.
+     * Every write that succeeded is recorded, also if a later write of the attempt fails.
+     *
+     * @param id                The unique ID of the village to update.
+     * @param village           The {@link VillageInputDTO} containing the updated data.
+     * @param movedInCharacters Receives the characters moved into the village, in the state before they moved.
+     * @param events            Receives the {@link ChangeEvent}s of the written changes.
+     * @return The updated village including its inhabitants.
+     */
+    private VillageOutputDTO updateVillageAttempt(final String id, final VillageInputDTO village,
+                                                  final List<Character> movedInCharacters,
+                                                  final List<ChangeEvent> events) {
+        // Retrieve the latest version of the village from the repository or throw NotFoundException
+        final Village existingVillage = villageRepository.findById(id)
                 .orElseThrow(() -> new NotFoundException(String.format("Village with id '%s' not found", id)));
+        // Use helper method to apply updates from DTO to existing entity
+        Village villageToUpdate = getVillage(village, existingVillage);
         if (village.characterIds() != null) {
             final List<Character> existingInhabitants = characterRepository.findByVillageId(id);
             final List<Character> changedInhabitants = characterRepository.findByIdIn(village.characterIds());
@@ -187,17 +425,107 @@ public class VillageService {
                     .filter(i1 -> existingInhabitants.stream().noneMatch(i2 -> i1.id().equals(i2.id()))).toList();
 
             for (Character removedCharacter : removedInhabitants) {
-                characterRepository.save(removedCharacter.withVillage(null));
+                final Character movedCharacter = removedCharacter.withVillage(null);
+                characterRepository.save(movedCharacter);
+                entityCache.evictCharacter(removedCharacter.id());
+                events.add(ChangeEvent.characterMoved(movedCharacter, id));
             }
             for (Character addedCharacter : addedInhabitants) {
-                characterRepository.save(addedCharacter.withVillage(existingVillage));
+                final Character movedCharacter = addedCharacter.withVillage(VillageReference.of(villageToUpdate));
+                characterRepository.save(movedCharacter);
+                entityCache.evictCharacter(addedCharacter.id());
+                movedInCharacters.add(addedCharacter);
+                events.add(ChangeEvent.characterMoved(movedCharacter, getVillageId(addedCharacter)));
             }
+            // The new inhabitants are known exactly, the count is saved together with the village
+            villageToUpdate = villageToUpdate.withInhabitantCount(changedInhabitants.size());
         }
-        // Use helper method to apply updates from DTO to existing entity
-        Village villageToUpdate = getVillage(village, existingVillage);
 
-        // Save the potentially modified village
-        return VillageOutputDTOConverter.convert(villageRepository.save(villageToUpdate), characterRepository.findByVillageId(id));
+        // Write only the changed fields, increments of the count by characters moving concurrently are kept
+        final boolean inhabitantsReplaced = village.characterIds() != null;
+        final Village savedVillage = villageRepository.updateAttributes(villageToUpdate, inhabitantsReplaced);
+        entityCache.evictVillage(id);
+        villageRegistry.register(savedVillage);
+        if (inhabitantsReplaced) {
+            addInhabitantCountChange(events, id, villageToUpdate.inhabitantCount() - existingVillage.inhabitantCount());
+        }
+        if (!Objects.equals(savedVillage.name(), existingVillage.name())) {
+            // The name is stored inline on every inhabitant, fan the rename out in a single multi-document update
+            characterRepository.updateVillageName(id, savedVillage.name());
+            entityCache.evictAllCharacters();
+            events.add(ChangeEvent.villageRenamed(savedVillage));
+        }
+        return VillageOutputDTOConverter.convert(savedVillage, characterRepository.findByVillageId(id));
+    }
+
+    /**
+     * Helper method merging a later update of a village into an earlier one. The name and the inhabitants of
+     * the later update take precedence if they are set.
+     *
+     * @param earlier The earlier update.
+     * @param later   The later update.
+     * @return The update applying both.
+     */
+    private static VillageInputDTO mergeVillageInputs(final VillageInputDTO earlier, final VillageInputDTO later) {
+        return new VillageInputDTO(
+                later.name() != null ? later.name() : earlier.name(),
+                later.characterIds() != null ? later.characterIds() : earlier.characterIds());
+    }
+
+    /**
+     * Helper method publishing the {@link ChangeEvent}s of an operation as one {@link ChangeBatch} once all its
+     * attempts are done, so a retried attempt does not publish changes that were never written and the change log
+     * records the operation with a fixed number of commands.
+     *
+     * @param events The changes in the order they were written, nothing is published if empty.
+     */
+    private void publishEvents(final List<ChangeEvent> events) {
+        if (!events.isEmpty()) {
+            eventPublisher.publishEvent(new ChangeBatch(events));
+        }
+    }
+
+    /**
+     * Helper method returning the ID of the village a character lives in.
+     *
+     * @param character The character.
+     * @return The village ID, or {@code null} if the character has no village.
+     */
+    private static String getVillageId(final Character character) {
+        return character.village() != null ? character.village().id() : null;
+    }
+
+    /**
+     * Helper method decrementing the inhabitant counts of the villages the given characters lived in before moving.
+     * Characters without a previous village are ignored.
+     *
+     * @param movedCharacters The characters in the state before they moved.
+     * @param events          Receives the changed inhabitant counts.
+     */
+    private void decrementPreviousVillages(final List<Character> movedCharacters, final List<ChangeEvent> events) {
+        movedCharacters.stream()
+                .filter(character -> character.village() != null)
+                .collect(Collectors.groupingBy(character -> character.village().id(), Collectors.counting()))
+                .forEach((villageId, count) -> {
+                    villageRepository.incrementInhabitantCount(villageId, -count.intValue());
+                    entityCache.evictVillage(villageId);
+                    addInhabitantCountChange(events, villageId, -count.intValue());
+                });
+    }
+
+    /**
+     * Helper method recording a changed inhabitant count, so clients and the change log see the new count
+     * of a village whose inhabitants moved.
+     *
+     * @param events    Receives the change.
+     * @param villageId The village ID.
+     * @param delta     The number of characters that moved in (positive) or out (negative), nothing is
+     *                  recorded if it is {@code 0}.
+     */
+    private static void addInhabitantCountChange(final List<ChangeEvent> events, final String villageId, final int delta) {
+        if (delta != 0) {
+            events.add(ChangeEvent.villageInhabitantsChanged(villageId, delta));
+        }
     }
 
     /**
@@ -228,4 +556,19 @@ public class VillageService {
 //        }
         return villageToUpdate;
     }
-}
\ No newline at end of file
+
+    /**
+     * Helper method validating the IDs of a batch request.
+     *
+     * @param ids The requested IDs.
+     * @throws BadRequestException if the IDs are missing, contain {@code null} or exceed {@value #MAX_BATCH_SIZE}.
+     */
+    private static void validateBatch(final List<String> ids) {
+        if (ids == null || ids.stream().anyMatch(Objects::isNull)) {
+            throw new BadRequestException("ids must be a list of IDs");
+        }
+        if (ids.size() > MAX_BATCH_SIZE) {
+            throw new BadRequestException(String.format("At most %d ids are allowed, got %d", MAX_BATCH_SIZE, ids.size()));
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package ckollmeier.de.asterixapi.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+
+/**
+ * Coalesces partial updates of the same entity arriving in quick succession into a single write.
+ * <p>
+ * The first update for a key opens a window of {@code asterix.write-coalescing.window}; every update for the same
+ * key arriving within the window is merged into the pending one instead of being written on its own. When the
+ * window closes, the first caller writes the merged update once and every caller receives the result of that
+ * write (or its exception). Since the merged update contains the update of every caller, each response reflects
+ * the caller's own write, and a read issued after the response sees it: updates are read-your-writes.
+ * The price is that the first update of a burst is delayed by the window, so coalescing is opt-in with
+ * {@code asterix.write-coalescing.enabled}; while disabled, every update is written immediately.
+ * </p>
+ * <p>
+ * The number of executed and coalesced updates is published as the counter {@value #UPDATES_METRIC},
+ * tagged with the kind of entity and the outcome.
+ * </p>
+ */
+@Service
+public class WriteCoalescer {
+
+    /**
+     * Name of the counter for executed and coalesced updates.
+     */
+    public static final String UPDATES_METRIC = "asterix.write.coalescing.updates";
+
+    /**
+     * Registry the update counters are registered in.
+     */
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Whether updates are coalesced.
+     */
+    private final boolean enabled;
+
+    /**
+     * How long the first update of a burst waits for further updates.
+     */
+    private final Duration window;
+
+    /**
+     * The updates waiting for their window to close, by kind and ID of the entity.
+     */
+    private final ConcurrentMap<String, PendingWrite<?, ?>> pendingWrites = new ConcurrentHashMap<>();
+
+    /**
+     * Creates the coalescer.
+     *
+     * @param meterRegistry registry for the update counters
+     * @param enabled       whether updates are coalesced
+     * @param window        how long the first update of a burst waits for further updates
+     */
+    public WriteCoalescer(final MeterRegistry meterRegistry,
+                          @Value("${asterix.write-coalescing.enabled:false}") final boolean enabled,
+                          @Value("${asterix.write-coalescing.window:50ms}") final Duration window) {
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.window = window;
+    }
+
+    /**
+     * Writes an update, merged with all updates of the same entity arriving within the window.
+     *
+     * @param kind   the kind of entity, e.g. {@code character}
+     * @param id     the ID of the entity
+     * @param update the partial update
+     * @param merge  merges a later update into an earlier one, the later one taking precedence
+     * @param write  writes an update and returns the result
+     * @param <U>    the update type
+     * @param <R>    the result type
+     * @return the result of writing the merged update
+     */
+    @SuppressWarnings("unchecked")
+    public <U, R> R execute(final String kind, final String id, final U update,
+                            final BinaryOperator<U> merge, final Function<U, R> write) {
+        if (!enabled) {
+            return write.apply(update);
+        }
+        final String key = kind + ":" + id;
+        final PendingWrite<U, R> created = new PendingWrite<>(update);
+        final PendingWrite<U, R> pending = (PendingWrite<U, R>) pendingWrites.compute(key, (k, existing) -> {
+            if (existing == null) {
+                return created;
+            }
+            final PendingWrite<U, R> joined = (PendingWrite<U, R>) existing;
+            joined.update = merge.apply(joined.update, update);
+            return joined;
+        });
+        if (pending != created) {
+            counter(kind, "coalesced").increment();
+            return await(pending.result);
+        }
+
+        counter(kind, "executed").increment();
+        try {
+            Thread.sleep(window);
+        } catch (InterruptedException e) {
+            // Write what has been merged so far instead of failing the update
+            Thread.currentThread().interrupt();
+        }
+        // Once removed, no further update can be merged, so the update read afterwards is final
+        pendingWrites.remove(key, created);
+        try {
+            final R result = write.apply(created.update);
+            created.result.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            created.result.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Waits for the write of a pending update started by another caller.
+     *
+     * @param result the result of the write
+     * @param <R>    the result type
+     * @return the result of the write
+     */
+    private static <R> R await(final CompletableFuture<R> result) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            // Rethrow the original exception of the writer, so coalesced callers fail the same way
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the update counter for the given kind of entity and outcome.
+     *
+     * @param kind    the kind of entity
+     * @param outcome {@code executed} or {@code coalesced}
+     * @return the counter
+     */
+    private Counter counter(final String kind, final String outcome) {
+        return Counter.builder(UPDATES_METRIC)
+                .description("Updates by whether they were written or merged into a pending update")
+                .tag("kind", kind)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /**
+     * An update waiting for its window to close.
+     *
+     * @param <U> the update type
+     * @param <R> the result type
+     */
+    private static final class PendingWrite<U, R> {
+
+        /**
+         * The merged update, only changed within {@link ConcurrentMap#compute} while the write is pending.
+         */
+        private volatile U update;
+
+        /**
+         * The result of the write, completed by the first caller.
+         */
+        private final CompletableFuture<R> result = new CompletableFuture<>();
+
+        /**
+         * Creates the pending write of the first update of a burst.
+         *
+         * @param update the update
+         */
+        private PendingWrite(final U update) {
+            this.update = update;
+        }
+    }
+}
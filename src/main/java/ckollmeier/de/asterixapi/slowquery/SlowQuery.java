@@ -0,0 +1,32 @@
+package ckollmeier.de.asterixapi.slowquery;
+
+import lombok.With;
+
+import java.time.Instant;
+
+/**
+ * A database command that took longer than the slow query threshold.
+ *
+ * @param timestamp        when the command completed
+ * @param command          the command name, e.g. {@code find} or {@code update}
+ * @param collection       the collection the command ran on
+ * @param filter           the filter (or pipeline) of the command as JSON, {@code null} for commands without one
+ * @param repositoryMethod the repository method that issued the command, e.g. {@code CharacterRepository.findByProfession},
+ *                         or the calling application method if the command was not issued by a repository
+ * @param documents        the number of documents returned or modified
+ * @param durationMillis   the time the command took in milliseconds
+ * @param plan             the stages of the winning plan, e.g. {@code FETCH > IXSCAN village._id_1},
+ *                         {@code null} if the plan was not captured
+ */
+public record SlowQuery(
+        Instant timestamp,
+        String command,
+        String collection,
+        String filter,
+        String repositoryMethod,
+        long documents,
+        double durationMillis,
+        @With
+        String plan
+) {
+}
@@ -0,0 +1,40 @@
+package ckollmeier.de.asterixapi.slowquery;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Actuator endpoint {@code /actuator/slowqueries} listing the slowest database commands since the start,
+ * the slowest first. {@code DELETE} resets the list, e.g. after deploying an index.
+ */
+@Component
+@Endpoint(id = "slowqueries")
+@RequiredArgsConstructor
+public class SlowQueryEndpoint {
+
+    /**
+     * The log holding the slowest commands.
+     */
+    private final SlowQueryLog slowQueryLog;
+
+    /**
+     * @return the slowest commands
+     */
+    @ReadOperation
+    public List<SlowQuery> slowQueries() {
+        return slowQueryLog.getSlowest();
+    }
+
+    /**
+     * Forgets the recorded commands.
+     */
+    @DeleteOperation
+    public void reset() {
+        slowQueryLog.clear();
+    }
+}
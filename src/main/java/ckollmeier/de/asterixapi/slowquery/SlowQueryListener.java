@@ -0,0 +1,322 @@
+package ckollmeier.de.asterixapi.slowquery;
+
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import lombok.RequiredArgsConstructor;
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+import org.springframework.data.repository.core.RepositoryMethodContext;
+import org.springframework.data.repository.core.RepositoryMethodContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MongoDB command listener detecting slow commands and handing them to the {@link SlowQueryLog}.
+ * <p>
+ * The command document is only valid while the start event is processed, so the parts needed later are copied
+ * then. Copying a command decodes it completely, which is too expensive for every command, so only the collection
+ * and, for the commands {@code explain} supports, the small filter, query or pipeline are copied from every command.
+ * A slow command is explained as a {@code find} with its filter, or as an aggregation with its pipeline.
+ * The complete command is copied only if a command of the same kind on the same collection was slow within
+ * {@code asterix.slow-query.capture-window}, so later slow commands of a kind are explained with their sort, hint
+ * and other options as well. When the command
+ * completes on the calling thread, the repository method is taken from the {@link RepositoryMethodContext}
+ * that Spring Data exposes during repository calls (enabled in
+ * {@link ckollmeier.de.asterixapi.configuration.SlowQueryConfiguration}). Commands issued outside of
+ * repositories are attributed to the first application method on the stack.
+ * </p>
+ */
+@Component
+@RequiredArgsConstructor
+public class SlowQueryListener implements CommandListener {
+
+    /**
+     * The commands that can be explained.
+     */
+    static final Set<String> EXPLAINABLE_COMMANDS = Set.of(
+            "find", "aggregate", "count", "distinct", "findAndModify", "update", "delete");
+
+    /**
+     * Command fields that belong to the session or the connection and must not be passed to {@code explain}.
+     */
+    private static final Set<String> SESSION_FIELDS = Set.of("lsid", "txnNumber", "autocommit", "startTransaction");
+
+    /**
+     * Package prefix of the application classes, used to find the caller of commands issued outside of repositories.
+     */
+    private static final String APPLICATION_PACKAGE = "ckollmeier.de.asterixapi.";
+
+    /**
+     * The slow query configuration.
+     */
+    private final SlowQueryProperties properties;
+
+    /**
+     * The log slow commands are reported to.
+     */
+    private final SlowQueryLog slowQueryLog;
+
+    /**
+     * The commands in flight by request id.
+     */
+    private final Map<Integer, StartedCommand> startedCommands = new ConcurrentHashMap<>();
+
+    /**
+     * The kinds of commands that were slow, with the {@link System#nanoTime()} until which they are copied.
+     */
+    private final Map<CommandShape, Long> slowShapes = new ConcurrentHashMap<>();
+
+    /**
+     * The kind of a command, the unit in which slow commands are remembered.
+     *
+     * @param commandName the command name
+     * @param collection  the collection, {@code null} for commands not addressing one
+     */
+    private record CommandShape(String commandName, String collection) {
+    }
+
+    /**
+     * The parts of a started command needed once it completed.
+     *
+     * @param collection the collection, {@code null} for commands not addressing one
+     * @param selection  the copied filter, query or pipeline, {@code null} if the command has none or cannot be explained
+     * @param command    the command without session fields, {@code null} unless commands of its kind were recently slow
+     */
+    private record StartedCommand(String collection, BsonValue selection, BsonDocument command) {
+    }
+
+    @Override
+    public void commandStarted(final CommandStartedEvent event) {
+        if ("explain".equals(event.getCommandName())) {
+            return;
+        }
+        final BsonDocument command = event.getCommand();
+        final BsonValue target = command.get(event.getCommandName());
+        final String collection = target != null && target.isString() ? target.asString().getValue() : null;
+        final boolean explainable = EXPLAINABLE_COMMANDS.contains(event.getCommandName());
+        final BsonValue selection = explainable ? copy(selectionOf(event.getCommandName(), command)) : null;
+        final boolean capture = explainable && wasRecentlySlow(new CommandShape(event.getCommandName(), collection));
+        startedCommands.put(event.getRequestId(),
+                new StartedCommand(collection, selection, capture ? withoutSessionFields(command) : null));
+    }
+
+    @Override
+    public void commandSucceeded(final CommandSucceededEvent event) {
+        final StartedCommand started = startedCommands.remove(event.getRequestId());
+        final long nanos = event.getElapsedTime(TimeUnit.NANOSECONDS);
+        if (started != null && nanos >= properties.threshold().toNanos()) {
+            report(event.getDatabaseName(), event.getCommandName(), started, countDocuments(event.getResponse()), nanos);
+        }
+    }
+
+    @Override
+    public void commandFailed(final CommandFailedEvent event) {
+        final StartedCommand started = startedCommands.remove(event.getRequestId());
+        final long nanos = event.getElapsedTime(TimeUnit.NANOSECONDS);
+        if (started != null && nanos >= properties.threshold().toNanos()) {
+            report(event.getDatabaseName(), event.getCommandName(), started, 0, nanos);
+        }
+    }
+
+    /**
+     * Hands a slow command to the log.
+     *
+     * @param database    the database the command ran on
+     * @param commandName the command name
+     * @param started     the parts copied when the command started
+     * @param documents   the number of documents returned or modified
+     * @param nanos       the time the command took
+     */
+    private void report(final String database, final String commandName, final StartedCommand started,
+                        final long documents, final long nanos) {
+        if (EXPLAINABLE_COMMANDS.contains(commandName)) {
+            slowShapes.put(new CommandShape(commandName, started.collection()),
+                    System.nanoTime() + properties.captureWindow().toNanos());
+        }
+        final SlowQuery slowQuery = new SlowQuery(
+                Instant.now(),
+                commandName,
+                started.collection(),
+                started.selection() != null ? toJson(started.selection()) : null,
+                getCaller(),
+                documents,
+                nanos / 1_000_000.0,
+                null);
+        slowQueryLog.report(slowQuery, database, started.command() != null
+                ? started.command()
+                : selectionCommand(commandName, started.collection(), started.selection()));
+    }
+
+    /**
+     * Returns whether a command of the given kind was slow within the capture window.
+     *
+     * @param shape the kind of command
+     * @return {@code true} if commands of this kind are copied
+     */
+    private boolean wasRecentlySlow(final CommandShape shape) {
+        final Long until = slowShapes.get(shape);
+        return until != null && until - System.nanoTime() > 0;
+    }
+
+    /**
+     * Copies a command without the fields belonging to the session, the driver or the connection.
+     *
+     * @param command the command as sent
+     * @return the detached copy
+     */
+    private static BsonDocument withoutSessionFields(final BsonDocument command) {
+        // Cloning decodes the buffer backed command document into a detached copy
+        final BsonDocument copy = command.clone();
+        copy.keySet().removeIf(field -> field.startsWith("$") || SESSION_FIELDS.contains(field));
+        return copy;
+    }
+
+    /**
+     * Copies a part of a command, decoding only that part.
+     *
+     * @param value the part, may be {@code null}
+     * @return the detached copy, {@code null} if the part is missing
+     */
+    private static BsonValue copy(final BsonValue value) {
+        if (value == null) {
+            return null;
+        }
+        if (value.isDocument()) {
+            return value.asDocument().clone();
+        }
+        return value.isArray() ? value.asArray().clone() : value;
+    }
+
+    /**
+     * Builds the command explaining how a command selects its documents from its copied filter or pipeline.
+     *
+     * @param commandName the command name
+     * @param collection  the collection, {@code null} for commands not addressing one
+     * @param selection   the copied filter, query or pipeline, {@code null} if the command has none
+     * @return an aggregation with the pipeline or a {@code find} with the filter, {@code null} if it cannot be explained
+     */
+    static BsonDocument selectionCommand(final String commandName, final String collection, final BsonValue selection) {
+        if (collection == null || !EXPLAINABLE_COMMANDS.contains(commandName)) {
+            return null;
+        }
+        if (selection != null && selection.isArray()) {
+            return new BsonDocument("aggregate", new BsonString(collection))
+                    .append("pipeline", selection)
+                    .append("cursor", new BsonDocument());
+        }
+        return new BsonDocument("find", new BsonString(collection))
+                .append("filter", selection != null && selection.isDocument() ? selection : new BsonDocument());
+    }
+
+    /**
+     * Extracts the part of a command selecting the documents.
+     *
+     * @param commandName the command name
+     * @param command     the command
+     * @return the filter, pipeline or query as JSON, {@code null} if the command has none
+     */
+    static String extractFilter(final String commandName, final BsonDocument command) {
+        final BsonValue filter = selectionOf(commandName, command);
+        return filter != null ? toJson(filter) : null;
+    }
+
+    /**
+     * Returns the part of a command selecting the documents, without copying it.
+     *
+     * @param commandName the command name
+     * @param command     the command
+     * @return the filter, pipeline or query, {@code null} if the command has none
+     */
+    private static BsonValue selectionOf(final String commandName, final BsonDocument command) {
+        return switch (commandName) {
+            case "find" -> command.get("filter");
+            case "aggregate" -> command.get("pipeline");
+            case "count", "distinct", "findAndModify" -> command.get("query");
+            case "update" -> firstStatementField(command.get("updates"), "q");
+            case "delete" -> firstStatementField(command.get("deletes"), "q");
+            default -> null;
+        };
+    }
+
+    /**
+     * Formats the part of a command selecting the documents.
+     *
+     * @param selection the filter, query or pipeline
+     * @return the selection as JSON, a pipeline wrapped in a document
+     */
+    private static String toJson(final BsonValue selection) {
+        return selection.isDocument()
+                ? selection.asDocument().toJson()
+                : new BsonDocument("pipeline", selection).toJson();
+    }
+
+    /**
+     * Returns a field of the first statement of a bulk command.
+     *
+     * @param statements the statements
+     * @param field      the field
+     * @return the value, {@code null} if missing
+     */
+    private static BsonValue firstStatementField(final BsonValue statements, final String field) {
+        if (statements instanceof BsonArray array && !array.isEmpty() && array.get(0).isDocument()) {
+            return array.get(0).asDocument().get(field);
+        }
+        return null;
+    }
+
+    /**
+     * Reads the number of documents returned or modified from a command response.
+     *
+     * @param response the response
+     * @return the number of documents in the first batch of a cursor, or the {@code n} of counts and writes
+     */
+    static long countDocuments(final BsonDocument response) {
+        final BsonValue cursor = response.get("cursor");
+        if (cursor != null && cursor.isDocument()) {
+            final BsonValue batch = Optional.ofNullable(cursor.asDocument().get("firstBatch"))
+                    .orElse(cursor.asDocument().get("nextBatch"));
+            return batch != null && batch.isArray() ? batch.asArray().size() : 0;
+        }
+        final BsonValue n = response.get("n");
+        if (n != null && n.isNumber()) {
+            return n.asNumber().longValue();
+        }
+        final BsonValue values = response.get("values");
+        if (values != null && values.isArray()) {
+            return values.asArray().size();
+        }
+        final BsonValue value = response.get("value");
+        return value != null && !value.isNull() ? 1 : 0;
+    }
+
+    /**
+     * Returns the repository method, or the application method, issuing the current command.
+     *
+     * @return the method as {@code SimpleClassName.method}, {@code unknown} if not called from the application
+     */
+    private static String getCaller() {
+        try {
+            final RepositoryMethodContext context = RepositoryMethodContextHolder.getContext();
+            return context.getMetadata().getRepositoryInterface().getSimpleName() + "." + context.getMethod().getName();
+        } catch (IllegalStateException e) {
+            // Not issued by a repository method, e.g. by the MongoTemplate of a migration
+        }
+        return StackWalker.getInstance().walk(frames -> frames
+                .filter(frame -> frame.getClassName().startsWith(APPLICATION_PACKAGE)
+                        && !frame.getClassName().startsWith(SlowQueryListener.class.getPackageName()))
+                .findFirst()
+                .map(frame -> frame.getClassName().substring(frame.getClassName().lastIndexOf('.') + 1)
+                        + "." + frame.getMethodName())
+                .orElse("unknown"));
+    }
+}
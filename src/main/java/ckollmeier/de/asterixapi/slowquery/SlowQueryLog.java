@@ -0,0 +1,289 @@
+package ckollmeier.de.asterixapi.slowquery;
+
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * Log of the slow database commands detected by the {@link SlowQueryListener}.
+ * <p>
+ * Slow commands are logged with filter, repository method, document count and the winning plan, which is
+ * captured by running the command again with {@code explain} (verbosity {@code queryPlanner}, so it is not
+ * executed). Explaining and logging happen on a virtual thread, never on the request thread, and at most
+ * {@code asterix.slow-query.max-logs-per-minute} times per minute; the number of slow commands skipped is
+ * reported with the next log line. Independent of the rate limit, the slowest commands are kept for the
+ * {@link SlowQueryEndpoint}.
+ * </p>
+ */
+@Slf4j
+@Service
+public class SlowQueryLog {
+
+    /**
+     * Length of the rate limit window.
+     */
+    private static final Duration WINDOW = Duration.ofMinutes(1);
+
+    /**
+     * Maximum length of a logged filter.
+     */
+    private static final int MAX_FILTER_LENGTH = 500;
+
+    /**
+     * The slow query configuration.
+     */
+    private final SlowQueryProperties properties;
+
+    /**
+     * Provides the database to run {@code explain} on, absent without MongoDB.
+     */
+    private final ObjectProvider<MongoDatabaseFactory> databaseFactory;
+
+    /**
+     * Runs the explains and writes the log.
+     */
+    private final Executor executor;
+
+    /**
+     * Clock of the rate limit window.
+     */
+    private final Clock clock;
+
+    /**
+     * The slowest commands, the fastest of them at the head. Guarded by itself.
+     */
+    private final PriorityQueue<SlowQuery> slowest = new PriorityQueue<>(Comparator.comparingDouble(SlowQuery::durationMillis));
+
+    /**
+     * Start of the current rate limit window in milliseconds. Guarded by {@code this}.
+     */
+    private long windowStart = Long.MIN_VALUE;
+
+    /**
+     * The slow commands logged in the current window. Guarded by {@code this}.
+     */
+    private int loggedInWindow;
+
+    /**
+     * The slow commands not logged since the last log line. Guarded by {@code this}.
+     */
+    private long skipped;
+
+    /**
+     * Creates the log, explaining and logging on virtual threads.
+     *
+     * @param properties      the slow query configuration
+     * @param databaseFactory provides the database to run {@code explain} on
+     */
+    @Autowired
+    public SlowQueryLog(final SlowQueryProperties properties, final ObjectProvider<MongoDatabaseFactory> databaseFactory) {
+        this(properties, databaseFactory, Executors.newVirtualThreadPerTaskExecutor(), Clock.systemUTC());
+    }
+
+    /**
+     * Creates the log.
+     *
+     * @param properties      the slow query configuration
+     * @param databaseFactory provides the database to run {@code explain} on
+     * @param executor        runs the explains and writes the log
+     * @param clock           clock of the rate limit window
+     */
+    SlowQueryLog(final SlowQueryProperties properties, final ObjectProvider<MongoDatabaseFactory> databaseFactory,
+                 final Executor executor, final Clock clock) {
+        this.properties = properties;
+        this.databaseFactory = databaseFactory;
+        this.executor = executor;
+        this.clock = clock;
+    }
+
+    /**
+     * Records a slow command, logging and explaining it unless the rate limit is exhausted.
+     *
+     * @param slowQuery the slow command
+     * @param database  the database the command ran on
+     * @param command   the command to explain, {@code null} if it cannot be explained
+     */
+    public void report(final SlowQuery slowQuery, final String database, final BsonDocument command) {
+        final long skippedBefore = acquireLogPermit();
+        if (skippedBefore < 0) {
+            keep(slowQuery);
+            return;
+        }
+        executor.execute(() -> {
+            final Document winningPlan = properties.explain() && command != null ? explain(database, command) : null;
+            final SlowQuery explained = slowQuery.withPlan(winningPlan != null ? summarizePlan(winningPlan) : null);
+            keep(explained);
+            log.warn("Slow query: {} on {} took {} ms, called from {}, {} documents, filter {}, plan {}{}",
+                    explained.command(), explained.collection(), String.format(Locale.ROOT, "%.1f", explained.durationMillis()),
+                    explained.repositoryMethod(), explained.documents(), truncate(explained.filter()),
+                    winningPlan != null ? winningPlan.toJson() : "not captured",
+                    skippedBefore > 0 ? String.format(" (%d slow queries not logged before)", skippedBefore) : "");
+        });
+    }
+
+    /**
+     * Returns the slowest commands recorded since the start.
+     *
+     * @return at most {@code asterix.slow-query.top-size} commands, the slowest first
+     */
+    public List<SlowQuery> getSlowest() {
+        final List<SlowQuery> result;
+        synchronized (slowest) {
+            result = new ArrayList<>(slowest);
+        }
+        result.sort(Comparator.comparingDouble(SlowQuery::durationMillis).reversed());
+        return result;
+    }
+
+    /**
+     * Forgets the recorded commands.
+     */
+    public void clear() {
+        synchronized (slowest) {
+            slowest.clear();
+        }
+    }
+
+    /**
+     * Adds a command to the slowest commands, dropping the fastest if there are too many.
+     *
+     * @param slowQuery the command
+     */
+    private void keep(final SlowQuery slowQuery) {
+        synchronized (slowest) {
+            slowest.add(slowQuery);
+            while (slowest.size() > properties.topSize()) {
+                slowest.poll();
+            }
+        }
+    }
+
+    /**
+     * Takes one of the log lines of the current window.
+     *
+     * @return the number of slow commands skipped since the last log line, or {@code -1} if the limit is exhausted
+     */
+    private synchronized long acquireLogPermit() {
+        final long now = clock.millis();
+        if (now >= windowStart + WINDOW.toMillis()) {
+            windowStart = now;
+            loggedInWindow = 0;
+        }
+        if (loggedInWindow >= properties.maxLogsPerMinute()) {
+            skipped++;
+            return -1;
+        }
+        loggedInWindow++;
+        final long skippedBefore = skipped;
+        skipped = 0;
+        return skippedBefore;
+    }
+
+    /**
+     * Captures the winning plan of a command.
+     *
+     * @param database the database the command ran on
+     * @param command  the command
+     * @return the winning plan, {@code null} if it could not be captured
+     */
+    private Document explain(final String database, final BsonDocument command) {
+        final MongoDatabaseFactory factory = databaseFactory.getIfAvailable();
+        if (factory == null) {
+            return null;
+        }
+        try {
+            final Document explanation = factory.getMongoDatabase(database).runCommand(
+                    new BsonDocument("explain", command).append("verbosity", new BsonString("queryPlanner")));
+            return findWinningPlan(explanation);
+        } catch (RuntimeException e) {
+            log.debug("Could not explain slow {} command", command.getFirstKey(), e);
+            return null;
+        }
+    }
+
+    /**
+     * Finds the winning plan in an explain result. Aggregations nest it in the stage that reads the collection.
+     *
+     * @param explanation the explain result, or a part of it
+     * @return the winning plan, {@code null} if not contained
+     */
+    static Document findWinningPlan(final Object explanation) {
+        if (explanation instanceof Document document) {
+            if (document.get("queryPlanner") instanceof Document queryPlanner
+                    && queryPlanner.get("winningPlan") instanceof Document winningPlan) {
+                return winningPlan;
+            }
+            for (Object value : document.values()) {
+                final Document winningPlan = findWinningPlan(value);
+                if (winningPlan != null) {
+                    return winningPlan;
+                }
+            }
+        } else if (explanation instanceof List<?> list) {
+            for (Object value : list) {
+                final Document winningPlan = findWinningPlan(value);
+                if (winningPlan != null) {
+                    return winningPlan;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Summarizes a plan as its stages from the root to the leaf, naming the indexes used.
+     *
+     * @param plan the winning plan
+     * @return the stages, e.g. {@code FETCH > IXSCAN village._id_1}; parallel inputs are separated by {@code |}
+     */
+    static String summarizePlan(final Document plan) {
+        // Since MongoDB 7 the plan of the slot based engine is wrapped in queryPlan
+        if (plan.get("queryPlan") instanceof Document queryPlan) {
+            return summarizePlan(queryPlan);
+        }
+        final StringBuilder summary = new StringBuilder(plan.get("stage", "?"));
+        if (plan.get("indexName") instanceof String indexName) {
+            summary.append(' ').append(indexName);
+        }
+        if (plan.get("inputStage") instanceof Document inputStage) {
+            summary.append(" > ").append(summarizePlan(inputStage));
+        } else if (plan.get("inputStages") instanceof List<?> inputStages && !inputStages.isEmpty()) {
+            summary.append(" > (");
+            for (int i = 0; i < inputStages.size(); i++) {
+                if (i > 0) {
+                    summary.append(" | ");
+                }
+                summary.append(inputStages.get(i) instanceof Document inputStage ? summarizePlan(inputStage) : "?");
+            }
+            summary.append(')');
+        }
+        return summary.toString();
+    }
+
+    /**
+     * Shortens a filter for the log.
+     *
+     * @param filter the filter
+     * @return the filter, cut off after {@value #MAX_FILTER_LENGTH} characters
+     */
+    private static String truncate(final String filter) {
+        return filter != null && filter.length() > MAX_FILTER_LENGTH
+                ? filter.substring(0, MAX_FILTER_LENGTH) + "..."
+                : filter;
+    }
+}
@@ -0,0 +1,35 @@
+package ckollmeier.de.asterixapi.slowquery;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the slow query log, bound from {@code asterix.slow-query.*}.
+ *
+ * @param enabled          whether database commands are monitored at all
+ * @param threshold        commands taking at least this long are slow
+ * @param explain          whether the plan of slow queries is captured with {@code explain}
+ * @param captureWindow    how long commands of the same kind and collection as a slow command are copied completely
+ *                         when they start, so they are explained with all their options if they are slow as well
+ * @param maxLogsPerMinute the maximum number of slow queries logged and explained per minute,
+ *                         further slow queries are only kept in the top list
+ * @param topSize          the number of slowest queries kept for the {@code slowqueries} actuator endpoint
+ */
+@ConfigurationProperties("asterix.slow-query")
+public record SlowQueryProperties(
+        @DefaultValue("true")
+        boolean enabled,
+        @DefaultValue("100ms")
+        Duration threshold,
+        @DefaultValue("true")
+        boolean explain,
+        @DefaultValue("10m")
+        Duration captureWindow,
+        @DefaultValue("10")
+        int maxLogsPerMinute,
+        @DefaultValue("20")
+        int topSize
+) {
+}
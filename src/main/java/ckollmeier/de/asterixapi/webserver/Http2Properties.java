@@ -0,0 +1,33 @@
+package ckollmeier.de.asterixapi.webserver;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the HTTP/2 protocol of the embedded Tomcat, bound from {@code asterix.http2.*}.
+ * <p>
+ * Only applies while HTTP/2 is enabled with {@code server.http2.enabled}: over TLS it is negotiated with ALPN,
+ * on a plaintext connector clients use h2c, either by prior knowledge or by upgrading an HTTP/1.1 request.
+ * </p>
+ *
+ * @param maxConcurrentStreams         the maximum number of streams a client may open at once on one connection
+ * @param maxConcurrentStreamExecution the maximum number of streams of one connection processed at once,
+ *                                     further streams wait for a request thread
+ * @param initialWindowSize            the flow control window of each stream in bytes, i.e. how much a
+ *                                     response may send before the client has to acknowledge it
+ * @param keepAliveTimeout             how long an idle connection is kept open
+ */
+@ConfigurationProperties("asterix.http2")
+public record Http2Properties(
+        @DefaultValue("128")
+        long maxConcurrentStreams,
+        @DefaultValue("32")
+        int maxConcurrentStreamExecution,
+        @DefaultValue("1048576")
+        int initialWindowSize,
+        @DefaultValue("20s")
+        Duration keepAliveTimeout
+) {
+}
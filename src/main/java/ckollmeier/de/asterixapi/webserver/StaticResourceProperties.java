@@ -0,0 +1,22 @@
+package ckollmeier.de.asterixapi.webserver;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the static resources of the single page application, bound from
+ * {@code asterix.static-resources.*}.
+ *
+ * @param location    the location of the built application, ending with a slash
+ * @param assetMaxAge how long browsers cache the fingerprinted files under {@code assets/} without asking again
+ */
+@ConfigurationProperties("asterix.static-resources")
+public record StaticResourceProperties(
+        @DefaultValue("classpath:/static/")
+        String location,
+        @DefaultValue("365d")
+        Duration assetMaxAge
+) {
+}
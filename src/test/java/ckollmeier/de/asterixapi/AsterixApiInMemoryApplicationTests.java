@@ -0,0 +1,52 @@
+package ckollmeier.de.asterixapi;
+
+import ckollmeier.de.asterixapi.dto.CharacterInputDTO;
+import ckollmeier.de.asterixapi.dto.VillageInputDTO;
+import ckollmeier.de.asterixapi.dto.VillageOutputDTO;
+import ckollmeier.de.asterixapi.model.Character;
+import ckollmeier.de.asterixapi.repository.CharacterRepository;
+import ckollmeier.de.asterixapi.repository.VillageRepository;
+import ckollmeier.de.asterixapi.repository.memory.InMemoryCharacterRepository;
+import ckollmeier.de.asterixapi.repository.memory.InMemoryRepository;
+import ckollmeier.de.asterixapi.service.CharacterService;
+import ckollmeier.de.asterixapi.service.VillageService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles(InMemoryRepository.PROFILE)
+class AsterixApiInMemoryApplicationTests {
+
+    @Autowired
+    private CharacterRepository characterRepository;
+
+    @Autowired
+    private VillageRepository villageRepository;
+
+    @Autowired
+    private CharacterService characterService;
+
+    @Autowired
+    private VillageService villageService;
+
+    @Test
+    void servicesRunOnInMemoryRepositories() {
+        // Given
+        VillageOutputDTO village = villageService.addVillage(new VillageInputDTO("Indomitable Village", List.of()));
+
+        // When
+        Character asterix = characterService.addCharacter(new CharacterInputDTO("Asterix", 35, "Warrior", village.id()));
+        characterService.updateCharacter(asterix.id(), new CharacterInputDTO(null, 36, null, null));
+
+        // Then
+        assertThat(characterRepository).isInstanceOf(InMemoryCharacterRepository.class);
+        assertThat(characterService.getCharactersOlderThanOrEqual(36)).extracting(Character::name).containsExactly("Asterix");
+        assertThat(villageRepository.findById(village.id())).get().satisfies(stored -> assertThat(stored.inhabitantCount()).isEqualTo(1));
+    }
+}
@@ -0,0 +1,183 @@
+package ckollmeier.de.asterixapi.admission;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link AdaptiveConcurrencyLimiter} using the Given-When-Then pattern.
+ */
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final String ENDPOINT = "villages";
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    private AdaptiveConcurrencyLimiter limiter(final int initialLimit, final int minLimit, final int maxLimit,
+                                               final int queueSize, final Duration maxQueueWait) {
+        return new AdaptiveConcurrencyLimiter(ENDPOINT, new AdmissionControlProperties.Limits(
+                initialLimit, minLimit, maxLimit, queueSize, maxQueueWait, Duration.ofSeconds(10), 0.5), meterRegistry);
+    }
+
+    private double requests(final String outcome) {
+        return meterRegistry.get(AdaptiveConcurrencyLimiter.REQUESTS_METRIC)
+                .tag("endpoint", ENDPOINT).tag("outcome", outcome).counter().count();
+    }
+
+    @Nested
+    @DisplayName("tryAcquire Tests")
+    class TryAcquireTests {
+
+        @Test
+        @DisplayName("should admit requests up to the limit and reject the rest when the queue is full")
+        void tryAcquire_shouldRejectOverLimit_whenQueueIsFull() throws Exception {
+            // Given
+            AdaptiveConcurrencyLimiter limiter = limiter(2, 1, 4, 0, Duration.ofSeconds(1));
+
+            // When
+            Optional<AdaptiveConcurrencyLimiter.Permit> first = limiter.tryAcquire();
+            Optional<AdaptiveConcurrencyLimiter.Permit> second = limiter.tryAcquire();
+            Optional<AdaptiveConcurrencyLimiter.Permit> third = limiter.tryAcquire();
+
+            // Then
+            assertThat(first).isPresent();
+            assertThat(second).isPresent();
+            assertThat(third).isEmpty();
+            assertThat(limiter.getInFlight()).isEqualTo(2);
+            assertThat(requests("accepted")).isEqualTo(2);
+            assertThat(requests("rejected")).isEqualTo(1);
+            assertThat(meterRegistry.get(AdaptiveConcurrencyLimiter.IN_FLIGHT_METRIC).gauge().value()).isEqualTo(2);
+            assertThat(meterRegistry.get(AdaptiveConcurrencyLimiter.LIMIT_METRIC).gauge().value()).isEqualTo(2);
+        }
+
+        @Test
+        @DisplayName("should let a queued request in once a permit is released")
+        void tryAcquire_shouldAdmitQueuedRequest_whenPermitReleased() throws Exception {
+            // Given
+            AdaptiveConcurrencyLimiter limiter = limiter(1, 1, 1, 1, Duration.ofSeconds(5));
+            AdaptiveConcurrencyLimiter.Permit permit = limiter.tryAcquire().orElseThrow();
+
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                Future<Optional<AdaptiveConcurrencyLimiter.Permit>> queued = executor.submit(limiter::tryAcquire);
+                long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+                while (limiter.getQueued() == 0 && System.nanoTime() < deadline) {
+                    Thread.sleep(1);
+                }
+                assertThat(limiter.getQueued()).isEqualTo(1);
+
+                // When
+                permit.release(false);
+
+                // Then
+                assertThat(queued.get(5, TimeUnit.SECONDS)).isPresent();
+            }
+            assertThat(limiter.getQueued()).isZero();
+            assertThat(limiter.getInFlight()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("should reject a queued request after the maximum queue wait")
+        void tryAcquire_shouldRejectQueuedRequest_afterMaxQueueWait() throws Exception {
+            // Given
+            AdaptiveConcurrencyLimiter limiter = limiter(1, 1, 1, 1, Duration.ofMillis(20));
+            limiter.tryAcquire();
+
+            // When
+            Optional<AdaptiveConcurrencyLimiter.Permit> permit = limiter.tryAcquire();
+
+            // Then
+            assertThat(permit).isEmpty();
+            assertThat(limiter.getQueued()).isZero();
+            assertThat(requests("rejected")).isEqualTo(1);
+        }
+    }
+
+    @Nested
+    @DisplayName("limit adaptation Tests")
+    class LimitAdaptationTests {
+
+        @Test
+        @DisplayName("should decrease the limit multiplicatively on overload, but not below the minimum")
+        void release_shouldDecreaseLimit_whenOverloaded() throws Exception {
+            // Given
+            AdaptiveConcurrencyLimiter limiter = limiter(8, 3, 16, 0, Duration.ZERO);
+
+            // When
+            limiter.tryAcquire().orElseThrow().release(true);
+            int afterFirstOverload = limiter.getLimit();
+            limiter.tryAcquire().orElseThrow().release(true);
+
+            // Then
+            assertThat(afterFirstOverload).isEqualTo(4);
+            assertThat(limiter.getLimit()).isEqualTo(3);
+        }
+
+        @Test
+        @DisplayName("should increase the limit additively while it is used, but not above the maximum")
+        void release_shouldIncreaseLimit_whenBusyAndHealthy() throws Exception {
+            // Given
+            AdaptiveConcurrencyLimiter limiter = limiter(2, 1, 3, 0, Duration.ZERO);
+
+            // When
+            for (int round = 0; round < 20; round++) {
+                List<AdaptiveConcurrencyLimiter.Permit> permits = new ArrayList<>();
+                for (int i = 0; i < limiter.getLimit(); i++) {
+                    permits.add(limiter.tryAcquire().orElseThrow());
+                }
+                permits.forEach(permit -> permit.release(false));
+            }
+
+            // Then
+            assertThat(limiter.getLimit()).isEqualTo(3);
+        }
+
+        @Test
+        @DisplayName("should not increase the limit while it is barely used")
+        void release_shouldKeepLimit_whenIdle() throws Exception {
+            // Given
+            AdaptiveConcurrencyLimiter limiter = limiter(8, 1, 16, 0, Duration.ZERO);
+
+            // When
+            for (int i = 0; i < 100; i++) {
+                limiter.tryAcquire().orElseThrow().release(false);
+            }
+
+            // Then
+            assertThat(limiter.getLimit()).isEqualTo(8);
+        }
+
+        @Test
+        @DisplayName("should ignore releasing a permit twice")
+        void release_shouldBeIdempotent() throws Exception {
+            // Given
+            AdaptiveConcurrencyLimiter limiter = limiter(2, 1, 2, 0, Duration.ZERO);
+            AdaptiveConcurrencyLimiter.Permit permit = limiter.tryAcquire().orElseThrow();
+            limiter.tryAcquire().orElseThrow();
+
+            // When
+            permit.release(false);
+            permit.release(false);
+
+            // Then
+            assertThat(limiter.getInFlight()).isEqualTo(1);
+        }
+    }
+}
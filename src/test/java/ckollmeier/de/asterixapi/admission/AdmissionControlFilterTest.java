@@ -0,0 +1,116 @@
+package ckollmeier.de.asterixapi.admission;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for {@link AdmissionControlFilter} using the Given-When-Then pattern.
+ */
+class AdmissionControlFilterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private AdmissionControlFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        AdmissionControlProperties.Limits villageLimits = new AdmissionControlProperties.Limits(
+                1, 1, 1, 0, Duration.ZERO, Duration.ofSeconds(10), 0.5);
+        filter = new AdmissionControlFilter(
+                new AdmissionControlProperties(true, Duration.ofMillis(1500), Map.of("villages", villageLimits)),
+                meterRegistry);
+    }
+
+    private MockHttpServletResponse perform(final String method, final String uri, final FilterChain chain) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest(method, uri), response, chain);
+        return response;
+    }
+
+    @Test
+    @DisplayName("should shed writes over the limit with 503 and Retry-After")
+    void doFilter_shouldRejectWritesOverLimit() throws Exception {
+        // Given
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        FilterChain blockingChain = (request, response) -> {
+            entered.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<MockHttpServletResponse> admitted = executor.submit(() -> perform("PUT", "/api/asterix/villages/update/v1", blockingChain));
+            assertThat(entered.await(5, TimeUnit.SECONDS)).isTrue();
+
+            // When
+            MockHttpServletResponse rejected = perform("PUT", "/api/asterix/villages/update/v2", new MockFilterChain());
+            release.countDown();
+
+            // Then
+            assertThat(rejected.getStatus()).isEqualTo(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            assertThat(rejected.getHeader("Retry-After")).isEqualTo("2");
+            assertThat(admitted.get(5, TimeUnit.SECONDS).getStatus()).isEqualTo(HttpServletResponse.SC_OK);
+        }
+        assertThat(meterRegistry.get(AdaptiveConcurrencyLimiter.REQUESTS_METRIC)
+                .tag("endpoint", "villages").tag("outcome", "rejected").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("should never limit reads or endpoint classes without limits")
+    void doFilter_shouldNotLimitReadsOrUnconfiguredEndpoints() throws Exception {
+        // Given
+        AtomicInteger passed = new AtomicInteger();
+        FilterChain countingChain = (request, response) -> passed.incrementAndGet();
+
+        // When
+        perform("GET", "/api/asterix/villages", countingChain);
+        perform("POST", "/api/asterix/villages/batch-get", countingChain);
+        perform("POST", "/api/asterix/characters/add", countingChain);
+        perform("DELETE", "/api/asterix/villages/remove", countingChain);
+
+        // Then
+        assertThat(passed.get()).isEqualTo(4);
+        assertThat(meterRegistry.get(AdaptiveConcurrencyLimiter.REQUESTS_METRIC)
+                .tag("endpoint", "villages").tag("outcome", "accepted").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("should release the permit when the request fails")
+    void doFilter_shouldReleasePermit_whenChainThrows() throws Exception {
+        // Given
+        FilterChain failingChain = (request, response) -> {
+            throw new IllegalStateException("database unavailable");
+        };
+
+        // When
+        assertThatThrownBy(() -> perform("PUT", "/api/asterix/villages/update/v1", failingChain))
+                .hasMessage("database unavailable");
+        MockHttpServletResponse next = perform("PUT", "/api/asterix/villages/update/v1", new MockFilterChain());
+
+        // Then
+        assertThat(next.getStatus()).isEqualTo(HttpServletResponse.SC_OK);
+    }
+}
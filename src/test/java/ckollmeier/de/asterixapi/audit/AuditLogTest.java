@@ -0,0 +1,209 @@
+package ckollmeier.de.asterixapi.audit;
+
+import ckollmeier.de.asterixapi.event.ChangeEvent;
+import ckollmeier.de.asterixapi.event.ChangeType;
+import ckollmeier.de.asterixapi.model.AuditEntry;
+import ckollmeier.de.asterixapi.repository.AuditRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link AuditLog} using the Given-When-Then pattern.
+ */
+@ExtendWith(MockitoExtension.class)
+class AuditLogTest {
+
+    @Mock
+    private AuditRepository auditRepository;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private AuditLog auditLog;
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+        if (auditLog != null) {
+            auditLog.stop();
+        }
+    }
+
+    private AuditLog newAuditLog(final int capacity, final int batchSize, final OverflowPolicy overflowPolicy) {
+        return new AuditLog(new AuditProperties(true, capacity, batchSize, Duration.ofMinutes(1), overflowPolicy),
+                auditRepository, meterRegistry);
+    }
+
+    private double count(final String outcome) {
+        return meterRegistry.get(AuditLog.EVENTS_METRIC).tag("outcome", outcome).counter().count();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<List<AuditEntry>> capturedBatches(final int batches) {
+        ArgumentCaptor<List<AuditEntry>> captor = ArgumentCaptor.forClass(List.class);
+        verify(auditRepository, times(batches)).insert(captor.capture());
+        return captor.getAllValues();
+    }
+
+    @Test
+    @DisplayName("should buffer changes without writing and insert them in batches on flush")
+    void shouldWriteBehindInBatches() {
+        // Given
+        auditLog = newAuditLog(16, 2, OverflowPolicy.DROP_NEWEST);
+        auditLog.onChange(ChangeEvent.characterRemoved("c1"));
+        auditLog.onChange(ChangeEvent.characterRemoved("c2"));
+        auditLog.onChange(ChangeEvent.villageRemoved("v1"));
+        verify(auditRepository, never()).insert(anyList());
+
+        // When
+        auditLog.flush();
+
+        // Then
+        List<List<AuditEntry>> batches = capturedBatches(2);
+        assertThat(batches.get(0)).extracting(AuditEntry::entityId).containsExactly("c1", "c2");
+        assertThat(batches.get(1)).extracting(AuditEntry::type).containsExactly(ChangeType.VILLAGE_REMOVED);
+        assertThat(batches.get(0)).extracting(AuditEntry::actor).containsOnly(AuditLog.SYSTEM_ACTOR);
+        assertThat(count("written")).isEqualTo(3);
+        assertThat(meterRegistry.get(AuditLog.LAG_METRIC).timer().count()).isEqualTo(3);
+        assertThat(auditLog.getQueueSize()).isZero();
+    }
+
+    @Test
+    @DisplayName("should record the remote user or the remote address of the request as actor")
+    void shouldRecordActorOfRequest() {
+        // Given
+        auditLog = newAuditLog(16, 16, OverflowPolicy.DROP_NEWEST);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr("10.0.0.7");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+        // When
+        auditLog.onChange(ChangeEvent.characterRemoved("c1"));
+        request.setRemoteUser("getafix");
+        auditLog.onChange(ChangeEvent.characterRemoved("c2"));
+        auditLog.flush();
+
+        // Then
+        assertThat(capturedBatches(1).getFirst()).extracting(AuditEntry::actor).containsExactly("10.0.0.7", "getafix");
+    }
+
+    @Test
+    @DisplayName("should drop new changes while full with DROP_NEWEST")
+    void shouldDropNewestWhileFull() {
+        // Given
+        auditLog = newAuditLog(2, 16, OverflowPolicy.DROP_NEWEST);
+
+        // When
+        auditLog.onChange(ChangeEvent.characterRemoved("c1"));
+        auditLog.onChange(ChangeEvent.characterRemoved("c2"));
+        auditLog.onChange(ChangeEvent.characterRemoved("c3"));
+        auditLog.flush();
+
+        // Then
+        assertThat(capturedBatches(1).getFirst()).extracting(AuditEntry::entityId).containsExactly("c1", "c2");
+        assertThat(count("dropped")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("should drop the oldest changes while full with DROP_OLDEST")
+    void shouldDropOldestWhileFull() {
+        // Given
+        auditLog = newAuditLog(2, 16, OverflowPolicy.DROP_OLDEST);
+
+        // When
+        auditLog.onChange(ChangeEvent.characterRemoved("c1"));
+        auditLog.onChange(ChangeEvent.characterRemoved("c2"));
+        auditLog.onChange(ChangeEvent.characterRemoved("c3"));
+        auditLog.flush();
+
+        // Then
+        assertThat(capturedBatches(1).getFirst()).extracting(AuditEntry::entityId).containsExactly("c2", "c3");
+        assertThat(count("dropped")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("should count the entries of a failed insert and go on with the next batch")
+    void shouldCountFailedInserts() {
+        // Given
+        auditLog = newAuditLog(16, 1, OverflowPolicy.DROP_NEWEST);
+        when(auditRepository.insert(anyList()))
+                .thenThrow(new DataAccessResourceFailureException("down"))
+                .thenReturn(List.of());
+        auditLog.onChange(ChangeEvent.characterRemoved("c1"));
+        auditLog.onChange(ChangeEvent.characterRemoved("c2"));
+
+        // When
+        auditLog.flush();
+
+        // Then
+        capturedBatches(2);
+        assertThat(count("failed")).isEqualTo(1);
+        assertThat(count("written")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("should let the background writer insert a full batch without waiting for the flush interval")
+    void shouldWriteFullBatchInBackground() {
+        // Given
+        auditLog = newAuditLog(16, 2, OverflowPolicy.DROP_NEWEST);
+        auditLog.start();
+
+        // When
+        auditLog.onChange(ChangeEvent.characterRemoved("c1"));
+        auditLog.onChange(ChangeEvent.characterRemoved("c2"));
+
+        // Then
+        verify(auditRepository, timeout(5000)).insert(anyList());
+    }
+
+    @Test
+    @DisplayName("should write the buffered changes when stopped")
+    void shouldFlushOnStop() {
+        // Given
+        auditLog = newAuditLog(16, 16, OverflowPolicy.DROP_NEWEST);
+        auditLog.start();
+        auditLog.onChange(ChangeEvent.characterRemoved("c1"));
+
+        // When
+        auditLog.stop();
+
+        // Then
+        assertThat(capturedBatches(1).getFirst()).extracting(AuditEntry::entityId).containsExactly("c1");
+    }
+
+    @Test
+    @DisplayName("should ignore changes when disabled")
+    void shouldIgnoreChangesWhenDisabled() {
+        // Given
+        auditLog = new AuditLog(new AuditProperties(false, 16, 16, Duration.ofMinutes(1), OverflowPolicy.DROP_NEWEST),
+                auditRepository, meterRegistry);
+
+        // When
+        auditLog.onChange(ChangeEvent.characterRemoved("c1"));
+        auditLog.flush();
+
+        // Then
+        assertThat(auditLog.getQueueSize()).isZero();
+        verify(auditRepository, never()).insert(anyList());
+    }
+}
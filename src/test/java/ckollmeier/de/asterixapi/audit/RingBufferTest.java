@@ -0,0 +1,120 @@
+package ckollmeier.de.asterixapi.audit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Unit tests for {@link RingBuffer} using the Given-When-Then pattern.
+ */
+class RingBufferTest {
+
+    @Test
+    @DisplayName("should round the capacity up to a power of two")
+    void shouldRoundCapacityUpToPowerOfTwo() {
+        // When / Then
+        assertThat(new RingBuffer<String>(1).capacity()).isEqualTo(1);
+        assertThat(new RingBuffer<String>(8).capacity()).isEqualTo(8);
+        assertThat(new RingBuffer<String>(100).capacity()).isEqualTo(128);
+        assertThrows(IllegalArgumentException.class, () -> new RingBuffer<String>(0));
+    }
+
+    @Test
+    @DisplayName("should return the elements in insertion order and reject elements while full")
+    void shouldBeFifoAndBounded() {
+        // Given
+        RingBuffer<String> buffer = new RingBuffer<>(4);
+
+        // When
+        for (int i = 0; i < 4; i++) {
+            assertThat(buffer.offer("e" + i)).isTrue();
+        }
+        boolean acceptedWhileFull = buffer.offer("e4");
+
+        // Then
+        assertThat(acceptedWhileFull).isFalse();
+        assertThat(buffer.size()).isEqualTo(4);
+        assertThat(buffer.poll()).isEqualTo("e0");
+        assertThat(buffer.offer("e4")).isTrue();
+        List<String> drained = new ArrayList<>();
+        assertThat(buffer.drainTo(drained, 10)).isEqualTo(4);
+        assertThat(drained).containsExactly("e1", "e2", "e3", "e4");
+        assertThat(buffer.poll()).isNull();
+        assertThat(buffer.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("should drain at most the given number of elements")
+    void shouldDrainAtMostMaxElements() {
+        // Given
+        RingBuffer<Integer> buffer = new RingBuffer<>(8);
+        for (int i = 0; i < 5; i++) {
+            buffer.offer(i);
+        }
+
+        // When
+        List<Integer> drained = new ArrayList<>();
+        int count = buffer.drainTo(drained, 3);
+
+        // Then
+        assertThat(count).isEqualTo(3);
+        assertThat(drained).containsExactly(0, 1, 2);
+        assertThat(buffer.size()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("should neither lose nor duplicate elements of concurrent producers and consumers")
+    void shouldHandleConcurrentProducersAndConsumers() throws InterruptedException {
+        // Given
+        RingBuffer<Integer> buffer = new RingBuffer<>(64);
+        int producers = 4;
+        int perProducer = 10_000;
+        Set<Integer> consumed = ConcurrentHashMap.newKeySet();
+        CountDownLatch produced = new CountDownLatch(producers);
+
+        // When
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            int offset = p * perProducer;
+            threads.add(Thread.ofPlatform().start(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    while (!buffer.offer(offset + i)) {
+                        Thread.onSpinWait();
+                    }
+                }
+                produced.countDown();
+            }));
+        }
+        for (int c = 0; c < 2; c++) {
+            threads.add(Thread.ofPlatform().start(() -> {
+                while (produced.getCount() > 0 || buffer.size() > 0) {
+                    Integer element = buffer.poll();
+                    if (element != null) {
+                        assertThat(consumed.add(element)).isTrue();
+                    } else {
+                        Thread.onSpinWait();
+                    }
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // Then
+        Set<Integer> expected = new HashSet<>();
+        for (int i = 0; i < producers * perProducer; i++) {
+            expected.add(i);
+        }
+        assertThat(consumed).isEqualTo(expected);
+    }
+}
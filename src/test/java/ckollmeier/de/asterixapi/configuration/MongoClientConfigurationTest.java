@@ -0,0 +1,79 @@
+package ckollmeier.de.asterixapi.configuration;
+
+import ckollmeier.de.asterixapi.mongoclient.ConnectionPoolMetricsListener;
+import ckollmeier.de.asterixapi.mongoclient.MongoClientProperties;
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.MongoCompressor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for {@link MongoClientConfiguration} using the Given-When-Then pattern.
+ */
+class MongoClientConfigurationTest {
+
+    private final ConnectionPoolMetricsListener listener = new ConnectionPoolMetricsListener(new SimpleMeterRegistry());
+
+    private static MongoClientProperties properties(final List<String> compressors) {
+        return new MongoClientProperties(
+                new MongoClientProperties.Pool(20, 5, 3, Duration.ofMillis(1500), Duration.ofMinutes(5), Duration.ofHours(1)),
+                Duration.ofSeconds(3), Duration.ofSeconds(20), Duration.ofSeconds(10), compressors);
+    }
+
+    @Test
+    @DisplayName("should apply pool, timeouts and compressors and register the pool listener")
+    void mongoClientCustomizer_shouldApplyProperties() {
+        // Given
+        MongoClientSettings.Builder builder = MongoClientSettings.builder()
+                .applyConnectionString(new ConnectionString("mongodb://localhost/test?maxPoolSize=7"));
+
+        // When
+        new MongoClientConfiguration().mongoClientCustomizer(properties(List.of("zstd", "ZLIB")), listener).customize(builder);
+        MongoClientSettings settings = builder.build();
+
+        // Then
+        assertThat(settings.getConnectionPoolSettings().getMaxSize()).isEqualTo(20);
+        assertThat(settings.getConnectionPoolSettings().getMinSize()).isEqualTo(5);
+        assertThat(settings.getConnectionPoolSettings().getMaxConnecting()).isEqualTo(3);
+        assertThat(settings.getConnectionPoolSettings().getMaxWaitTime(TimeUnit.MILLISECONDS)).isEqualTo(1500);
+        assertThat(settings.getConnectionPoolSettings().getMaxConnectionIdleTime(TimeUnit.MINUTES)).isEqualTo(5);
+        assertThat(settings.getConnectionPoolSettings().getMaxConnectionLifeTime(TimeUnit.HOURS)).isEqualTo(1);
+        assertThat(settings.getConnectionPoolSettings().getConnectionPoolListeners()).containsExactly(listener);
+        assertThat(settings.getSocketSettings().getConnectTimeout(TimeUnit.SECONDS)).isEqualTo(3);
+        assertThat(settings.getSocketSettings().getReadTimeout(TimeUnit.SECONDS)).isEqualTo(20);
+        assertThat(settings.getClusterSettings().getServerSelectionTimeout(TimeUnit.SECONDS)).isEqualTo(10);
+        assertThat(settings.getCompressorList()).extracting(MongoCompressor::getName).containsExactly("zstd", "zlib");
+    }
+
+    @Test
+    @DisplayName("should keep the compressors of the URI if none are configured")
+    void mongoClientCustomizer_shouldKeepUriCompressors() {
+        // Given
+        MongoClientSettings.Builder builder = MongoClientSettings.builder()
+                .applyConnectionString(new ConnectionString("mongodb://localhost/test?compressors=snappy"));
+
+        // When
+        new MongoClientConfiguration().mongoClientCustomizer(properties(List.of()), listener).customize(builder);
+
+        // Then
+        assertThat(builder.build().getCompressorList()).extracting(MongoCompressor::getName).containsExactly("snappy");
+    }
+
+    @Test
+    @DisplayName("should reject unknown compressors")
+    void mongoClientCustomizer_shouldRejectUnknownCompressors() {
+        // When / Then
+        assertThatThrownBy(() -> new MongoClientConfiguration().mongoClientCustomizer(properties(List.of("gzip")), listener))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("gzip");
+    }
+}
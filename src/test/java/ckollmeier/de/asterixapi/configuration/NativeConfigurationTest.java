@@ -0,0 +1,33 @@
+package ckollmeier.de.asterixapi.configuration;
+
+import ckollmeier.de.asterixapi.dto.VillagesPageDTO;
+import ckollmeier.de.asterixapi.event.ChangeEvent;
+import ckollmeier.de.asterixapi.model.Character;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link NativeConfiguration} using the Given-When-Then pattern.
+ */
+class NativeConfigurationTest {
+
+    @Test
+    @DisplayName("should register the JSON types for binding and the model methods for invocation")
+    void registerHints_shouldRegisterJsonAndModelTypes() throws Exception {
+        // Given
+        RuntimeHints hints = new RuntimeHints();
+
+        // When
+        new NativeConfiguration.AsterixRuntimeHints().registerHints(hints, getClass().getClassLoader());
+
+        // Then
+        assertThat(RuntimeHintsPredicates.reflection().onMethod(VillagesPageDTO.class.getMethod("villages"))).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onMethod(ChangeEvent.class.getMethod("data"))).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onMethod(Character.class.getMethod("withVersion", Long.class))).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onMethod(Character.class.getMethod("age"))).accepts(hints);
+    }
+}
@@ -0,0 +1,102 @@
+package ckollmeier.de.asterixapi.configuration;
+
+import ckollmeier.de.asterixapi.webserver.StaticResourceProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.support.AnnotationConfigWebApplicationContext;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Unit tests for {@link SpaWebMvcConfigurer} using the Given-When-Then pattern.
+ */
+class SpaWebMvcConfigurerTest {
+
+    @TempDir
+    private Path root;
+
+    private AnnotationConfigWebApplicationContext context;
+    private MockMvc mockMvc;
+
+    /**
+     * Enables Spring MVC for the configurer under test.
+     */
+    @Configuration
+    @EnableWebMvc
+    static class WebMvcConfiguration {
+    }
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Files.writeString(root.resolve("index.html"), "<script src=\"/assets/index-abc123.js\"></script>");
+        Files.createDirectories(root.resolve("assets"));
+        Files.writeString(root.resolve("assets/index-abc123.js"), "console.log('Asterix')");
+
+        StaticResourceProperties properties = new StaticResourceProperties(root.toUri().toString(), Duration.ofDays(365));
+        context = new AnnotationConfigWebApplicationContext();
+        context.setServletContext(new MockServletContext());
+        context.register(WebMvcConfiguration.class, SpaWebMvcConfigurer.class);
+        context.addBeanFactoryPostProcessor(beanFactory -> beanFactory.registerSingleton("staticResourceProperties", properties));
+        context.refresh();
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        context.close();
+    }
+
+    @Test
+    @DisplayName("should let browsers cache fingerprinted assets as immutable")
+    void assets_shouldBeCachedAsImmutable() throws Exception {
+        // When / Then
+        mockMvc.perform(get("/assets/index-abc123.js"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("console.log('Asterix')"))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=31536000, public, immutable"));
+    }
+
+    @Test
+    @DisplayName("should answer missing assets with 404 instead of the index")
+    void missingAsset_shouldNotFallBackToIndex() throws Exception {
+        // When / Then
+        mockMvc.perform(get("/assets/index-old456.js"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("should serve the index for routes of the application and have it revalidated")
+    void routes_shouldServeRevalidatedIndex() throws Exception {
+        // When
+        MvcResult result = mockMvc.perform(get("/characters"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("<script src=\"/assets/index-abc123.js\"></script>"))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+                .andReturn();
+        String lastModified = result.getResponse().getHeader(HttpHeaders.LAST_MODIFIED);
+
+        // Then
+        assertThat(lastModified).isNotNull();
+        mockMvc.perform(get("/index.html").header(HttpHeaders.IF_MODIFIED_SINCE, lastModified))
+                .andExpect(status().isNotModified());
+    }
+}
@@ -0,0 +1,55 @@
+package ckollmeier.de.asterixapi.configuration;
+
+import ckollmeier.de.asterixapi.webserver.Http2Properties;
+import org.apache.catalina.connector.Connector;
+import org.apache.coyote.http2.Http2Protocol;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link WebServerConfiguration} using the Given-When-Then pattern.
+ */
+class WebServerConfigurationTest {
+
+    private final Http2Properties properties = new Http2Properties(200, 40, 262144, Duration.ofSeconds(30));
+
+    private static Connector customize(final Http2Properties properties, final Connector connector) {
+        TomcatServletWebServerFactory factory = new TomcatServletWebServerFactory();
+        new WebServerConfiguration().http2Customizer(properties).customize(factory);
+        factory.getTomcatConnectorCustomizers().forEach(customizer -> customizer.customize(connector));
+        return connector;
+    }
+
+    @Test
+    @DisplayName("should apply the properties to the HTTP/2 protocol of the connector")
+    void http2Customizer_shouldTuneHttp2Protocol() {
+        // Given
+        Connector connector = new Connector();
+        Http2Protocol http2 = new Http2Protocol();
+        connector.addUpgradeProtocol(http2);
+
+        // When
+        customize(properties, connector);
+
+        // Then
+        assertThat(http2.getMaxConcurrentStreams()).isEqualTo(200);
+        assertThat(http2.getMaxConcurrentStreamExecution()).isEqualTo(40);
+        assertThat(http2.getInitialWindowSize()).isEqualTo(262144);
+        assertThat(http2.getKeepAliveTimeout()).isEqualTo(30_000);
+    }
+
+    @Test
+    @DisplayName("should leave connectors without HTTP/2 untouched")
+    void http2Customizer_shouldIgnoreConnectorsWithoutHttp2() {
+        // When
+        Connector connector = customize(properties, new Connector());
+
+        // Then
+        assertThat(connector.findUpgradeProtocols()).isEmpty();
+    }
+}
@@ -4,8 +4,8 @@ import ckollmeier.de.asterixapi.dto.CharacterIdDTO;
 import ckollmeier.de.asterixapi.dto.CharacterInputDTO;
 import ckollmeier.de.asterixapi.model.Character;
 import ckollmeier.de.asterixapi.model.Village;
-import ckollmeier.de.asterixapi.repository.CharacterRepository;
-import ckollmeier.de.asterixapi.repository.VillageRepository;
+import ckollmeier.de.asterixapi.model.VillageReference;
+import ckollmeier.de.asterixapi.service.EntityCache;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -29,9 +29,7 @@ class CharacterConverterTest {
 
     // Mocks for the dependencies
     @Mock
-    private VillageRepository villageRepository;
-    @Mock
-    private CharacterRepository characterRepository;
+    private EntityCache entityCache;
 
     // Inject mocks into the class under test
     @InjectMocks
@@ -50,7 +48,7 @@ class CharacterConverterTest {
 
         testCharacterId = UUID.randomUUID().toString();
         // Character model often used as expected result or mock return value
-        testCharacter = new Character(testCharacterId, "Asterix", 35, "Warrior", testVillage);
+        testCharacter = new Character(testCharacterId, "Asterix", 35, "Warrior", VillageReference.of(testVillage));
     }
 
     @Nested
@@ -62,19 +60,19 @@ class CharacterConverterTest {
         void convertInputDTO_shouldReturnCharacter_whenVillageExists() {
             // Given
             CharacterInputDTO inputDto = new CharacterInputDTO("Asterix", 35, "Warrior", testVillageId);
-            // Mock the village repository to find the village
-            when(villageRepository.findById(testVillageId)).thenReturn(Optional.of(testVillage));
+            // Mock the entity cache to find the village
+            when(entityCache.getVillage(testVillageId)).thenReturn(Optional.of(testVillage));
 
             // Expected character (ID is null, village is the found one)
-            Character expectedCharacter = new Character(null, "Asterix", 35, "Warrior", testVillage);
+            Character expectedCharacter = new Character(null, "Asterix", 35, "Warrior", VillageReference.of(testVillage));
 
             // When
             Character actualCharacter = characterConverter.convert(inputDto);
 
             // Then
-            // Verify villageRepository was called
-            verify(villageRepository, times(1)).findById(testVillageId);
-            verifyNoInteractions(characterRepository); // Character repo not used in this conversion
+            // Verify the village was looked up
+            verify(entityCache, times(1)).getVillage(testVillageId);
+            verify(entityCache, never()).getCharacter(any()); // Characters not used in this conversion
 
             // Assert the resulting character matches expectations
             assertThat(actualCharacter).isNotNull();
@@ -84,7 +82,7 @@ class CharacterConverterTest {
                     .ignoringFields("id") // ID is null by design in this conversion
                     .isEqualTo(expectedCharacter);
             assertThat(actualCharacter.id()).isNull(); // Explicitly check ID is null
-            assertThat(actualCharacter.village()).isEqualTo(testVillage); // Check village object
+            assertThat(actualCharacter.village()).isEqualTo(VillageReference.of(testVillage)); // Check inline village reference
         }
 
         @Test
@@ -93,8 +91,8 @@ class CharacterConverterTest {
             // Given
             String nonExistentVillageId = UUID.randomUUID().toString();
             CharacterInputDTO inputDto = new CharacterInputDTO("Obelix", 36, "Menhir Carver", nonExistentVillageId);
-            // Mock the village repository to return empty (village not found)
-            when(villageRepository.findById(nonExistentVillageId)).thenReturn(Optional.empty());
+            // Mock the entity cache to return empty (village not found)
+            when(entityCache.getVillage(nonExistentVillageId)).thenReturn(Optional.empty());
 
             // Expected character (ID is null, village is null)
             Character expectedCharacter = new Character(null, "Obelix", 36, "Menhir Carver", null);
@@ -103,9 +101,9 @@ class CharacterConverterTest {
             Character actualCharacter = characterConverter.convert(inputDto);
 
             // Then
-            // Verify villageRepository was called
-            verify(villageRepository, times(1)).findById(nonExistentVillageId);
-            verifyNoInteractions(characterRepository);
+            // Verify the village was looked up
+            verify(entityCache, times(1)).getVillage(nonExistentVillageId);
+            verify(entityCache, never()).getCharacter(any());
 
             // Assert the resulting character matches expectations
             assertThat(actualCharacter).isNotNull();
@@ -122,8 +120,8 @@ class CharacterConverterTest {
         void convertInputDTO_shouldReturnCharacterWithNullVillage_whenVillageIdIsNull() {
             // Given
             CharacterInputDTO inputDto = new CharacterInputDTO("Dogmatix", 5, "Dog", null); // Village ID is null
-            // Mock the village repository to return empty when called with null
-            when(villageRepository.findById(null)).thenReturn(Optional.empty());
+            // Mock the entity cache to return empty when called with null
+            when(entityCache.getVillage(null)).thenReturn(Optional.empty());
 
             // Expected character (ID is null, village is null)
             Character expectedCharacter = new Character(null, "Dogmatix", 5, "Dog", null);
@@ -132,9 +130,9 @@ class CharacterConverterTest {
             Character actualCharacter = characterConverter.convert(inputDto);
 
             // Then
-            // Verify villageRepository was called with null
-            verify(villageRepository, times(1)).findById(null);
-            verifyNoInteractions(characterRepository);
+            // Verify the village was looked up with null
+            verify(entityCache, times(1)).getVillage(null);
+            verify(entityCache, never()).getCharacter(any());
 
             // Assert the resulting character matches expectations
             assertThat(actualCharacter).isNotNull();
@@ -156,16 +154,16 @@ class CharacterConverterTest {
         void convertIdDTO_shouldReturnCharacter_whenCharacterExists() {
             // Given
             CharacterIdDTO idDto = new CharacterIdDTO(testCharacterId);
-            // Mock the character repository to find the character
-            when(characterRepository.findById(testCharacterId)).thenReturn(Optional.of(testCharacter));
+            // Mock the entity cache to find the character
+            when(entityCache.getCharacter(testCharacterId)).thenReturn(Optional.of(testCharacter));
 
             // When
             Character actualCharacter = characterConverter.convert(idDto);
 
             // Then
-            // Verify characterRepository was called
-            verify(characterRepository, times(1)).findById(testCharacterId);
-            verifyNoInteractions(villageRepository); // Village repo not used in this conversion
+            // Verify the character was looked up
+            verify(entityCache, times(1)).getCharacter(testCharacterId);
+            verify(entityCache, never()).getVillage(any()); // Villages not used in this conversion
 
             // Assert the returned character is the expected one
             assertThat(actualCharacter).isNotNull();
@@ -178,16 +176,16 @@ class CharacterConverterTest {
             // Given
             String nonExistentCharacterId = UUID.randomUUID().toString();
             CharacterIdDTO idDto = new CharacterIdDTO(nonExistentCharacterId);
-            // Mock the character repository to return empty (character not found)
-            when(characterRepository.findById(nonExistentCharacterId)).thenReturn(Optional.empty());
+            // Mock the entity cache to return empty (character not found)
+            when(entityCache.getCharacter(nonExistentCharacterId)).thenReturn(Optional.empty());
 
             // When
             Character actualCharacter = characterConverter.convert(idDto);
 
             // Then
-            // Verify characterRepository was called
-            verify(characterRepository, times(1)).findById(nonExistentCharacterId);
-            verifyNoInteractions(villageRepository);
+            // Verify the character was looked up
+            verify(entityCache, times(1)).getCharacter(nonExistentCharacterId);
+            verify(entityCache, never()).getVillage(any());
 
             // Assert the result is null
             assertThat(actualCharacter).isNull();
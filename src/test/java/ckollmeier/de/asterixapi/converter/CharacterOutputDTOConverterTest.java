@@ -5,6 +5,7 @@ import ckollmeier.de.asterixapi.dto.MinimalCharacterOutputDTO;
 import ckollmeier.de.asterixapi.dto.MinimalVillageOutputDTO; // Needed for expected DTOs
 import ckollmeier.de.asterixapi.model.Character;
 import ckollmeier.de.asterixapi.model.Village;
+import ckollmeier.de.asterixapi.model.VillageReference;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -42,7 +43,7 @@ class CharacterOutputDTOConverterTest {
 
         testVillage1 = new Village(testVillageId1, "Indomitable Village"); // Inhabitants not relevant for conversion itself
 
-        testCharacter1 = new Character(testCharId1, "Asterix", 35, "Warrior", testVillage1);
+        testCharacter1 = new Character(testCharId1, "Asterix", 35, "Warrior", VillageReference.of(testVillage1));
         testCharacter2 = new Character(testCharId2, "Dogmatix", 5, "Dog", null); // No village
     }
 
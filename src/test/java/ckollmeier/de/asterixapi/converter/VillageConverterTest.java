@@ -3,8 +3,7 @@ package ckollmeier.de.asterixapi.converter;
 import ckollmeier.de.asterixapi.dto.VillageIdDTO;
 import ckollmeier.de.asterixapi.dto.VillageInputDTO;
 import ckollmeier.de.asterixapi.model.Village;
-import ckollmeier.de.asterixapi.repository.CharacterRepository;
-import ckollmeier.de.asterixapi.repository.VillageRepository;
+import ckollmeier.de.asterixapi.service.EntityCache;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -29,9 +28,7 @@ class VillageConverterTest {
 
     // Mocks for the dependencies
     @Mock
-    private VillageRepository villageRepository;
-    @Mock
-    private CharacterRepository characterRepository; // Mocked even if not used by all methods
+    private EntityCache entityCache;
 
     // Inject mocks into the class under test
     @InjectMocks
@@ -66,9 +63,8 @@ class VillageConverterTest {
             Village actualVillage = villageConverter.convert(inputDto);
 
             // Then
-            // Verify no repository interactions occurred for this conversion
-            verifyNoInteractions(villageRepository);
-            verifyNoInteractions(characterRepository); // Important: Verify character repo wasn't called
+            // Verify no lookups occurred for this conversion
+            verifyNoInteractions(entityCache);
 
             // Assert the resulting village matches expectations
             assertThat(actualVillage).isNotNull();
@@ -90,16 +86,16 @@ class VillageConverterTest {
         void convertIdDTO_shouldReturnVillage_whenVillageExists() {
             // Given
             VillageIdDTO idDto = new VillageIdDTO(testVillageId);
-            // Mock the village repository to find the village
-            when(villageRepository.findById(testVillageId)).thenReturn(Optional.of(testVillage));
+            // Mock the entity cache to find the village
+            when(entityCache.getVillage(testVillageId)).thenReturn(Optional.of(testVillage));
 
             // When
             Village actualVillage = villageConverter.convert(idDto);
 
             // Then
-            // Verify villageRepository was called
-            verify(villageRepository, times(1)).findById(testVillageId);
-            verifyNoInteractions(characterRepository); // Character repo not used in this conversion
+            // Verify the village was looked up
+            verify(entityCache, times(1)).getVillage(testVillageId);
+            verify(entityCache, never()).getCharacter(anyString()); // Characters not used in this conversion
 
             // Assert the returned village is the expected one
             assertThat(actualVillage).isNotNull();
@@ -112,16 +108,16 @@ class VillageConverterTest {
             // Given
             String nonExistentVillageId = UUID.randomUUID().toString();
             VillageIdDTO idDto = new VillageIdDTO(nonExistentVillageId);
-            // Mock the village repository to return empty (village not found)
-            when(villageRepository.findById(nonExistentVillageId)).thenReturn(Optional.empty());
+            // Mock the entity cache to return empty (village not found)
+            when(entityCache.getVillage(nonExistentVillageId)).thenReturn(Optional.empty());
 
             // When
             Village actualVillage = villageConverter.convert(idDto);
 
             // Then
-            // Verify villageRepository was called
-            verify(villageRepository, times(1)).findById(nonExistentVillageId);
-            verifyNoInteractions(characterRepository);
+            // Verify the village was looked up
+            verify(entityCache, times(1)).getVillage(nonExistentVillageId);
+            verify(entityCache, never()).getCharacter(anyString());
 
             // Assert the result is null
             assertThat(actualVillage).isNull();
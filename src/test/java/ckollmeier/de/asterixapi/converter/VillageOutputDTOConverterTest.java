@@ -5,6 +5,7 @@ import ckollmeier.de.asterixapi.dto.MinimalVillageOutputDTO;
 import ckollmeier.de.asterixapi.dto.VillageOutputDTO;
 import ckollmeier.de.asterixapi.model.Character;
 import ckollmeier.de.asterixapi.model.Village;
+import ckollmeier.de.asterixapi.model.VillageReference;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -52,9 +53,9 @@ class VillageOutputDTOConverterTest {
         testVillage1 = new Village(testVillageId1, "Indomitable Village"); // Inhabitants list not directly used by converter logic
         testVillage2 = new Village(testVillageId2, "Aquarium");
 
-        testCharacter1 = new Character(testCharId1, "Asterix", 35, "Warrior", testVillage1);
-        testCharacter2 = new Character(testCharId2, "Obelix", 36, "Menhir Carver", testVillage1);
-        testCharacter3 = new Character(testCharId3, "Geriatrix", 80, "Elder", testVillage2);
+        testCharacter1 = new Character(testCharId1, "Asterix", 35, "Warrior", VillageReference.of(testVillage1));
+        testCharacter2 = new Character(testCharId2, "Obelix", 36, "Menhir Carver", VillageReference.of(testVillage1));
+        testCharacter3 = new Character(testCharId3, "Geriatrix", 80, "Elder", VillageReference.of(testVillage2));
         testCharacter4 = new Character(testCharId4, "Justforkix", 20, "Visitor", null); // No village
     }
 
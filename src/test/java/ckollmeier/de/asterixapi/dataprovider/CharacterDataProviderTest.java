@@ -5,7 +5,12 @@ import ckollmeier.de.asterixapi.dto.CharacterSelectDTO;
 import ckollmeier.de.asterixapi.dto.MinimalVillageOutputDTO;
 import ckollmeier.de.asterixapi.model.Character;
 import ckollmeier.de.asterixapi.model.Village;
+import ckollmeier.de.asterixapi.model.VillageReference;
 import ckollmeier.de.asterixapi.repository.CharacterRepository;
+import ckollmeier.de.asterixapi.service.ResponseCacheService;
+import ckollmeier.de.asterixapi.service.SingleFlight;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -13,6 +18,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.util.Collections;
@@ -31,6 +37,9 @@ class CharacterDataProviderTest {
     // Mock the dependency
     @Mock
     private CharacterRepository characterRepository;
+    // Real single-flight layer, so the providers compute their results as usual
+    @Spy
+    private SingleFlight singleFlight = new SingleFlight(new ResponseCacheService(new ObjectMapper()), new SimpleMeterRegistry());
 
     // Inject the mock into the class under test
     @InjectMocks
@@ -60,8 +69,8 @@ class CharacterDataProviderTest {
         testVillage1 = new Village(testVillageId1, "Indomitable Village");
         testVillage2 = new Village(testVillageId2, "Aquarium");
 
-        testCharacter1 = new Character(testCharId1, "Asterix", 35, "Warrior", testVillage1);
-        testCharacter2 = new Character(testCharId2, "Obelix", 36, "Menhir Carver", testVillage2);
+        testCharacter1 = new Character(testCharId1, "Asterix", 35, "Warrior", VillageReference.of(testVillage1));
+        testCharacter2 = new Character(testCharId2, "Obelix", 36, "Menhir Carver", VillageReference.of(testVillage2));
         testCharacter3 = new Character(testCharId3, "Dogmatix", 5, "Dog", null); // No village
     }
 
@@ -2,12 +2,19 @@ package ckollmeier.de.asterixapi.dataprovider;
 
 import ckollmeier.de.asterixapi.converter.CharacterOutputDTOConverter; // Needed for manual DTO creation in test
 import ckollmeier.de.asterixapi.dto.MinimalCharacterOutputDTO;
+import ckollmeier.de.asterixapi.dto.VillageCountOutputDTO;
 import ckollmeier.de.asterixapi.dto.VillageOutputDTO;
 import ckollmeier.de.asterixapi.dto.VillageSelectDTO;
+import ckollmeier.de.asterixapi.extractor.VillageExtractor;
 import ckollmeier.de.asterixapi.model.Character;
 import ckollmeier.de.asterixapi.model.Village;
+import ckollmeier.de.asterixapi.model.VillageReference;
 import ckollmeier.de.asterixapi.repository.CharacterRepository;
 import ckollmeier.de.asterixapi.repository.VillageRepository;
+import ckollmeier.de.asterixapi.service.ResponseCacheService;
+import ckollmeier.de.asterixapi.service.SingleFlight;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -15,6 +22,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.util.Collections;
@@ -35,6 +43,9 @@ class VillageDataProviderTest {
     private VillageRepository villageRepository;
     @Mock
     private CharacterRepository characterRepository;
+    // Real single-flight layer, so the providers compute their results as usual
+    @Spy
+    private SingleFlight singleFlight = new SingleFlight(new ResponseCacheService(new ObjectMapper()), new SimpleMeterRegistry());
 
     // Inject mocks into the class under test
     @InjectMocks
@@ -66,9 +77,9 @@ class VillageDataProviderTest {
         testVillage2 = new Village(testVillageId2, "Aquarium");
 
         // Characters linked to villages
-        testCharacter1 = new Character(testCharId1, "Asterix", 35, "Warrior", testVillage1);
-        testCharacter2 = new Character(testCharId2, "Obelix", 36, "Menhir Carver", testVillage1);
-        testCharacter3 = new Character(testCharId3, "Geriatrix", 80, "Elder", testVillage2);
+        testCharacter1 = new Character(testCharId1, "Asterix", 35, "Warrior", VillageReference.of(testVillage1));
+        testCharacter2 = new Character(testCharId2, "Obelix", 36, "Menhir Carver", VillageReference.of(testVillage1));
+        testCharacter3 = new Character(testCharId3, "Geriatrix", 80, "Elder", VillageReference.of(testVillage2));
     }
 
     @Nested
@@ -131,7 +142,7 @@ class VillageDataProviderTest {
 
             when(villageRepository.findAll()).thenReturn(villagesFromRepo);
             // Mock the character repo to return characters when queried with the village list
-            when(characterRepository.findByVillageIn(villagesFromRepo)).thenReturn(charactersFromRepo);
+            when(characterRepository.findByVillageIdIn(VillageExtractor.extractVillageIds(villagesFromRepo))).thenReturn(charactersFromRepo);
 
             // Manually construct the expected output based on the static converter's logic
             // Village 1 DTO
@@ -155,7 +166,7 @@ class VillageDataProviderTest {
             // Then
             // Verify repository interactions
             verify(villageRepository, times(1)).findAll();
-            verify(characterRepository, times(1)).findByVillageIn(villagesFromRepo); // Verify correct argument
+            verify(characterRepository, times(1)).findByVillageIdIn(VillageExtractor.extractVillageIds(villagesFromRepo)); // Verify correct argument
             verifyNoMoreInteractions(villageRepository, characterRepository);
 
             // Assert the result matches the expected DTO list
@@ -174,7 +185,7 @@ class VillageDataProviderTest {
             List<Character> charactersFromRepo = Collections.emptyList(); // No characters found
 
             when(villageRepository.findAll()).thenReturn(villagesFromRepo);
-            when(characterRepository.findByVillageIn(villagesFromRepo)).thenReturn(charactersFromRepo);
+            when(characterRepository.findByVillageIdIn(VillageExtractor.extractVillageIds(villagesFromRepo))).thenReturn(charactersFromRepo);
 
             // Manually construct the expected output
             VillageOutputDTO expectedDto1 = new VillageOutputDTO(testVillageId1, testVillage1.name(), Collections.emptyList());
@@ -187,7 +198,7 @@ class VillageDataProviderTest {
             // Then
             // Verify repository interactions
             verify(villageRepository, times(1)).findAll();
-            verify(characterRepository, times(1)).findByVillageIn(villagesFromRepo);
+            verify(characterRepository, times(1)).findByVillageIdIn(VillageExtractor.extractVillageIds(villagesFromRepo));
             verifyNoMoreInteractions(villageRepository, characterRepository);
 
             // Assert the result matches the expected DTO list
@@ -206,8 +217,8 @@ class VillageDataProviderTest {
             List<Character> charactersFromRepo = Collections.emptyList(); // Will also be empty
 
             when(villageRepository.findAll()).thenReturn(villagesFromRepo);
-            // Mock findByVillageIn even with empty list input, should return empty
-            when(characterRepository.findByVillageIn(villagesFromRepo)).thenReturn(charactersFromRepo);
+            // Mock findByVillageIdIn even with empty list input, should return empty
+            when(characterRepository.findByVillageIdIn(VillageExtractor.extractVillageIds(villagesFromRepo))).thenReturn(charactersFromRepo);
 
             // When
             List<VillageOutputDTO> actualDtoList = villageDataProvider.provideListForOutput();
@@ -215,11 +226,34 @@ class VillageDataProviderTest {
             // Then
             // Verify repository interactions
             verify(villageRepository, times(1)).findAll();
-            verify(characterRepository, times(1)).findByVillageIn(villagesFromRepo); // Called with empty list
+            verify(characterRepository, times(1)).findByVillageIdIn(VillageExtractor.extractVillageIds(villagesFromRepo)); // Called with empty list
             verifyNoMoreInteractions(villageRepository, characterRepository);
 
             // Assert the result is an empty list
             assertThat(actualDtoList).isNotNull().isEmpty();
         }
     }
-}
\ No newline at end of file
+
+    @Nested
+    @DisplayName("provideListWithCounts Tests")
+    class ProvideListWithCountsTests {
+
+        @Test
+        @DisplayName("should return the maintained inhabitant counts without loading characters")
+        void provideListWithCounts_shouldReturnCounts_withoutLoadingCharacters() {
+            // Given
+            List<Village> villagesFromRepo = List.of(testVillage1.withInhabitantCount(2), testVillage2.withInhabitantCount(1));
+            when(villageRepository.findAll()).thenReturn(villagesFromRepo);
+
+            // When
+            List<VillageCountOutputDTO> actualDtoList = villageDataProvider.provideListWithCounts();
+
+            // Then
+            assertThat(actualDtoList).containsExactly(
+                    new VillageCountOutputDTO(testVillage1.id(), testVillage1.name(), 2),
+                    new VillageCountOutputDTO(testVillage2.id(), testVillage2.name(), 1));
+            verify(villageRepository, times(1)).findAll();
+            verifyNoInteractions(characterRepository);
+        }
+    }
+}
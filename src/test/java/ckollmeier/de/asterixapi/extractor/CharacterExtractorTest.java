@@ -2,6 +2,7 @@ package ckollmeier.de.asterixapi.extractor;
 
 import ckollmeier.de.asterixapi.model.Character;
 import ckollmeier.de.asterixapi.model.Village;
+import ckollmeier.de.asterixapi.model.VillageReference;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
@@ -24,7 +25,7 @@ class CharacterExtractorTest {
         // Given
         String expectedId = UUID.randomUUID().toString();
         Village village = new Village(UUID.randomUUID().toString(), "Test Village");
-        Character character = new Character(expectedId, "Asterix", 35, "Warrior", village);
+        Character character = new Character(expectedId, "Asterix", 35, "Warrior", VillageReference.of(village));
 
         // When
         String actualId = CharacterExtractor.extractCharacterId(character);
@@ -40,8 +41,8 @@ class CharacterExtractorTest {
         String id1 = UUID.randomUUID().toString();
         String id2 = UUID.randomUUID().toString();
         Village village = new Village(UUID.randomUUID().toString(), "Test Village");
-        Character character1 = new Character(id1, "Asterix", 35, "Warrior", village);
-        Character character2 = new Character(id2, "Obelix", 36, "Menhir Carver", village);
+        Character character1 = new Character(id1, "Asterix", 35, "Warrior", VillageReference.of(village));
+        Character character2 = new Character(id2, "Obelix", 36, "Menhir Carver", VillageReference.of(village));
         List<Character> characters = List.of(character1, character2);
 
         List<String> expectedIds = List.of(id1, id2);
@@ -0,0 +1,73 @@
+package ckollmeier.de.asterixapi.job;
+
+import ckollmeier.de.asterixapi.repository.VillageRepository;
+import ckollmeier.de.asterixapi.service.EntityCache;
+import ckollmeier.de.asterixapi.service.ResponseCacheService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link InhabitantCountRepairJob} using the Given-When-Then pattern.
+ */
+@ExtendWith(MockitoExtension.class)
+class InhabitantCountRepairJobTest {
+
+    @Mock
+    private VillageRepository villageRepository;
+    @Mock
+    private ResponseCacheService responseCacheService;
+    @Mock
+    private EntityCache entityCache;
+
+    @InjectMocks
+    private InhabitantCountRepairJob inhabitantCountRepairJob;
+
+    @Test
+    @DisplayName("repair should invalidate the response cache when counts were corrected")
+    void repair_shouldInvalidateCache_whenCountsWereCorrected() {
+        // Given
+        when(villageRepository.repairInhabitantCounts()).thenReturn(2L);
+
+        // When
+        inhabitantCountRepairJob.repair();
+
+        // Then
+        verify(villageRepository, times(1)).repairInhabitantCounts();
+        verify(responseCacheService, times(1)).invalidate();
+    }
+
+    @Test
+    @DisplayName("repair should keep the cache when all counts were correct")
+    void repair_shouldKeepCache_whenNothingWasCorrected() {
+        // Given
+        when(villageRepository.repairInhabitantCounts()).thenReturn(0L);
+
+        // When
+        inhabitantCountRepairJob.repair();
+
+        // Then
+        verifyNoInteractions(responseCacheService);
+    }
+
+    @Test
+    @DisplayName("repair should not throw when the database is unavailable")
+    void repair_shouldNotThrow_whenDatabaseUnavailable() {
+        // Given
+        when(villageRepository.repairInhabitantCounts()).thenThrow(new DataAccessResourceFailureException("unreachable"));
+
+        // When / Then
+        assertThatCode(inhabitantCountRepairJob::repair).doesNotThrowAnyException();
+        verifyNoInteractions(responseCacheService);
+    }
+}
@@ -0,0 +1,272 @@
+package ckollmeier.de.asterixapi.loadtest;
+
+import ckollmeier.de.asterixapi.dto.CharacterInputDTO;
+import ckollmeier.de.asterixapi.dto.VillageInputDTO;
+import ckollmeier.de.asterixapi.model.ChangeLogEntry;
+import ckollmeier.de.asterixapi.model.Character;
+import ckollmeier.de.asterixapi.model.Village;
+import ckollmeier.de.asterixapi.model.VillageReference;
+import ckollmeier.de.asterixapi.repository.CharacterRepository;
+import ckollmeier.de.asterixapi.repository.VillageRepository;
+import ckollmeier.de.asterixapi.service.ChangeLogService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * End-to-end load test of {@code /api/asterix/**}.
+ * <p>
+ * Boots the application on a random port against an in-memory Mongo stand-in, seeds a synthetic dataset and
+ * runs a mixed read/write scenario against both controllers with virtual users on virtual threads. Latencies
+ * are recorded with HdrHistogram and written to {@code target/load-test/<label>.txt|json}; see
+ * {@link LoadTestConfig} for the settings and {@link LoadTestReport} for comparing runs.
+ * </p>
+ * <p>
+ * Tagged {@code load-test}, so it only runs with the load-test Maven profile:
+ * {@code mvn test -Pload-test -Dloadtest.label=$(git rev-parse --short HEAD) -Dloadtest.baseline=target/load-test/<earlier>.json}.
+ * The in-memory database keeps runs reproducible and comparable between commits, absolute numbers are not
+ * representative of a production deployment. Adding {@code -Dspring.profiles.active=in-memory} runs against the
+ * in-memory repositories instead, to measure the application without any database overhead.
+ * </p>
+ */
+@Tag("load-test")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class AsterixLoadTest {
+
+    private static final MongoServer MONGO = new MongoServer(new MemoryBackend());
+
+    /**
+     * Highest latency the histograms track, slower requests are clamped to it.
+     */
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private static final String[] PROFESSIONS = {"Warrior", "Druid", "Bard", "Blacksmith", "Fishmonger", "Chief"};
+
+    private final LoadTestConfig config = LoadTestConfig.fromSystemProperties();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final Map<String, OperationStats> stats = new LinkedHashMap<>();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private CharacterRepository characterRepository;
+
+    @Autowired
+    private VillageRepository villageRepository;
+
+    @Autowired
+    private ChangeLogService changeLogService;
+
+    /**
+     * The template of the Mongo stand-in, {@code null} when running on the in-memory repositories.
+     */
+    @Autowired(required = false)
+    private MongoTemplate mongoTemplate;
+
+    private List<String> villageIds;
+    private List<String> characterIds;
+
+    @DynamicPropertySource
+    static void mongoProperties(final DynamicPropertyRegistry registry) {
+        final InetSocketAddress address = MONGO.bind();
+        registry.add("spring.data.mongodb.uri",
+                () -> "mongodb://" + address.getHostString() + ":" + address.getPort() + "/loadtest");
+    }
+
+    @AfterAll
+    static void stopMongo() {
+        MONGO.shutdown();
+    }
+
+    @Test
+    void mixedReadWriteScenario() throws Exception {
+        seed();
+        for (String operation : List.of("GET /villages", "GET /villages?view=counts", "GET /villages/id/{id}",
+                "GET /villages/page-data", "GET /characters", "GET /characters/id/{id}", "GET /characters/page-data",
+                "POST /characters/add", "PUT /characters/update/{id}", "PUT /villages/update/{id}")) {
+            stats.put(operation, new OperationStats());
+        }
+
+        run(config.warmup(), false);
+        run(config.duration(), true);
+
+        final LoadTestReport report = new LoadTestReport(config.label(), config.toReportSettings(), stats.entrySet().stream()
+                .map(entry -> LoadTestReport.OperationResult.of(entry.getKey(), entry.getValue().latencies,
+                        entry.getValue().shed.sum(), entry.getValue().errors.sum(), config.duration()))
+                .toList());
+        System.out.println(report.write(Path.of("target", "load-test"), Optional.ofNullable(config.baseline()).map(Path::of)));
+
+        assertThat(report.operations()).allSatisfy(result -> assertThat(result.errors()).isZero());
+        assertThat(report.operations()).anySatisfy(result -> assertThat(result.requests()).isPositive());
+    }
+
+    /**
+     * Seeds the villages and characters, spreading the characters evenly over the villages.
+     */
+    private void seed() {
+        // The stand-in cannot create capped collections, so changes are recorded in an uncapped one
+        if (mongoTemplate != null && !mongoTemplate.collectionExists(ChangeLogEntry.class)) {
+            mongoTemplate.createCollection(ChangeLogEntry.class);
+        }
+        changeLogService.createChangeLog();
+        final SplittableRandom random = new SplittableRandom(config.seed());
+        final List<Village> villages = new ArrayList<>();
+        for (int i = 0; i < config.villages(); i++) {
+            villages.add(new Village("village-" + i, "Village " + i,
+                    config.characters() / config.villages() + (i < config.characters() % config.villages() ? 1 : 0), null));
+        }
+        villageRepository.saveAll(villages);
+        final List<Character> characters = new ArrayList<>();
+        for (int i = 0; i < config.characters(); i++) {
+            characters.add(new Character("character-" + i, "Character " + i, 1 + random.nextInt(99),
+                    PROFESSIONS[random.nextInt(PROFESSIONS.length)], VillageReference.of(villages.get(i % villages.size()))));
+        }
+        characterRepository.saveAll(characters);
+        villageIds = villages.stream().map(Village::id).toList();
+        characterIds = characters.stream().map(Character::id).toList();
+    }
+
+    /**
+     * Runs the scenario with all virtual users for the given time.
+     *
+     * @param duration how long to run
+     * @param record   whether to record the latencies
+     * @throws InterruptedException if interrupted while waiting for the users
+     */
+    private void run(final Duration duration, final boolean record) throws InterruptedException {
+        final long end = System.nanoTime() + duration.toNanos();
+        try (ExecutorService users = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int user = 0; user < config.concurrency(); user++) {
+                final SplittableRandom random = new SplittableRandom(config.seed() * 31 + user + (record ? 1 : 0));
+                users.execute(() -> {
+                    while (System.nanoTime() < end) {
+                        execute(random, record);
+                    }
+                });
+            }
+            users.shutdown();
+            assertThat(users.awaitTermination(duration.toSeconds() + 60, TimeUnit.SECONDS)).isTrue();
+        }
+    }
+
+    /**
+     * Executes one randomly chosen request.
+     *
+     * @param random the random source of the virtual user
+     * @param record whether to record the latency
+     */
+    private void execute(final SplittableRandom random, final boolean record) {
+        final String villageId = villageIds.get(random.nextInt(villageIds.size()));
+        final String characterId = characterIds.get(random.nextInt(characterIds.size()));
+        if (random.nextDouble() < config.writeRatio()) {
+            switch (random.nextInt(3)) {
+                case 0 -> send("POST /characters/add", "POST", "/api/asterix/characters/add",
+                        new CharacterInputDTO("Newcomer", 1 + random.nextInt(99), "Bard", villageId), record);
+                case 1 -> send("PUT /characters/update/{id}", "PUT", "/api/asterix/characters/update/" + characterId,
+                        random.nextBoolean()
+                                ? new CharacterInputDTO(null, 1 + random.nextInt(99), null, null)
+                                : new CharacterInputDTO(null, 0, null, villageId), record);
+                default -> send("PUT /villages/update/{id}", "PUT", "/api/asterix/villages/update/" + villageId,
+                        new VillageInputDTO("Village " + random.nextInt(1_000_000), null), record);
+            }
+        } else {
+            switch (random.nextInt(7)) {
+                case 0 -> send("GET /villages", "GET", "/api/asterix/villages", null, record);
+                case 1 -> send("GET /villages?view=counts", "GET", "/api/asterix/villages?view=counts", null, record);
+                case 2 -> send("GET /villages/id/{id}", "GET", "/api/asterix/villages/id/" + villageId, null, record);
+                case 3 -> send("GET /villages/page-data", "GET", "/api/asterix/villages/page-data", null, record);
+                case 4 -> send("GET /characters", "GET", "/api/asterix/characters", null, record);
+                case 5 -> send("GET /characters/id/{id}", "GET", "/api/asterix/characters/id/" + characterId, null, record);
+                default -> send("GET /characters/page-data", "GET", "/api/asterix/characters/page-data", null, record);
+            }
+        }
+    }
+
+    /**
+     * Sends a request and records its outcome.
+     *
+     * @param operation the operation the request belongs to
+     * @param method    the HTTP method
+     * @param path      the path and query
+     * @param body      the JSON body, {@code null} for none
+     * @param record    whether to record the outcome
+     */
+    private void send(final String operation, final String method, final String path, final Object body, final boolean record) {
+        final OperationStats operationStats = stats.get(operation);
+        try {
+            final HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                    .timeout(Duration.ofSeconds(30))
+                    .header("Content-Type", "application/json")
+                    .header("Accept-Encoding", "gzip")
+                    .method(method, body == null
+                            ? HttpRequest.BodyPublishers.noBody()
+                            : HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                    .build();
+            final long start = System.nanoTime();
+            final HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            final long latency = System.nanoTime() - start;
+            if (!record) {
+                return;
+            }
+            if (response.statusCode() == 503) {
+                operationStats.shed.increment();
+            } else if (response.statusCode() >= 400) {
+                operationStats.errors.increment();
+            } else {
+                operationStats.latencies.recordValue(Math.min(latency, HIGHEST_TRACKABLE_NANOS));
+            }
+        } catch (IOException e) {
+            if (record) {
+                operationStats.errors.increment();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * The recorded outcomes of one operation.
+     */
+    private static final class OperationStats {
+        private final Histogram latencies = new ConcurrentHistogram(HIGHEST_TRACKABLE_NANOS, 3);
+        private final LongAdder shed = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+    }
+}
@@ -0,0 +1,358 @@
+package ckollmeier.de.asterixapi.loadtest;
+
+import ckollmeier.de.asterixapi.repository.memory.InMemoryRepository;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Benchmark of loading the single page application over HTTP/1.1 and over h2c.
+ * <p>
+ * Serves a synthetic Vite build of {@code benchmark.chunks} fingerprinted chunks and lets
+ * {@code benchmark.users} virtual users load the page: the {@code index.html}, then all chunks and the
+ * {@code /api/asterix/**} calls of the start page at once. Each user models a browser: over HTTP/1.1 it uses
+ * at most six connections, over h2c it multiplexes all requests over the connection upgraded by the first one.
+ * Cold page loads start with a new browser, warm ones reuse its connections and cache. The
+ * {@code http/1.1 revalidating} scenario ignores {@code Cache-Control} and revalidates every chunk like
+ * browsers did before the assets were cached as immutable, the other scenarios honour it.
+ * </p>
+ * <p>
+ * Prints page loads per second, requests per page load, page load latencies and the connections the server
+ * accepted. Tagged {@code load-test}, so it only runs with the load-test Maven profile:
+ * {@code mvn test -Pload-test -Dtest=Http2PageLoadBenchmark}. Client and server share the loopback interface,
+ * so the numbers show the cost of connections and requests without network latency, which is what
+ * multiplexing and caching save most on real networks.
+ * </p>
+ */
+@Tag("load-test")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles(InMemoryRepository.PROFILE)
+class Http2PageLoadBenchmark {
+
+    private static final int CHUNKS = Integer.getInteger("benchmark.chunks", 40);
+    private static final int CHUNK_BYTES = Integer.getInteger("benchmark.chunk-bytes", 20_000);
+    private static final int USERS = Integer.getInteger("benchmark.users", 16);
+    private static final int COLD_PAGES = Integer.getInteger("benchmark.cold-pages", 10);
+    private static final int WARM_PAGES = Integer.getInteger("benchmark.warm-pages", 40);
+
+    /**
+     * The number of connections browsers open per host over HTTP/1.1.
+     */
+    private static final int HTTP1_CONNECTIONS_PER_HOST = 6;
+
+    private static final List<String> API_CALLS = List.of(
+            "/api/asterix/villages", "/api/asterix/characters", "/api/asterix/villages?view=counts");
+
+    private static final Path STATIC_ROOT = createBuild();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ConnectionTracker connectionTracker;
+
+    /**
+     * A browser configuration under test.
+     *
+     * @param name               the name in the report
+     * @param version            the HTTP version of the client
+     * @param honourCacheControl whether fresh cached files are used without a request
+     */
+    private record Scenario(String name, HttpClient.Version version, boolean honourCacheControl) {
+    }
+
+    /**
+     * A cached response.
+     *
+     * @param lastModified the {@code Last-Modified} header to revalidate with
+     * @param fresh        whether the response may be used without revalidation
+     */
+    private record CachedResponse(String lastModified, boolean fresh) {
+    }
+
+    /**
+     * Records the connections requests arrive on, identified by the address and port of the client.
+     */
+    static class ConnectionTracker extends OncePerRequestFilter {
+
+        private final Set<String> connections = ConcurrentHashMap.newKeySet();
+        private final Set<String> protocols = ConcurrentHashMap.newKeySet();
+
+        @Override
+        protected void doFilterInternal(final HttpServletRequest request, final HttpServletResponse response,
+                                        final FilterChain filterChain) throws ServletException, IOException {
+            connections.add(request.getRemoteAddr() + ":" + request.getRemotePort());
+            protocols.add(request.getProtocol());
+            filterChain.doFilter(request, response);
+        }
+
+        void reset() {
+            connections.clear();
+            protocols.clear();
+        }
+    }
+
+    @TestConfiguration
+    static class ConnectionTrackingConfiguration {
+
+        @Bean
+        ConnectionTracker connectionTracker() {
+            return new ConnectionTracker();
+        }
+    }
+
+    @DynamicPropertySource
+    static void staticResources(final DynamicPropertyRegistry registry) {
+        registry.add("asterix.static-resources.location", () -> STATIC_ROOT.toUri().toString());
+    }
+
+    /**
+     * Writes an {@code index.html} referencing {@link #CHUNKS} fingerprinted chunks, like a Vite build.
+     *
+     * @return the directory of the build
+     */
+    private static Path createBuild() {
+        try {
+            final Path root = Files.createTempDirectory("asterix-spa");
+            Files.createDirectories(root.resolve("assets"));
+            final SplittableRandom random = new SplittableRandom(42);
+            final StringBuilder index = new StringBuilder("<!doctype html><html><head>");
+            for (int i = 0; i < CHUNKS; i++) {
+                final String name = "chunk-" + i + "-" + Long.toHexString(random.nextLong()) + ".js";
+                final StringBuilder chunk = new StringBuilder(CHUNK_BYTES);
+                while (chunk.length() < CHUNK_BYTES) {
+                    chunk.append("const v").append(random.nextInt(1_000_000)).append("=").append(random.nextInt()).append(";\n");
+                }
+                Files.writeString(root.resolve("assets").resolve(name), chunk);
+                index.append("<script type=\"module\" src=\"/assets/").append(name).append("\"></script>");
+            }
+            Files.writeString(root.resolve("index.html"), index.append("</head><body></body></html>"));
+            return root;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Test
+    void benchmarkPageLoads() throws Exception {
+        final List<Scenario> scenarios = List.of(
+                new Scenario("http/1.1 revalidating", HttpClient.Version.HTTP_1_1, false),
+                new Scenario("http/1.1", HttpClient.Version.HTTP_1_1, true),
+                new Scenario("h2c", HttpClient.Version.HTTP_2, true));
+        final List<String> assets = Files.list(STATIC_ROOT.resolve("assets"))
+                .map(file -> "/assets/" + file.getFileName())
+                .sorted()
+                .toList();
+
+        // Untimed round, so the first scenario does not pay for the warm-up of server and client
+        for (Scenario scenario : scenarios) {
+            runPhase(scenario, false, 2, assets);
+        }
+
+        System.out.printf("%-22s %-5s %10s %14s %8s %8s %12s %s%n",
+                "scenario", "phase", "pages/s", "requests/page", "p50 ms", "p99 ms", "connections", "protocols");
+        for (Scenario scenario : scenarios) {
+            for (boolean warm : new boolean[]{false, true}) {
+                connectionTracker.reset();
+                final Histogram latencies = new ConcurrentHistogram(TimeUnit.MINUTES.toNanos(1), 3);
+                final LongAdder requests = new LongAdder();
+                final long start = System.nanoTime();
+                runPhase(scenario, warm, warm ? WARM_PAGES : COLD_PAGES, assets, latencies, requests);
+                final double seconds = (System.nanoTime() - start) / 1e9;
+
+                final long loads = latencies.getTotalCount();
+                System.out.printf("%-22s %-5s %10.1f %14.1f %8.2f %8.2f %12d %s%n",
+                        scenario.name(), warm ? "warm" : "cold", loads / seconds, (double) requests.sum() / loads,
+                        latencies.getValueAtPercentile(50) / 1e6, latencies.getValueAtPercentile(99) / 1e6,
+                        connectionTracker.connections.size(), connectionTracker.protocols);
+                if (scenario.version() == HttpClient.Version.HTTP_2) {
+                    assertThat(connectionTracker.protocols).contains("HTTP/2.0");
+                }
+            }
+        }
+    }
+
+    /**
+     * Lets all users load the page at once, without recording the results.
+     *
+     * @param scenario the browser configuration
+     * @param warm     whether the page loads reuse connections and cache of one browser after a first load
+     * @param pages    the number of page loads per user
+     * @param assets   the paths of the chunks
+     */
+    private void runPhase(final Scenario scenario, final boolean warm, final int pages,
+                          final List<String> assets) throws Exception {
+        runPhase(scenario, warm, pages, assets, new ConcurrentHistogram(TimeUnit.MINUTES.toNanos(1), 3), new LongAdder());
+    }
+
+    /**
+     * Lets all users load the page at once.
+     *
+     * @param scenario  the browser configuration
+     * @param warm      whether the page loads reuse connections and cache of one browser after a first load
+     * @param pages     the number of recorded page loads per user
+     * @param assets    the paths of the chunks
+     * @param latencies the histogram of page load latencies
+     * @param requests  the counter of requests sent by recorded page loads
+     */
+    private void runPhase(final Scenario scenario, final boolean warm, final int pages, final List<String> assets,
+                          final Histogram latencies, final LongAdder requests) throws Exception {
+        try (ExecutorService users = Executors.newVirtualThreadPerTaskExecutor()) {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int user = 0; user < USERS; user++) {
+                futures.add(users.submit(() -> {
+                    runUser(scenario, warm, pages, assets, latencies, requests);
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+    }
+
+    /**
+     * Runs the page loads of one user.
+     *
+     * @param scenario  the browser configuration
+     * @param warm      whether the page loads reuse connections and cache of one browser after a first load
+     * @param pages     the number of recorded page loads
+     * @param assets    the paths of the chunks
+     * @param latencies the histogram of page load latencies
+     * @param requests  the counter of requests sent by recorded page loads
+     */
+    private void runUser(final Scenario scenario, final boolean warm, final int pages, final List<String> assets,
+                         final Histogram latencies, final LongAdder requests) throws Exception {
+        if (warm) {
+            try (HttpClient client = HttpClient.newBuilder().version(scenario.version()).build()) {
+                final Map<String, CachedResponse> cache = new ConcurrentHashMap<>();
+                loadPage(client, scenario, cache, assets);
+                for (int page = 0; page < pages; page++) {
+                    final long start = System.nanoTime();
+                    requests.add(loadPage(client, scenario, cache, assets));
+                    latencies.recordValue(System.nanoTime() - start);
+                }
+            }
+        } else {
+            for (int page = 0; page < pages; page++) {
+                final long start = System.nanoTime();
+                try (HttpClient client = HttpClient.newBuilder().version(scenario.version()).build()) {
+                    requests.add(loadPage(client, scenario, new ConcurrentHashMap<>(), assets));
+                }
+                latencies.recordValue(System.nanoTime() - start);
+            }
+        }
+    }
+
+    /**
+     * Loads the page: the index first, then all chunks not freshly cached and the API calls at once.
+     *
+     * @param client   the browser
+     * @param scenario the browser configuration
+     * @param cache    the cache of the browser, updated with the responses
+     * @param assets   the paths of the chunks
+     * @return the number of requests sent
+     */
+    private int loadPage(final HttpClient client, final Scenario scenario, final Map<String, CachedResponse> cache,
+                         final List<String> assets) throws Exception {
+        int sent = 0;
+        if (fetch(client, scenario, cache, "/index.html")) {
+            sent++;
+        }
+        final Semaphore connections = new Semaphore(scenario.version() == HttpClient.Version.HTTP_1_1
+                ? HTTP1_CONNECTIONS_PER_HOST : Integer.MAX_VALUE);
+        final List<String> paths = new ArrayList<>(assets);
+        paths.addAll(API_CALLS);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            final List<Future<Boolean>> futures = new ArrayList<>();
+            for (String path : paths) {
+                futures.add(executor.submit(() -> {
+                    connections.acquire();
+                    try {
+                        return fetch(client, scenario, cache, path);
+                    } finally {
+                        connections.release();
+                    }
+                }));
+            }
+            for (Future<Boolean> future : futures) {
+                try {
+                    if (future.get()) {
+                        sent++;
+                    }
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Page load failed", e.getCause());
+                }
+            }
+        }
+        return sent;
+    }
+
+    /**
+     * Requests a path unless its cached response is fresh, revalidating a cached response with its
+     * {@code Last-Modified} date.
+     *
+     * @param client   the browser
+     * @param scenario the browser configuration
+     * @param cache    the cache of the browser
+     * @param path     the path
+     * @return whether a request was sent
+     */
+    private boolean fetch(final HttpClient client, final Scenario scenario, final Map<String, CachedResponse> cache,
+                          final String path) throws IOException, InterruptedException {
+        final CachedResponse cached = cache.get(path);
+        if (cached != null && cached.fresh() && scenario.honourCacheControl()) {
+            return false;
+        }
+        final HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).GET();
+        if (cached != null && cached.lastModified() != null) {
+            request.header("If-Modified-Since", cached.lastModified());
+        }
+        final HttpResponse<byte[]> response = client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+        assertThat(response.statusCode()).as(path).isIn(200, 304);
+        if (response.statusCode() == 200 && !path.startsWith("/api/")) {
+            final String cacheControl = response.headers().firstValue("Cache-Control").orElse("");
+            cache.put(path, new CachedResponse(response.headers().firstValue("Last-Modified").orElse(null),
+                    cacheControl.contains("max-age") && !cacheControl.contains("max-age=0")));
+        }
+        return true;
+    }
+}
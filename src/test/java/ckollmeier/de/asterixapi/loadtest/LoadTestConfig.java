@@ -0,0 +1,66 @@
+package ckollmeier.de.asterixapi.loadtest;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Settings of a load test run, read from {@code loadtest.*} system properties so runs can be repeated
+ * with the same dataset and mix, e.g. {@code mvn test -Pload-test -Dloadtest.characters=50000}.
+ *
+ * @param villages    number of villages seeded
+ * @param characters  number of characters seeded, spread evenly over the villages
+ * @param concurrency number of concurrent virtual users
+ * @param warmup      time the scenario runs before latencies are recorded
+ * @param duration    time latencies are recorded
+ * @param writeRatio  share of requests that are writes, between 0 and 1
+ * @param seed        seed of the random dataset and request mix
+ * @param label       name of the report, e.g. the commit being measured
+ * @param baseline    path of an earlier JSON report to compare against, or {@code null}
+ */
+record LoadTestConfig(
+        int villages,
+        int characters,
+        int concurrency,
+        Duration warmup,
+        Duration duration,
+        double writeRatio,
+        long seed,
+        String label,
+        String baseline
+) {
+    /**
+     * Reads the settings from the system properties, falling back to a small default run.
+     *
+     * @return the settings
+     */
+    static LoadTestConfig fromSystemProperties() {
+        return new LoadTestConfig(
+                Integer.getInteger("loadtest.villages", 50),
+                Integer.getInteger("loadtest.characters", 5_000),
+                Integer.getInteger("loadtest.concurrency", 32),
+                Duration.parse(System.getProperty("loadtest.warmup", "PT5S")),
+                Duration.parse(System.getProperty("loadtest.duration", "PT20S")),
+                Double.parseDouble(System.getProperty("loadtest.write-ratio", "0.2")),
+                Long.getLong("loadtest.seed", 42L),
+                System.getProperty("loadtest.label", "run-" + System.currentTimeMillis()),
+                System.getProperty("loadtest.baseline"));
+    }
+
+    /**
+     * Returns the settings that determine the results, written to the report so runs can be matched.
+     *
+     * @return the settings by name
+     */
+    Map<String, Object> toReportSettings() {
+        final Map<String, Object> settings = new LinkedHashMap<>();
+        settings.put("villages", villages);
+        settings.put("characters", characters);
+        settings.put("concurrency", concurrency);
+        settings.put("warmup", warmup.toString());
+        settings.put("duration", duration.toString());
+        settings.put("writeRatio", writeRatio);
+        settings.put("seed", seed);
+        return settings;
+    }
+}
@@ -0,0 +1,155 @@
+package ckollmeier.de.asterixapi.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Result of a load test run: latency percentiles and throughput per operation.
+ * <p>
+ * The report is written as text for reading and as JSON for comparing runs: passing an earlier JSON report
+ * as baseline adds the relative change of every percentile and of the throughput to the text report.
+ * </p>
+ *
+ * @param label      name of the run
+ * @param settings   the settings that determine the results
+ * @param operations the results per operation
+ */
+record LoadTestReport(
+        String label,
+        Map<String, Object> settings,
+        List<OperationResult> operations
+) {
+    /**
+     * Mapper for the JSON report.
+     */
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    /**
+     * Nanoseconds per millisecond, latencies are recorded in nanoseconds and reported in milliseconds.
+     */
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    /**
+     * The results of one operation.
+     *
+     * @param operation  the operation, e.g. {@code GET /villages}
+     * @param requests   the successful requests recorded
+     * @param shed       the requests rejected by admission control with 503
+     * @param errors     the requests that failed otherwise
+     * @param throughput the successful requests per second
+     * @param p50        the median latency in milliseconds
+     * @param p99        the 99th percentile latency in milliseconds
+     * @param p999       the 99.9th percentile latency in milliseconds
+     * @param max        the maximum latency in milliseconds
+     */
+    record OperationResult(
+            String operation,
+            long requests,
+            long shed,
+            long errors,
+            double throughput,
+            double p50,
+            double p99,
+            double p999,
+            double max
+    ) {
+        /**
+         * Summarizes the recorded latencies of an operation.
+         *
+         * @param operation the operation
+         * @param latencies the latencies of the successful requests in nanoseconds
+         * @param shed      the requests rejected with 503
+         * @param errors    the requests that failed otherwise
+         * @param duration  the time latencies were recorded
+         * @return the result
+         */
+        static OperationResult of(final String operation, final Histogram latencies, final long shed, final long errors,
+                                  final Duration duration) {
+            return new OperationResult(
+                    operation,
+                    latencies.getTotalCount(),
+                    shed,
+                    errors,
+                    latencies.getTotalCount() / (duration.toMillis() / 1000.0),
+                    latencies.getValueAtPercentile(50) / NANOS_PER_MILLI,
+                    latencies.getValueAtPercentile(99) / NANOS_PER_MILLI,
+                    latencies.getValueAtPercentile(99.9) / NANOS_PER_MILLI,
+                    latencies.getMaxValue() / NANOS_PER_MILLI);
+        }
+    }
+
+    /**
+     * Writes the report to the given directory as {@code <label>.json} and {@code <label>.txt}.
+     *
+     * @param directory the directory, created if missing
+     * @param baseline  the path of an earlier JSON report to compare against
+     * @return the text report
+     * @throws IOException if reading the baseline or writing fails
+     */
+    String write(final Path directory, final Optional<Path> baseline) throws IOException {
+        Files.createDirectories(directory);
+        OBJECT_MAPPER.writeValue(directory.resolve(label + ".json").toFile(), this);
+        final Optional<LoadTestReport> baselineReport = baseline.isPresent()
+                ? Optional.of(OBJECT_MAPPER.readValue(baseline.get().toFile(), LoadTestReport.class))
+                : Optional.empty();
+        final String text = toText(baselineReport);
+        Files.writeString(directory.resolve(label + ".txt"), text);
+        return text;
+    }
+
+    /**
+     * Formats the report as table.
+     *
+     * @param baseline the report to compare against
+     * @return the text report
+     */
+    private String toText(final Optional<LoadTestReport> baseline) {
+        final Map<String, OperationResult> baselineResults = baseline
+                .map(report -> report.operations().stream()
+                        .collect(Collectors.toMap(OperationResult::operation, Function.identity())))
+                .orElse(Map.of());
+        final StringBuilder text = new StringBuilder();
+        text.append(String.format("Load test '%s' %s%n", label, settings));
+        baseline.ifPresent(report -> text.append(String.format("Compared to '%s' %s%n", report.label(), report.settings())));
+        text.append(String.format("%-32s %9s %7s %7s %10s %10s %10s %10s %10s%n",
+                "operation", "requests", "shed", "errors", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms"));
+        for (OperationResult result : operations) {
+            text.append(String.format("%-32s %9d %7d %7d %10.1f %10.2f %10.2f %10.2f %10.2f%n",
+                    result.operation(), result.requests(), result.shed(), result.errors(),
+                    result.throughput(), result.p50(), result.p99(), result.p999(), result.max()));
+            final OperationResult previous = baselineResults.get(result.operation());
+            if (previous != null) {
+                text.append(String.format("%-32s %9s %7s %7s %10s %10s %10s %10s %10s%n", "", "", "", "",
+                        change(result.throughput(), previous.throughput()), change(result.p50(), previous.p50()),
+                        change(result.p99(), previous.p99()), change(result.p999(), previous.p999()),
+                        change(result.max(), previous.max())));
+            }
+        }
+        return text.toString();
+    }
+
+    /**
+     * Formats the relative change of a value.
+     *
+     * @param current  the value of this run
+     * @param previous the value of the baseline
+     * @return the change in percent, e.g. {@code +12.5%}
+     */
+    private static String change(final double current, final double previous) {
+        if (previous == 0) {
+            return "n/a";
+        }
+        return String.format("%+.1f%%", (current - previous) / previous * 100);
+    }
+}
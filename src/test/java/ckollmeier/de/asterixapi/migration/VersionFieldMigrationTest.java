@@ -0,0 +1,81 @@
+package ckollmeier.de.asterixapi.migration;
+
+import ckollmeier.de.asterixapi.model.Character;
+import ckollmeier.de.asterixapi.model.Village;
+import ckollmeier.de.asterixapi.service.EntityCache;
+import ckollmeier.de.asterixapi.service.ResponseCacheService;
+import com.mongodb.client.result.UpdateResult;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link VersionFieldMigration} using the Given-When-Then pattern.
+ */
+@ExtendWith(MockitoExtension.class)
+class VersionFieldMigrationTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+    @Mock
+    private ResponseCacheService responseCacheService;
+    @Mock
+    private EntityCache entityCache;
+
+    @InjectMocks
+    private VersionFieldMigration versionFieldMigration;
+
+    @Test
+    @DisplayName("run should set version 0 on characters and villages without version")
+    void run_shouldInitializeMissingVersions() {
+        // Given
+        when(mongoTemplate.updateMulti(any(Query.class), any(Update.class), any(Class.class)))
+                .thenReturn(UpdateResult.acknowledged(2, 2L, null));
+
+        // When
+        versionFieldMigration.run(new DefaultApplicationArguments());
+
+        // Then
+        ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> updateCaptor = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, times(1)).updateMulti(queryCaptor.capture(), updateCaptor.capture(), eq(Character.class));
+        verify(mongoTemplate, times(1)).updateMulti(any(Query.class), any(Update.class), eq(Village.class));
+        assertThat(queryCaptor.getValue().getQueryObject().toJson()).contains("\"version\"").contains("\"$exists\": false");
+        assertThat(updateCaptor.getValue().getUpdateObject().toJson()).contains("\"$set\"").contains("\"version\"");
+        verify(entityCache, times(1)).evictAllCharacters();
+        verify(entityCache, times(1)).evictAllVillages();
+        verify(responseCacheService, times(1)).invalidate();
+    }
+
+    @Test
+    @DisplayName("migrate should continue with the next type when an update fails")
+    void migrate_shouldContinue_whenUpdateFails() {
+        // Given
+        when(mongoTemplate.updateMulti(any(Query.class), any(Update.class), eq(Character.class)))
+                .thenThrow(new DataAccessResourceFailureException("unreachable"));
+        when(mongoTemplate.updateMulti(any(Query.class), any(Update.class), eq(Village.class)))
+                .thenReturn(UpdateResult.acknowledged(0, 0L, null));
+
+        // When / Then
+        assertThatCode(versionFieldMigration::migrate).doesNotThrowAnyException();
+        verify(mongoTemplate, times(1)).updateMulti(any(Query.class), any(Update.class), eq(Village.class));
+        verify(responseCacheService, times(1)).invalidate();
+    }
+}
@@ -0,0 +1,88 @@
+package ckollmeier.de.asterixapi.migration;
+
+import ckollmeier.de.asterixapi.model.Character;
+import ckollmeier.de.asterixapi.model.Village;
+import ckollmeier.de.asterixapi.service.EntityCache;
+import ckollmeier.de.asterixapi.service.ResponseCacheService;
+import com.mongodb.client.result.UpdateResult;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link VillageReferenceMigration} using the Given-When-Then pattern.
+ */
+@ExtendWith(MockitoExtension.class)
+class VillageReferenceMigrationTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+    @Mock
+    private ResponseCacheService responseCacheService;
+    @Mock
+    private EntityCache entityCache;
+
+    @InjectMocks
+    private VillageReferenceMigration villageReferenceMigration;
+
+    @Test
+    @DisplayName("run should store each village inline and unset references to missing villages")
+    void run_shouldStoreVillagesInline() {
+        // Given
+        when(mongoTemplate.getCollectionName(Character.class)).thenReturn("characters");
+        when(mongoTemplate.findAll(Village.class)).thenReturn(List.of(new Village("v1", "Indomitable Village")));
+        when(mongoTemplate.updateMulti(any(Query.class), any(Update.class), eq("characters")))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        // When
+        villageReferenceMigration.run(new DefaultApplicationArguments());
+
+        // Then
+        ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> updateCaptor = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, times(2)).updateMulti(queryCaptor.capture(), updateCaptor.capture(), eq("characters"));
+        assertThat(queryCaptor.getAllValues().getFirst().getQueryObject().toJson())
+                .contains("\"village\": \"v1\"")
+                .contains("\"village._id\": \"v1\"");
+        assertThat(updateCaptor.getAllValues().getFirst().getUpdateObject().toJson())
+                .contains("\"village\": {\"_id\": \"v1\", \"name\": \"Indomitable Village\"}");
+        assertThat(queryCaptor.getAllValues().get(1).getQueryObject().toJson()).contains("\"$type\"");
+        assertThat(updateCaptor.getAllValues().get(1).getUpdateObject().toJson()).contains("\"$unset\": {\"village\"");
+        verify(entityCache, times(1)).evictAllCharacters();
+        verify(responseCacheService, times(1)).invalidate();
+    }
+
+    @Test
+    @DisplayName("migrate should not throw when the database is unavailable")
+    void migrate_shouldNotThrow_whenDatabaseUnavailable() {
+        // Given
+        when(mongoTemplate.getCollectionName(Character.class)).thenReturn("characters");
+        when(mongoTemplate.findAll(Village.class)).thenThrow(new DataAccessResourceFailureException("unreachable"));
+
+        // When / Then
+        assertThatCode(villageReferenceMigration::migrate).doesNotThrowAnyException();
+        verify(mongoTemplate, never()).updateMulti(any(Query.class), any(Update.class), anyString());
+        verify(responseCacheService, times(1)).invalidate();
+    }
+}
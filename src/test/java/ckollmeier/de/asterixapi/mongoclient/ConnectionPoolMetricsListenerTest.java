@@ -0,0 +1,161 @@
+package ckollmeier.de.asterixapi.mongoclient;
+
+import ckollmeier.de.asterixapi.configuration.MongoClientConfiguration;
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.MongoTimeoutException;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.mongodb.MongoMetricsConnectionPoolListener;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for {@link ConnectionPoolMetricsListener} using the Given-When-Then pattern.
+ * <p>
+ * Saturates a pool of {@value #POOL_SIZE} connections to an embedded MongoDB stand-in by blocking commands
+ * in a command listener, which runs while the command holds its connection.
+ * </p>
+ */
+class ConnectionPoolMetricsListenerTest {
+
+    private static final int POOL_SIZE = 2;
+
+    private static final Duration MAX_WAIT_TIME = Duration.ofMillis(200);
+
+    private final MongoServer server = new MongoServer(new MemoryBackend());
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final AtomicBoolean blocking = new AtomicBoolean();
+
+    private final CountDownLatch blocked = new CountDownLatch(POOL_SIZE);
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(POOL_SIZE);
+
+    private MongoClient client;
+
+    private MongoCollection<Document> collection;
+
+    @BeforeEach
+    void setUp() {
+        final InetSocketAddress address = server.bind();
+        final CommandListener blockingListener = new CommandListener() {
+            @Override
+            public void commandStarted(final CommandStartedEvent event) {
+                if (blocking.get() && event.getCommandName().equals("find")) {
+                    blocked.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }
+        };
+        final MongoClientProperties properties = new MongoClientProperties(
+                new MongoClientProperties.Pool(POOL_SIZE, 0, 2, MAX_WAIT_TIME, Duration.ofMinutes(10), Duration.ZERO),
+                Duration.ofSeconds(10), Duration.ZERO, Duration.ofSeconds(5), List.of());
+        final MongoClientSettings.Builder builder = MongoClientSettings.builder()
+                .applyConnectionString(new ConnectionString("mongodb://" + address.getHostString() + ":" + address.getPort()))
+                .applyToConnectionPoolSettings(settings -> settings
+                        .addConnectionPoolListener(new MongoMetricsConnectionPoolListener(meterRegistry)))
+                .addCommandListener(blockingListener);
+        new MongoClientConfiguration().mongoClientCustomizer(properties, new ConnectionPoolMetricsListener(meterRegistry))
+                .customize(builder);
+        client = MongoClients.create(builder.build());
+        collection = client.getDatabase("pool").getCollection("characters");
+        collection.insertOne(new Document("name", "Asterix"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.shutdownNow();
+        client.close();
+        server.shutdown();
+    }
+
+    private double checkedOut() {
+        return meterRegistry.get("mongodb.driver.pool.checkedout").gauge().value();
+    }
+
+    private Timer waitTimer(final String outcome) {
+        return meterRegistry.get(ConnectionPoolMetricsListener.WAIT_METRIC).tag("outcome", outcome).timer();
+    }
+
+    @Test
+    @DisplayName("should fail commands after the max wait time when the pool is exhausted and record the wait")
+    void saturatedPool_shouldTimeOutAndRecordWaitTime() throws Exception {
+        // Given
+        blocking.set(true);
+        executor.submit(() -> collection.find().first());
+        executor.submit(() -> collection.find().first());
+        assertThat(blocked.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // When
+        final long start = System.nanoTime();
+        assertThatThrownBy(() -> collection.find().first())
+                .isInstanceOf(MongoTimeoutException.class)
+                .hasMessageContaining("waiting for a connection");
+        final long waitedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // Then
+        assertThat(checkedOut()).isEqualTo(POOL_SIZE);
+        assertThat(waitedMillis).isGreaterThanOrEqualTo(MAX_WAIT_TIME.toMillis());
+        assertThat(waitTimer("timeout").count()).isEqualTo(1);
+        assertThat(waitTimer("timeout").totalTime(TimeUnit.MILLISECONDS)).isGreaterThanOrEqualTo(MAX_WAIT_TIME.toMillis());
+        assertThat(meterRegistry.get("mongodb.driver.pool.waitqueuesize").gauge().value()).isZero();
+    }
+
+    @Test
+    @DisplayName("should serve waiting commands once connections are returned")
+    void saturatedPool_shouldServeWaitersAfterRelease() throws Exception {
+        // Given
+        blocking.set(true);
+        final List<Future<Document>> holders = List.of(
+                executor.submit(() -> collection.find().first()),
+                executor.submit(() -> collection.find().first()));
+        assertThat(blocked.await(5, TimeUnit.SECONDS)).isTrue();
+        final long successesBefore = waitTimer("success").count();
+
+        // When
+        blocking.set(false);
+        release.countDown();
+        for (Future<Document> holder : holders) {
+            assertThat(holder.get(5, TimeUnit.SECONDS).getString("name")).isEqualTo("Asterix");
+        }
+        final Document document = collection.find().first();
+
+        // Then
+        assertThat(document).isNotNull();
+        assertThat(checkedOut()).isZero();
+        assertThat(waitTimer("success").count()).isGreaterThan(successesBefore);
+        assertThat(meterRegistry.find(ConnectionPoolMetricsListener.WAIT_METRIC).tag("outcome", "timeout").timer()).isNull();
+    }
+}
@@ -0,0 +1,119 @@
+package ckollmeier.de.asterixapi.mongoconcern;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.SimpleMongoClientDatabaseFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Benchmark of the insert throughput under the write concerns of different {@link MongoConcerns} profiles.
+ * <p>
+ * Inserts {@code benchmark.documents} documents once one by one and once in batches of
+ * {@code benchmark.batch-size} through a {@link MongoTemplate} on a {@link MongoConcernDatabaseFactory}, for
+ * {@code w:1}, {@code w:majority} and {@code w:majority} with journaling, and prints the documents per second.
+ * Each profile is warmed up with one untimed round first.
+ * </p>
+ * <p>
+ * Tagged {@code load-test}, so it only runs with the load-test Maven profile:
+ * {@code mvn test -Pload-test -Dtest=MongoConcernBenchmark}. It runs against the in-memory Mongo stand-in,
+ * which acknowledges every write concern but has neither secondaries nor a journal, so the numbers show the
+ * overhead of the concerns in the driver and the stand-in only; against a replica set, {@code w:majority}
+ * additionally waits for replication and the gap to {@code w:1} grows with the latency between the members.
+ * Unacknowledged writes ({@code w:0}) are left out because the stand-in does not support them.
+ * </p>
+ */
+@Tag("load-test")
+class MongoConcernBenchmark {
+
+    private static final int DOCUMENTS = Integer.getInteger("benchmark.documents", 20_000);
+    private static final int BATCH_SIZE = Integer.getInteger("benchmark.batch-size", 500);
+
+    /**
+     * The benchmarked profiles by name.
+     */
+    private static final Map<String, MongoConcernProperties.Profile> PROFILES = new LinkedHashMap<>();
+
+    static {
+        PROFILES.put("w1", new MongoConcernProperties.Profile("1", null, null, null));
+        PROFILES.put("majority", new MongoConcernProperties.Profile("majority", null, Duration.ofSeconds(5), null));
+        PROFILES.put("majority-journaled", new MongoConcernProperties.Profile("majority", true, Duration.ofSeconds(5), null));
+    }
+
+    private static MongoServer server;
+    private static MongoClient client;
+    private static MongoTemplate mongoTemplate;
+
+    @BeforeAll
+    static void startServer() {
+        server = new MongoServer(new MemoryBackend());
+        client = MongoClients.create(server.bindAndGetConnectionString());
+        mongoTemplate = new MongoTemplate(new MongoConcernDatabaseFactory(new SimpleMongoClientDatabaseFactory(client, "benchmark")));
+    }
+
+    @AfterAll
+    static void stopServer() {
+        client.close();
+        server.shutdownNow();
+    }
+
+    @Test
+    void benchmarkWriteConcerns() {
+        System.out.printf("%-20s %15s %15s%n", "profile", "single docs/s", "batched docs/s");
+        for (Map.Entry<String, MongoConcernProperties.Profile> profile : PROFILES.entrySet()) {
+            MongoConcerns concerns = MongoConcerns.of(profile.getValue());
+            String collection = "benchmark-" + profile.getKey();
+
+            run(concerns, collection, 1);
+            run(concerns, collection, BATCH_SIZE);
+            double single = run(concerns, collection, 1);
+            double batched = run(concerns, collection, BATCH_SIZE);
+
+            System.out.printf("%-20s %15.0f %15.0f%n", profile.getKey(), single, batched);
+            assertThat(mongoTemplate.getCollection(collection).countDocuments()).isEqualTo(4L * DOCUMENTS);
+        }
+    }
+
+    /**
+     * Inserts {@link #DOCUMENTS} documents with the given concerns bound.
+     *
+     * @param concerns   the concerns
+     * @param collection the collection to insert into
+     * @param batchSize  the number of documents per insert
+     * @return the inserted documents per second
+     */
+    private static double run(final MongoConcerns concerns, final String collection, final int batchSize) {
+        MongoConcerns previous = MongoConcerns.bind(concerns);
+        try {
+            long start = System.nanoTime();
+            for (int inserted = 0; inserted < DOCUMENTS; inserted += batchSize) {
+                List<Document> batch = new ArrayList<>(batchSize);
+                for (int i = 0; i < batchSize; i++) {
+                    batch.add(new Document("name", "Gaul " + (inserted + i)).append("age", (inserted + i) % 90));
+                }
+                if (batchSize == 1) {
+                    mongoTemplate.insert(batch.getFirst(), collection);
+                } else {
+                    mongoTemplate.insert(batch, collection);
+                }
+            }
+            return DOCUMENTS / ((System.nanoTime() - start) / 1e9);
+        } finally {
+            MongoConcerns.restore(previous);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package ckollmeier.de.asterixapi.mongoconcern;
+
+import com.mongodb.ReadConcern;
+import com.mongodb.WriteConcern;
+import com.mongodb.client.MongoDatabase;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link MongoConcernInterceptor} and {@link MongoConcernDatabaseFactory} using the
+ * Given-When-Then pattern.
+ */
+class MongoConcernInterceptorTest {
+
+    private final MongoConcernRegistry registry = new MongoConcernRegistry(new MongoConcernProperties(
+            Map.of("critical", new MongoConcernProperties.Profile("majority", null, null, "majority"),
+                    "bulk", new MongoConcernProperties.Profile("1", false, null, null)),
+            List.of()));
+
+    /**
+     * A bean using the bulk profile for all methods except the annotated one.
+     */
+    @MongoConcern("bulk")
+    public static class Operations {
+
+        public Optional<MongoConcerns> importAll() {
+            return MongoConcerns.current();
+        }
+
+        @MongoConcern("critical")
+        public Optional<MongoConcerns> delete() {
+            return MongoConcerns.current();
+        }
+    }
+
+    private Operations proxy() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerSingleton("registry", registry);
+        ProxyFactory proxyFactory = new ProxyFactory(new Operations());
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvisor(new DefaultPointcutAdvisor(
+                new MongoConcernInterceptor(beanFactory.getBeanProvider(MongoConcernRegistry.class))));
+        return (Operations) proxyFactory.getProxy();
+    }
+
+    @Test
+    @DisplayName("should bind the profile of the method, else of the class, for the duration of the call")
+    void shouldBindProfileDuringCall() {
+        // Given
+        Operations operations = proxy();
+
+        // When
+        Optional<MongoConcerns> imported = operations.importAll();
+        Optional<MongoConcerns> deleted = operations.delete();
+
+        // Then
+        assertThat(imported).contains(registry.get("bulk"));
+        assertThat(deleted).contains(registry.get("critical"));
+        assertThat(MongoConcerns.current()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("should restore the concerns bound by the caller")
+    void shouldRestoreConcernsOfCaller() {
+        // Given
+        Operations operations = proxy();
+        MongoConcerns endpoint = registry.get("bulk");
+        MongoConcerns previous = MongoConcerns.bind(endpoint);
+
+        try {
+            // When
+            Optional<MongoConcerns> deleted = operations.delete();
+
+            // Then
+            assertThat(deleted).contains(registry.get("critical"));
+            assertThat(MongoConcerns.current()).contains(endpoint);
+        } finally {
+            MongoConcerns.restore(previous);
+        }
+    }
+
+    @Test
+    @DisplayName("should apply the bound concerns to the database and leave it untouched without")
+    void shouldApplyBoundConcernsToDatabase() {
+        // Given
+        MongoDatabase database = mock(MongoDatabase.class);
+        MongoDatabase withWriteConcern = mock(MongoDatabase.class);
+        MongoDatabase withBoth = mock(MongoDatabase.class);
+        when(database.withWriteConcern(WriteConcern.MAJORITY)).thenReturn(withWriteConcern);
+        when(withWriteConcern.withReadConcern(ReadConcern.MAJORITY)).thenReturn(withBoth);
+
+        // When
+        MongoDatabase unbound = MongoConcernDatabaseFactory.applyConcerns(database);
+        MongoConcerns previous = MongoConcerns.bind(registry.get("critical"));
+        MongoDatabase bound;
+        try {
+            bound = MongoConcernDatabaseFactory.applyConcerns(database);
+        } finally {
+            MongoConcerns.restore(previous);
+        }
+
+        // Then
+        assertThat(unbound).isSameAs(database);
+        assertThat(bound).isSameAs(withBoth);
+        verify(database).withWriteConcern(WriteConcern.MAJORITY);
+        verifyNoInteractions(withBoth);
+    }
+
+    @Test
+    @DisplayName("should parse the write concern timeout")
+    void shouldParseWriteConcernTimeout() {
+        // When
+        MongoConcerns concerns = MongoConcerns.of(new MongoConcernProperties.Profile(null, null, Duration.ofMillis(250), null));
+
+        // Then
+        assertThat(concerns.writeConcern().getWTimeout(TimeUnit.MILLISECONDS)).isEqualTo(250);
+        assertThat(concerns.writeConcern().getWObject()).isNull();
+    }
+}
@@ -0,0 +1,78 @@
+package ckollmeier.de.asterixapi.mongoconcern;
+
+import com.mongodb.ReadConcern;
+import com.mongodb.WriteConcern;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Unit tests for {@link MongoConcernRegistry} using the Given-When-Then pattern.
+ */
+class MongoConcernRegistryTest {
+
+    private final MongoConcernProperties.Profile critical =
+            new MongoConcernProperties.Profile("majority", true, Duration.ofSeconds(5), "majority");
+    private final MongoConcernProperties.Profile bulk =
+            new MongoConcernProperties.Profile("0", null, null, null);
+
+    @Test
+    @DisplayName("should create the write and read concerns of the profiles")
+    void shouldCreateConcernsOfProfiles() {
+        // Given
+        MongoConcernRegistry registry = new MongoConcernRegistry(new MongoConcernProperties(
+                Map.of("critical", critical, "bulk", bulk, "local", new MongoConcernProperties.Profile(null, null, null, "local")),
+                List.of()));
+
+        // When
+        MongoConcerns criticalConcerns = registry.get("critical");
+        MongoConcerns bulkConcerns = registry.get("bulk");
+        MongoConcerns localConcerns = registry.get("local");
+
+        // Then
+        assertThat(criticalConcerns.writeConcern())
+                .isEqualTo(WriteConcern.MAJORITY.withJournal(true).withWTimeout(5, TimeUnit.SECONDS));
+        assertThat(criticalConcerns.readConcern()).isEqualTo(ReadConcern.MAJORITY);
+        assertThat(bulkConcerns.writeConcern()).isEqualTo(WriteConcern.UNACKNOWLEDGED);
+        assertThat(bulkConcerns.writeConcern().isAcknowledged()).isFalse();
+        assertThat(bulkConcerns.readConcern()).isNull();
+        assertThat(localConcerns.writeConcern()).isNull();
+        assertThat(localConcerns.readConcern()).isEqualTo(ReadConcern.LOCAL);
+    }
+
+    @Test
+    @DisplayName("should apply the profile of the first endpoint matching method and path")
+    void shouldMatchFirstEndpoint() {
+        // Given
+        MongoConcernRegistry registry = new MongoConcernRegistry(new MongoConcernProperties(
+                Map.of("critical", critical, "bulk", bulk),
+                List.of(new MongoConcernProperties.Endpoint("DELETE", "/api/asterix/villages/**", "critical"),
+                        new MongoConcernProperties.Endpoint(null, "/api/asterix/**", "bulk"))));
+
+        // When / Then
+        assertThat(registry.forEndpoint("DELETE", "/api/asterix/villages/remove")).contains(registry.get("critical"));
+        assertThat(registry.forEndpoint("POST", "/api/asterix/villages/add")).contains(registry.get("bulk"));
+        assertThat(registry.forEndpoint("GET", "/actuator/health")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("should reject unknown profiles and invalid read concern levels")
+    void shouldRejectInvalidConfiguration() {
+        // Given
+        MongoConcernRegistry registry = new MongoConcernRegistry(new MongoConcernProperties(Map.of(), List.of()));
+
+        // When / Then
+        assertThrows(IllegalArgumentException.class, () -> registry.get("critical"));
+        assertThrows(IllegalArgumentException.class, () -> new MongoConcernRegistry(new MongoConcernProperties(
+                Map.of(), List.of(new MongoConcernProperties.Endpoint(null, "/**", "critical")))));
+        assertThrows(IllegalArgumentException.class, () -> new MongoConcernRegistry(new MongoConcernProperties(
+                Map.of("dirty", new MongoConcernProperties.Profile(null, null, null, "dirty")), List.of())));
+    }
+}
@@ -0,0 +1,68 @@
+package ckollmeier.de.asterixapi.namefilter;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Unit tests for {@link BloomFilter} using the Given-When-Then pattern.
+ */
+class BloomFilterTest {
+
+    @Test
+    @DisplayName("should contain every added string")
+    void mightContain_shouldHaveNoFalseNegatives() {
+        // Given
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+
+        // When
+        IntStream.range(0, 10_000).forEach(i -> filter.put("Character " + i));
+
+        // Then
+        assertThat(IntStream.range(0, 10_000)).allMatch(i -> filter.mightContain("Character " + i));
+        assertThat(filter.getInsertions()).isEqualTo(10_000);
+    }
+
+    @Test
+    @DisplayName("should reject unknown strings at about the configured false-positive rate")
+    void mightContain_shouldKeepFalsePositiveRate() {
+        // Given
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        IntStream.range(0, 10_000).forEach(i -> filter.put("Character " + i));
+
+        // When
+        long falsePositives = IntStream.range(0, 100_000).filter(i -> filter.mightContain("Unknown " + i)).count();
+
+        // Then
+        assertThat(falsePositives / 100_000.0).isLessThan(0.015);
+        assertThat(filter.getExpectedFalsePositiveRate()).isCloseTo(0.01, within(0.003));
+    }
+
+    @Test
+    @DisplayName("should be sized by the expected insertions and false-positive rate")
+    void constructor_shouldSizeFilter() {
+        // When
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+
+        // Then
+        // About 9.6 bits and 7 hash functions per string for 1%
+        assertThat(filter.getBitSize()).isBetween(95_800L, 95_900L);
+        assertThat(filter.getMemoryBytes()).isEqualTo(filter.getBitSize() / 8);
+        assertThat(filter.getHashCount()).isEqualTo(7);
+        assertThat(filter.getExpectedFalsePositiveRate()).isZero();
+        assertThat(filter.mightContain("Asterix")).isFalse();
+    }
+
+    @Test
+    @DisplayName("should reject invalid sizes")
+    void constructor_shouldRejectInvalidArguments() {
+        assertThatThrownBy(() -> new BloomFilter(0, 0.01)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new BloomFilter(100, 0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new BloomFilter(100, 1)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
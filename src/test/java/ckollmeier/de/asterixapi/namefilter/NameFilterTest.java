@@ -0,0 +1,237 @@
+package ckollmeier.de.asterixapi.namefilter;
+
+import ckollmeier.de.asterixapi.dto.ChangesDTO;
+import ckollmeier.de.asterixapi.dto.CharacterOutputDTO;
+import ckollmeier.de.asterixapi.dto.VillageCountOutputDTO;
+import ckollmeier.de.asterixapi.event.ChangeEvent;
+import ckollmeier.de.asterixapi.exception.GoneException;
+import ckollmeier.de.asterixapi.model.Character;
+import ckollmeier.de.asterixapi.model.Village;
+import ckollmeier.de.asterixapi.model.VillageReference;
+import ckollmeier.de.asterixapi.repository.ChangeLogRepository;
+import ckollmeier.de.asterixapi.repository.CharacterRepository;
+import ckollmeier.de.asterixapi.repository.VillageRepository;
+import ckollmeier.de.asterixapi.service.ChangeLogService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link NameFilter} using the Given-When-Then pattern.
+ */
+@ExtendWith(MockitoExtension.class)
+class NameFilterTest {
+
+    @Mock
+    private CharacterRepository characterRepository;
+    @Mock
+    private VillageRepository villageRepository;
+    @Mock
+    private ChangeLogRepository changeLogRepository;
+    @Mock
+    private ChangeLogService changeLogService;
+
+    private final NameFilterProperties properties = new NameFilterProperties(true, 0.01, 100);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final Village village = new Village("v1", "Indomitable Village", 1, 0L);
+    private final Character asterix = new Character("c1", "Asterix", 35, "Warrior", VillageReference.of(village));
+
+    private NameFilter nameFilter;
+
+    @BeforeEach
+    void setUp() {
+        nameFilter = newNameFilter(properties);
+    }
+
+    private NameFilter newNameFilter(final NameFilterProperties filterProperties) {
+        return new NameFilter(filterProperties, characterRepository, villageRepository, changeLogRepository,
+                changeLogService, meterRegistry);
+    }
+
+    private void givenRepositories(final List<Character> characters, final List<Village> villages) {
+        when(changeLogRepository.currentSequence()).thenReturn(7L);
+        when(characterRepository.count()).thenReturn((long) characters.size());
+        when(villageRepository.count()).thenReturn((long) villages.size());
+        when(characterRepository.findAll()).thenReturn(characters);
+        when(villageRepository.findAll()).thenReturn(villages);
+    }
+
+    private double lookups(final String type, final String outcome) {
+        return meterRegistry.get(NameFilter.LOOKUPS_METRIC).tag("type", type).tag("outcome", outcome).counter().count();
+    }
+
+    @Test
+    @DisplayName("should pass every name until the filters are built")
+    void mightContain_shouldPassAllNamesBeforeBuild() {
+        // When / Then
+        assertThat(nameFilter.mightContainCharacter("Nobody")).isTrue();
+        assertThat(nameFilter.mightContainVillage("Nowhere")).isTrue();
+        assertThat(lookups("characters", "rejected")).isZero();
+        assertThat(meterRegistry.get(NameFilter.MEMORY_METRIC).tag("type", "characters").gauge().value()).isZero();
+    }
+
+    @Test
+    @DisplayName("rebuild should let existing names pass and reject unknown names")
+    void rebuild_shouldFilterNames() {
+        // Given
+        givenRepositories(List.of(asterix), List.of(village));
+
+        // When
+        nameFilter.rebuild();
+
+        // Then
+        assertThat(nameFilter.mightContainCharacter("Asterix")).isTrue();
+        assertThat(nameFilter.mightContainVillage("Indomitable Village")).isTrue();
+        assertThat(nameFilter.mightContainCharacter("Nobody")).isFalse();
+        assertThat(nameFilter.mightContainVillage("Nowhere")).isFalse();
+        assertThat(lookups("characters", "passed")).isEqualTo(1);
+        assertThat(lookups("characters", "rejected")).isEqualTo(1);
+        assertThat(lookups("villages", "rejected")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("should publish memory, expected and observed false-positive rates")
+    void metrics_shouldBePublished() {
+        // Given
+        givenRepositories(List.of(asterix), List.of(village));
+        nameFilter.rebuild();
+
+        // When
+        nameFilter.mightContainCharacter("Asterix");
+        nameFilter.recordCharacterMiss();
+
+        // Then
+        assertThat(meterRegistry.get(NameFilter.MEMORY_METRIC).tag("type", "characters").gauge().value())
+                .isEqualTo(new BloomFilter(100, 0.01).getMemoryBytes());
+        assertThat(meterRegistry.get(NameFilter.FALSE_POSITIVE_RATE_METRIC).tag("type", "villages").gauge().value())
+                .isBetween(0.0, 0.01);
+        assertThat(lookups("characters", "false-positive")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("onChange should add the names of added, moved and renamed entities")
+    void onChange_shouldAddNames() {
+        // Given
+        givenRepositories(List.of(asterix), List.of(village));
+        nameFilter.rebuild();
+        Character obelix = new Character("c2", "Obelix", 35, "Menhir Carrier", VillageReference.of(village));
+
+        // When
+        nameFilter.onChange(ChangeEvent.characterAdded(obelix));
+        nameFilter.onChange(ChangeEvent.characterMoved(asterix.withName("Asterix the Gaul"), "v0"));
+        nameFilter.onChange(ChangeEvent.villageRenamed(village.withName("Armorica")));
+        nameFilter.onChange(ChangeEvent.characterRemoved("c2"));
+
+        // Then
+        assertThat(nameFilter.mightContainCharacter("Obelix")).isTrue();
+        assertThat(nameFilter.mightContainCharacter("Asterix the Gaul")).isTrue();
+        assertThat(nameFilter.mightContainVillage("Armorica")).isTrue();
+    }
+
+    @Test
+    @DisplayName("sync should add the names of other instances from the change log")
+    void sync_shouldAddNamesFromChangeLog() {
+        // Given
+        givenRepositories(List.of(asterix), List.of(village));
+        nameFilter.rebuild();
+        when(changeLogService.getChangesSince(7L)).thenReturn(new ChangesDTO(9L,
+                List.of(new CharacterOutputDTO("c3", "Miraculix", 80, "Druid", null)),
+                List.of(new VillageCountOutputDTO("v2", "Babaorum", 0)),
+                List.of(),
+                List.of()));
+
+        // When
+        nameFilter.sync();
+
+        // Then
+        assertThat(nameFilter.mightContainCharacter("Miraculix")).isTrue();
+        assertThat(nameFilter.mightContainVillage("Babaorum")).isTrue();
+
+        when(changeLogService.getChangesSince(9L)).thenReturn(new ChangesDTO(9L, List.of(), List.of(), List.of(), List.of()));
+        nameFilter.sync();
+        verify(changeLogService).getChangesSince(9L);
+    }
+
+    @Test
+    @DisplayName("sync should rebuild the filters if the change log no longer covers them")
+    void sync_shouldRebuildIfChangesAreGone() {
+        // Given
+        givenRepositories(List.of(asterix), List.of(village));
+        nameFilter.rebuild();
+        when(changeLogService.getChangesSince(7L)).thenThrow(new GoneException("gone"));
+        when(characterRepository.findAll()).thenReturn(List.of(asterix.withName("Astérix")));
+
+        // When
+        nameFilter.sync();
+
+        // Then
+        assertThat(nameFilter.mightContainCharacter("Astérix")).isTrue();
+    }
+
+    @Test
+    @DisplayName("sync should rebuild the filters once stale names exceed twice the false-positive rate")
+    void sync_shouldRebuildSaturatedFilters() {
+        // Given
+        givenRepositories(List.of(asterix), List.of(village));
+        nameFilter.rebuild();
+        // Renames leave the previous names in the filter; five times the sized capacity saturates it
+        IntStream.range(0, 500).forEach(i -> nameFilter.onChange(ChangeEvent.characterUpdated(asterix.withName("Asterix " + i))));
+        when(changeLogService.getChangesSince(7L)).thenReturn(new ChangesDTO(8L, List.of(), List.of(), List.of(), List.of()));
+
+        // When
+        nameFilter.sync();
+
+        // Then
+        assertThat(nameFilter.mightContainCharacter("Asterix")).isTrue();
+        assertThat(IntStream.range(0, 500).filter(i -> nameFilter.mightContainCharacter("Asterix " + i)).count())
+                .isLessThan(25);
+    }
+
+    @Test
+    @DisplayName("a failed rebuild should keep the previous filters and sync should wait for the first build")
+    void rebuild_shouldKeepFiltersOnFailure() {
+        // Given
+        givenRepositories(List.of(asterix), List.of(village));
+        nameFilter.rebuild();
+        when(characterRepository.findAll()).thenThrow(new DataAccessResourceFailureException("down"));
+        NameFilter unbuilt = newNameFilter(properties);
+
+        // When
+        nameFilter.rebuild();
+        unbuilt.rebuild();
+        unbuilt.sync();
+
+        // Then
+        assertThat(nameFilter.mightContainCharacter("Nobody")).isFalse();
+        assertThat(unbuilt.mightContainCharacter("Nobody")).isTrue();
+        verify(changeLogService, never()).getChangesSince(anyLong());
+    }
+
+    @Test
+    @DisplayName("a disabled filter should never be built and pass every name")
+    void rebuild_shouldDoNothingWhenDisabled() {
+        // Given
+        NameFilter disabled = newNameFilter(new NameFilterProperties(false, 0.01, 100));
+
+        // When
+        disabled.rebuild();
+
+        // Then
+        assertThat(disabled.mightContainCharacter("Nobody")).isTrue();
+        verify(characterRepository, never()).findAll();
+    }
+}
@@ -0,0 +1,313 @@
+package ckollmeier.de.asterixapi.querycount;
+
+import ckollmeier.de.asterixapi.model.ChangeLogEntry;
+import ckollmeier.de.asterixapi.model.Character;
+import ckollmeier.de.asterixapi.model.Village;
+import ckollmeier.de.asterixapi.model.VillageReference;
+import ckollmeier.de.asterixapi.namefilter.NameFilter;
+import ckollmeier.de.asterixapi.repository.ChangeLogRepository;
+import ckollmeier.de.asterixapi.repository.CharacterRepository;
+import ckollmeier.de.asterixapi.repository.VillageRepository;
+import ckollmeier.de.asterixapi.service.ChangeLogService;
+import ckollmeier.de.asterixapi.service.EntityCache;
+import ckollmeier.de.asterixapi.service.ResponseCacheService;
+import ckollmeier.de.asterixapi.service.SearchService;
+import ckollmeier.de.asterixapi.service.VillageRegistry;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.request;
+
+/**
+ * Guards every endpoint against N+1 query patterns.
+ * <p>
+ * Runs each endpoint against an embedded MongoDB stand-in seeded with datasets of increasing size and
+ * asserts that the number of database commands reported by {@link QueryCountFilter} stays below a fixed
+ * bound. A query per character or village makes the count grow with the dataset and fails the test.
+ * The dataset always has {@value #INHABITANTS_PER_VILLAGE} inhabitants per village, so the endpoints
+ * moving the inhabitants of one village (which save each moved character) work on the same number of characters
+ * at every size. Every write records its changes as one batch with a fixed number of commands. This is checked
+ * for batch removals of different size, and for the removal of villages of different size.
+ * </p>
+ */
+@SpringBootTest(properties = "asterix.query-count.headers=true")
+@AutoConfigureMockMvc
+class EndpointQueryBoundsTest {
+
+    private static final MongoServer MONGO = new MongoServer(new MemoryBackend());
+
+    private static final int INHABITANTS_PER_VILLAGE = 5;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CharacterRepository characterRepository;
+
+    @Autowired
+    private VillageRepository villageRepository;
+
+    @Autowired
+    private ChangeLogRepository changeLogRepository;
+
+    @Autowired
+    private ChangeLogService changeLogService;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ResponseCacheService responseCacheService;
+
+    @Autowired
+    private EntityCache entityCache;
+
+    @Autowired
+    private SearchService searchService;
+
+    @Autowired
+    private NameFilter nameFilter;
+
+    @Autowired
+    private VillageRegistry villageRegistry;
+
+    @DynamicPropertySource
+    static void mongoProperties(final DynamicPropertyRegistry registry) {
+        final InetSocketAddress address = MONGO.bind();
+        registry.add("spring.data.mongodb.uri",
+                () -> "mongodb://" + address.getHostString() + ":" + address.getPort() + "/querybounds");
+    }
+
+    @AfterAll
+    static void stopMongo() {
+        MONGO.shutdown();
+    }
+
+    /**
+     * An endpoint and the maximum number of database commands it may issue.
+     *
+     * @param method     the HTTP method
+     * @param path       the path, {@code v0}, {@code v1} and {@code c0} etc. are ids of the seeded data
+     * @param body       the JSON body, {@code null} for none
+     * @param maxQueries the maximum number of commands
+     */
+    record Endpoint(HttpMethod method, String path, String body, int maxQueries) {
+        @Override
+        public String toString() {
+            return method + " " + path;
+        }
+    }
+
+    static Stream<Arguments> endpoints() {
+        final List<Endpoint> endpoints = List.of(
+                new Endpoint(HttpMethod.GET, "/api/asterix/villages", null, 2),
+                new Endpoint(HttpMethod.GET, "/api/asterix/villages?view=counts", null, 1),
+                new Endpoint(HttpMethod.GET, "/api/asterix/villages/page-data", null, 3),
+                new Endpoint(HttpMethod.GET, "/api/asterix/villages/Village 0", null, 1),
+                new Endpoint(HttpMethod.GET, "/api/asterix/villages/id/v0", null, 1),
+                new Endpoint(HttpMethod.GET, "/api/asterix/characters", null, 1),
+                new Endpoint(HttpMethod.GET, "/api/asterix/characters/page-data", null, 2),
+                new Endpoint(HttpMethod.GET, "/api/asterix/characters/Character 0", null, 1),
+                new Endpoint(HttpMethod.GET, "/api/asterix/characters/id/c0", null, 1),
+                new Endpoint(HttpMethod.GET, "/api/asterix/characters/profession/Warrior", null, 1),
+                new Endpoint(HttpMethod.GET, "/api/asterix/characters/minage/50", null, 1),
+                new Endpoint(HttpMethod.GET, "/api/asterix/changes?since=0", null, 1),
+                new Endpoint(HttpMethod.POST, "/api/asterix/characters/batch-get",
+                        "{\"ids\":[\"c1\",\"missing\",\"c0\",\"c9\"]}", 1),
+                new Endpoint(HttpMethod.POST, "/api/asterix/villages/batch-get",
+                        "{\"ids\":[\"v1\",\"missing\",\"v0\"]}", 1),
+                new Endpoint(HttpMethod.GET, "/api/asterix/search?q=charactr 1", null, 0),
+                new Endpoint(HttpMethod.POST, "/api/asterix/characters/add",
+                        "{\"name\":\"Idefix\",\"age\":3,\"profession\":\"Dog\",\"villageId\":\"v0\"}", 5),
+                new Endpoint(HttpMethod.PUT, "/api/asterix/characters/update/c0",
+                        "{\"age\":36,\"villageId\":\"v1\"}", 5),
+                new Endpoint(HttpMethod.DELETE, "/api/asterix/characters/remove", "{\"id\":\"c0\"}", 5),
+                new Endpoint(HttpMethod.DELETE, "/api/asterix/characters/batch-remove",
+                        "{\"ids\":[\"c0\",\"c1\",\"missing\"]}", 5),
+                new Endpoint(HttpMethod.POST, "/api/asterix/villages/add",
+                        "{\"name\":\"Rome\",\"characterIds\":[\"c0\",\"c1\"]}", 8),
+                new Endpoint(HttpMethod.PUT, "/api/asterix/villages/update/v0",
+                        "{\"name\":\"Armorica\",\"characterIds\":[\"c0\",\"c1\",\"c5\"]}", 13),
+                new Endpoint(HttpMethod.DELETE, "/api/asterix/villages/remove", "{\"id\":\"v0\"}", 6),
+                new Endpoint(HttpMethod.DELETE, "/api/asterix/villages/batch-remove",
+                        "{\"ids\":[\"v0\",\"v1\",\"missing\"]}", 7));
+        return endpoints.stream().flatMap(endpoint -> IntStream.of(10, 100, 1000)
+                .mapToObj(size -> Arguments.of(endpoint, size)));
+    }
+
+    @ParameterizedTest(name = "{0} with {1} characters")
+    @MethodSource("endpoints")
+    @DisplayName("should issue a bounded number of database commands independent of the dataset size")
+    void endpoint_shouldIssueBoundedNumberOfQueries(final Endpoint endpoint, final int size) throws Exception {
+        // Given
+        seed(size);
+
+        // When
+        MockHttpServletRequestBuilder builder = request(endpoint.method(), endpoint.path());
+        if (endpoint.body() != null) {
+            builder = builder.contentType(MediaType.APPLICATION_JSON).content(endpoint.body());
+        }
+        MvcResult result = mockMvc.perform(builder).andReturn();
+
+        // Then
+        assertThat(result.getResponse().getStatus()).isLessThan(400);
+        long queries = Long.parseLong(result.getResponse().getHeader(QueryCountFilter.COUNT_HEADER));
+        assertThat(queries).isLessThanOrEqualTo(endpoint.maxQueries());
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @ValueSource(strings = {"/api/asterix/characters/Nobody", "/api/asterix/villages/Nowhere"})
+    @DisplayName("should answer lookups of unknown names without a database command")
+    void unknownName_shouldBeAnsweredWithoutQuery(final String path) throws Exception {
+        // Given
+        seed(100);
+
+        // When
+        MvcResult result = mockMvc.perform(get(path)).andReturn();
+
+        // Then
+        assertThat(result.getResponse().getStatus()).isEqualTo(404);
+        assertThat(result.getResponse().getHeader(QueryCountFilter.COUNT_HEADER)).isEqualTo("0");
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @ValueSource(strings = {"/api/asterix/characters/batch-remove", "/api/asterix/villages/batch-remove"})
+    @DisplayName("should issue the same number of database commands for a batch of one and of many IDs")
+    void batchRemove_shouldIssueSameNumberOfQueriesForAnyBatchSize(final String path) throws Exception {
+        // Given
+        final String idPrefix = path.contains("/characters/") ? "c" : "v";
+        seed(1000);
+
+        // When
+        final long single = removeBatch(path, idPrefix, 1);
+        seed(1000);
+        // 20 villages have 100 inhabitants, which are still read in the first batch of the cursor
+        final long many = removeBatch(path, idPrefix, 20);
+
+        // Then
+        assertThat(many).isEqualTo(single);
+    }
+
+    @Test
+    @DisplayName("should issue the same number of database commands to remove a small and a large village")
+    void removeVillage_shouldIssueSameNumberOfQueriesForAnyNumberOfInhabitants() throws Exception {
+        // Given
+        seed(1000);
+        final long small = removeVillage("v0");
+        // 100 inhabitants are still read in the first batch of the cursor
+        seed(1000, 100);
+
+        // When
+        final long large = removeVillage("v0");
+
+        // Then
+        assertThat(large).isEqualTo(small);
+    }
+
+    /**
+     * Removes a village of the seeded dataset.
+     *
+     * @param id the ID of the village
+     * @return the number of database commands the request issued
+     * @throws Exception if the request fails
+     */
+    private long removeVillage(final String id) throws Exception {
+        final MvcResult result = mockMvc.perform(request(HttpMethod.DELETE, "/api/asterix/villages/remove")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"id\":\"" + id + "\"}")).andReturn();
+        assertThat(result.getResponse().getStatus()).isEqualTo(200);
+        return Long.parseLong(result.getResponse().getHeader(QueryCountFilter.COUNT_HEADER));
+    }
+
+    /**
+     * Removes the first entities of the seeded dataset with a batch request.
+     *
+     * @param path     the path of the batch removal
+     * @param idPrefix the prefix of the seeded IDs
+     * @param count    the number of IDs to remove
+     * @return the number of database commands the request issued
+     * @throws Exception if the request fails
+     */
+    private long removeBatch(final String path, final String idPrefix, final int count) throws Exception {
+        final String ids = IntStream.range(0, count)
+                .mapToObj(i -> "\"" + idPrefix + i + "\"")
+                .collect(Collectors.joining(","));
+        final MvcResult result = mockMvc.perform(request(HttpMethod.DELETE, path)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"ids\":[" + ids + "]}")).andReturn();
+        assertThat(result.getResponse().getStatus()).isEqualTo(200);
+        return Long.parseLong(result.getResponse().getHeader(QueryCountFilter.COUNT_HEADER));
+    }
+
+    /**
+     * Replaces the data with a dataset of the given size, clears all caches, rebuilds the search index and
+     * the name filters and loads the village registry.
+     *
+     * @param size the number of characters
+     */
+    private void seed(final int size) {
+        seed(size, INHABITANTS_PER_VILLAGE);
+    }
+
+    /**
+     * Replaces the data with a dataset of the given size and village size, clears all caches, rebuilds the
+     * search index and the name filters and loads the village registry.
+     *
+     * @param size                  the number of characters
+     * @param inhabitantsPerVillage the number of characters living in each village
+     */
+    private void seed(final int size, final int inhabitantsPerVillage) {
+        characterRepository.deleteAll();
+        villageRepository.deleteAll();
+        changeLogRepository.deleteAll();
+        // The stand-in cannot create capped collections, so changes are recorded in an uncapped one
+        if (!mongoTemplate.collectionExists(ChangeLogEntry.class)) {
+            mongoTemplate.createCollection(ChangeLogEntry.class);
+        }
+        changeLogService.createChangeLog();
+        final List<Village> villages = new ArrayList<>();
+        for (int i = 0; i < size / inhabitantsPerVillage; i++) {
+            villages.add(new Village("v" + i, "Village " + i, inhabitantsPerVillage, null));
+        }
+        villageRepository.saveAll(villages);
+        final List<Character> characters = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            characters.add(new Character("c" + i, "Character " + i, 20 + i % 60, i % 3 == 0 ? "Warrior" : "Druid",
+                    VillageReference.of(villages.get(i / inhabitantsPerVillage))));
+        }
+        characterRepository.saveAll(characters);
+        responseCacheService.invalidate();
+        entityCache.evictAllCharacters();
+        entityCache.evictAllVillages();
+        searchService.rebuild();
+        nameFilter.rebuild();
+        villageRegistry.reload();
+    }
+}
@@ -0,0 +1,89 @@
+package ckollmeier.de.asterixapi.querycount;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link QueryCountFilter} using the Given-When-Then pattern.
+ */
+class QueryCountFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private static MockHttpServletRequest request(final String path) {
+        final MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/asterix/villages/id/{id}");
+        return request;
+    }
+
+    @Test
+    @DisplayName("should count the commands of the request, record the metrics and return the headers")
+    void doFilter_shouldCountCommandsOfRequest() throws Exception {
+        // Given
+        QueryCountFilter filter = new QueryCountFilter(meterRegistry, true);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // When
+        filter.doFilter(request("/api/asterix/villages/id/v1"), response, (req, res) -> {
+            QueryStats.current().orElseThrow().record(1_500_000);
+            QueryStats.current().orElseThrow().record(500_000);
+            writeBody(res.getOutputStream());
+        });
+
+        // Then
+        assertThat(response.getHeader(QueryCountFilter.COUNT_HEADER)).isEqualTo("2");
+        assertThat(response.getHeader(QueryCountFilter.TIME_HEADER)).isEqualTo("2.000");
+        assertThat(response.getContentAsString()).isEqualTo("{}");
+        assertThat(QueryStats.current()).isEmpty();
+        assertThat(meterRegistry.get(QueryCountFilter.COMMANDS_METRIC)
+                .tag("method", "GET").tag("uri", "/api/asterix/villages/id/{id}")
+                .summary().totalAmount()).isEqualTo(2);
+        assertThat(meterRegistry.get(QueryCountFilter.TIME_METRIC).timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("should only record the metrics when the headers are disabled")
+    void doFilter_shouldOmitHeadersWhenDisabled() throws Exception {
+        // Given
+        QueryCountFilter filter = new QueryCountFilter(meterRegistry, false);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // When
+        filter.doFilter(request("/api/asterix/villages/id/v1"), response,
+                (req, res) -> QueryStats.current().orElseThrow().record(1_000));
+
+        // Then
+        assertThat(response.getHeader(QueryCountFilter.COUNT_HEADER)).isNull();
+        assertThat(meterRegistry.get(QueryCountFilter.COMMANDS_METRIC).summary().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("should not instrument the event stream")
+    void doFilter_shouldSkipEventStream() throws Exception {
+        // Given
+        QueryCountFilter filter = new QueryCountFilter(meterRegistry, true);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // When
+        filter.doFilter(request("/api/asterix/events"), response,
+                (req, res) -> assertThat(QueryStats.current()).isEmpty());
+
+        // Then
+        assertThat(response.getHeader(QueryCountFilter.COUNT_HEADER)).isNull();
+        assertThat(meterRegistry.find(QueryCountFilter.COMMANDS_METRIC).summary()).isNull();
+    }
+
+    private static void writeBody(final OutputStream outputStream) throws IOException {
+        outputStream.write("{}".getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,84 @@
+package ckollmeier.de.asterixapi.repository.memory;
+
+import ckollmeier.de.asterixapi.event.ChangeType;
+import ckollmeier.de.asterixapi.model.ChangeLogEntry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link InMemoryChangeLogRepository} using the Given-When-Then pattern.
+ */
+class InMemoryChangeLogRepositoryTest {
+
+    private final InMemoryChangeLogRepository changeLogRepository = new InMemoryChangeLogRepository();
+
+    private ChangeLogEntry record(final String entityId) {
+        final ChangeLogEntry entry = new ChangeLogEntry(changeLogRepository.nextSequence(), ChangeType.CHARACTER_UPDATED, entityId, Instant.EPOCH);
+        return changeLogRepository.insert(entry);
+    }
+
+    @Test
+    @DisplayName("should return the entries after a sequence number in order")
+    void findBySequenceGreaterThan_shouldReturnLaterEntriesInOrder() {
+        // Given
+        ChangeLogEntry first = record("c1");
+        ChangeLogEntry second = record("c2");
+        ChangeLogEntry third = record("c3");
+
+        // When / Then
+        assertThat(changeLogRepository.currentSequence()).isEqualTo(3L);
+        assertThat(changeLogRepository.findBySequenceGreaterThanOrderBySequenceAsc(1L)).containsExactly(second, third);
+        assertThat(changeLogRepository.findFirstByOrderBySequenceAsc()).contains(first);
+    }
+
+    @Test
+    @DisplayName("should allocate consecutive sequence numbers at once")
+    void nextSequences_shouldAllocateConsecutiveNumbers() {
+        // Given
+        record("c1");
+
+        // When
+        long first = changeLogRepository.nextSequences(3);
+
+        // Then
+        assertThat(first).isEqualTo(2L);
+        assertThat(changeLogRepository.currentSequence()).isEqualTo(4L);
+        assertThat(changeLogRepository.nextSequence()).isEqualTo(5L);
+    }
+
+    @Test
+    @DisplayName("should drop the oldest entries once the capped log is full")
+    void insert_shouldDropOldestEntriesWhenCapped() {
+        // Given
+        record("c1");
+        record("c2");
+
+        // When
+        boolean created = changeLogRepository.createCappedCollection(1024, 2);
+        record("c3");
+
+        // Then
+        assertThat(created).isTrue();
+        assertThat(changeLogRepository.createCappedCollection(1024, 5)).isFalse();
+        assertThat(changeLogRepository.findBySequenceGreaterThanOrderBySequenceAsc(0L))
+                .extracting(ChangeLogEntry::entityId).containsExactly("c2", "c3");
+        assertThat(changeLogRepository.findFirstByOrderBySequenceAsc()).get()
+                .extracting(ChangeLogEntry::sequence).isEqualTo(2L);
+    }
+
+    @Test
+    @DisplayName("should convert the change log only while it is not capped")
+    void convertToCappedCollection_shouldConvertOnlyUncappedLog() {
+        // When
+        boolean converted = changeLogRepository.convertToCappedCollection(1024);
+
+        // Then
+        assertThat(converted).isTrue();
+        assertThat(changeLogRepository.convertToCappedCollection(1024)).isFalse();
+        assertThat(changeLogRepository.createCappedCollection(1024, 5)).isFalse();
+    }
+}
@@ -0,0 +1,186 @@
+package ckollmeier.de.asterixapi.repository.memory;
+
+import ckollmeier.de.asterixapi.model.Character;
+import ckollmeier.de.asterixapi.model.CharacterPatch;
+import ckollmeier.de.asterixapi.model.CharacterUpdate;
+import ckollmeier.de.asterixapi.model.VillageReference;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Unit tests for {@link InMemoryCharacterRepository} using the Given-When-Then pattern.
+ */
+class InMemoryCharacterRepositoryTest {
+
+    private final VillageReference gaul = new VillageReference("v1", "Indomitable Village");
+    private final VillageReference rome = new VillageReference("v2", "Rome");
+
+    private InMemoryCharacterRepository characterRepository;
+    private Character asterix;
+    private Character obelix;
+    private Character caesar;
+
+    @BeforeEach
+    void setUp() {
+        characterRepository = new InMemoryCharacterRepository();
+        asterix = characterRepository.save(new Character("c1", "Asterix", 35, "Warrior", gaul));
+        obelix = characterRepository.save(new Character("c2", "Obelix", 30, "Menhir Carrier", gaul));
+        caesar = characterRepository.save(new Character("c3", "Caesar", 55, "Emperor", rome));
+    }
+
+    @Nested
+    @DisplayName("save Tests")
+    class SaveTests {
+
+        @Test
+        @DisplayName("should insert new characters with version 0 and generate missing ids")
+        void save_shouldInsertNewCharacters() {
+            // When
+            Character saved = characterRepository.save(new Character(null, "Idefix", 3, "Dog", gaul));
+
+            // Then
+            assertThat(asterix.version()).isZero();
+            assertThat(saved.id()).isNotNull();
+            assertThat(saved.version()).isZero();
+            assertThat(characterRepository.findById(saved.id())).contains(saved);
+            assertThat(characterRepository.count()).isEqualTo(4);
+        }
+
+        @Test
+        @DisplayName("should reject a new character with an existing id")
+        void save_shouldRejectDuplicateIds() {
+            // When / Then
+            assertThrows(DuplicateKeyException.class,
+                    () -> characterRepository.save(new Character("c1", "Asterix", 35, "Warrior", gaul)));
+        }
+
+        @Test
+        @DisplayName("should increment the version and reject stale versions")
+        void save_shouldApplyOptimisticLocking() {
+            // When
+            Character updated = characterRepository.save(asterix.withAge(36));
+
+            // Then
+            assertThat(updated.version()).isEqualTo(1L);
+            assertThrows(OptimisticLockingFailureException.class, () -> characterRepository.save(asterix.withAge(37)));
+            assertThrows(OptimisticLockingFailureException.class, () -> characterRepository.delete(asterix));
+            assertThat(characterRepository.findById("c1")).contains(updated);
+        }
+    }
+
+    @Nested
+    @DisplayName("query Tests")
+    class QueryTests {
+
+        @Test
+        @DisplayName("should find characters through the secondary indexes")
+        void find_shouldUseIndexes() {
+            // When / Then
+            assertThat(characterRepository.findOneByName("Obelix")).contains(obelix);
+            assertThat(characterRepository.findOneByName("Miraculix")).isEmpty();
+            assertThat(characterRepository.findByProfession("Emperor")).containsExactly(caesar);
+            assertThat(characterRepository.findByAgeGreaterThanEqual(35)).containsExactlyInAnyOrder(asterix, caesar);
+            assertThat(characterRepository.findByVillageId("v1")).containsExactlyInAnyOrder(asterix, obelix);
+            assertThat(characterRepository.findByVillageIdIn(List.of("v1", "v2", "v3"))).containsExactlyInAnyOrder(asterix, obelix, caesar);
+            assertThat(characterRepository.findByIdIn(Set.of("c1", "c4"))).containsExactly(asterix);
+        }
+
+        @Test
+        @DisplayName("should keep the indexes in sync with updates and deletes")
+        void find_shouldReflectChanges() {
+            // When
+            Character moved = characterRepository.save(obelix.withVillage(rome).withAge(60));
+            characterRepository.deleteById("c3");
+
+            // Then
+            assertThat(characterRepository.findByVillageId("v1")).containsExactly(asterix);
+            assertThat(characterRepository.findByVillageId("v2")).containsExactly(moved);
+            assertThat(characterRepository.findByAgeGreaterThanEqual(40)).containsExactly(moved);
+            assertThat(characterRepository.findByProfession("Emperor")).isEmpty();
+        }
+
+        @Test
+        @DisplayName("should match characters without a value when querying for null")
+        void find_shouldMatchMissingValues() {
+            // Given
+            Character idefix = characterRepository.save(new Character("c4", "Idefix", 3, "Dog", null));
+
+            // When / Then
+            assertThat(characterRepository.findByVillageId(null)).containsExactly(idefix);
+            assertThat(characterRepository.findByVillageIdIn(Arrays.asList("v2", null))).containsExactlyInAnyOrder(caesar, idefix);
+        }
+
+        @Test
+        @DisplayName("should sort and page by record properties, including nested ones")
+        void findAll_shouldSortAndPage() {
+            // When / Then
+            assertThat(characterRepository.findAll(Sort.by("age"))).containsExactly(obelix, asterix, caesar);
+            assertThat(characterRepository.findAll(Sort.by(Sort.Order.desc("village.name"), Sort.Order.asc("name"))))
+                    .containsExactly(caesar, asterix, obelix);
+            assertThat(characterRepository.findAll(PageRequest.of(1, 2, Sort.by("name"))).getContent())
+                    .containsExactly(obelix);
+        }
+    }
+
+    @Nested
+    @DisplayName("custom update Tests")
+    class CustomUpdateTests {
+
+        @Test
+        @DisplayName("updatePartially should apply the patch and return the previous and updated character")
+        void updatePartially_shouldApplyPatch() {
+            // When
+            Optional<CharacterUpdate> update = characterRepository.updatePartially("c2", new CharacterPatch(null, 31, null, true, rome));
+
+            // Then
+            Character updated = new Character("c2", "Obelix", 31, "Menhir Carrier", rome, 1L);
+            assertThat(update).contains(new CharacterUpdate(obelix, updated));
+            assertThat(characterRepository.findByVillageId("v2")).containsExactlyInAnyOrder(caesar, updated);
+            assertThat(characterRepository.updatePartially("c9", new CharacterPatch("X", null, null, false, null))).isEmpty();
+        }
+
+        @Test
+        @DisplayName("updateVillageName should rename the village on all inhabitants")
+        void updateVillageName_shouldRenameOnInhabitants() {
+            // When
+            long updated = characterRepository.updateVillageName("v1", "Armorica");
+
+            // Then
+            assertThat(updated).isEqualTo(2);
+            assertThat(characterRepository.findByVillageId("v1"))
+                    .allSatisfy(character -> {
+                        assertThat(character.village()).isEqualTo(new VillageReference("v1", "Armorica"));
+                        assertThat(character.version()).isEqualTo(1L);
+                    });
+            assertThat(characterRepository.countByVillageId()).containsEntry("v1", 2).containsEntry("v2", 1);
+        }
+
+        @Test
+        @DisplayName("unlinkVillages should remove the village from all inhabitants of the given villages")
+        void unlinkVillages_shouldRemoveVillageFromInhabitants() {
+            // When
+            long unlinked = characterRepository.unlinkVillages(Set.of("v1", "v9"));
+
+            // Then
+            assertThat(unlinked).isEqualTo(2);
+            assertThat(characterRepository.findByVillageId("v1")).isEmpty();
+            assertThat(characterRepository.findByVillageId(null)).containsExactlyInAnyOrder(
+                    asterix.withVillage(null).withVersion(1L), obelix.withVillage(null).withVersion(1L));
+            assertThat(characterRepository.findByVillageId("v2")).containsExactly(caesar);
+        }
+    }
+}
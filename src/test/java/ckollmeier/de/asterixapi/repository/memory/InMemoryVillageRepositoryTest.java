@@ -0,0 +1,125 @@
+package ckollmeier.de.asterixapi.repository.memory;
+
+import ckollmeier.de.asterixapi.model.Character;
+import ckollmeier.de.asterixapi.model.Village;
+import ckollmeier.de.asterixapi.model.VillageReference;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for {@link InMemoryVillageRepository} using the Given-When-Then pattern.
+ */
+class InMemoryVillageRepositoryTest {
+
+    private InMemoryCharacterRepository characterRepository;
+    private InMemoryVillageRepository villageRepository;
+    private Village village;
+
+    @BeforeEach
+    void setUp() {
+        characterRepository = new InMemoryCharacterRepository();
+        villageRepository = new InMemoryVillageRepository(characterRepository);
+        village = villageRepository.save(new Village("v1", "Indomitable Village"));
+    }
+
+    @Test
+    @DisplayName("findOneByName should follow renames")
+    void findOneByName_shouldFollowRenames() {
+        // When
+        Village renamed = villageRepository.save(village.withName("Armorica"));
+
+        // Then
+        assertThat(villageRepository.findOneByName("Armorica")).contains(renamed);
+        assertThat(villageRepository.findOneByName("Indomitable Village")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("incrementInhabitantCount should add the delta and keep the version")
+    void incrementInhabitantCount_shouldAddDelta() {
+        // When
+        villageRepository.incrementInhabitantCount("v1", 2);
+        villageRepository.incrementInhabitantCount("v1", -1);
+        villageRepository.incrementInhabitantCount("v9", 1);
+        villageRepository.incrementInhabitantCount(null, 1);
+
+        // Then
+        assertThat(villageRepository.findById("v1")).contains(new Village("v1", "Indomitable Village", 1, 0L));
+        assertThat(villageRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("incrementInhabitantCounts should add the delta of every village")
+    void incrementInhabitantCounts_shouldAddDeltas() {
+        // Given
+        villageRepository.save(new Village("v2", "Babaorum", 3, null));
+
+        // When
+        villageRepository.incrementInhabitantCounts(Map.of("v1", 2, "v2", -1, "v9", 1));
+
+        // Then
+        assertThat(villageRepository.findById("v1")).get().extracting(Village::inhabitantCount).isEqualTo(2);
+        assertThat(villageRepository.findById("v2")).get().extracting(Village::inhabitantCount).isEqualTo(2);
+        assertThat(villageRepository.count()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("repairInhabitantCounts should correct drifted counts from the characters")
+    void repairInhabitantCounts_shouldCorrectDriftedCounts() {
+        // Given
+        characterRepository.save(new Character("c1", "Asterix", 35, "Warrior", VillageReference.of(village)));
+        characterRepository.save(new Character("c2", "Obelix", 35, "Menhir Carrier", VillageReference.of(village)));
+        villageRepository.save(new Village("v2", "Rome", 3, null));
+
+        // When
+        long repaired = villageRepository.repairInhabitantCounts();
+
+        // Then
+        assertThat(repaired).isEqualTo(2);
+        assertThat(villageRepository.findById("v1")).get().extracting(Village::inhabitantCount).isEqualTo(2);
+        assertThat(villageRepository.findById("v2")).get().extracting(Village::inhabitantCount).isEqualTo(0);
+        assertThat(villageRepository.repairInhabitantCounts()).isZero();
+    }
+
+    @Test
+    @DisplayName("updateAttributes should rename the village and keep concurrent increments of the count")
+    void updateAttributes_shouldKeepConcurrentIncrements() {
+        // Given
+        villageRepository.incrementInhabitantCount("v1", 2);
+
+        // When
+        Village renamed = villageRepository.updateAttributes(village.withName("Armorica"), false);
+
+        // Then
+        assertThat(renamed).isEqualTo(new Village("v1", "Armorica", 2, 1L));
+        assertThat(villageRepository.findOneByName("Armorica")).contains(renamed);
+    }
+
+    @Test
+    @DisplayName("updateAttributes should write the inhabitant count if requested")
+    void updateAttributes_shouldWriteInhabitantCount() {
+        // When
+        Village updated = villageRepository.updateAttributes(village.withInhabitantCount(3), true);
+
+        // Then
+        assertThat(updated).isEqualTo(new Village("v1", "Indomitable Village", 3, 1L));
+    }
+
+    @Test
+    @DisplayName("updateAttributes should fail if the village was modified since it was read")
+    void updateAttributes_shouldFail_whenVersionIsStale() {
+        // Given
+        villageRepository.updateAttributes(village.withName("Armorica"), false);
+
+        // When / Then
+        assertThatThrownBy(() -> villageRepository.updateAttributes(village.withName("Aquarium"), false))
+                .isInstanceOf(OptimisticLockingFailureException.class);
+        assertThat(villageRepository.findById("v1")).get().extracting(Village::name).isEqualTo("Armorica");
+    }
+}
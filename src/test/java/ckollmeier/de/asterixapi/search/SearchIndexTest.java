@@ -0,0 +1,164 @@
+package ckollmeier.de.asterixapi.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link SearchIndex} using the Given-When-Then pattern.
+ */
+class SearchIndexTest {
+
+    private SearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new SearchIndex();
+        index.putCharacter("c1", "Asterix", "Warrior");
+        index.putCharacter("c2", "Obelix", "Menhir Carrier");
+        index.putCharacter("c3", "Miraculix", "Druid");
+        index.putCharacter("c4", "Méli-Mélo", "Warrior");
+        index.putVillage("v1", "Indomitable Village");
+        index.putVillage("v2", "Babaorum");
+    }
+
+    private List<String> ids(final String query) {
+        return index.search(query, 10).stream().map(SearchHit::id).toList();
+    }
+
+    @Nested
+    @DisplayName("tokenize")
+    class TokenizeTests {
+
+        @Test
+        @DisplayName("should split at non-letters, lower-case and strip diacritics")
+        void tokenize_shouldNormalize() {
+            // When
+            List<String> terms = SearchIndex.tokenize("Méli-Mélo, the  Warrior 2");
+
+            // Then
+            assertThat(terms).containsExactly("meli", "melo", "the", "warrior", "2");
+        }
+
+        @Test
+        @DisplayName("should return no terms for null and blank texts")
+        void tokenize_shouldHandleEmptyTexts() {
+            // When / Then
+            assertThat(SearchIndex.tokenize(null)).isEmpty();
+            assertThat(SearchIndex.tokenize(" - ")).isEmpty();
+        }
+    }
+
+    @Nested
+    @DisplayName("search")
+    class SearchTests {
+
+        @Test
+        @DisplayName("should find characters by name and profession and villages by name")
+        void search_shouldMatchAllFields() {
+            // When / Then
+            assertThat(ids("obelix")).containsExactly("c2");
+            assertThat(ids("carrier")).containsExactly("c2");
+            assertThat(ids("village")).containsExactly("v1");
+            assertThat(ids("MELO")).containsExactly("c4");
+        }
+
+        @Test
+        @DisplayName("should match prefixes, ranking exact matches first")
+        void search_shouldMatchPrefixes() {
+            // Given
+            index.putCharacter("c5", "War", "Bard");
+
+            // When
+            List<String> ids = ids("war");
+
+            // Then
+            assertThat(ids).containsExactly("c5", "c1", "c4");
+        }
+
+        @Test
+        @DisplayName("should match terms of four or more letters with typos, ranking them below exact matches")
+        void search_shouldMatchTypos() {
+            // Given
+            index.putCharacter("c6", "Asterax", "Bard");
+
+            // When / Then
+            assertThat(ids("asterix")).containsExactly("c1", "c6");
+            assertThat(ids("oblix")).containsExactly("c2");
+            assertThat(ids("miracolux")).containsExactly("c3");
+            assertThat(ids("drud")).containsExactly("c3");
+            assertThat(ids("dru1d")).containsExactly("c3");
+            assertThat(ids("drd")).isEmpty();
+        }
+
+        @Test
+        @DisplayName("should require all terms of the query to match and rank names above professions")
+        void search_shouldMatchAllTerms() {
+            // Given
+            index.putCharacter("c7", "Warrior Princess", "Druid");
+
+            // When / Then
+            assertThat(ids("warrior druid")).containsExactly("c7");
+            assertThat(ids("warrior")).first().isEqualTo("c7");
+            assertThat(ids("warrior asterix")).containsExactly("c1");
+        }
+
+        @Test
+        @DisplayName("should return at most the limit, and nothing for empty queries")
+        void search_shouldLimitHits() {
+            // When / Then
+            assertThat(index.search("warrior", 1)).hasSize(1);
+            assertThat(index.search("", 10)).isEmpty();
+            assertThat(index.search("warrior", 0)).isEmpty();
+        }
+    }
+
+    @Nested
+    @DisplayName("put and remove")
+    class UpdateTests {
+
+        @Test
+        @DisplayName("should replace the terms of an updated character")
+        void putCharacter_shouldReplacePreviousVersion() {
+            // When
+            index.putCharacter("c1", "Asterix", "Chief");
+
+            // Then
+            assertThat(ids("chief")).containsExactly("c1");
+            assertThat(ids("warrior")).containsExactly("c4");
+            assertThat(index.size()).isEqualTo(6);
+        }
+
+        @Test
+        @DisplayName("should remove characters and villages independently of equal IDs")
+        void remove_shouldRemoveEntities() {
+            // Given
+            index.putVillage("c1", "Asterix Village");
+
+            // When
+            index.removeCharacter("c1");
+            index.removeVillage("v2");
+
+            // Then
+            assertThat(index.search("asterix", 10))
+                    .extracting(SearchHit::type)
+                    .containsExactly(SearchHit.Type.VILLAGE);
+            assertThat(ids("babaorum")).isEmpty();
+        }
+    }
+
+    @Test
+    @DisplayName("editDistance should count edits up to the maximum")
+    void editDistance_shouldCountEdits() {
+        // When / Then
+        assertThat(SearchIndex.editDistance("asterix", "asterix", 2)).isZero();
+        assertThat(SearchIndex.editDistance("asterix", "astrix", 2)).isEqualTo(1);
+        assertThat(SearchIndex.editDistance("asterix", "asetrix", 2)).isEqualTo(2);
+        assertThat(SearchIndex.editDistance("asterix", "obelix", 2)).isEqualTo(3);
+    }
+}
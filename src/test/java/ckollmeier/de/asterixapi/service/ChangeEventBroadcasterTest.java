@@ -0,0 +1,182 @@
+package ckollmeier.de.asterixapi.service;
+
+import ckollmeier.de.asterixapi.controller.AsterixEventsController;
+import ckollmeier.de.asterixapi.event.ChangeEvent;
+import ckollmeier.de.asterixapi.model.Character;
+import ckollmeier.de.asterixapi.model.VillageReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+/**
+ * Unit tests for {@link ChangeEventBroadcaster} using the Given-When-Then pattern.
+ */
+class ChangeEventBroadcasterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private ChangeEventBroadcaster broadcaster;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        broadcaster = new ChangeEventBroadcaster(new ObjectMapper(), meterRegistry, Duration.ofMinutes(1), 4);
+        mockMvc = MockMvcBuilders.standaloneSetup(new AsterixEventsController(broadcaster)).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        broadcaster.shutdown();
+    }
+
+    private MockHttpServletResponse subscribe() throws Exception {
+        return mockMvc.perform(get("/api/asterix/events"))
+                .andExpect(request().asyncStarted())
+                .andReturn()
+                .getResponse();
+    }
+
+    private static String awaitContent(final MockHttpServletResponse response, final String expected) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!response.getContentAsString().contains(expected) && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        return response.getContentAsString();
+    }
+
+    @Test
+    @DisplayName("should register subscribers and publish their number")
+    void subscribe_shouldRegisterSubscriber() throws Exception {
+        // When
+        MockHttpServletResponse response = subscribe();
+        subscribe();
+
+        // Then
+        assertThat(response.getContentType()).startsWith("text/event-stream");
+        assertThat(response.getContentAsString()).contains(":subscribed");
+        assertThat(broadcaster.getSubscriberCount()).isEqualTo(2);
+        assertThat(meterRegistry.get(ChangeEventBroadcaster.SUBSCRIBERS_METRIC).gauge().value()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("should push published changes to every subscriber, named after their type")
+    void onChange_shouldPushEventToAllSubscribers() throws Exception {
+        // Given
+        MockHttpServletResponse first = subscribe();
+        MockHttpServletResponse second = subscribe();
+        Character character = new Character("c1", "Asterix", 35, "Warrior", new VillageReference("v1", "Indomitable Village"));
+
+        // When
+        broadcaster.onChange(ChangeEvent.characterMoved(character, "v2"));
+
+        // Then
+        for (MockHttpServletResponse response : new MockHttpServletResponse[]{first, second}) {
+            String content = awaitContent(response, "\"previousVillageId\":\"v2\"");
+            assertThat(content).contains("event:character-moved");
+            assertThat(content).contains("\"type\":\"character-moved\"");
+            assertThat(content).contains("\"previousVillageId\":\"v2\"");
+            assertThat(content).contains("\"name\":\"Indomitable Village\"");
+        }
+    }
+
+    @Test
+    @DisplayName("should drop a subscriber falling behind without delaying the others")
+    void onChange_shouldDropSubscriberWhoseQueueOverflows() throws Exception {
+        // Given
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger created = new AtomicInteger();
+        ChangeEventBroadcaster throttled = new ChangeEventBroadcaster(new ObjectMapper(), meterRegistry, Duration.ofMinutes(1), 4) {
+            @Override
+            SseEmitter createEmitter() {
+                if (created.incrementAndGet() > 1) {
+                    return super.createEmitter();
+                }
+                // The first subscriber accepts the subscription comment, then blocks every write until released
+                AtomicInteger sends = new AtomicInteger();
+                return new SseEmitter() {
+                    @Override
+                    public void send(final Set<DataWithMediaType> items) throws IOException {
+                        try {
+                            if (sends.incrementAndGet() > 1 && !release.await(5, TimeUnit.SECONDS)) {
+                                throw new IOException("not released");
+                            }
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            throw new IOException(e);
+                        }
+                        super.send(items);
+                    }
+                };
+            }
+        };
+        throttled.subscribe();
+        MockHttpServletResponse fast = MockMvcBuilders.standaloneSetup(new AsterixEventsController(throttled)).build()
+                .perform(get("/api/asterix/events"))
+                .andExpect(request().asyncStarted())
+                .andReturn()
+                .getResponse();
+        Character character = new Character("c1", "Asterix", 35, "Warrior", new VillageReference("v1", "Indomitable Village"));
+
+        // When
+        String content = "";
+        for (int i = 0; i < 12; i++) {
+            throttled.onChange(ChangeEvent.characterMoved(character.withAge(i), "v2"));
+            content = awaitContent(fast, "\"age\":" + i);
+        }
+
+        // Then
+        try {
+            assertThat(content).contains("\"age\":0").contains("\"age\":11");
+            assertThat(content.indexOf("\"age\":0")).isLessThan(content.indexOf("\"age\":11"));
+            assertThat(throttled.getSubscriberCount()).isEqualTo(1);
+            assertThat(meterRegistry.get(ChangeEventBroadcaster.OVERFLOWS_METRIC).counter().count()).isEqualTo(1);
+        } finally {
+            release.countDown();
+            throttled.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("should keep subscribers alive with heartbeat comments")
+    void heartbeat_shouldSendComment() throws Exception {
+        // Given
+        MockHttpServletResponse response = subscribe();
+
+        // When
+        broadcaster.heartbeat();
+
+        // Then
+        assertThat(awaitContent(response, ":heartbeat")).contains(":heartbeat");
+    }
+
+    @Test
+    @DisplayName("should end all subscriptions on shutdown")
+    void shutdown_shouldCompleteSubscriptions() throws Exception {
+        // Given
+        subscribe();
+
+        // When
+        broadcaster.shutdown();
+
+        // Then
+        assertThat(broadcaster.getSubscriberCount()).isZero();
+    }
+}
@@ -0,0 +1,456 @@
+package ckollmeier.de.asterixapi.service;
+
+import ckollmeier.de.asterixapi.dto.ChangesDTO;
+import ckollmeier.de.asterixapi.dto.CharacterOutputDTO;
+import ckollmeier.de.asterixapi.dto.MinimalVillageOutputDTO;
+import ckollmeier.de.asterixapi.dto.VillageCountOutputDTO;
+import ckollmeier.de.asterixapi.event.ChangeBatch;
+import ckollmeier.de.asterixapi.event.ChangeEvent;
+import ckollmeier.de.asterixapi.event.ChangeType;
+import ckollmeier.de.asterixapi.exception.GoneException;
+import ckollmeier.de.asterixapi.model.ChangeLogEntry;
+import ckollmeier.de.asterixapi.model.Character;
+import ckollmeier.de.asterixapi.model.Village;
+import ckollmeier.de.asterixapi.model.VillageReference;
+import ckollmeier.de.asterixapi.repository.ChangeLogRepository;
+import ckollmeier.de.asterixapi.repository.CharacterRepository;
+import ckollmeier.de.asterixapi.repository.VillageRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatNoException;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link ChangeLogService} using the Given-When-Then pattern.
+ */
+@ExtendWith(MockitoExtension.class)
+class ChangeLogServiceTest {
+
+    private static final long MAX_SIZE_BYTES = 1024;
+    private static final long MAX_ENTRIES = 10;
+    private static final Duration GAP_TIMEOUT = Duration.ofSeconds(5);
+
+    @Mock
+    private ChangeLogRepository changeLogRepository;
+    @Mock
+    private CharacterRepository characterRepository;
+    @Mock
+    private VillageRepository villageRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ChangeLogService changeLogService;
+
+    private final Village village = new Village("v1", "Indomitable Village", 1, 3L);
+    private final Character asterix = new Character("c1", "Asterix", 35, "Warrior", VillageReference.of(village));
+    private final Character obelix = new Character("c2", "Obelix", 35, "Menhir Carrier", VillageReference.of(village));
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        changeLogService = new ChangeLogService(changeLogRepository, characterRepository, villageRepository, meterRegistry,
+                MAX_SIZE_BYTES, MAX_ENTRIES, GAP_TIMEOUT);
+    }
+
+    private static ChangeLogEntry entry(final long sequence, final ChangeType type, final String entityId) {
+        return new ChangeLogEntry(sequence, type, entityId, Instant.EPOCH);
+    }
+
+    private static ChangeLogEntry recentEntry(final long sequence, final ChangeType type, final String entityId) {
+        return new ChangeLogEntry(sequence, type, entityId, Instant.now());
+    }
+
+    @Test
+    @DisplayName("onChange should record the change under the next sequence number")
+    void onChange_shouldRecordEntry() {
+        // Given
+        when(changeLogRepository.nextSequence()).thenReturn(42L);
+
+        // When
+        changeLogService.onChange(ChangeEvent.characterRemoved("c1"));
+
+        // Then
+        ArgumentCaptor<ChangeLogEntry> entryCaptor = ArgumentCaptor.forClass(ChangeLogEntry.class);
+        verify(changeLogRepository).insert(entryCaptor.capture());
+        assertThat(entryCaptor.getValue().sequence()).isEqualTo(42L);
+        assertThat(entryCaptor.getValue().type()).isEqualTo(ChangeType.CHARACTER_REMOVED);
+        assertThat(entryCaptor.getValue().entityId()).isEqualTo("c1");
+        assertThat(meterRegistry.get(ChangeLogService.ENTRIES_METRIC).tag("outcome", "recorded").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("onChange should count a change that cannot be recorded instead of failing the request")
+    void onChange_shouldCountFailure_whenDatabaseFails() {
+        // Given
+        when(changeLogRepository.nextSequence()).thenThrow(new DataAccessResourceFailureException("database unavailable"));
+
+        // When / Then
+        assertThatNoException().isThrownBy(() -> changeLogService.onChange(ChangeEvent.characterRemoved("c1")));
+        assertThat(meterRegistry.get(ChangeLogService.ENTRIES_METRIC).tag("outcome", "failed").counter().count()).isEqualTo(1);
+        verify(changeLogRepository, never()).insert(any(ChangeLogEntry.class));
+    }
+
+    @Test
+    @DisplayName("onChanges should record a batch under consecutive sequence numbers with one insert")
+    void onChanges_shouldRecordBatchAtOnce() {
+        // Given
+        when(changeLogRepository.nextSequences(3)).thenReturn(42L);
+
+        // When
+        changeLogService.onChanges(new ChangeBatch(List.of(
+                ChangeEvent.characterMoved(asterix.withVillage(null), "v1"),
+                ChangeEvent.characterMoved(obelix.withVillage(null), "v1"),
+                ChangeEvent.villageRemoved("v1"))));
+
+        // Then
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<ChangeLogEntry>> entriesCaptor = ArgumentCaptor.forClass(List.class);
+        verify(changeLogRepository).insert(entriesCaptor.capture());
+        assertThat(entriesCaptor.getValue()).extracting(ChangeLogEntry::sequence).containsExactly(42L, 43L, 44L);
+        assertThat(entriesCaptor.getValue()).extracting(ChangeLogEntry::entityId).containsExactly("c1", "c2", "v1");
+        verify(changeLogRepository, never()).nextSequence();
+        assertThat(meterRegistry.get(ChangeLogService.ENTRIES_METRIC).tag("outcome", "recorded").counter().count()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("onChanges should count every change of a batch that cannot be recorded")
+    void onChanges_shouldCountFailures_whenDatabaseFails() {
+        // Given
+        when(changeLogRepository.nextSequences(2)).thenThrow(new DataAccessResourceFailureException("database unavailable"));
+
+        // When / Then
+        assertThatNoException().isThrownBy(() -> changeLogService.onChanges(new ChangeBatch(List.of(
+                ChangeEvent.characterRemoved("c1"), ChangeEvent.characterRemoved("c2")))));
+        assertThat(meterRegistry.get(ChangeLogService.ENTRIES_METRIC).tag("outcome", "failed").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("onChange should not insert before the capped change log exists")
+    void onChange_shouldNotInsert_whenChangeLogCannotBeCreated() {
+        // Given
+        when(changeLogRepository.createCappedCollection(MAX_SIZE_BYTES, MAX_ENTRIES))
+                .thenThrow(new DataAccessResourceFailureException("database unavailable"));
+
+        // When
+        changeLogService.onChange(ChangeEvent.characterRemoved("c1"));
+
+        // Then
+        verify(changeLogRepository, never()).nextSequence();
+        verify(changeLogRepository, never()).insert(any(ChangeLogEntry.class));
+        assertThat(meterRegistry.get(ChangeLogService.ENTRIES_METRIC).tag("outcome", "failed").counter().count()).isEqualTo(1);
+    }
+
+    @Nested
+    @DisplayName("createChangeLog Tests")
+    class CreateChangeLogTests {
+
+        @Test
+        @DisplayName("should create the capped collection only once")
+        void createChangeLog_shouldCreateCappedCollectionOnce() {
+            // Given
+            when(changeLogRepository.createCappedCollection(MAX_SIZE_BYTES, MAX_ENTRIES)).thenReturn(true);
+
+            // When
+            boolean first = changeLogService.createChangeLog();
+            boolean second = changeLogService.createChangeLog();
+
+            // Then
+            assertThat(first).isTrue();
+            assertThat(second).isTrue();
+            verify(changeLogRepository, times(1)).createCappedCollection(MAX_SIZE_BYTES, MAX_ENTRIES);
+            verify(changeLogRepository, never()).convertToCappedCollection(MAX_SIZE_BYTES);
+        }
+
+        @Test
+        @DisplayName("should tolerate an unreachable database and retry on the next call")
+        void createChangeLog_shouldRetry_whenDatabaseUnavailable() {
+            // Given
+            when(changeLogRepository.createCappedCollection(MAX_SIZE_BYTES, MAX_ENTRIES))
+                    .thenThrow(new DataAccessResourceFailureException("database unavailable"))
+                    .thenReturn(true);
+
+            // When
+            boolean first = changeLogService.createChangeLog();
+            boolean second = changeLogService.createChangeLog();
+
+            // Then
+            assertThat(first).isFalse();
+            assertThat(second).isTrue();
+        }
+
+        @Test
+        @DisplayName("should convert an existing change log that is not capped")
+        void createChangeLog_shouldConvertUncappedCollection() {
+            // Given
+            when(changeLogRepository.createCappedCollection(MAX_SIZE_BYTES, MAX_ENTRIES)).thenReturn(false);
+            when(changeLogRepository.convertToCappedCollection(MAX_SIZE_BYTES)).thenReturn(true);
+
+            // When
+            boolean ready = changeLogService.createChangeLog();
+
+            // Then
+            assertThat(ready).isTrue();
+            verify(changeLogRepository).convertToCappedCollection(MAX_SIZE_BYTES);
+        }
+
+        @Test
+        @DisplayName("should use an uncapped change log that cannot be converted")
+        void createChangeLog_shouldUseUncappedCollection_whenConversionFails() {
+            // Given
+            when(changeLogRepository.createCappedCollection(MAX_SIZE_BYTES, MAX_ENTRIES)).thenReturn(false);
+            when(changeLogRepository.convertToCappedCollection(MAX_SIZE_BYTES))
+                    .thenThrow(new DataAccessResourceFailureException("convertToCapped not supported"));
+
+            // When
+            boolean ready = changeLogService.createChangeLog();
+
+            // Then
+            assertThat(ready).isTrue();
+        }
+    }
+
+    @Test
+    @DisplayName("getCurrentSequence should return the last allocated sequence number without changes")
+    void getCurrentSequence_shouldReturnCounter() {
+        // Given
+        when(changeLogRepository.currentSequence()).thenReturn(7L);
+
+        // When
+        ChangesDTO changes = changeLogService.getCurrentSequence();
+
+        // Then
+        assertThat(changes).isEqualTo(new ChangesDTO(7L, List.of(), List.of(), List.of(), List.of()));
+    }
+
+    @Nested
+    @DisplayName("getChangesSince Tests")
+    class GetChangesSinceTests {
+
+        @Test
+        @DisplayName("should return nothing and the same sequence number when nothing changed")
+        void getChangesSince_shouldReturnNothing_whenUpToDate() {
+            // Given
+            when(changeLogRepository.findBySequenceGreaterThanOrderBySequenceAsc(5L)).thenReturn(List.of());
+
+            // When
+            ChangesDTO changes = changeLogService.getChangesSince(5L);
+
+            // Then
+            assertThat(changes).isEqualTo(new ChangesDTO(5L, List.of(), List.of(), List.of(), List.of()));
+            verify(characterRepository, never()).findByIdIn(anyCollection());
+        }
+
+        @Test
+        @DisplayName("should return the current state of changed entities and the IDs of removed ones")
+        void getChangesSince_shouldReturnChangedAndRemovedEntities() {
+            // Given
+            when(changeLogRepository.findBySequenceGreaterThanOrderBySequenceAsc(5L)).thenReturn(List.of(
+                    entry(6, ChangeType.CHARACTER_ADDED, "c1"),
+                    entry(7, ChangeType.CHARACTER_UPDATED, "c1"),
+                    entry(8, ChangeType.CHARACTER_REMOVED, "c3"),
+                    entry(9, ChangeType.VILLAGE_REMOVED, "v2")));
+            when(changeLogRepository.findFirstByOrderBySequenceAsc()).thenReturn(Optional.of(entry(3, ChangeType.VILLAGE_ADDED, "v1")));
+            when(characterRepository.findByIdIn(Set.of("c1", "c3"))).thenReturn(List.of(asterix));
+            when(villageRepository.findAllById(Set.of("v2"))).thenReturn(List.of());
+
+            // When
+            ChangesDTO changes = changeLogService.getChangesSince(5L);
+
+            // Then
+            assertThat(changes.sequence()).isEqualTo(9L);
+            assertThat(changes.characters()).containsExactly(
+                    new CharacterOutputDTO("c1", "Asterix", 35, "Warrior", new MinimalVillageOutputDTO("v1", "Indomitable Village")));
+            assertThat(changes.removedCharacterIds()).containsExactly("c3");
+            assertThat(changes.villages()).isEmpty();
+            assertThat(changes.removedVillageIds()).containsExactly("v2");
+        }
+
+        @Test
+        @DisplayName("should include the inhabitants of renamed villages")
+        void getChangesSince_shouldIncludeInhabitantsOfRenamedVillages() {
+            // Given
+            when(changeLogRepository.findBySequenceGreaterThanOrderBySequenceAsc(0L)).thenReturn(List.of(
+                    entry(1, ChangeType.CHARACTER_UPDATED, "c1"),
+                    entry(2, ChangeType.VILLAGE_RENAMED, "v1")));
+            when(changeLogRepository.findFirstByOrderBySequenceAsc()).thenReturn(Optional.of(entry(1, ChangeType.CHARACTER_UPDATED, "c1")));
+            when(characterRepository.findByIdIn(Set.of("c1"))).thenReturn(List.of(asterix));
+            when(characterRepository.findByVillageIdIn(Set.of("v1"))).thenReturn(List.of(asterix, obelix));
+            when(villageRepository.findAllById(Set.of("v1"))).thenReturn(List.of(village));
+
+            // When
+            ChangesDTO changes = changeLogService.getChangesSince(0L);
+
+            // Then
+            assertThat(changes.sequence()).isEqualTo(2L);
+            assertThat(changes.characters()).extracting(CharacterOutputDTO::id).containsExactly("c1", "c2");
+            assertThat(changes.villages()).containsExactly(new VillageCountOutputDTO("v1", "Indomitable Village", 1));
+            assertThat(changes.removedCharacterIds()).isEmpty();
+            assertThat(changes.removedVillageIds()).isEmpty();
+        }
+
+        @Test
+        @DisplayName("should return the current inhabitant count of villages whose inhabitants moved")
+        void getChangesSince_shouldReturnVillage_whenInhabitantCountChanged() {
+            // Given
+            when(changeLogRepository.findBySequenceGreaterThanOrderBySequenceAsc(0L)).thenReturn(List.of(
+                    entry(1, ChangeType.CHARACTER_MOVED, "c1"),
+                    entry(2, ChangeType.VILLAGE_INHABITANTS_CHANGED, "v1")));
+            when(changeLogRepository.findFirstByOrderBySequenceAsc()).thenReturn(Optional.of(entry(1, ChangeType.CHARACTER_MOVED, "c1")));
+            when(characterRepository.findByIdIn(Set.of("c1"))).thenReturn(List.of(asterix));
+            when(villageRepository.findAllById(Set.of("v1"))).thenReturn(List.of(village));
+
+            // When
+            ChangesDTO changes = changeLogService.getChangesSince(0L);
+
+            // Then
+            assertThat(changes.sequence()).isEqualTo(2L);
+            assertThat(changes.villages()).containsExactly(new VillageCountOutputDTO("v1", "Indomitable Village", 1));
+            assertThat(changes.removedVillageIds()).isEmpty();
+            verify(characterRepository, never()).findByVillageIdIn(any());
+        }
+
+        @Test
+        @DisplayName("should stop before a sequence number that is allocated but not stored yet")
+        void getChangesSince_shouldStopAtGap_whenEntryIsStillBeingInserted() {
+            // Given
+            when(changeLogRepository.findBySequenceGreaterThanOrderBySequenceAsc(5L)).thenReturn(List.of(
+                    recentEntry(6, ChangeType.CHARACTER_UPDATED, "c1"),
+                    recentEntry(8, ChangeType.CHARACTER_REMOVED, "c3")));
+            when(changeLogRepository.findFirstByOrderBySequenceAsc()).thenReturn(Optional.of(entry(3, ChangeType.VILLAGE_ADDED, "v1")));
+            when(characterRepository.findByIdIn(Set.of("c1"))).thenReturn(List.of(asterix));
+            when(villageRepository.findAllById(Set.of())).thenReturn(List.of());
+
+            // When
+            ChangesDTO changes = changeLogService.getChangesSince(5L);
+
+            // Then
+            assertThat(changes.sequence()).isEqualTo(6L);
+            assertThat(changes.characters()).extracting(CharacterOutputDTO::id).containsExactly("c1");
+            assertThat(changes.removedCharacterIds()).isEmpty();
+        }
+
+        @Test
+        @DisplayName("should return nothing while the first sequence number after the cursor is not stored yet")
+        void getChangesSince_shouldReturnNothing_whenNextEntryIsStillBeingInserted() {
+            // Given
+            when(changeLogRepository.findBySequenceGreaterThanOrderBySequenceAsc(5L)).thenReturn(List.of(
+                    recentEntry(7, ChangeType.CHARACTER_UPDATED, "c1")));
+            when(changeLogRepository.findFirstByOrderBySequenceAsc()).thenReturn(Optional.of(entry(3, ChangeType.VILLAGE_ADDED, "v1")));
+
+            // When
+            ChangesDTO changes = changeLogService.getChangesSince(5L);
+
+            // Then
+            assertThat(changes).isEqualTo(new ChangesDTO(5L, List.of(), List.of(), List.of(), List.of()));
+            verify(characterRepository, never()).findByIdIn(anyCollection());
+        }
+
+        @Test
+        @DisplayName("should skip a gap once the entry after it is older than the gap timeout")
+        void getChangesSince_shouldSkipGap_whenEntryIsLost() {
+            // Given
+            when(changeLogRepository.findBySequenceGreaterThanOrderBySequenceAsc(5L)).thenReturn(List.of(
+                    entry(6, ChangeType.CHARACTER_UPDATED, "c1"),
+                    entry(8, ChangeType.CHARACTER_REMOVED, "c3")));
+            when(changeLogRepository.findFirstByOrderBySequenceAsc()).thenReturn(Optional.of(entry(3, ChangeType.VILLAGE_ADDED, "v1")));
+            when(characterRepository.findByIdIn(Set.of("c1", "c3"))).thenReturn(List.of(asterix));
+            when(villageRepository.findAllById(Set.of())).thenReturn(List.of());
+
+            // When
+            ChangesDTO changes = changeLogService.getChangesSince(5L);
+
+            // Then
+            assertThat(changes.sequence()).isEqualTo(8L);
+            assertThat(changes.removedCharacterIds()).containsExactly("c3");
+        }
+
+        @Test
+        @DisplayName("should throw GoneException when changes were already dropped from the change log")
+        void getChangesSince_shouldThrowGone_whenLogNoLongerCoversSequence() {
+            // Given
+            when(changeLogRepository.findBySequenceGreaterThanOrderBySequenceAsc(5L)).thenReturn(List.of(entry(9, ChangeType.CHARACTER_ADDED, "c1")));
+            when(changeLogRepository.findFirstByOrderBySequenceAsc()).thenReturn(Optional.of(entry(9, ChangeType.CHARACTER_ADDED, "c1")));
+
+            // When / Then
+            GoneException exception = assertThrows(GoneException.class, () -> changeLogService.getChangesSince(5L));
+            assertThat(exception.getMessage()).contains("5").contains("9");
+            verify(characterRepository, never()).findByIdIn(anyCollection());
+        }
+    }
+
+    @Nested
+    @DisplayName("getVillageChangesSince Tests")
+    class GetVillageChangesSinceTests {
+
+        @Test
+        @DisplayName("should load only the villages of village entries")
+        void getVillageChangesSince_shouldNotLoadCharacters() {
+            // Given
+            when(changeLogRepository.findBySequenceGreaterThanOrderBySequenceAsc(0L)).thenReturn(List.of(
+                    entry(1, ChangeType.CHARACTER_MOVED, "c1"),
+                    entry(2, ChangeType.VILLAGE_INHABITANTS_CHANGED, "v3"),
+                    entry(3, ChangeType.VILLAGE_RENAMED, "v1"),
+                    entry(4, ChangeType.VILLAGE_REMOVED, "v2")));
+            when(changeLogRepository.findFirstByOrderBySequenceAsc()).thenReturn(Optional.of(entry(1, ChangeType.CHARACTER_MOVED, "c1")));
+            when(villageRepository.findAllById(Set.of("v1", "v2"))).thenReturn(List.of(village));
+
+            // When
+            ChangesDTO changes = changeLogService.getVillageChangesSince(0L);
+
+            // Then
+            assertThat(changes).isEqualTo(new ChangesDTO(4L, List.of(),
+                    List.of(new VillageCountOutputDTO("v1", "Indomitable Village", 1)), List.of(), List.of("v2")));
+            verifyNoInteractions(characterRepository);
+        }
+
+        @Test
+        @DisplayName("should not load villages when only characters and counts changed")
+        void getVillageChangesSince_shouldSkipQuery_whenNoVillageWasChanged() {
+            // Given
+            when(changeLogRepository.findBySequenceGreaterThanOrderBySequenceAsc(0L)).thenReturn(List.of(
+                    entry(1, ChangeType.CHARACTER_MOVED, "c1"),
+                    entry(2, ChangeType.VILLAGE_INHABITANTS_CHANGED, "v1")));
+            when(changeLogRepository.findFirstByOrderBySequenceAsc()).thenReturn(Optional.of(entry(1, ChangeType.CHARACTER_MOVED, "c1")));
+
+            // When
+            ChangesDTO changes = changeLogService.getVillageChangesSince(0L);
+
+            // Then
+            assertThat(changes).isEqualTo(new ChangesDTO(2L, List.of(), List.of(), List.of(), List.of()));
+            verifyNoInteractions(characterRepository, villageRepository);
+        }
+
+        @Test
+        @DisplayName("should throw GoneException when changes were already dropped from the change log")
+        void getVillageChangesSince_shouldThrowGone_whenLogNoLongerCoversSequence() {
+            // Given
+            when(changeLogRepository.findBySequenceGreaterThanOrderBySequenceAsc(5L)).thenReturn(List.of(entry(9, ChangeType.VILLAGE_ADDED, "v1")));
+            when(changeLogRepository.findFirstByOrderBySequenceAsc()).thenReturn(Optional.of(entry(9, ChangeType.VILLAGE_ADDED, "v1")));
+
+            // When / Then
+            assertThrows(GoneException.class, () -> changeLogService.getVillageChangesSince(5L));
+        }
+    }
+}
@@ -2,16 +2,26 @@ package ckollmeier.de.asterixapi.service;
 
 import ckollmeier.de.asterixapi.converter.CharacterConverter;
 import ckollmeier.de.asterixapi.dataprovider.CharactersPageDataProvider;
+import ckollmeier.de.asterixapi.dto.BatchDeleteResultDTO;
+import ckollmeier.de.asterixapi.dto.BatchGetResultDTO;
 import ckollmeier.de.asterixapi.dto.CharacterInputDTO;
 import ckollmeier.de.asterixapi.dto.CharacterOutputDTO;
 import ckollmeier.de.asterixapi.dto.CharactersPageDTO;
 import ckollmeier.de.asterixapi.dto.MinimalVillageOutputDTO;
 import ckollmeier.de.asterixapi.dto.VillageSelectDTO;
+import ckollmeier.de.asterixapi.event.ChangeBatch;
+import ckollmeier.de.asterixapi.event.ChangeEvent;
+import ckollmeier.de.asterixapi.exception.BadRequestException;
 import ckollmeier.de.asterixapi.exception.NotFoundException;
 import ckollmeier.de.asterixapi.model.Character;
+import ckollmeier.de.asterixapi.model.CharacterPatch;
+import ckollmeier.de.asterixapi.model.CharacterUpdate;
 import ckollmeier.de.asterixapi.model.Village;
+import ckollmeier.de.asterixapi.model.VillageReference;
+import ckollmeier.de.asterixapi.namefilter.NameFilter;
 import ckollmeier.de.asterixapi.repository.CharacterRepository;
 import ckollmeier.de.asterixapi.repository.VillageRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -20,16 +30,25 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.anyInt;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.eq;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -47,13 +66,25 @@ class CharacterServiceTest {
     @Mock
     private CharacterRepository characterRepository;
     @Mock
-    private VillageRepository villageRepository; // Added based on CharacterService code
+    private VillageRepository villageRepository;
+    @Mock
+    private VillageRegistry villageRegistry;
     @Mock
     private CharactersPageDataProvider characterPageDataProvider;
     @Mock
     private IdService idService;
     @Mock
     private CharacterConverter characterConverter;
+    @Mock
+    private ResponseCacheService responseCacheService;
+    @Mock
+    private EntityCache entityCache;
+    @Mock
+    private NameFilter nameFilter;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Spy
+    private WriteCoalescer writeCoalescer = new WriteCoalescer(new SimpleMeterRegistry(), false, Duration.ZERO);
 
     // Inject mocks into the service instance
     @InjectMocks
@@ -75,8 +106,8 @@ class CharacterServiceTest {
         testVillageId = UUID.randomUUID().toString();
 
         testVillage = new Village(testVillageId, "Indomitable Village");
-        testCharacter1 = new Character(testId1, "Asterix", 35, "Warrior", testVillage);
-        testCharacter2 = new Character(testId2, "Obelix", 36, "Menhir Carver", testVillage);
+        testCharacter1 = new Character(testId1, "Asterix", 35, "Warrior", VillageReference.of(testVillage));
+        testCharacter2 = new Character(testId2, "Obelix", 36, "Menhir Carver", VillageReference.of(testVillage));
 
         // Input DTO for adding/updating
         testCharacterInputDTO = new CharacterInputDTO("Getafix", 65, "Druid", testVillageId);
@@ -126,6 +157,7 @@ class CharacterServiceTest {
         void shouldReturnCharacterWhenFoundByName() {
             // Given
             String name = "Asterix";
+            when(nameFilter.mightContainCharacter(name)).thenReturn(true);
             when(characterRepository.findOneByName(name)).thenReturn(Optional.of(testCharacter1));
 
             // When
@@ -141,6 +173,7 @@ class CharacterServiceTest {
         void shouldReturnEmptyOptionalWhenNotFoundByName() {
             // Given
             String name = "NonExistent";
+            when(nameFilter.mightContainCharacter(name)).thenReturn(true);
             when(characterRepository.findOneByName(name)).thenReturn(Optional.empty());
 
             // When
@@ -149,6 +182,56 @@ class CharacterServiceTest {
             // Then
             assertThat(actualCharacterOpt).isEmpty();
             verify(characterRepository, times(1)).findOneByName(name);
+            verify(nameFilter).recordCharacterMiss();
+        }
+
+        @Test
+        @DisplayName("should return empty Optional without a query when the name filter rules the name out")
+        void shouldNotQueryRepositoryWhenNameFilterRulesNameOut() {
+            // Given
+            String name = "NonExistent";
+            when(nameFilter.mightContainCharacter(name)).thenReturn(false);
+
+            // When
+            Optional<Character> actualCharacterOpt = characterService.getCharacterByName(name);
+
+            // Then
+            assertThat(actualCharacterOpt).isEmpty();
+            verifyNoInteractions(characterRepository);
+        }
+    }
+
+    @Nested
+    @DisplayName("getCharactersByIds Tests")
+    class GetCharactersByIdsTests {
+        @Test
+        @DisplayName("should return results in request order with missing markers")
+        void shouldReturnResultsInRequestOrder() {
+            // Given
+            List<String> ids = List.of(testId2, "missing", testId1);
+            when(entityCache.getCharacters(ids)).thenReturn(Map.of(testId1, testCharacter1, testId2, testCharacter2));
+
+            // When
+            List<BatchGetResultDTO<Character>> results = characterService.getCharactersByIds(ids);
+
+            // Then
+            assertThat(results).containsExactly(
+                    new BatchGetResultDTO<>(testId2, true, testCharacter2),
+                    new BatchGetResultDTO<>("missing", false, null),
+                    new BatchGetResultDTO<>(testId1, true, testCharacter1));
+        }
+
+        @Test
+        @DisplayName("should reject missing, null or too many IDs")
+        void shouldRejectInvalidIds() {
+            // Given
+            List<String> tooMany = Collections.nCopies(CharacterService.MAX_BATCH_SIZE + 1, testId1);
+
+            // When / Then
+            assertThrows(BadRequestException.class, () -> characterService.getCharactersByIds(null));
+            assertThrows(BadRequestException.class, () -> characterService.getCharactersByIds(Arrays.asList(testId1, null)));
+            assertThrows(BadRequestException.class, () -> characterService.getCharactersByIds(tooMany));
+            verifyNoInteractions(entityCache);
         }
     }
 
@@ -159,14 +242,14 @@ class CharacterServiceTest {
         @DisplayName("should return character when found by ID")
         void shouldReturnCharacterWhenFoundById() {
             // Given
-            when(characterRepository.findById(testId1)).thenReturn(Optional.of(testCharacter1));
+            when(entityCache.getCharacter(testId1)).thenReturn(Optional.of(testCharacter1));
 
             // When
             Optional<Character> actualCharacterOpt = characterService.getCharacterById(testId1);
 
             // Then
             assertThat(actualCharacterOpt).isPresent().contains(testCharacter1);
-            verify(characterRepository, times(1)).findById(testId1);
+            verify(entityCache, times(1)).getCharacter(testId1);
         }
 
         @Test
@@ -174,14 +257,14 @@ class CharacterServiceTest {
         void shouldReturnEmptyOptionalWhenNotFoundById() {
             // Given
             String nonExistentId = "non-existent-id";
-            when(characterRepository.findById(nonExistentId)).thenReturn(Optional.empty());
+            when(entityCache.getCharacter(nonExistentId)).thenReturn(Optional.empty());
 
             // When
             Optional<Character> actualCharacterOpt = characterService.getCharacterById(nonExistentId);
 
             // Then
             assertThat(actualCharacterOpt).isEmpty();
-            verify(characterRepository, times(1)).findById(nonExistentId);
+            verify(entityCache, times(1)).getCharacter(nonExistentId);
         }
     }
 
@@ -227,7 +310,7 @@ class CharacterServiceTest {
             // Given
             String generatedId = UUID.randomUUID().toString();
             // Simulate converter result (ID is null before saving and ID generation)
-            Character characterFromConverter = new Character(null, "Getafix", 65, "Druid", testVillage);
+            Character characterFromConverter = new Character(null, "Getafix", 65, "Druid", VillageReference.of(testVillage));
             Character expectedSavedCharacter = characterFromConverter.withId(generatedId); // Character after ID is assigned
 
             when(characterConverter.convert(testCharacterInputDTO)).thenReturn(characterFromConverter);
@@ -251,6 +334,10 @@ class CharacterServiceTest {
             assertThat(characterCaptor.getValue().name()).isEqualTo(testCharacterInputDTO.name());
             // Note: village comparison might need adjustment if converter logic changes
             assertThat(characterCaptor.getValue().village()).isEqualTo(characterFromConverter.village());
+            verify(villageRepository, times(1)).incrementInhabitantCount(testVillageId, 1);
+            verify(eventPublisher).publishEvent(new ChangeBatch(List.of(
+                    ChangeEvent.villageInhabitantsChanged(testVillageId, 1),
+                    ChangeEvent.characterAdded(expectedSavedCharacter))));
         }
 
         @Test
@@ -258,7 +345,7 @@ class CharacterServiceTest {
         void shouldAddCharacterFromModel() {
             // Given
             String generatedId = UUID.randomUUID().toString();
-            Character characterToAdd = new Character(null, "New Guy", 30, "Fisherman", testVillage); // No ID
+            Character characterToAdd = new Character(null, "New Guy", 30, "Fisherman", VillageReference.of(testVillage)); // No ID
             Character expectedSavedCharacter = characterToAdd.withId(generatedId);
 
             when(idService.generateId()).thenReturn(generatedId);
@@ -276,6 +363,7 @@ class CharacterServiceTest {
             verify(characterRepository, times(1)).save(characterCaptor.capture());
             assertThat(characterCaptor.getValue().id()).isEqualTo(generatedId);
             assertThat(characterCaptor.getValue().name()).isEqualTo(characterToAdd.name());
+            verify(villageRepository, times(1)).incrementInhabitantCount(testVillageId, 1);
         }
 
         @Test
@@ -311,6 +399,12 @@ class CharacterServiceTest {
             assertThat(removedCharacter).isEqualTo(testCharacter1);
             verify(characterRepository, times(1)).findById(testId1);
             verify(characterRepository, times(1)).delete(testCharacter1);
+            verify(villageRepository, times(1)).incrementInhabitantCount(testVillageId, -1);
+            verify(responseCacheService, times(1)).invalidate();
+            verify(entityCache).evictCharacter(testId1);
+            verify(eventPublisher).publishEvent(new ChangeBatch(List.of(
+                    ChangeEvent.villageInhabitantsChanged(testVillageId, -1),
+                    ChangeEvent.characterRemoved(testId1))));
         }
 
         @Test
@@ -327,6 +421,70 @@ class CharacterServiceTest {
             assertThat(exception.getMessage()).contains(nonExistentId);
             verify(characterRepository, times(1)).findById(nonExistentId);
             verify(characterRepository, never()).delete(any(Character.class));
+            verifyNoInteractions(villageRepository);
+            verifyNoInteractions(responseCacheService);
+            verifyNoInteractions(eventPublisher);
+        }
+    }
+
+    @Nested
+    @DisplayName("removeCharacters Tests")
+    class RemoveCharactersTests {
+
+        @Test
+        @DisplayName("should delete existing characters at once and report missing IDs")
+        void shouldDeleteExistingCharactersAtOnce() {
+            // Given
+            List<String> ids = List.of(testId2, "missing", testId1, testId2);
+            when(characterRepository.findByIdIn(ids)).thenReturn(List.of(testCharacter1, testCharacter2));
+
+            // When
+            BatchDeleteResultDTO result = characterService.removeCharacters(ids);
+
+            // Then
+            assertThat(result).isEqualTo(new BatchDeleteResultDTO(List.of(testId2, testId1), List.of("missing")));
+            verify(characterRepository).deleteAllById(Set.of(testId1, testId2));
+            verify(villageRepository).incrementInhabitantCounts(Map.of(testVillageId, -2));
+            verify(villageRepository, never()).incrementInhabitantCount(any(), anyInt());
+            verify(entityCache).evictCharacters(Set.of(testId1, testId2));
+            verify(entityCache).evictVillage(testVillageId);
+            verify(responseCacheService).invalidate();
+            verify(characterRepository, never()).delete(any(Character.class));
+            // All changes are published as one batch
+            ArgumentCaptor<ChangeBatch> batchCaptor = ArgumentCaptor.forClass(ChangeBatch.class);
+            verify(eventPublisher).publishEvent(batchCaptor.capture());
+            assertThat(batchCaptor.getValue().events()).containsExactlyInAnyOrder(
+                    ChangeEvent.villageInhabitantsChanged(testVillageId, -2),
+                    ChangeEvent.characterRemoved(testId1),
+                    ChangeEvent.characterRemoved(testId2));
+            verify(eventPublisher, never()).publishEvent(any(ChangeEvent.class));
+        }
+
+        @Test
+        @DisplayName("should not write when no character exists")
+        void shouldNotWriteWhenNoCharacterExists() {
+            // Given
+            List<String> ids = List.of("missing");
+            when(characterRepository.findByIdIn(ids)).thenReturn(List.of());
+
+            // When
+            BatchDeleteResultDTO result = characterService.removeCharacters(ids);
+
+            // Then
+            assertThat(result).isEqualTo(new BatchDeleteResultDTO(List.of(), List.of("missing")));
+            verify(characterRepository, never()).deleteAllById(any());
+            verifyNoInteractions(villageRepository, responseCacheService, eventPublisher);
+        }
+
+        @Test
+        @DisplayName("should reject too many IDs")
+        void shouldRejectTooManyIds() {
+            // Given
+            List<String> tooMany = Collections.nCopies(CharacterService.MAX_BATCH_SIZE + 1, testId1);
+
+            // When / Then
+            assertThrows(BadRequestException.class, () -> characterService.removeCharacters(tooMany));
+            verifyNoInteractions(characterRepository);
         }
     }
 
@@ -335,18 +493,17 @@ class CharacterServiceTest {
     class UpdateCharacterTests {
 
         @Test
-        @DisplayName("should update character with all fields changed")
+        @DisplayName("should update character with all fields changed in a single partial update")
         void shouldUpdateCharacterAllFields() {
             // Given
             String newVillageId = UUID.randomUUID().toString();
             Village newVillage = new Village(newVillageId, "New Village");
             CharacterInputDTO updateDto = new CharacterInputDTO("Asterix Updated", 36, "Chief Warrior", newVillageId);
-            // Expected character state *after* update logic and save
-            Character expectedUpdatedCharacter = new Character(testId1, "Asterix Updated", 36, "Chief Warrior", newVillage);
+            // Expected character state returned by the findAndModify
+            Character expectedUpdatedCharacter = new Character(testId1, "Asterix Updated", 36, "Chief Warrior", VillageReference.of(newVillage));
 
-            when(characterRepository.findById(testId1)).thenReturn(Optional.of(testCharacter1));
-            when(villageRepository.findById(newVillageId)).thenReturn(Optional.of(newVillage)); // Mock village lookup
-            when(characterRepository.save(any(Character.class))).thenReturn(expectedUpdatedCharacter); // Mock save returns final state
+            when(villageRegistry.find(newVillageId)).thenReturn(Optional.of(VillageReference.of(newVillage)));
+            when(characterRepository.updatePartially(any(String.class), any(CharacterPatch.class))).thenReturn(Optional.of(new CharacterUpdate(testCharacter1, expectedUpdatedCharacter)));
 
             // When
             Character actualUpdatedCharacter = characterService.updateCharacter(testId1, updateDto);
@@ -354,32 +511,31 @@ class CharacterServiceTest {
             // Then
             assertThat(actualUpdatedCharacter).isEqualTo(expectedUpdatedCharacter);
 
-            // Verify interactions and capture saved entity
-            verify(characterRepository, times(1)).findById(testId1);
-            verify(villageRepository, times(1)).findById(newVillageId); // Verify village lookup
-            ArgumentCaptor<Character> characterCaptor = ArgumentCaptor.forClass(Character.class);
-            verify(characterRepository, times(1)).save(characterCaptor.capture());
-
-            // Assert the state of the object *passed* to save()
-            Character savedCharacter = characterCaptor.getValue();
-            assertThat(savedCharacter.id()).isEqualTo(testId1); // ID should not change
-            assertThat(savedCharacter.name()).isEqualTo(updateDto.name());
-            assertThat(savedCharacter.age()).isEqualTo(updateDto.age());
-            assertThat(savedCharacter.profession()).isEqualTo(updateDto.profession());
-            assertThat(savedCharacter.village()).isEqualTo(newVillage); // Village should be updated
+            // Verify the patch passed to the repository
+            ArgumentCaptor<CharacterPatch> patchCaptor = ArgumentCaptor.forClass(CharacterPatch.class);
+            verify(characterRepository, times(1)).updatePartially(eq(testId1), patchCaptor.capture());
+            assertThat(patchCaptor.getValue()).isEqualTo(new CharacterPatch("Asterix Updated", 36, "Chief Warrior", true, new VillageReference(newVillageId, "New Village")));
+            verify(villageRegistry, times(1)).find(newVillageId);
+            // The character moved, so both inhabitant counts are adjusted
+            verify(villageRepository, times(1)).incrementInhabitantCount(testVillageId, -1);
+            verify(villageRepository, times(1)).incrementInhabitantCount(newVillageId, 1);
+            verify(responseCacheService, times(1)).invalidate();
+            verify(entityCache).evictCharacter(testId1);
+            verify(eventPublisher).publishEvent(new ChangeBatch(List.of(
+                    ChangeEvent.villageInhabitantsChanged(testVillageId, -1),
+                    ChangeEvent.villageInhabitantsChanged(newVillageId, 1),
+                    ChangeEvent.characterMoved(expectedUpdatedCharacter, testVillageId))));
+            verifyNoMoreInteractions(characterRepository);
         }
 
         @Test
-        @DisplayName("should update character with only name changed")
+        @DisplayName("should only set the name when only the name is given")
         void shouldUpdateCharacterOnlyName() {
             // Given
             CharacterInputDTO updateDto = new CharacterInputDTO("Asterix Renamed", 0, null, null); // Only name set, age=0, others null
-            // Expected state after update logic and save
             Character expectedSavedCharacter = testCharacter1.withName("Asterix Renamed");
 
-            when(characterRepository.findById(testId1)).thenReturn(Optional.of(testCharacter1));
-            // villageRepository should not be called if villageId is null in DTO
-            when(characterRepository.save(any(Character.class))).thenReturn(expectedSavedCharacter);
+            when(characterRepository.updatePartially(any(String.class), any(CharacterPatch.class))).thenReturn(Optional.of(new CharacterUpdate(testCharacter1, expectedSavedCharacter)));
 
             // When
             Character actualUpdatedCharacter = characterService.updateCharacter(testId1, updateDto);
@@ -387,33 +543,29 @@ class CharacterServiceTest {
             // Then
             assertThat(actualUpdatedCharacter).isEqualTo(expectedSavedCharacter);
 
-            verify(characterRepository, times(1)).findById(testId1);
-            verifyNoInteractions(villageRepository); // Village ID was null, so no lookup
-            ArgumentCaptor<Character> characterCaptor = ArgumentCaptor.forClass(Character.class);
-            verify(characterRepository, times(1)).save(characterCaptor.capture());
-
-            // Assert the state of the object *passed* to save()
-            Character savedCharacter = characterCaptor.getValue();
-            assertThat(savedCharacter.id()).isEqualTo(testId1);
-            assertThat(savedCharacter.name()).isEqualTo(updateDto.name()); // Updated
-            assertThat(savedCharacter.age()).isEqualTo(testCharacter1.age()); // Should be original (age 0 ignored)
-            assertThat(savedCharacter.profession()).isEqualTo(testCharacter1.profession()); // Should be original (null ignored)
-            assertThat(savedCharacter.village()).isEqualTo(testCharacter1.village()); // Should be original (null villageId ignored)
+            ArgumentCaptor<CharacterPatch> patchCaptor = ArgumentCaptor.forClass(CharacterPatch.class);
+            verify(characterRepository, times(1)).updatePartially(eq(testId1), patchCaptor.capture());
+            CharacterPatch patch = patchCaptor.getValue();
+            assertThat(patch.name()).isEqualTo(updateDto.name()); // Updated
+            assertThat(patch.age()).isNull(); // age 0 ignored
+            assertThat(patch.profession()).isNull(); // null ignored
+            assertThat(patch.villageChanged()).isFalse(); // null villageId ignored
+            verifyNoInteractions(villageRegistry); // Village ID was null, so no lookup
+            verifyNoInteractions(villageRepository); // Village unchanged, so no count update
+            verify(eventPublisher).publishEvent(new ChangeBatch(List.of(ChangeEvent.characterUpdated(expectedSavedCharacter))));
         }
 
         @Test
-        @DisplayName("should update character with only village changed")
+        @DisplayName("should only change the village when only the village is given")
         void shouldUpdateCharacterOnlyVillage() {
             // Given
             String newVillageId = UUID.randomUUID().toString();
             Village newVillage = new Village(newVillageId, "New Village");
             CharacterInputDTO updateDto = new CharacterInputDTO(null, 0, null, newVillageId); // Only villageId set
-            // Expected state after update logic and save
-            Character expectedSavedCharacter = testCharacter1.withVillage(newVillage);
+            Character expectedSavedCharacter = testCharacter1.withVillage(VillageReference.of(newVillage));
 
-            when(characterRepository.findById(testId1)).thenReturn(Optional.of(testCharacter1));
-            when(villageRepository.findById(newVillageId)).thenReturn(Optional.of(newVillage)); // Mock village lookup
-            when(characterRepository.save(any(Character.class))).thenReturn(expectedSavedCharacter);
+            when(villageRegistry.find(newVillageId)).thenReturn(Optional.of(VillageReference.of(newVillage)));
+            when(characterRepository.updatePartially(any(String.class), any(CharacterPatch.class))).thenReturn(Optional.of(new CharacterUpdate(testCharacter1, expectedSavedCharacter)));
 
             // When
             Character actualUpdatedCharacter = characterService.updateCharacter(testId1, updateDto);
@@ -421,32 +573,21 @@ class CharacterServiceTest {
             // Then
             assertThat(actualUpdatedCharacter).isEqualTo(expectedSavedCharacter);
 
-            verify(characterRepository, times(1)).findById(testId1);
-            verify(villageRepository, times(1)).findById(newVillageId); // Verify village lookup
-            ArgumentCaptor<Character> characterCaptor = ArgumentCaptor.forClass(Character.class);
-            verify(characterRepository, times(1)).save(characterCaptor.capture());
-
-            // Assert the state of the object *passed* to save()
-            Character savedCharacter = characterCaptor.getValue();
-            assertThat(savedCharacter.id()).isEqualTo(testId1);
-            assertThat(savedCharacter.name()).isEqualTo(testCharacter1.name()); // Original
-            assertThat(savedCharacter.age()).isEqualTo(testCharacter1.age()); // Original
-            assertThat(savedCharacter.profession()).isEqualTo(testCharacter1.profession()); // Original
-            assertThat(savedCharacter.village()).isEqualTo(newVillage); // New
+            ArgumentCaptor<CharacterPatch> patchCaptor = ArgumentCaptor.forClass(CharacterPatch.class);
+            verify(characterRepository, times(1)).updatePartially(eq(testId1), patchCaptor.capture());
+            assertThat(patchCaptor.getValue()).isEqualTo(new CharacterPatch(null, null, null, true, new VillageReference(newVillageId, "New Village")));
         }
 
         @Test
-        @DisplayName("should update character with null village when villageId not found")
+        @DisplayName("should remove the village when villageId is unknown")
         void shouldUpdateCharacterWithNullVillageWhenNotFound() {
             // Given
             String nonExistentVillageId = "non-existent-village-id";
             CharacterInputDTO updateDto = new CharacterInputDTO(null, 0, null, nonExistentVillageId);
-            // Expected state after update logic (village becomes null) and save
             Character expectedSavedCharacter = testCharacter1.withVillage(null);
 
-            when(characterRepository.findById(testId1)).thenReturn(Optional.of(testCharacter1));
-            when(villageRepository.findById(nonExistentVillageId)).thenReturn(Optional.empty()); // Village not found
-            when(characterRepository.save(any(Character.class))).thenReturn(expectedSavedCharacter);
+            when(villageRegistry.find(nonExistentVillageId)).thenReturn(Optional.empty()); // Village not found
+            when(characterRepository.updatePartially(any(String.class), any(CharacterPatch.class))).thenReturn(Optional.of(new CharacterUpdate(testCharacter1, expectedSavedCharacter)));
 
             // When
             Character actualUpdatedCharacter = characterService.updateCharacter(testId1, updateDto);
@@ -454,14 +595,11 @@ class CharacterServiceTest {
             // Then
             assertThat(actualUpdatedCharacter).isEqualTo(expectedSavedCharacter);
 
-            verify(characterRepository, times(1)).findById(testId1);
-            verify(villageRepository, times(1)).findById(nonExistentVillageId); // Verify village lookup attempt
-            ArgumentCaptor<Character> characterCaptor = ArgumentCaptor.forClass(Character.class);
-            verify(characterRepository, times(1)).save(characterCaptor.capture());
-
-            // Assert the state of the object *passed* to save()
-            assertThat(characterCaptor.getValue().village()).isNull(); // Verify village is null
-            assertThat(characterCaptor.getValue().name()).isEqualTo(testCharacter1.name()); // Verify others unchanged
+            ArgumentCaptor<CharacterPatch> patchCaptor = ArgumentCaptor.forClass(CharacterPatch.class);
+            verify(characterRepository, times(1)).updatePartially(eq(testId1), patchCaptor.capture());
+            assertThat(patchCaptor.getValue().villageChanged()).isTrue();
+            assertThat(patchCaptor.getValue().village()).isNull(); // Verify village is removed
+            verify(villageRepository, times(1)).incrementInhabitantCount(testVillageId, -1); // Moved out of the old village
         }
 
 
@@ -470,16 +608,18 @@ class CharacterServiceTest {
         void shouldThrowNotFoundExceptionWhenUpdatingNonExistentCharacter() {
             // Given
             String nonExistentId = "non-existent-id";
-            when(characterRepository.findById(nonExistentId)).thenReturn(Optional.empty());
+            when(villageRegistry.find(testVillageId)).thenReturn(Optional.of(VillageReference.of(testVillage)));
+            when(characterRepository.updatePartially(any(String.class), any(CharacterPatch.class))).thenReturn(Optional.empty());
 
             // When / Then
             NotFoundException exception = assertThrows(NotFoundException.class, () -> characterService.updateCharacter(nonExistentId, testCharacterInputDTO), "NotFoundException should be thrown");
 
             // Then (verify exception details and no side effects)
             assertThat(exception.getMessage()).contains(nonExistentId);
-            verify(characterRepository, times(1)).findById(nonExistentId);
-            verifyNoInteractions(villageRepository); // No village lookup if character not found first
+            verify(characterRepository, times(1)).updatePartially(eq(nonExistentId), any(CharacterPatch.class));
             verify(characterRepository, never()).save(any(Character.class));
+            verifyNoInteractions(responseCacheService);
+            verifyNoInteractions(eventPublisher);
         }
     }
-}
\ No newline at end of file
+}
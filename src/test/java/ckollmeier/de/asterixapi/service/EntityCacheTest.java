@@ -0,0 +1,172 @@
+package ckollmeier.de.asterixapi.service;
+
+import ckollmeier.de.asterixapi.model.Character;
+import ckollmeier.de.asterixapi.model.Village;
+import ckollmeier.de.asterixapi.model.VillageReference;
+import ckollmeier.de.asterixapi.repository.CharacterRepository;
+import ckollmeier.de.asterixapi.repository.VillageRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link EntityCache} using the Given-When-Then pattern.
+ */
+class EntityCacheTest {
+
+    private final Village village = new Village("v1", "Indomitable Village");
+    private final Character character = new Character("c1", "Asterix", 35, "Warrior", VillageReference.of(village));
+
+    private CharacterRepository characterRepository;
+    private VillageRepository villageRepository;
+    private SimpleMeterRegistry meterRegistry;
+    private EntityCache entityCache;
+
+    @BeforeEach
+    void setUp() {
+        characterRepository = mock(CharacterRepository.class);
+        villageRepository = mock(VillageRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+        entityCache = new EntityCache(characterRepository, villageRepository, meterRegistry, 100, Duration.ofMinutes(1));
+    }
+
+    @Test
+    @DisplayName("should load an entity only once and count the hit")
+    void get_shouldServeRepeatedLookupsFromCache() {
+        // Given
+        when(characterRepository.findById("c1")).thenReturn(Optional.of(character));
+
+        // When
+        Optional<Character> first = entityCache.getCharacter("c1");
+        Optional<Character> second = entityCache.getCharacter("c1");
+
+        // Then
+        assertThat(first).contains(character);
+        assertThat(second).contains(character);
+        verify(characterRepository, times(1)).findById("c1");
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "characters").tag("result", "hit")
+                .functionCounter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "characters").tag("result", "miss")
+                .functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("should load all misses of a batch with a single query")
+    void getAll_shouldLoadMissesWithSingleQuery() {
+        // Given
+        Character obelix = new Character("c2", "Obelix", 35, "Menhir Carrier", VillageReference.of(village));
+        when(characterRepository.findById("c1")).thenReturn(Optional.of(character));
+        when(characterRepository.findByIdIn(anyCollection())).thenReturn(List.of(obelix));
+        entityCache.getCharacter("c1");
+
+        // When
+        Map<String, Character> found = entityCache.getCharacters(List.of("c1", "c2", "c3", "c2"));
+        Map<String, Character> again = entityCache.getCharacters(List.of("c1", "c2"));
+
+        // Then
+        assertThat(found).containsOnly(Map.entry("c1", character), Map.entry("c2", obelix));
+        assertThat(again).containsOnlyKeys("c1", "c2");
+        verify(characterRepository).findByIdIn(Set.of("c2", "c3"));
+        verify(characterRepository).findById("c1");
+        verifyNoMoreInteractions(characterRepository);
+    }
+
+    @Test
+    @DisplayName("should not keep a batch loaded while an entity was evicted")
+    void getAll_shouldNotKeepBatchLoadedDuringEviction() {
+        // Given
+        Character older = character.withAge(36);
+        when(characterRepository.findByIdIn(anyCollection())).thenAnswer(invocation -> {
+            entityCache.evictCharacter("c1");
+            return List.of(character);
+        });
+        when(characterRepository.findById("c1")).thenReturn(Optional.of(older));
+
+        // When
+        Map<String, Character> found = entityCache.getCharacters(List.of("c1"));
+        Optional<Character> reloaded = entityCache.getCharacter("c1");
+
+        // Then
+        assertThat(found).containsOnly(Map.entry("c1", character));
+        assertThat(reloaded).contains(older);
+        verify(characterRepository).findById("c1");
+    }
+
+    @Test
+    @DisplayName("should load a batch of villages by their IDs")
+    void getAll_shouldLoadVillages() {
+        // Given
+        when(villageRepository.findAllById(anyCollection())).thenReturn(List.of(village));
+
+        // When
+        Map<String, Village> found = entityCache.getVillages(List.of("v1", "v2"));
+
+        // Then
+        assertThat(found).containsOnly(Map.entry("v1", village));
+        verify(villageRepository).findAllById(Set.of("v1", "v2"));
+    }
+
+    @Test
+    @DisplayName("should not cache missing entities")
+    void get_shouldNotCacheMisses() {
+        // Given
+        when(villageRepository.findById("v1")).thenReturn(Optional.empty()).thenReturn(Optional.of(village));
+
+        // When
+        Optional<Village> missing = entityCache.getVillage("v1");
+        Optional<Village> created = entityCache.getVillage("v1");
+
+        // Then
+        assertThat(missing).isEmpty();
+        assertThat(created).contains(village);
+        verify(villageRepository, times(2)).findById("v1");
+    }
+
+    @Test
+    @DisplayName("should reload evicted entities")
+    void evict_shouldReloadOnNextLookup() {
+        // Given
+        Village renamed = village.withName("Aquarium");
+        Character older = character.withAge(36);
+        when(villageRepository.findById("v1")).thenReturn(Optional.of(village)).thenReturn(Optional.of(renamed));
+        when(characterRepository.findById("c1")).thenReturn(Optional.of(character)).thenReturn(Optional.of(older));
+        entityCache.getVillage("v1");
+        entityCache.getCharacter("c1");
+
+        // When
+        entityCache.evictVillage("v1");
+        entityCache.evictCharacters(List.of("c1"));
+
+        // Then
+        assertThat(entityCache.getVillage("v1")).contains(renamed);
+        assertThat(entityCache.getCharacter("c1")).contains(older);
+        verify(villageRepository, times(2)).findById("v1");
+        verify(characterRepository, times(2)).findById("c1");
+    }
+
+    @Test
+    @DisplayName("should ignore null IDs when evicting")
+    void evict_shouldIgnoreNullIds() {
+        // When
+        entityCache.evictCharacter(null);
+        entityCache.evictVillage(null);
+
+        // Then
+        assertThat(meterRegistry.get("cache.size").tag("cache", "villages").gauge().value()).isZero();
+    }
+}
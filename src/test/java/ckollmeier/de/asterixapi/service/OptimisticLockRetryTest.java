@@ -0,0 +1,100 @@
+package ckollmeier.de.asterixapi.service;
+
+import ckollmeier.de.asterixapi.exception.ConflictException;
+import ckollmeier.de.asterixapi.exception.NotFoundException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for {@link OptimisticLockRetry} using the Given-When-Then pattern.
+ */
+class OptimisticLockRetryTest {
+
+    @Test
+    @DisplayName("execute should return the result of the first attempt when it succeeds")
+    void execute_shouldReturnResult_whenFirstAttemptSucceeds() {
+        // Given
+        AtomicInteger attempts = new AtomicInteger();
+
+        // When
+        String result = OptimisticLockRetry.execute(3, "Test operation", () -> {
+            attempts.incrementAndGet();
+            return "done";
+        });
+
+        // Then
+        assertThat(result).isEqualTo("done");
+        assertThat(attempts.get()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("execute should retry after an optimistic locking failure")
+    void execute_shouldRetry_whenOptimisticLockingFails() {
+        // Given
+        AtomicInteger attempts = new AtomicInteger();
+
+        // When
+        String result = OptimisticLockRetry.execute(3, "Test operation", () -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new OptimisticLockingFailureException("stale");
+            }
+            return "done";
+        });
+
+        // Then
+        assertThat(result).isEqualTo("done");
+        assertThat(attempts.get()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("execute should throw ConflictException when all attempts fail")
+    void execute_shouldThrowConflict_whenAllAttemptsFail() {
+        // Given
+        AtomicInteger attempts = new AtomicInteger();
+
+        // When / Then
+        assertThatThrownBy(() -> OptimisticLockRetry.execute(2, "Test operation", () -> {
+            attempts.incrementAndGet();
+            throw new OptimisticLockingFailureException("stale");
+        }))
+                .isInstanceOf(ConflictException.class)
+                .hasMessageContaining("Test operation")
+                .hasCauseInstanceOf(OptimisticLockingFailureException.class);
+        assertThat(attempts.get()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("execute should not retry other exceptions")
+    void execute_shouldNotRetry_otherExceptions() {
+        // Given
+        AtomicInteger attempts = new AtomicInteger();
+
+        // When / Then
+        assertThatThrownBy(() -> OptimisticLockRetry.execute(3, "Test operation", () -> {
+            attempts.incrementAndGet();
+            throw new NotFoundException("missing");
+        })).isInstanceOf(NotFoundException.class);
+        assertThat(attempts.get()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Private constructor should throw IllegalStateException")
+    void privateConstructor_shouldThrowException() throws NoSuchMethodException {
+        // Given
+        Constructor<OptimisticLockRetry> constructor = OptimisticLockRetry.class.getDeclaredConstructor();
+        constructor.setAccessible(true);
+
+        // When / Then
+        assertThatThrownBy(constructor::newInstance)
+                .isInstanceOf(InvocationTargetException.class)
+                .hasCauseInstanceOf(IllegalStateException.class);
+    }
+}
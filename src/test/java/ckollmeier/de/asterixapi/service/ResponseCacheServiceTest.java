@@ -0,0 +1,165 @@
+package ckollmeier.de.asterixapi.service;
+
+import ckollmeier.de.asterixapi.dto.VillageSelectDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link ResponseCacheService} using the Given-When-Then pattern.
+ */
+class ResponseCacheServiceTest {
+
+    private static final String EXPECTED_JSON = "[{\"id\":\"v1\",\"name\":\"Indomitable Village\"}]";
+
+    private ResponseCacheService responseCacheService;
+    private AtomicInteger supplierCalls;
+    private Supplier<List<VillageSelectDTO>> bodySupplier;
+
+    @BeforeEach
+    void setUp() {
+        responseCacheService = new ResponseCacheService(new ObjectMapper());
+        supplierCalls = new AtomicInteger();
+        bodySupplier = () -> {
+            supplierCalls.incrementAndGet();
+            return List.of(new VillageSelectDTO("v1", "Indomitable Village"));
+        };
+    }
+
+    @Nested
+    @DisplayName("write Tests")
+    class WriteTests {
+
+        @Test
+        @DisplayName("should serialize the body on the first request")
+        void write_shouldSerializeBody_whenNotCached() throws IOException {
+            // Given
+            MockHttpServletResponse response = new MockHttpServletResponse();
+
+            // When
+            responseCacheService.write(ResponseCacheService.VILLAGES_KEY, bodySupplier, new MockHttpServletRequest(), response);
+
+            // Then
+            assertThat(supplierCalls.get()).isEqualTo(1);
+            assertThat(response.getContentType()).isEqualTo(MediaType.APPLICATION_JSON_VALUE);
+            assertThat(response.getContentAsString()).isEqualTo(EXPECTED_JSON);
+            assertThat(response.getContentLength()).isEqualTo(EXPECTED_JSON.length());
+            assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).isNull();
+            assertThat(response.getHeader(HttpHeaders.VARY)).isEqualTo(HttpHeaders.ACCEPT_ENCODING);
+        }
+
+        @Test
+        @DisplayName("should serve cached bytes without calling the supplier again")
+        void write_shouldServeCachedBytes_whenVersionUnchanged() throws IOException {
+            // Given
+            responseCacheService.write(ResponseCacheService.VILLAGES_KEY, bodySupplier, new MockHttpServletRequest(), new MockHttpServletResponse());
+            MockHttpServletResponse response = new MockHttpServletResponse();
+
+            // When
+            responseCacheService.write(ResponseCacheService.VILLAGES_KEY, bodySupplier, new MockHttpServletRequest(), response);
+
+            // Then
+            assertThat(supplierCalls.get()).isEqualTo(1);
+            assertThat(response.getContentAsString()).isEqualTo(EXPECTED_JSON);
+        }
+
+        @Test
+        @DisplayName("should rebuild the response after invalidation")
+        void write_shouldRebuild_whenInvalidated() throws IOException {
+            // Given
+            responseCacheService.write(ResponseCacheService.VILLAGES_KEY, bodySupplier, new MockHttpServletRequest(), new MockHttpServletResponse());
+            long versionBefore = responseCacheService.getDataVersion();
+
+            // When
+            responseCacheService.invalidate();
+            responseCacheService.write(ResponseCacheService.VILLAGES_KEY, bodySupplier, new MockHttpServletRequest(), new MockHttpServletResponse());
+
+            // Then
+            assertThat(responseCacheService.getDataVersion()).isEqualTo(versionBefore + 1);
+            assertThat(supplierCalls.get()).isEqualTo(2);
+        }
+
+        @Test
+        @DisplayName("should cache responses separately per key")
+        void write_shouldCacheSeparately_perKey() throws IOException {
+            // Given
+            responseCacheService.write(ResponseCacheService.VILLAGES_KEY, bodySupplier, new MockHttpServletRequest(), new MockHttpServletResponse());
+
+            // When
+            responseCacheService.write(ResponseCacheService.VILLAGES_PAGE_KEY, bodySupplier, new MockHttpServletRequest(), new MockHttpServletResponse());
+
+            // Then
+            assertThat(supplierCalls.get()).isEqualTo(2);
+        }
+
+        @Test
+        @DisplayName("should write gzip-compressed bytes when the client accepts gzip")
+        void write_shouldWriteGzip_whenAccepted() throws IOException {
+            // Given
+            MockHttpServletRequest request = new MockHttpServletRequest();
+            request.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate, br");
+            MockHttpServletResponse response = new MockHttpServletResponse();
+
+            // When
+            responseCacheService.write(ResponseCacheService.VILLAGES_KEY, bodySupplier, request, response);
+
+            // Then
+            assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+            assertThat(response.getContentLength()).isEqualTo(response.getContentAsByteArray().length);
+            try (GZIPInputStream gzipInputStream = new GZIPInputStream(new ByteArrayInputStream(response.getContentAsByteArray()))) {
+                assertThat(new String(gzipInputStream.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(EXPECTED_JSON);
+            }
+        }
+
+        @ParameterizedTest
+        @ValueSource(strings = {"gzip;q=0", "gzip; q=0.0, deflate", "br, *;q=0", "*;q=1, gzip;q=0", "identity", "x-gzipped"})
+        @DisplayName("should write plain bytes when the client does not accept gzip")
+        void write_shouldWritePlain_whenGzipNotAccepted(final String acceptEncoding) throws IOException {
+            // Given
+            MockHttpServletRequest request = new MockHttpServletRequest();
+            request.addHeader(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+            MockHttpServletResponse response = new MockHttpServletResponse();
+
+            // When
+            responseCacheService.write(ResponseCacheService.VILLAGES_KEY, bodySupplier, request, response);
+
+            // Then
+            assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).isNull();
+            assertThat(response.getContentAsString()).isEqualTo(EXPECTED_JSON);
+        }
+
+        @ParameterizedTest
+        @ValueSource(strings = {"GZIP", "deflate;q=1, gzip;q=0.5", "br;q=1, *;q=0.1", "*"})
+        @DisplayName("should write gzip-compressed bytes when gzip is accepted with a quality above zero")
+        void write_shouldWriteGzip_whenAcceptedWithQuality(final String acceptEncoding) throws IOException {
+            // Given
+            MockHttpServletRequest request = new MockHttpServletRequest();
+            request.addHeader(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+            MockHttpServletResponse response = new MockHttpServletResponse();
+
+            // When
+            responseCacheService.write(ResponseCacheService.VILLAGES_KEY, bodySupplier, request, response);
+
+            // Then
+            assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package ckollmeier.de.asterixapi.service;
+
+import ckollmeier.de.asterixapi.dto.ChangesDTO;
+import ckollmeier.de.asterixapi.dto.CharacterOutputDTO;
+import ckollmeier.de.asterixapi.dto.SearchHitDTO;
+import ckollmeier.de.asterixapi.dto.VillageCountOutputDTO;
+import ckollmeier.de.asterixapi.event.ChangeEvent;
+import ckollmeier.de.asterixapi.event.ChangeType;
+import ckollmeier.de.asterixapi.exception.GoneException;
+import ckollmeier.de.asterixapi.model.ChangeLogEntry;
+import ckollmeier.de.asterixapi.model.Character;
+import ckollmeier.de.asterixapi.model.Village;
+import ckollmeier.de.asterixapi.model.VillageReference;
+import ckollmeier.de.asterixapi.repository.ChangeLogRepository;
+import ckollmeier.de.asterixapi.repository.CharacterRepository;
+import ckollmeier.de.asterixapi.repository.VillageRepository;
+import ckollmeier.de.asterixapi.repository.memory.InMemoryChangeLogRepository;
+import ckollmeier.de.asterixapi.repository.memory.InMemoryCharacterRepository;
+import ckollmeier.de.asterixapi.repository.memory.InMemoryVillageRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link SearchService} using the Given-When-Then pattern.
+ */
+@ExtendWith(MockitoExtension.class)
+class SearchServiceTest {
+
+    @Mock
+    private CharacterRepository characterRepository;
+    @Mock
+    private VillageRepository villageRepository;
+    @Mock
+    private ChangeLogRepository changeLogRepository;
+    @Mock
+    private ChangeLogService changeLogService;
+
+    @InjectMocks
+    private SearchService searchService;
+
+    private final Village village = new Village("v1", "Indomitable Village", 1, 0L);
+    private final Character asterix = new Character("c1", "Asterix", 35, "Warrior", VillageReference.of(village));
+
+    @BeforeEach
+    void setUp() {
+        when(changeLogRepository.currentSequence()).thenReturn(7L);
+        when(characterRepository.findAll()).thenReturn(List.of(asterix));
+        when(villageRepository.findAll()).thenReturn(List.of(village));
+        searchService.rebuild();
+    }
+
+    @Test
+    @DisplayName("rebuild should index all characters and villages")
+    void rebuild_shouldIndexRepositories() {
+        // When
+        List<SearchHitDTO> hits = searchService.search("asterix", 10);
+
+        // Then
+        assertThat(hits).containsExactly(new SearchHitDTO("character", "c1", "Asterix", "Warrior", hits.getFirst().score()));
+        assertThat(searchService.search("indomitable", 10)).extracting(SearchHitDTO::type).containsExactly("village");
+    }
+
+    @Test
+    @DisplayName("onChange should add, move, rename and remove entities")
+    void onChange_shouldUpdateIndex() {
+        // Given
+        Character obelix = new Character("c2", "Obelix", 35, "Menhir Carrier", VillageReference.of(village));
+
+        // When
+        searchService.onChange(ChangeEvent.characterAdded(obelix));
+        searchService.onChange(ChangeEvent.characterMoved(asterix.withName("Asterix the Gaul"), "v0"));
+        searchService.onChange(ChangeEvent.villageRenamed(village.withName("Armorica")));
+        searchService.onChange(ChangeEvent.characterRemoved("c2"));
+
+        // Then
+        assertThat(searchService.search("obelix", 10)).isEmpty();
+        assertThat(searchService.search("gaul", 10)).extracting(SearchHitDTO::id).containsExactly("c1");
+        assertThat(searchService.search("armorica", 10)).extracting(SearchHitDTO::id).containsExactly("v1");
+        assertThat(searchService.search("indomitable", 10)).isEmpty();
+
+        searchService.onChange(ChangeEvent.villageRemoved("v1"));
+        assertThat(searchService.search("armorica", 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("sync should apply the changes of other instances from the change log")
+    void sync_shouldApplyChangeLog() {
+        // Given
+        when(changeLogService.getChangesSince(7L)).thenReturn(new ChangesDTO(9L,
+                List.of(new CharacterOutputDTO("c3", "Miraculix", 80, "Druid", null)),
+                List.of(new VillageCountOutputDTO("v2", "Babaorum", 0)),
+                List.of("c1"),
+                List.of("v1")));
+
+        // When
+        searchService.sync();
+
+        // Then
+        assertThat(searchService.search("druid", 10)).extracting(SearchHitDTO::id).containsExactly("c3");
+        assertThat(searchService.search("babaorum", 10)).extracting(SearchHitDTO::id).containsExactly("v2");
+        assertThat(searchService.search("asterix", 10)).isEmpty();
+        assertThat(searchService.search("indomitable", 10)).isEmpty();
+
+        when(changeLogService.getChangesSince(9L)).thenReturn(new ChangesDTO(9L, List.of(), List.of(), List.of(), List.of()));
+        searchService.sync();
+        verify(changeLogService).getChangesSince(9L);
+    }
+
+    @Test
+    @DisplayName("sync should not skip a change log entry another instance is still inserting")
+    void sync_shouldNotAdvancePastGap() {
+        // Given
+        InMemoryCharacterRepository characters = new InMemoryCharacterRepository();
+        InMemoryVillageRepository villages = new InMemoryVillageRepository(characters);
+        InMemoryChangeLogRepository changeLog = new InMemoryChangeLogRepository();
+        ChangeLogService changes = new ChangeLogService(changeLog, characters, villages, new SimpleMeterRegistry(),
+                1_000_000L, 1_000L, Duration.ofMinutes(1));
+        SearchService search = new SearchService(characters, villages, changeLog, changes);
+        changeLog.insert(new ChangeLogEntry(changeLog.nextSequence(), ChangeType.VILLAGE_REMOVED, "v0", Instant.now()));
+        search.rebuild();
+        characters.save(new Character("c2", "Obelix", 35, "Menhir Carrier", null));
+        characters.save(new Character("c3", "Miraculix", 80, "Druid", null));
+        // Sequence 2 is allocated first, but its entry is stored after the one of sequence 3
+        long first = changeLog.nextSequence();
+        long second = changeLog.nextSequence();
+        changeLog.insert(new ChangeLogEntry(second, ChangeType.CHARACTER_ADDED, "c3", Instant.now()));
+
+        // When
+        search.sync();
+        changeLog.insert(new ChangeLogEntry(first, ChangeType.CHARACTER_ADDED, "c2", Instant.now()));
+        boolean foundBeforeGapClosed = !search.search("druid", 10).isEmpty();
+        search.sync();
+
+        // Then
+        assertThat(foundBeforeGapClosed).isFalse();
+        assertThat(search.search("obelix", 10)).extracting(SearchHitDTO::id).containsExactly("c2");
+        assertThat(search.search("druid", 10)).extracting(SearchHitDTO::id).containsExactly("c3");
+    }
+
+    @Test
+    @DisplayName("sync should rebuild the index if the change log no longer covers it")
+    void sync_shouldRebuildIfChangesAreGone() {
+        // Given
+        when(changeLogService.getChangesSince(7L)).thenThrow(new GoneException("gone"));
+        when(characterRepository.findAll()).thenReturn(List.of(asterix.withName("Astérix")));
+
+        // When
+        searchService.sync();
+
+        // Then
+        assertThat(searchService.search("asterix", 10)).extracting(SearchHitDTO::name).containsExactly("Astérix");
+    }
+
+    @Test
+    @DisplayName("a failed rebuild should keep the previous index and sync should wait for the first build")
+    void rebuild_shouldKeepIndexOnFailure() {
+        // Given
+        when(characterRepository.findAll()).thenThrow(new DataAccessResourceFailureException("down"));
+        SearchService unbuilt = new SearchService(characterRepository, villageRepository, changeLogRepository, changeLogService);
+
+        // When
+        searchService.rebuild();
+        unbuilt.rebuild();
+        unbuilt.sync();
+
+        // Then
+        assertThat(searchService.search("asterix", 10)).hasSize(1);
+        assertThat(unbuilt.search("asterix", 10)).isEmpty();
+        verify(changeLogService, never()).getChangesSince(anyLong());
+    }
+}
@@ -0,0 +1,141 @@
+package ckollmeier.de.asterixapi.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for {@link SingleFlight} using the Given-When-Then pattern.
+ */
+class SingleFlightTest {
+
+    private static final String KEY = "villages-output";
+
+    private ResponseCacheService responseCacheService;
+    private SimpleMeterRegistry meterRegistry;
+    private SingleFlight singleFlight;
+
+    @BeforeEach
+    void setUp() {
+        responseCacheService = new ResponseCacheService(new ObjectMapper());
+        meterRegistry = new SimpleMeterRegistry();
+        singleFlight = new SingleFlight(responseCacheService, meterRegistry);
+    }
+
+    private double calls(final String outcome) {
+        return meterRegistry.counter(SingleFlight.CALLS_METRIC, "key", KEY, "outcome", outcome).count();
+    }
+
+    @Test
+    @DisplayName("should share one computation between concurrent identical calls")
+    void execute_shouldCoalesceConcurrentCalls() throws Exception {
+        // Given
+        int callers = 8;
+        AtomicInteger computations = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        List<Future<String>> results = new ArrayList<>();
+
+        // When
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < callers; i++) {
+                results.add(executor.submit(() -> singleFlight.execute(KEY, () -> {
+                    computations.incrementAndGet();
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return "result";
+                })));
+            }
+            // Keep the leader busy until every other caller has joined its flight
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (calls("coalesced") < callers - 1 && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+
+            // Then
+            for (Future<String> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("result");
+            }
+        }
+        assertThat(computations.get()).isEqualTo(1);
+        assertThat(calls("executed")).isEqualTo(1);
+        assertThat(calls("coalesced")).isEqualTo(callers - 1);
+    }
+
+    @Test
+    @DisplayName("should compute again once the previous flight has completed")
+    void execute_shouldNotCacheResults() {
+        // Given
+        AtomicInteger computations = new AtomicInteger();
+
+        // When
+        int first = singleFlight.execute(KEY, computations::incrementAndGet);
+        int second = singleFlight.execute(KEY, computations::incrementAndGet);
+
+        // Then
+        assertThat(first).isEqualTo(1);
+        assertThat(second).isEqualTo(2);
+        assertThat(calls("executed")).isEqualTo(2);
+        assertThat(calls("coalesced")).isZero();
+    }
+
+    @Test
+    @DisplayName("should not join a flight that started before a write")
+    void execute_shouldStartNewFlight_afterInvalidation() throws Exception {
+        // Given
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<String> staleResult = executor.submit(() -> singleFlight.execute(KEY, () -> {
+                started.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "before write";
+            }));
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+            // When
+            responseCacheService.invalidate();
+            String freshResult = singleFlight.execute(KEY, () -> "after write");
+            release.countDown();
+
+            // Then
+            assertThat(freshResult).isEqualTo("after write");
+            assertThat(staleResult.get(5, TimeUnit.SECONDS)).isEqualTo("before write");
+        }
+        assertThat(calls("executed")).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("should propagate the exception of the computation")
+    void execute_shouldPropagateException() {
+        // When / Then
+        assertThatThrownBy(() -> singleFlight.execute(KEY, () -> {
+            throw new IllegalStateException("database unavailable");
+        })).isInstanceOf(IllegalStateException.class).hasMessage("database unavailable");
+
+        // A failed flight must not block later calls
+        assertThat(singleFlight.execute(KEY, () -> "recovered")).isEqualTo("recovered");
+    }
+}
@@ -0,0 +1,193 @@
+package ckollmeier.de.asterixapi.service;
+
+import ckollmeier.de.asterixapi.dto.ChangesDTO;
+import ckollmeier.de.asterixapi.dto.VillageCountOutputDTO;
+import ckollmeier.de.asterixapi.exception.GoneException;
+import ckollmeier.de.asterixapi.model.Village;
+import ckollmeier.de.asterixapi.model.VillageReference;
+import ckollmeier.de.asterixapi.repository.ChangeLogRepository;
+import ckollmeier.de.asterixapi.repository.VillageRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link VillageRegistry} using the Given-When-Then pattern.
+ */
+@ExtendWith(MockitoExtension.class)
+class VillageRegistryTest {
+
+    @Mock
+    private VillageRepository villageRepository;
+    @Mock
+    private EntityCache entityCache;
+    @Mock
+    private ChangeLogRepository changeLogRepository;
+    @Mock
+    private ChangeLogService changeLogService;
+
+    @InjectMocks
+    private VillageRegistry villageRegistry;
+
+    @Nested
+    @DisplayName("find Tests")
+    class FindTests {
+
+        @Test
+        @DisplayName("should load the villages only once")
+        void find_shouldLoadVillagesOnce() {
+            // Given
+            when(villageRepository.findAll()).thenReturn(List.of(new Village("v1", "Indomitable Village"), new Village("v2", "Aquarium")));
+
+            // When
+            Optional<VillageReference> v1 = villageRegistry.find("v1");
+            Optional<VillageReference> v2 = villageRegistry.find("v2");
+
+            // Then
+            assertThat(v1).contains(new VillageReference("v1", "Indomitable Village"));
+            assertThat(v2).contains(new VillageReference("v2", "Aquarium"));
+            verify(villageRepository, times(1)).findAll();
+            verify(entityCache, never()).getVillage("v1");
+        }
+
+        @Test
+        @DisplayName("should look up unknown IDs in the entity cache and remember existing ones")
+        void find_shouldLookUpUnknownIds() {
+            // Given
+            when(villageRepository.findAll()).thenReturn(List.of());
+            when(entityCache.getVillage("v3")).thenReturn(Optional.of(new Village("v3", "Compendium")));
+            when(entityCache.getVillage("missing")).thenReturn(Optional.empty());
+
+            // When
+            Optional<VillageReference> v3 = villageRegistry.find("v3");
+            Optional<VillageReference> v3Again = villageRegistry.find("v3");
+            Optional<VillageReference> missing = villageRegistry.find("missing");
+
+            // Then
+            assertThat(v3).contains(new VillageReference("v3", "Compendium"));
+            assertThat(v3Again).isEqualTo(v3);
+            assertThat(missing).isEmpty();
+            verify(entityCache, times(1)).getVillage("v3");
+        }
+    }
+
+    @Nested
+    @DisplayName("sync Tests")
+    class SyncTests {
+
+        @Test
+        @DisplayName("should apply villages added, renamed and removed by other instances")
+        void sync_shouldApplyChangeLog() {
+            // Given
+            when(changeLogRepository.currentSequence()).thenReturn(7L);
+            when(villageRepository.findAll()).thenReturn(List.of(new Village("v1", "Indomitable Village"), new Village("v2", "Aquarium")));
+            villageRegistry.find("v1");
+            when(changeLogService.getVillageChangesSince(7L)).thenReturn(new ChangesDTO(9L, List.of(),
+                    List.of(new VillageCountOutputDTO("v1", "Armorica", 3), new VillageCountOutputDTO("v3", "Compendium", 0)),
+                    List.of(), List.of("v2")));
+            when(entityCache.getVillage("v2")).thenReturn(Optional.empty());
+
+            // When
+            villageRegistry.sync();
+
+            // Then
+            assertThat(villageRegistry.find("v1")).contains(new VillageReference("v1", "Armorica"));
+            assertThat(villageRegistry.find("v3")).contains(new VillageReference("v3", "Compendium"));
+            assertThat(villageRegistry.find("v2")).isEmpty();
+            when(changeLogService.getVillageChangesSince(9L)).thenReturn(new ChangesDTO(9L, List.of(), List.of(), List.of(), List.of()));
+            villageRegistry.sync();
+            verify(changeLogService).getVillageChangesSince(9L);
+        }
+
+        @Test
+        @DisplayName("should reload the villages if the change log no longer covers them")
+        void sync_shouldReloadIfChangesAreGone() {
+            // Given
+            when(villageRepository.findAll())
+                    .thenReturn(List.of(new Village("v1", "Indomitable Village")))
+                    .thenReturn(List.of(new Village("v1", "Armorica")));
+            villageRegistry.find("v1");
+            when(changeLogService.getVillageChangesSince(anyLong())).thenThrow(new GoneException("gone"));
+
+            // When
+            villageRegistry.sync();
+
+            // Then
+            assertThat(villageRegistry.find("v1")).contains(new VillageReference("v1", "Armorica"));
+            verify(villageRepository, times(2)).findAll();
+        }
+
+        @Test
+        @DisplayName("should wait for the first load")
+        void sync_shouldDoNothingBeforeLoad() {
+            // When
+            villageRegistry.sync();
+
+            // Then
+            verify(changeLogService, never()).getVillageChangesSince(anyLong());
+        }
+    }
+
+    @Test
+    @DisplayName("register and unregister should update the known villages")
+    void registerAndUnregister_shouldUpdateKnownVillages() {
+        // Given
+        when(villageRepository.findAll()).thenReturn(List.of(new Village("v1", "Indomitable Village")));
+        when(entityCache.getVillage("v1")).thenReturn(Optional.empty());
+        villageRegistry.find("v1");
+
+        // When
+        villageRegistry.register(new Village("v2", "Aquarium"));
+        villageRegistry.register(new Village("v2", "Totorum"));
+        villageRegistry.unregister("v1");
+
+        // Then
+        assertThat(villageRegistry.find("v2")).contains(new VillageReference("v2", "Totorum"));
+        assertThat(villageRegistry.find("v1")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("reload should replace the known villages")
+    void reload_shouldReplaceKnownVillages() {
+        // Given
+        when(villageRepository.findAll())
+                .thenReturn(List.of(new Village("v1", "Indomitable Village")))
+                .thenReturn(List.of(new Village("v2", "Aquarium")));
+        when(entityCache.getVillage("v1")).thenReturn(Optional.empty());
+        villageRegistry.find("v1");
+
+        // When
+        villageRegistry.reload();
+
+        // Then
+        assertThat(villageRegistry.find("v2")).contains(new VillageReference("v2", "Aquarium"));
+        assertThat(villageRegistry.find("v1")).isEmpty();
+        verify(villageRepository, times(2)).findAll();
+    }
+
+    @Test
+    @DisplayName("register and unregister should not load the villages")
+    void registerAndUnregister_shouldNotLoadVillages() {
+        // When
+        villageRegistry.register(new Village("v2", "Aquarium"));
+        villageRegistry.unregister("v1");
+
+        // Then
+        verify(villageRepository, never()).findAll();
+        verify(changeLogRepository, never()).currentSequence();
+    }
+}
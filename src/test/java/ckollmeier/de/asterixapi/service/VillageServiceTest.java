@@ -3,11 +3,18 @@ package ckollmeier.de.asterixapi.service;
 import ckollmeier.de.asterixapi.converter.VillageConverter;
 import ckollmeier.de.asterixapi.dataprovider.VillagesPageDataProvider;
 import ckollmeier.de.asterixapi.dto.*; // Import all DTOs
+import ckollmeier.de.asterixapi.event.ChangeBatch;
+import ckollmeier.de.asterixapi.event.ChangeEvent;
+import ckollmeier.de.asterixapi.exception.BadRequestException;
+import ckollmeier.de.asterixapi.exception.ConflictException;
 import ckollmeier.de.asterixapi.exception.NotFoundException;
 import ckollmeier.de.asterixapi.model.Character;
 import ckollmeier.de.asterixapi.model.Village;
+import ckollmeier.de.asterixapi.model.VillageReference;
+import ckollmeier.de.asterixapi.namefilter.NameFilter;
 import ckollmeier.de.asterixapi.repository.CharacterRepository;
 import ckollmeier.de.asterixapi.repository.VillageRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -15,12 +22,20 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
 
+import java.time.Duration;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.*;
@@ -46,6 +61,18 @@ class VillageServiceTest {
     private VillageConverter villageConverter;
     @Mock
     private IdService idService;
+    @Mock
+    private ResponseCacheService responseCacheService;
+    @Mock
+    private EntityCache entityCache;
+    @Mock
+    private NameFilter nameFilter;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Spy
+    private WriteCoalescer writeCoalescer = new WriteCoalescer(new SimpleMeterRegistry(), false, Duration.ZERO);
+    @Mock
+    private VillageRegistry villageRegistry;
 
     // Inject mocks into the service
     @InjectMocks
@@ -56,8 +83,6 @@ class VillageServiceTest {
     private ArgumentCaptor<Village> villageCaptor;
     @Captor
     private ArgumentCaptor<Character> characterCaptor;
-    @Captor
-    private ArgumentCaptor<List<Character>> characterListCaptor;
 
 
     // Test Data
@@ -88,9 +113,9 @@ class VillageServiceTest {
         testVillage2 = new Village(testVillageId2, "Aquarium");
 
         // Characters
-        testCharacter1 = new Character(testCharId1, "Asterix", 35, "Warrior", testVillage1);
-        testCharacter2 = new Character(testCharId2, "Obelix", 36, "Menhir Carver", testVillage1);
-        testCharacter3 = new Character(testCharId3, "Geriatrix", 80, "Elder", testVillage2); // In village 2
+        testCharacter1 = new Character(testCharId1, "Asterix", 35, "Warrior", VillageReference.of(testVillage1));
+        testCharacter2 = new Character(testCharId2, "Obelix", 36, "Menhir Carver", VillageReference.of(testVillage1));
+        testCharacter3 = new Character(testCharId3, "Geriatrix", 80, "Elder", VillageReference.of(testVillage2)); // In village 2
 
         // Input DTO for adding/updating
         testVillageInputDTO = new VillageInputDTO("New Gaulish Village", List.of(testCharId1)); // Add with Asterix
@@ -144,6 +169,7 @@ class VillageServiceTest {
         void getVillageByName_shouldReturnVillage_whenFound() {
             // Given
             String name = testVillage1.name();
+            when(nameFilter.mightContainVillage(name)).thenReturn(true);
             when(villageRepository.findOneByName(name)).thenReturn(Optional.of(testVillage1));
 
             // When
@@ -159,6 +185,7 @@ class VillageServiceTest {
         void getVillageByName_shouldReturnEmpty_whenNotFound() {
             // Given
             String name = "NonExistent";
+            when(nameFilter.mightContainVillage(name)).thenReturn(true);
             when(villageRepository.findOneByName(name)).thenReturn(Optional.empty());
 
             // When
@@ -167,6 +194,53 @@ class VillageServiceTest {
             // Then
             assertThat(actualVillageOpt).isEmpty();
             verify(villageRepository, times(1)).findOneByName(name);
+            verify(nameFilter).recordVillageMiss();
+        }
+
+        @Test
+        @DisplayName("should return empty Optional without a query when the name filter rules the name out")
+        void getVillageByName_shouldNotQueryRepository_whenNameFilterRulesNameOut() {
+            // Given
+            String name = "NonExistent";
+            when(nameFilter.mightContainVillage(name)).thenReturn(false);
+
+            // When
+            Optional<Village> actualVillageOpt = villageService.getVillageByName(name);
+
+            // Then
+            assertThat(actualVillageOpt).isEmpty();
+            verifyNoInteractions(villageRepository);
+        }
+    }
+
+    @Nested
+    @DisplayName("getVillagesByIds Tests")
+    class GetVillagesByIdsTests {
+        @Test
+        @DisplayName("should return results in request order with missing markers")
+        void getVillagesByIds_shouldReturnResultsInRequestOrder() {
+            // Given
+            List<String> ids = List.of("missing", testVillageId1);
+            when(entityCache.getVillages(ids)).thenReturn(Map.of(testVillageId1, testVillage1));
+
+            // When
+            List<BatchGetResultDTO<Village>> results = villageService.getVillagesByIds(ids);
+
+            // Then
+            assertThat(results).containsExactly(
+                    new BatchGetResultDTO<>("missing", false, null),
+                    new BatchGetResultDTO<>(testVillageId1, true, testVillage1));
+        }
+
+        @Test
+        @DisplayName("should reject too many IDs")
+        void getVillagesByIds_shouldRejectTooManyIds() {
+            // Given
+            List<String> tooMany = Collections.nCopies(VillageService.MAX_BATCH_SIZE + 1, testVillageId1);
+
+            // When / Then
+            assertThrows(BadRequestException.class, () -> villageService.getVillagesByIds(tooMany));
+            verifyNoInteractions(entityCache);
         }
     }
 
@@ -177,14 +251,14 @@ class VillageServiceTest {
         @DisplayName("should return village when found by ID")
         void getVillageById_shouldReturnVillage_whenFound() {
             // Given
-            when(villageRepository.findById(testVillageId1)).thenReturn(Optional.of(testVillage1));
+            when(entityCache.getVillage(testVillageId1)).thenReturn(Optional.of(testVillage1));
 
             // When
             Optional<Village> actualVillageOpt = villageService.getVillageById(testVillageId1);
 
             // Then
             assertThat(actualVillageOpt).isPresent().contains(testVillage1);
-            verify(villageRepository, times(1)).findById(testVillageId1);
+            verify(entityCache, times(1)).getVillage(testVillageId1);
         }
 
         @Test
@@ -192,14 +266,14 @@ class VillageServiceTest {
         void getVillageById_shouldReturnEmpty_whenNotFound() {
             // Given
             String nonExistentId = "non-existent-id";
-            when(villageRepository.findById(nonExistentId)).thenReturn(Optional.empty());
+            when(entityCache.getVillage(nonExistentId)).thenReturn(Optional.empty());
 
             // When
             Optional<Village> actualVillageOpt = villageService.getVillageById(nonExistentId);
 
             // Then
             assertThat(actualVillageOpt).isEmpty();
-            verify(villageRepository, times(1)).findById(nonExistentId);
+            verify(entityCache, times(1)).getVillage(nonExistentId);
         }
     }
 
@@ -216,14 +290,14 @@ class VillageServiceTest {
             Village savedVillage = villageFromConverter.withId(generatedId); // Village after ID generation and save
 
             Character charToUpdate = new Character(testCharId1, "Asterix", 35, "Warrior", null); // Character before update
-            Character updatedChar = charToUpdate.withVillage(savedVillage); // Character after update
+            Character updatedChar = charToUpdate.withVillage(VillageReference.of(savedVillage)); // Character after update
 
             when(villageConverter.convert(testVillageInputDTO)).thenReturn(villageFromConverter);
             when(idService.generateId()).thenReturn(generatedId);
             when(villageRepository.save(any(Village.class))).thenReturn(savedVillage);
             when(characterRepository.findByIdIn(testVillageInputDTO.characterIds())).thenReturn(List.of(charToUpdate));
-            // saveAll returns the saved entities, which should have the village set
-            when(characterRepository.saveAll(anyList())).thenReturn(List.of(updatedChar));
+            // save returns the saved entity, which should have the village set
+            when(characterRepository.save(any(Character.class))).thenReturn(updatedChar);
 
             // When
             VillageOutputDTO actualDto = villageService.addVillage(testVillageInputDTO);
@@ -241,14 +315,62 @@ class VillageServiceTest {
             verify(villageRepository, times(1)).save(villageCaptor.capture());
             assertThat(villageCaptor.getValue().id()).isEqualTo(generatedId); // Check ID was set before save
             assertThat(villageCaptor.getValue().name()).isEqualTo(testVillageInputDTO.name());
+            verify(villageRegistry, times(1)).register(savedVillage);
 
             // Verify character fetching and saving
             verify(characterRepository, times(1)).findByIdIn(testVillageInputDTO.characterIds());
-            verify(characterRepository, times(1)).saveAll(characterListCaptor.capture());
-            assertThat(characterListCaptor.getValue()).hasSize(1);
-            assertThat(characterListCaptor.getValue().getFirst().id()).isEqualTo(testCharId1);
-            // Crucially, check the village was assigned *before* saveAll
-            assertThat(characterListCaptor.getValue().getFirst().village()).isEqualTo(savedVillage);
+            verify(characterRepository, times(1)).save(characterCaptor.capture());
+            assertThat(characterCaptor.getValue().id()).isEqualTo(testCharId1);
+            // Crucially, check the village was assigned *before* save
+            assertThat(characterCaptor.getValue().village()).isEqualTo(VillageReference.of(savedVillage));
+            // The inhabitant had no village before, only the new village is incremented
+            verify(villageRepository, times(1)).incrementInhabitantCount(generatedId, 1);
+
+            // Verify one batch announces the village before its inhabitants move in
+            ArgumentCaptor<ChangeBatch> batchCaptor = ArgumentCaptor.forClass(ChangeBatch.class);
+            verify(eventPublisher).publishEvent(batchCaptor.capture());
+            assertThat(batchCaptor.getValue().events()).containsExactly(
+                    ChangeEvent.villageAdded(savedVillage),
+                    ChangeEvent.characterMoved(updatedChar, null),
+                    ChangeEvent.villageInhabitantsChanged(generatedId, 1));
+        }
+
+        @Test
+        @DisplayName("should publish the moves of a failed attempt once and not move its characters again")
+        void addVillage_fromDto_shouldPublishMovesOnce_whenAttemptIsRetried() {
+            // Given
+            String generatedId = UUID.randomUUID().toString();
+            Village savedVillage = new Village(generatedId, testVillageInputDTO.name());
+            VillageReference reference = VillageReference.of(savedVillage);
+            Character movedByFirstAttempt = testCharacter1.withVillage(reference);
+            when(villageConverter.convert(testVillageInputDTO)).thenReturn(new Village(null, testVillageInputDTO.name()));
+            when(idService.generateId()).thenReturn(generatedId);
+            when(villageRepository.save(any(Village.class))).thenReturn(savedVillage);
+            when(characterRepository.findByIdIn(testVillageInputDTO.characterIds()))
+                    .thenReturn(List.of(testCharacter1, testCharacter2))
+                    .thenReturn(List.of(movedByFirstAttempt, testCharacter2.withVersion(1L)));
+            when(characterRepository.save(any(Character.class)))
+                    .thenAnswer(invocation -> invocation.getArgument(0))
+                    .thenThrow(new OptimisticLockingFailureException("stale"))
+                    .thenAnswer(invocation -> invocation.getArgument(0));
+
+            // When
+            VillageOutputDTO actualDto = villageService.addVillage(testVillageInputDTO);
+
+            // Then
+            assertThat(actualDto.characters()).extracting(MinimalCharacterOutputDTO::id).containsExactly(testCharId1, testCharId2);
+            verify(characterRepository, times(3)).save(any(Character.class));
+            // Both came from village 1, which is decremented once for both
+            verify(villageRepository, times(1)).incrementInhabitantCount(testVillageId1, -2);
+            verify(villageRepository, times(1)).incrementInhabitantCount(generatedId, 2);
+            ArgumentCaptor<ChangeBatch> batchCaptor = ArgumentCaptor.forClass(ChangeBatch.class);
+            verify(eventPublisher, times(1)).publishEvent(batchCaptor.capture());
+            assertThat(batchCaptor.getValue().events()).containsExactlyInAnyOrder(
+                    ChangeEvent.villageAdded(savedVillage),
+                    ChangeEvent.characterMoved(movedByFirstAttempt, testVillageId1),
+                    ChangeEvent.characterMoved(testCharacter2.withVersion(1L).withVillage(reference), testVillageId1),
+                    ChangeEvent.villageInhabitantsChanged(testVillageId1, -2),
+                    ChangeEvent.villageInhabitantsChanged(generatedId, 2));
         }
     }
 
@@ -278,6 +400,8 @@ class VillageServiceTest {
             verify(villageRepository, times(1)).save(villageCaptor.capture());
             assertThat(villageCaptor.getValue().id()).isEqualTo(generatedId);
             assertThat(villageCaptor.getValue().name()).isEqualTo(villageToAdd.name());
+            verify(villageRegistry, times(1)).register(expectedSavedVillage);
+            verify(eventPublisher).publishEvent(new ChangeBatch(List.of(ChangeEvent.villageAdded(expectedSavedVillage))));
         }
 
         @Test
@@ -301,15 +425,12 @@ class VillageServiceTest {
     @DisplayName("removeVillage Tests")
     class RemoveVillageTests {
         @Test
-        @DisplayName("should remove village and nullify character references")
+        @DisplayName("should remove village and unlink all inhabitants with one update")
         void removeVillage_shouldRemoveAndNullifyCharacters() {
             // Given
             List<Character> inhabitants = List.of(testCharacter1, testCharacter2);
             when(villageRepository.findById(testVillageId1)).thenReturn(Optional.of(testVillage1));
             when(characterRepository.findByVillageId(testVillageId1)).thenReturn(inhabitants);
-            // Mock the save operation for each character being updated
-            when(characterRepository.save(any(Character.class)))
-                    .thenAnswer(invocation -> invocation.getArgument(0)); // Return the character passed to save
             doNothing().when(villageRepository).delete(testVillage1);
 
             // When
@@ -318,20 +439,23 @@ class VillageServiceTest {
             // Then
             assertThat(removedVillage).isEqualTo(testVillage1);
 
-            // Verify finding village and inhabitants
-            verify(villageRepository, times(1)).findById(testVillageId1);
-            verify(characterRepository, times(1)).findByVillageId(testVillageId1);
-
-            // Verify each inhabitant's village was set to null and saved
-            verify(characterRepository, times(inhabitants.size())).save(characterCaptor.capture());
-            List<Character> savedCharacters = characterCaptor.getAllValues();
-            assertThat(savedCharacters).hasSize(inhabitants.size());
-            assertThat(savedCharacters).extracting(Character::village).containsOnlyNulls();
-            assertThat(savedCharacters).extracting(Character::id).containsExactlyInAnyOrder(testCharId1, testCharId2);
-
-
-            // Verify village deletion
-            verify(villageRepository, times(1)).delete(testVillage1);
+            // Verify the village is deleted before its inhabitants are moved out with one update
+            InOrder writes = inOrder(villageRepository, characterRepository);
+            writes.verify(villageRepository).delete(testVillage1);
+            writes.verify(characterRepository).unlinkVillages(List.of(testVillageId1));
+            verify(characterRepository, never()).save(any(Character.class));
+            verify(entityCache).evictCharacters(List.of(testCharId1, testCharId2));
+            verify(villageRegistry, times(1)).unregister(testVillageId1);
+            verify(responseCacheService, times(1)).invalidate();
+
+            // Verify one batch announces the inhabitants as moved out before the village is removed
+            ArgumentCaptor<ChangeBatch> batchCaptor = ArgumentCaptor.forClass(ChangeBatch.class);
+            verify(eventPublisher).publishEvent(batchCaptor.capture());
+            assertThat(batchCaptor.getValue().events()).containsExactly(
+                    ChangeEvent.characterMoved(testCharacter1.withVillage(null), testVillageId1),
+                    ChangeEvent.characterMoved(testCharacter2.withVillage(null), testVillageId1),
+                    ChangeEvent.villageRemoved(testVillageId1));
+            verify(eventPublisher, never()).publishEvent(any(ChangeEvent.class));
         }
 
         @Test
@@ -348,8 +472,87 @@ class VillageServiceTest {
             assertThat(exception.getMessage()).contains(nonExistentId);
             verify(villageRepository, times(1)).findById(nonExistentId);
             verify(characterRepository, never()).findByVillageId(anyString());
-            verify(characterRepository, never()).save(any(Character.class));
+            verify(characterRepository, never()).unlinkVillages(any());
             verify(villageRepository, never()).delete(any(Village.class));
+            verify(villageRegistry, never()).unregister(anyString());
+        }
+
+        @Test
+        @DisplayName("should retry when the village was modified concurrently")
+        void removeVillage_shouldRetry_whenOptimisticLockingFails() {
+            // Given
+            Village concurrentlyRenamedVillage = testVillage1.withName("Renamed").withVersion(2L);
+            when(villageRepository.findById(testVillageId1))
+                    .thenReturn(Optional.of(testVillage1))
+                    .thenReturn(Optional.of(concurrentlyRenamedVillage));
+            when(characterRepository.findByVillageId(testVillageId1)).thenReturn(List.of());
+            doThrow(new OptimisticLockingFailureException("stale")).when(villageRepository).delete(testVillage1);
+
+            // When
+            Village removedVillage = villageService.removeVillage(testVillageId1);
+
+            // Then
+            assertThat(removedVillage).isEqualTo(concurrentlyRenamedVillage);
+            verify(villageRepository, times(2)).findById(testVillageId1);
+            verify(villageRepository, times(1)).delete(concurrentlyRenamedVillage);
+            verify(villageRegistry, times(1)).unregister(testVillageId1);
+            verify(characterRepository, times(1)).unlinkVillages(List.of(testVillageId1));
+        }
+    }
+
+    @Nested
+    @DisplayName("removeVillages Tests")
+    class RemoveVillagesTests {
+        @Test
+        @DisplayName("should unlink all inhabitants with one update and delete existing villages at once")
+        void shouldUnlinkInhabitantsAndDeleteVillagesAtOnce() {
+            // Given
+            List<String> ids = List.of(testVillageId1, "missing", testVillageId2);
+            Set<String> existingIds = Set.of(testVillageId1, testVillageId2);
+            when(villageRepository.findAllById(Set.copyOf(ids))).thenReturn(List.of(testVillage1, testVillage2));
+            when(characterRepository.findByVillageIdIn(existingIds)).thenReturn(List.of(testCharacter1, testCharacter3));
+
+            // When
+            BatchDeleteResultDTO result = villageService.removeVillages(ids);
+
+            // Then
+            assertThat(result).isEqualTo(new BatchDeleteResultDTO(List.of(testVillageId1, testVillageId2), List.of("missing")));
+            InOrder writes = inOrder(characterRepository, villageRepository);
+            writes.verify(characterRepository).unlinkVillages(existingIds);
+            writes.verify(villageRepository).deleteAllById(existingIds);
+            verify(characterRepository, never()).save(any(Character.class));
+            verify(villageRegistry).unregister(testVillageId1);
+            verify(villageRegistry).unregister(testVillageId2);
+            verify(entityCache).evictCharacters(List.of(testCharId1, testCharId3));
+            verify(responseCacheService).invalidate();
+
+            // Verify one batch announces the inhabitants as moved out before the villages are removed
+            ArgumentCaptor<ChangeBatch> batchCaptor = ArgumentCaptor.forClass(ChangeBatch.class);
+            verify(eventPublisher).publishEvent(batchCaptor.capture());
+            List<ChangeEvent> events = batchCaptor.getValue().events();
+            assertThat(events).hasSize(4);
+            assertThat(events.subList(0, 2)).containsExactly(
+                    ChangeEvent.characterMoved(testCharacter1.withVillage(null), testVillageId1),
+                    ChangeEvent.characterMoved(testCharacter3.withVillage(null), testVillageId2));
+            assertThat(events.subList(2, 4)).containsExactlyInAnyOrder(
+                    ChangeEvent.villageRemoved(testVillageId1),
+                    ChangeEvent.villageRemoved(testVillageId2));
+            verify(eventPublisher, never()).publishEvent(any(ChangeEvent.class));
+        }
+
+        @Test
+        @DisplayName("should not write when no village exists")
+        void shouldNotWriteWhenNoVillageExists() {
+            // Given
+            when(villageRepository.findAllById(Set.of("missing"))).thenReturn(List.of());
+
+            // When
+            BatchDeleteResultDTO result = villageService.removeVillages(List.of("missing"));
+
+            // Then
+            assertThat(result).isEqualTo(new BatchDeleteResultDTO(List.of(), List.of("missing")));
+            verify(villageRepository, never()).deleteAllById(any());
+            verifyNoInteractions(characterRepository, responseCacheService, eventPublisher);
         }
     }
 
@@ -365,16 +568,16 @@ class VillageServiceTest {
             // Input DTO: Rename village1, keep Asterix (char1), add Geriatrix (char3)
             VillageInputDTO updateDto = new VillageInputDTO(updatedName, List.of(testCharId1, testCharId3));
 
-            List<Character> initialInhabitants = List.of(testCharacter1.withVillage(testVillage1), testCharacter2.withVillage(testVillage1)); // Asterix, Obelix
-            List<Character> targetInhabitantsFromDto = List.of(testCharacter1.withVillage(testVillage1), testCharacter3.withVillage(testVillage1)); // Asterix, Geriatrix
+            List<Character> initialInhabitants = List.of(testCharacter1.withVillage(VillageReference.of(testVillage1)), testCharacter2.withVillage(VillageReference.of(testVillage1))); // Asterix, Obelix
+            List<Character> targetInhabitantsFromDto = List.of(testCharacter1.withVillage(VillageReference.of(testVillage1)), testCharacter3); // Asterix, Geriatrix (still in village 2)
+            List<Character> finalInhabitants = List.of(testCharacter1.withVillage(VillageReference.of(testVillage1)), testCharacter3.withVillage(VillageReference.of(testVillage1))); // After the move
 
             // Mock finding the village
             when(villageRepository.findById(testVillageId1)).thenReturn(Optional.of(testVillage1));
             // Mock finding *initial* inhabitants, then target
-            //noinspection unchecked
-            when(characterRepository.findByVillageId(testVillageId1)).thenReturn(
-                    initialInhabitants,
-                    targetInhabitantsFromDto);
+            when(characterRepository.findByVillageId(testVillageId1))
+                    .thenReturn(initialInhabitants)
+                    .thenReturn(finalInhabitants);
             // Mock finding characters specified in the DTO
             when(characterRepository.findByIdIn(updateDto.characterIds())).thenReturn(targetInhabitantsFromDto);
 
@@ -383,7 +586,7 @@ class VillageServiceTest {
 
             // Mock saving the updated village (only name should change based on getVillage helper)
             Village villageWithUpdatedName = testVillage1.withName(updatedName);
-            when(villageRepository.save(any(Village.class))).thenReturn(villageWithUpdatedName);
+            when(villageRepository.updateAttributes(any(Village.class), anyBoolean())).thenReturn(villageWithUpdatedName);
 
             // When
             VillageOutputDTO actualDto = villageService.updateVillage(testVillageId1, updateDto);
@@ -413,17 +616,33 @@ class VillageServiceTest {
                     .hasSize(1)
                     .extracting(Character::village)
                     .containsOnlyNulls();
-            // Check Geriatrix village is testVillage1 (the existing village instance *before* name change)
+            // Check Geriatrix village references testVillage1 with its new name
             assertThat(savedChars).filteredOn(c -> c.id().equals(testCharId3))
                     .hasSize(1)
                     .extracting(Character::village)
-                    .containsOnly(testVillage1); // Check against the original existingVillage instance
+                    .containsOnly(new VillageReference(testVillageId1, updatedName));
+            // The rename is fanned out to the names stored on the inhabitants
+            verify(characterRepository, times(1)).updateVillageName(testVillageId1, updatedName);
+            // Geriatrix moved out of village 2, village 1 gets its exact new count with the update
+            verify(villageRepository, times(1)).incrementInhabitantCount(testVillageId2, -1);
+            verify(villageRepository, never()).incrementInhabitantCount(eq(testVillageId1), anyInt());
 
 
             // Verify village update (only name should be updated by getVillage helper)
-            verify(villageRepository, times(1)).save(villageCaptor.capture());
+            verify(villageRepository, times(1)).updateAttributes(villageCaptor.capture(), eq(true));
             assertThat(villageCaptor.getValue().id()).isEqualTo(testVillageId1);
             assertThat(villageCaptor.getValue().name()).isEqualTo(updatedName); // Name updated
+            assertThat(villageCaptor.getValue().inhabitantCount()).isEqualTo(2);
+
+            // Verify one batch publishes both moves, the rename and the village Geriatrix left with its changed count
+            ArgumentCaptor<ChangeBatch> batchCaptor = ArgumentCaptor.forClass(ChangeBatch.class);
+            verify(eventPublisher).publishEvent(batchCaptor.capture());
+            assertThat(batchCaptor.getValue().events()).contains(
+                    ChangeEvent.characterMoved(testCharacter2.withVillage(null), testVillageId1),
+                    ChangeEvent.characterMoved(
+                            testCharacter3.withVillage(new VillageReference(testVillageId1, updatedName)), testVillageId2),
+                    ChangeEvent.villageRenamed(villageWithUpdatedName),
+                    ChangeEvent.villageInhabitantsChanged(testVillageId2, -1));
         }
 
 
@@ -442,7 +661,7 @@ class VillageServiceTest {
 
             // Mock saving the updated village
             Village villageWithUpdatedName = testVillage1.withName(updatedName);
-            when(villageRepository.save(any(Village.class))).thenReturn(villageWithUpdatedName);
+            when(villageRepository.updateAttributes(any(Village.class), anyBoolean())).thenReturn(villageWithUpdatedName);
 
             // When
             VillageOutputDTO actualDto = villageService.updateVillage(testVillageId1, updateDto);
@@ -465,11 +684,30 @@ class VillageServiceTest {
             verify(characterRepository, never()).save(any(Character.class)); // No character saves
 
             // Verify village update
-            verify(villageRepository, times(1)).save(villageCaptor.capture());
+            verify(villageRepository, times(1)).updateAttributes(villageCaptor.capture(), eq(false));
             assertThat(villageCaptor.getValue().id()).isEqualTo(testVillageId1);
             assertThat(villageCaptor.getValue().name()).isEqualTo(updatedName); // Name updated
+            // Verify the new name is written to all inhabitants in one bulk update
+            verify(characterRepository, times(1)).updateVillageName(testVillageId1, updatedName);
+            verify(villageRegistry, times(1)).register(villageWithUpdatedName);
         }
 
+        @Test
+        @DisplayName("should not touch the inhabitants' village names when the name is unchanged")
+        void updateVillage_shouldNotFanOut_whenNameUnchanged() {
+            // Given
+            VillageInputDTO updateDto = new VillageInputDTO(testVillage1.name(), null);
+            when(villageRepository.findById(testVillageId1)).thenReturn(Optional.of(testVillage1));
+            when(villageRepository.updateAttributes(any(Village.class), anyBoolean())).thenAnswer(invocation -> invocation.getArgument(0));
+            when(characterRepository.findByVillageId(testVillageId1)).thenReturn(List.of(testCharacter1));
+
+            // When
+            villageService.updateVillage(testVillageId1, updateDto);
+
+            // Then
+            verify(characterRepository, never()).updateVillageName(anyString(), anyString());
+            verifyNoInteractions(eventPublisher);
+        }
 
         @Test
         @DisplayName("should throw NotFoundException when updating non-existent village")
@@ -487,7 +725,85 @@ class VillageServiceTest {
             verify(characterRepository, never()).findByVillageId(anyString());
             verify(characterRepository, never()).findByIdIn(anyList());
             verify(characterRepository, never()).save(any(Character.class));
-            verify(villageRepository, never()).save(any(Village.class));
+            verify(villageRepository, never()).updateAttributes(any(Village.class), anyBoolean());
+        }
+
+        @Test
+        @DisplayName("should re-apply the update to the latest version after a concurrent modification")
+        void updateVillage_shouldRetry_whenOptimisticLockingFails() {
+            // Given
+            String updatedName = "Renamed Village";
+            VillageInputDTO updateDto = new VillageInputDTO(updatedName, null);
+            Village concurrentlyUpdatedVillage = testVillage1.withVersion(1L);
+            when(villageRepository.findById(testVillageId1))
+                    .thenReturn(Optional.of(testVillage1))
+                    .thenReturn(Optional.of(concurrentlyUpdatedVillage));
+            when(villageRepository.updateAttributes(any(Village.class), anyBoolean()))
+                    .thenThrow(new OptimisticLockingFailureException("stale"))
+                    .thenAnswer(invocation -> invocation.getArgument(0));
+            when(characterRepository.findByVillageId(testVillageId1)).thenReturn(List.of());
+
+            // When
+            VillageOutputDTO actualDto = villageService.updateVillage(testVillageId1, updateDto);
+
+            // Then
+            assertThat(actualDto.name()).isEqualTo(updatedName);
+            verify(villageRepository, times(2)).updateAttributes(villageCaptor.capture(), anyBoolean());
+            // The second attempt must be based on the concurrently updated version
+            assertThat(villageCaptor.getAllValues().get(1)).isEqualTo(concurrentlyUpdatedVillage.withName(updatedName));
+            verify(responseCacheService, times(1)).invalidate();
+        }
+
+        @Test
+        @DisplayName("should publish the moves of a failed attempt once after the update")
+        void updateVillage_shouldPublishMovesOnce_whenAttemptIsRetried() {
+            // Given
+            VillageInputDTO updateDto = new VillageInputDTO(null, List.of(testCharId1, testCharId3));
+            Character movedIn = testCharacter3.withVillage(VillageReference.of(testVillage1));
+            when(villageRepository.findById(testVillageId1))
+                    .thenReturn(Optional.of(testVillage1))
+                    .thenReturn(Optional.of(testVillage1.withVersion(1L)));
+            when(characterRepository.findByVillageId(testVillageId1))
+                    .thenReturn(List.of(testCharacter1))
+                    .thenReturn(List.of(testCharacter1, movedIn));
+            when(characterRepository.findByIdIn(updateDto.characterIds()))
+                    .thenReturn(List.of(testCharacter1, testCharacter3))
+                    .thenReturn(List.of(testCharacter1, movedIn));
+            when(characterRepository.save(any(Character.class))).thenAnswer(invocation -> invocation.getArgument(0));
+            when(villageRepository.updateAttributes(any(Village.class), anyBoolean()))
+                    .thenThrow(new OptimisticLockingFailureException("stale"))
+                    .thenAnswer(invocation -> invocation.getArgument(0));
+
+            // When
+            villageService.updateVillage(testVillageId1, updateDto);
+
+            // Then
+            verify(characterRepository, times(1)).save(any(Character.class));
+            verify(villageRepository, times(1)).incrementInhabitantCount(testVillageId2, -1);
+            InOrder writesAndEvents = inOrder(villageRepository, eventPublisher);
+            writesAndEvents.verify(villageRepository, times(2)).updateAttributes(any(Village.class), anyBoolean());
+            ArgumentCaptor<ChangeBatch> batchCaptor = ArgumentCaptor.forClass(ChangeBatch.class);
+            writesAndEvents.verify(eventPublisher, times(1)).publishEvent(batchCaptor.capture());
+            assertThat(batchCaptor.getValue().events())
+                    .containsOnlyOnce(ChangeEvent.characterMoved(movedIn, testVillageId2))
+                    .contains(ChangeEvent.villageInhabitantsChanged(testVillageId2, -1));
+        }
+
+        @Test
+        @DisplayName("should throw ConflictException when concurrent modifications persist")
+        void updateVillage_shouldThrowConflict_whenRetriesAreExhausted() {
+            // Given
+            VillageInputDTO updateDto = new VillageInputDTO("Renamed Village", null);
+            when(villageRepository.findById(testVillageId1)).thenReturn(Optional.of(testVillage1));
+            when(villageRepository.updateAttributes(any(Village.class), anyBoolean())).thenThrow(new OptimisticLockingFailureException("stale"));
+
+            // When / Then
+            ConflictException exception = assertThrows(ConflictException.class, () -> villageService.updateVillage(testVillageId1, updateDto));
+
+            // Then
+            assertThat(exception.getMessage()).contains(testVillageId1);
+            verify(villageRepository, times(OptimisticLockRetry.DEFAULT_MAX_ATTEMPTS)).updateAttributes(any(Village.class), anyBoolean());
+            verify(responseCacheService, times(1)).invalidate();
         }
     }
 }
\ No newline at end of file
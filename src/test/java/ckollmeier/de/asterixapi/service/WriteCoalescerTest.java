@@ -0,0 +1,129 @@
+package ckollmeier.de.asterixapi.service;
+
+import ckollmeier.de.asterixapi.exception.NotFoundException;
+import ckollmeier.de.asterixapi.model.CharacterPatch;
+import ckollmeier.de.asterixapi.model.VillageReference;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Unit tests for {@link WriteCoalescer} using the Given-When-Then pattern.
+ */
+class WriteCoalescerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<CharacterPatch> writes = new CopyOnWriteArrayList<>();
+
+    private CharacterPatch write(final CharacterPatch patch) {
+        writes.add(patch);
+        return patch;
+    }
+
+    private double count(final String outcome) {
+        Counter counter = meterRegistry.find(WriteCoalescer.UPDATES_METRIC).tag("outcome", outcome).counter();
+        return counter != null ? counter.count() : 0;
+    }
+
+    @Test
+    @DisplayName("should write every update immediately when disabled")
+    void shouldWriteImmediatelyWhenDisabled() {
+        // Given
+        WriteCoalescer coalescer = new WriteCoalescer(meterRegistry, false, Duration.ofMinutes(1));
+        CharacterPatch patch = new CharacterPatch("Asterix", null, null, false, null);
+
+        // When
+        CharacterPatch result = coalescer.execute("character", "c1", patch, CharacterPatch::mergedWith, this::write);
+
+        // Then
+        assertThat(result).isEqualTo(patch);
+        assertThat(writes).containsExactly(patch);
+    }
+
+    @Test
+    @DisplayName("should merge updates arriving within the window into one write whose result every caller receives")
+    void shouldMergeUpdatesWithinWindow() throws Exception {
+        // Given
+        WriteCoalescer coalescer = new WriteCoalescer(meterRegistry, true, Duration.ofMillis(500));
+        VillageReference village = new VillageReference("v1", "Indomitable Village");
+        CharacterPatch rename = new CharacterPatch("Asterix", 30, null, false, null);
+        CharacterPatch age = new CharacterPatch(null, 35, "Warrior", true, village);
+
+        // When
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<CharacterPatch> first = executor.submit(
+                    () -> coalescer.execute("character", "c1", rename, CharacterPatch::mergedWith, this::write));
+            while (count("executed") == 0) {
+                Thread.onSpinWait();
+            }
+            CharacterPatch second = coalescer.execute("character", "c1", age, CharacterPatch::mergedWith, this::write);
+
+            // Then
+            CharacterPatch merged = new CharacterPatch("Asterix", 35, "Warrior", true, village);
+            assertThat(first.get()).isEqualTo(merged);
+            assertThat(second).isEqualTo(merged);
+        }
+        assertThat(writes).hasSize(1);
+        assertThat(count("coalesced")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("should write updates of different entities separately")
+    void shouldNotMergeDifferentEntities() throws Exception {
+        // Given
+        WriteCoalescer coalescer = new WriteCoalescer(meterRegistry, true, Duration.ofMillis(10));
+        CharacterPatch first = new CharacterPatch("Asterix", null, null, false, null);
+        CharacterPatch second = new CharacterPatch("Obelix", null, null, false, null);
+
+        // When
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<CharacterPatch> c1 = executor.submit(
+                    () -> coalescer.execute("character", "c1", first, CharacterPatch::mergedWith, this::write));
+            Future<CharacterPatch> c2 = executor.submit(
+                    () -> coalescer.execute("character", "c2", second, CharacterPatch::mergedWith, this::write));
+
+            // Then
+            assertThat(c1.get()).isEqualTo(first);
+            assertThat(c2.get()).isEqualTo(second);
+        }
+        assertThat(writes).containsExactlyInAnyOrder(first, second);
+    }
+
+    @Test
+    @DisplayName("should fail coalesced callers with the exception of the write")
+    void shouldPropagateExceptionToCoalescedCallers() throws Exception {
+        // Given
+        WriteCoalescer coalescer = new WriteCoalescer(meterRegistry, true, Duration.ofMillis(500));
+        CharacterPatch patch = new CharacterPatch("Asterix", null, null, false, null);
+
+        // When
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<CharacterPatch> first = executor.submit(() -> coalescer.execute("character", "c9", patch,
+                    CharacterPatch::mergedWith, p -> {
+                        throw new NotFoundException("Character with id 'c9' not found");
+                    }));
+            while (count("executed") == 0) {
+                Thread.onSpinWait();
+            }
+
+            // Then
+            assertThrows(NotFoundException.class, () -> coalescer.execute("character", "c9", patch,
+                    CharacterPatch::mergedWith, this::write));
+            ExecutionException exception = assertThrows(ExecutionException.class, first::get);
+            assertThat(exception.getCause()).isInstanceOf(NotFoundException.class);
+        }
+        assertThat(writes).isEmpty();
+    }
+}
@@ -0,0 +1,161 @@
+package ckollmeier.de.asterixapi.slowquery;
+
+import com.mongodb.ServerAddress;
+import com.mongodb.connection.ClusterId;
+import com.mongodb.connection.ConnectionDescription;
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Unit tests for {@link SlowQueryListener} using the Given-When-Then pattern.
+ */
+@ExtendWith(MockitoExtension.class)
+class SlowQueryListenerTest {
+
+    private static final ConnectionDescription CONNECTION = new ConnectionDescription(new ServerId(new ClusterId(), new ServerAddress()));
+
+    @Mock
+    private SlowQueryLog slowQueryLog;
+
+    private SlowQueryListener slowQueryListener;
+
+    @BeforeEach
+    void setUp() {
+        slowQueryListener = new SlowQueryListener(new SlowQueryProperties(true, Duration.ofMillis(100), true, Duration.ofMinutes(10), 10, 20),
+                slowQueryLog);
+    }
+
+    private void execute(final int requestId, final String commandName, final String command, final String response, final long millis) {
+        slowQueryListener.commandStarted(new CommandStartedEvent(null, 1, requestId, CONNECTION, "asterix", commandName,
+                BsonDocument.parse(command)));
+        slowQueryListener.commandSucceeded(new CommandSucceededEvent(null, 1, requestId, CONNECTION, "asterix", commandName,
+                BsonDocument.parse(response), Duration.ofMillis(millis).toNanos()));
+    }
+
+    @Test
+    @DisplayName("should report slow commands with filter, document count and the command to explain")
+    void commandSucceeded_shouldReportSlowCommands() {
+        // Given
+        final String find = "{find: 'characters', filter: {profession: 'Warrior'}, $db: 'asterix', lsid: {id: 1}}";
+        final String response = "{cursor: {firstBatch: [{_id: 'c1'}, {_id: 'c2'}], id: 0}, ok: 1}";
+
+        // When
+        execute(1, "find", find, response, 250);
+        execute(2, "find", find, response, 250);
+
+        // Then
+        ArgumentCaptor<SlowQuery> slowQueryCaptor = ArgumentCaptor.forClass(SlowQuery.class);
+        ArgumentCaptor<BsonDocument> commandCaptor = ArgumentCaptor.forClass(BsonDocument.class);
+        verify(slowQueryLog, times(2)).report(slowQueryCaptor.capture(), eq("asterix"), commandCaptor.capture());
+        // The first slow find on the collection is explained from the filter copied when it started
+        assertThat(slowQueryCaptor.getAllValues().getFirst().filter()).isEqualTo("{\"profession\": \"Warrior\"}");
+        assertThat(commandCaptor.getAllValues().getFirst())
+                .isEqualTo(BsonDocument.parse("{find: 'characters', filter: {profession: 'Warrior'}}"));
+        SlowQuery slowQuery = slowQueryCaptor.getValue();
+        assertThat(slowQuery.command()).isEqualTo("find");
+        assertThat(slowQuery.collection()).isEqualTo("characters");
+        assertThat(slowQuery.filter()).isEqualTo("{\"profession\": \"Warrior\"}");
+        assertThat(slowQuery.documents()).isEqualTo(2);
+        assertThat(slowQuery.durationMillis()).isEqualTo(250.0);
+        // Neither issued by a repository nor from outside the slow query package
+        assertThat(slowQuery.repositoryMethod()).isEqualTo("unknown");
+        assertThat(commandCaptor.getValue())
+                .isEqualTo(BsonDocument.parse("{find: 'characters', filter: {profession: 'Warrior'}}"));
+    }
+
+    @Test
+    @DisplayName("should not report commands faster than the threshold")
+    void commandSucceeded_shouldIgnoreFastCommands() {
+        // When
+        execute(2, "find", "{find: 'characters', filter: {}}", "{cursor: {firstBatch: [], id: 0}, ok: 1}", 99);
+
+        // Then
+        verify(slowQueryLog, never()).report(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("should report the first statement of writes and not pass unexplainable commands")
+    void commandSucceeded_shouldHandleWritesAndInserts() {
+        // Given
+        final String updateCommand = "{update: 'characters', updates: [{q: {'village._id': 'v1'}, u: {$set: {'village.name': 'Rome'}}, multi: true}]}";
+        final String insertCommand = "{insert: 'characters', documents: [{_id: 'c1'}]}";
+
+        // When
+        execute(3, "update", updateCommand, "{n: 5, nModified: 5, ok: 1}", 150);
+        execute(4, "update", updateCommand, "{n: 5, nModified: 5, ok: 1}", 150);
+        execute(5, "insert", insertCommand, "{n: 1, ok: 1}", 150);
+        execute(6, "insert", insertCommand, "{n: 1, ok: 1}", 150);
+
+        // Then
+        ArgumentCaptor<SlowQuery> slowQueryCaptor = ArgumentCaptor.forClass(SlowQuery.class);
+        ArgumentCaptor<BsonDocument> commandCaptor = ArgumentCaptor.forClass(BsonDocument.class);
+        verify(slowQueryLog, times(4)).report(slowQueryCaptor.capture(), eq("asterix"), commandCaptor.capture());
+        assertThat(commandCaptor.getAllValues().getFirst())
+                .isEqualTo(BsonDocument.parse("{find: 'characters', filter: {'village._id': 'v1'}}"));
+        assertThat(commandCaptor.getAllValues().get(1)).isEqualTo(BsonDocument.parse(updateCommand));
+        assertThat(slowQueryCaptor.getAllValues().getFirst().filter()).isEqualTo("{\"village._id\": \"v1\"}");
+        assertThat(commandCaptor.getAllValues().getLast()).isNull();
+        SlowQuery update = slowQueryCaptor.getAllValues().get(1);
+        assertThat(update.filter()).isEqualTo("{\"village._id\": \"v1\"}");
+        assertThat(update.documents()).isEqualTo(5);
+        SlowQuery insert = slowQueryCaptor.getAllValues().getLast();
+        assertThat(insert.filter()).isNull();
+        assertThat(insert.documents()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("should copy complete commands only of kinds that were slow within the capture window")
+    void commandStarted_shouldCopyOnlyRecentlySlowKinds() {
+        // Given
+        slowQueryListener = new SlowQueryListener(new SlowQueryProperties(true, Duration.ofMillis(100), true, Duration.ZERO, 10, 20),
+                slowQueryLog);
+        final String find = "{find: 'characters', filter: {age: 30}, sort: {name: 1}}";
+
+        // When
+        execute(7, "find", find, "{cursor: {firstBatch: [], id: 0}, ok: 1}", 250);
+        execute(8, "find", find, "{cursor: {firstBatch: [], id: 0}, ok: 1}", 250);
+
+        // Then
+        ArgumentCaptor<SlowQuery> slowQueryCaptor = ArgumentCaptor.forClass(SlowQuery.class);
+        ArgumentCaptor<BsonDocument> commandCaptor = ArgumentCaptor.forClass(BsonDocument.class);
+        verify(slowQueryLog, times(2)).report(slowQueryCaptor.capture(), eq("asterix"), commandCaptor.capture());
+        assertThat(slowQueryCaptor.getAllValues()).extracting(SlowQuery::filter).containsOnly("{\"age\": 30}");
+        assertThat(commandCaptor.getAllValues())
+                .containsOnly(BsonDocument.parse("{find: 'characters', filter: {age: 30}}"));
+    }
+
+    @Test
+    @DisplayName("should summarize aggregation pipelines and count the documents of responses")
+    void extractFilterAndCountDocuments_shouldHandleAllCommandShapes() {
+        // When / Then
+        assertThat(SlowQueryListener.extractFilter("aggregate",
+                BsonDocument.parse("{aggregate: 'characters', pipeline: [{$match: {age: {$gte: 30}}}]}")))
+                .isEqualTo("{\"pipeline\": [{\"$match\": {\"age\": {\"$gte\": 30}}}]}");
+        assertThat(SlowQueryListener.extractFilter("getMore", BsonDocument.parse("{getMore: 1}"))).isNull();
+        assertThat(SlowQueryListener.selectionCommand("aggregate", "characters",
+                BsonDocument.parse("{pipeline: [{$match: {age: 30}}]}").get("pipeline")))
+                .isEqualTo(BsonDocument.parse("{aggregate: 'characters', pipeline: [{$match: {age: 30}}], cursor: {}}"));
+        assertThat(SlowQueryListener.selectionCommand("insert", "characters", null)).isNull();
+        assertThat(SlowQueryListener.countDocuments(BsonDocument.parse("{values: ['a', 'b', 'c'], ok: 1}"))).isEqualTo(3);
+        assertThat(SlowQueryListener.countDocuments(BsonDocument.parse("{value: null, ok: 1}"))).isZero();
+        assertThat(SlowQueryListener.countDocuments(BsonDocument.parse("{value: {_id: 'c1'}, ok: 1}"))).isEqualTo(1);
+    }
+}
@@ -0,0 +1,137 @@
+package ckollmeier.de.asterixapi.slowquery;
+
+import com.mongodb.client.MongoDatabase;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link SlowQueryLog} using the Given-When-Then pattern.
+ */
+class SlowQueryLogTest {
+
+    private static final String EXPLAIN_RESULT = """
+            {queryPlanner: {winningPlan: {stage: 'FETCH', inputStage: {stage: 'IXSCAN', indexName: 'profession_1'}}}, ok: 1}
+            """;
+
+    private final AtomicReference<Instant> now = new AtomicReference<>(Instant.EPOCH);
+    private final Clock clock = new Clock() {
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(final java.time.ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now.get();
+        }
+    };
+
+    @SuppressWarnings("unchecked")
+    private SlowQueryLog slowQueryLog(final MongoDatabase database, final int maxLogsPerMinute, final int topSize) {
+        final MongoDatabaseFactory databaseFactory = mock(MongoDatabaseFactory.class);
+        when(databaseFactory.getMongoDatabase("asterix")).thenReturn(database);
+        final ObjectProvider<MongoDatabaseFactory> provider = mock(ObjectProvider.class);
+        when(provider.getIfAvailable()).thenReturn(databaseFactory);
+        return new SlowQueryLog(new SlowQueryProperties(true, Duration.ofMillis(100), true, Duration.ofMinutes(10), maxLogsPerMinute, topSize),
+                provider, Runnable::run, clock);
+    }
+
+    private static SlowQuery slowQuery(final double durationMillis) {
+        return new SlowQuery(Instant.EPOCH, "find", "characters", "{}", "CharacterRepository.findByProfession", 1, durationMillis, null);
+    }
+
+    @Test
+    @DisplayName("should capture the winning plan of logged queries")
+    void report_shouldCapturePlan() {
+        // Given
+        MongoDatabase database = mock(MongoDatabase.class);
+        when(database.runCommand(any(Bson.class))).thenReturn(Document.parse(EXPLAIN_RESULT));
+        SlowQueryLog slowQueryLog = slowQueryLog(database, 10, 20);
+
+        // When
+        slowQueryLog.report(slowQuery(150), "asterix", BsonDocument.parse("{find: 'characters', filter: {profession: 'Warrior'}}"));
+
+        // Then
+        assertThat(slowQueryLog.getSlowest()).extracting(SlowQuery::plan).containsExactly("FETCH > IXSCAN profession_1");
+        verify(database).runCommand(BsonDocument.parse(
+                "{explain: {find: 'characters', filter: {profession: 'Warrior'}}, verbosity: 'queryPlanner'}"));
+    }
+
+    @Test
+    @DisplayName("should only explain up to the limit per minute but keep all queries")
+    void report_shouldRateLimitExplains() {
+        // Given
+        MongoDatabase database = mock(MongoDatabase.class);
+        when(database.runCommand(any(Bson.class))).thenReturn(Document.parse(EXPLAIN_RESULT));
+        SlowQueryLog slowQueryLog = slowQueryLog(database, 2, 20);
+        BsonDocument command = BsonDocument.parse("{find: 'characters'}");
+
+        // When
+        for (int i = 0; i < 5; i++) {
+            slowQueryLog.report(slowQuery(100 + i), "asterix", command);
+        }
+        now.set(Instant.EPOCH.plus(Duration.ofMinutes(1)));
+        slowQueryLog.report(slowQuery(200), "asterix", command);
+
+        // Then
+        verify(database, times(3)).runCommand(any(Bson.class));
+        assertThat(slowQueryLog.getSlowest()).hasSize(6);
+        assertThat(slowQueryLog.getSlowest()).filteredOn(query -> query.plan() != null).hasSize(3);
+    }
+
+    @Test
+    @DisplayName("should keep only the slowest queries, the slowest first")
+    void getSlowest_shouldKeepTopQueries() {
+        // Given
+        SlowQueryLog slowQueryLog = slowQueryLog(mock(MongoDatabase.class), 10, 2);
+
+        // When
+        slowQueryLog.report(slowQuery(300), "asterix", null);
+        slowQueryLog.report(slowQuery(100), "asterix", null);
+        slowQueryLog.report(slowQuery(500), "asterix", null);
+
+        // Then
+        assertThat(slowQueryLog.getSlowest()).extracting(SlowQuery::durationMillis).containsExactly(500.0, 300.0);
+        slowQueryLog.clear();
+        assertThat(slowQueryLog.getSlowest()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("should find the winning plan of aggregations and summarize plans with several inputs")
+    void summarizePlan_shouldHandleNestedPlans() {
+        // Given
+        Document aggregation = Document.parse("""
+                {stages: [{$cursor: {queryPlanner: {winningPlan: {queryPlan: {stage: 'OR', inputStages: [
+                    {stage: 'IXSCAN', indexName: 'name_1'}, {stage: 'COLLSCAN'}]}}}}}]}
+                """);
+
+        // When
+        Document winningPlan = SlowQueryLog.findWinningPlan(aggregation);
+
+        // Then
+        assertThat(SlowQueryLog.summarizePlan(winningPlan)).isEqualTo("OR > (IXSCAN name_1 | COLLSCAN)");
+    }
+}